@@ -229,6 +229,8 @@ module "psoxy_lambda" {
     var.enable_async_processing ? {
       ASYNC_OUTPUT_DESTINATION    = "s3://${module.async_output[0].bucket_id}",
       ASYNC_API_REQUEST_QUEUE_URL = aws_sqs_queue.async_api_request_queue[0].url
+      # per `function_response_types` of event source mapping below
+      ASYNC_API_REQUEST_REPORT_BATCH_ITEM_FAILURES = "true"
     } : {},
     var.new_relic_account_id != null && var.new_relic_account_id != "" ? {
       NEW_RELIC_ACCOUNT_ID     = var.new_relic_account_id
@@ -250,6 +252,7 @@ resource "aws_lambda_event_source_mapping" "async_api_request_queue_trigger" {
   enabled                            = true
   batch_size                         = 10 # eg, merge up to X messages into a single batch before invoking lambda
   maximum_batching_window_in_seconds = 60 # max time to wait before combining whatever we have; could be up to 300s, but for testing let's start with 60s
+  function_response_types            = ["ReportBatchItemFailures"] # lambda reports failed messages of batch, so only those are re-delivered
 
   depends_on = [
     module.psoxy_lambda
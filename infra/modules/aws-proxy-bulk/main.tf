@@ -216,6 +216,7 @@ resource "aws_iam_policy" "sanitized_bucket_write_policy" {
         {
           "Action" : [
             "s3:PutObject",
+            "s3:AbortMultipartUpload", # discard partial output, if processing fails mid-upload
           ],
           "Effect" : "Allow",
           "Resource" : "${aws_s3_bucket.sanitized.arn}/*"
@@ -286,7 +286,8 @@ locals {
   s3_write_statements = length(var.s3_outputs) > 0 ? [{
     Sid = "AllowS3Write"
     Action = [
-      "s3:PutObject"
+      "s3:PutObject",
+      "s3:AbortMultipartUpload", # discard partial output, if processing fails mid-upload
     ]
     Effect = "Allow"
     Resource = [
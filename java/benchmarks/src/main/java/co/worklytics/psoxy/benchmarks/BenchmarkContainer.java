@@ -0,0 +1,44 @@
+package co.worklytics.psoxy.benchmarks;
+
+import co.worklytics.psoxy.PseudonymizerImplFactory;
+import co.worklytics.psoxy.PsoxyModule;
+import co.worklytics.psoxy.RESTApiSanitizerFactory;
+import co.worklytics.psoxy.storage.impl.ColumnarBulkDataSanitizerImplFactory;
+import co.worklytics.psoxy.storage.impl.RecordBulkDataSanitizerImplFactory;
+import com.avaulta.gateway.rules.JsonSchemaFilterUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dagger.Component;
+
+import javax.inject.Singleton;
+
+/**
+ * wires real (not mock) implementations from {@link PsoxyModule}, so benchmarks measure what runs
+ * in production
+ */
+@Singleton
+@Component(modules = {
+    BenchmarkModule.class,
+    PsoxyModule.class,
+})
+public interface BenchmarkContainer {
+
+    RESTApiSanitizerFactory restApiSanitizerFactory();
+
+    PseudonymizerImplFactory pseudonymizerImplFactory();
+
+    RecordBulkDataSanitizerImplFactory recordBulkDataSanitizerImplFactory();
+
+    ColumnarBulkDataSanitizerImplFactory columnarBulkDataSanitizerImplFactory();
+
+    JsonSchemaFilterUtils jsonSchemaFilterUtils();
+
+    ObjectMapper objectMapper();
+
+    @Component.Builder
+    interface Builder {
+        BenchmarkContainer build();
+
+        Builder benchmarkModule(BenchmarkModule benchmarkModule);
+    }
+
+}
@@ -0,0 +1,114 @@
+package co.worklytics.psoxy.benchmarks;
+
+import co.worklytics.psoxy.gateway.ApiModeConfig;
+import co.worklytics.psoxy.gateway.ConfigService;
+import co.worklytics.psoxy.gateway.HostEnvironment;
+import co.worklytics.psoxy.gateway.ProxyConfigProperty;
+import co.worklytics.psoxy.gateway.SecretStore;
+import co.worklytics.psoxy.gateway.impl.NoOpResourceService;
+import com.avaulta.gateway.resources.ResourceService;
+import com.avaulta.gateway.rules.augments.SentenceMetadataProcessor;
+import com.google.common.collect.ImmutableMap;
+import dagger.Module;
+import dagger.Provides;
+import lombok.AllArgsConstructor;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * provides host-specific dependencies for benchmarks; config/secrets are in-memory, and no remote
+ * resources (eg, OpenNLP models) are available
+ */
+@AllArgsConstructor
+@Module
+public class BenchmarkModule {
+
+    /**
+     * same salt/key as used in tests, so pseudonyms are comparable to expectations there
+     */
+    static final Map<String, String> DEFAULT_CONFIG = ImmutableMap.of(
+        ProxyConfigProperty.PSOXY_SALT.name(), "salt",
+        ProxyConfigProperty.PSOXY_ENCRYPTION_KEY.name(), "secret"
+    );
+
+    Map<String, String> config;
+
+    public BenchmarkModule() {
+        this(DEFAULT_CONFIG);
+    }
+
+    @Provides @Singleton
+    InMemoryConfigService inMemoryConfigService() {
+        return new InMemoryConfigService(config);
+    }
+
+    @Provides @Singleton
+    static ConfigService configService(InMemoryConfigService configService) {
+        return configService;
+    }
+
+    @Provides @Singleton
+    static SecretStore secretStore(InMemoryConfigService configService) {
+        return configService;
+    }
+
+    @Provides @Singleton
+    static ApiModeConfig apiModeConfig(ConfigService configService) {
+        return ApiModeConfig.fromConfigService(configService);
+    }
+
+    @Provides @Singleton
+    static HostEnvironment hostEnvironment() {
+        return () -> "psoxy-benchmarks";
+    }
+
+    @Provides @Singleton @Named("OpenNlp")
+    static ResourceService openNlpResourceService() {
+        return new NoOpResourceService();
+    }
+
+    @Provides @Singleton
+    static SentenceMetadataProcessor sentenceMetadataProcessor(@Named("OpenNlp") ResourceService openNlpResourceService) {
+        return new SentenceMetadataProcessor(openNlpResourceService);
+    }
+
+    /**
+     * config and secrets, as values by property name
+     */
+    static class InMemoryConfigService implements SecretStore {
+
+        final Map<String, String> values;
+
+        InMemoryConfigService(Map<String, String> values) {
+            this.values = new ConcurrentHashMap<>(values);
+        }
+
+        @Override
+        public String getConfigPropertyOrError(ConfigProperty property) {
+            return getConfigPropertyAsOptional(property)
+                .orElseThrow(() -> new NoSuchElementException("Psoxy misconfigured. Expected value for: " + property.name()));
+        }
+
+        @Override
+        public Optional<String> getConfigPropertyAsOptional(ConfigProperty property) {
+            return Optional.ofNullable(values.get(property.name()));
+        }
+
+        @Override
+        public void putConfigProperty(ConfigProperty property, String value) {
+            values.put(property.name(), value);
+        }
+
+        @Override
+        public List<ConfigValueVersion> getAvailableVersions(ConfigProperty property, int limit) {
+            return Collections.emptyList();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package co.worklytics.psoxy.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import lombok.SneakyThrows;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * payloads for benchmarks, built from the example API responses that ship with rules (under
+ * `sources/` on classpath)
+ */
+class BenchmarkPayloads {
+
+    static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @SneakyThrows
+    static String load(String classpathResource) {
+        try (InputStream in = BenchmarkPayloads.class.getClassLoader().getResourceAsStream(classpathResource)) {
+            if (in == null) {
+                throw new IOException("Example not found on classpath: " + classpathResource);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * synthesize larger payload from an example, by repeating items of its principal array; that
+     * is, its largest array, at whatever depth (eg, `items`, `value`, `messages`, or
+     * `data.organization.membersWithRole.edges` for GraphQL)
+     *
+     * @param json   example payload
+     * @param copies of each item to include; 1 returns equivalent of original
+     * @return json, with `copies` times as many items; or as-is, if it has no array
+     */
+    @SneakyThrows
+    static String replicateItems(String json, int copies) {
+        JsonNode root = objectMapper.readTree(json);
+
+        Optional<ArrayNode> items = largestArray(root);
+
+        items.ifPresent(array -> {
+            ArrayNode original = array.deepCopy();
+            for (int i = 1; i < copies; i++) {
+                array.addAll(original);
+            }
+        });
+
+        return objectMapper.writeValueAsString(root);
+    }
+
+    static Optional<ArrayNode> largestArray(JsonNode node) {
+        Optional<ArrayNode> largest = node.isArray() ? Optional.of((ArrayNode) node) : Optional.empty();
+        for (JsonNode child : node) {
+            Optional<ArrayNode> candidate = largestArray(child);
+            if (candidate.isPresent()
+                && candidate.get().size() > largest.map(ArrayNode::size).orElse(-1)) {
+                largest = candidate;
+            }
+        }
+        return largest;
+    }
+}
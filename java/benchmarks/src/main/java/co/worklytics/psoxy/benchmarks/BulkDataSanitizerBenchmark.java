@@ -0,0 +1,211 @@
+package co.worklytics.psoxy.benchmarks;
+
+import co.worklytics.psoxy.Pseudonymizer;
+import co.worklytics.psoxy.gateway.BulkModeConfig;
+import co.worklytics.psoxy.gateway.StorageEventRequest;
+import co.worklytics.psoxy.storage.BulkDataSanitizer;
+import co.worklytics.psoxy.storage.impl.ParquetRecordWriter;
+import co.worklytics.psoxy.storage.impl.RangeReadInputFile;
+import com.avaulta.gateway.rules.ColumnarRules;
+import com.avaulta.gateway.rules.RecordRules;
+import com.avaulta.gateway.rules.transforms.RecordTransform;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * sanitization of bulk data files, in each format/sanitizer combination supported, over synthetic
+ * HRIS-like data
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkDataSanitizerBenchmark {
+
+    public enum Case {
+        /**
+         * CSV, with {@link co.worklytics.psoxy.storage.impl.ColumnarBulkDataSanitizerImpl}
+         */
+        COLUMNAR_CSV,
+        /**
+         * CSV, with {@link co.worklytics.psoxy.storage.impl.RecordBulkDataSanitizerImpl}
+         */
+        RECORD_CSV,
+        RECORD_NDJSON,
+        /**
+         * Parquet, read in place as would be from S3/GCS (not via stream)
+         */
+        RECORD_PARQUET,
+    }
+
+    @Param
+    public Case format;
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    /**
+     * value for BULK_PROCESSING_PARALLELISM
+     */
+    @Param({"1", "4"})
+    public int parallelism;
+
+    static final List<String> COLUMNS =
+        List.of("employee_id", "email", "manager_id", "department", "job_title", "hire_date", "salary", "is_manager");
+
+    BulkDataSanitizer sanitizer;
+    Pseudonymizer pseudonymizer;
+    StorageEventRequest request;
+    byte[] content;
+
+    @Setup
+    public void setup() throws IOException {
+        BenchmarkContainer container = DaggerBenchmarkContainer.builder()
+            .benchmarkModule(new BenchmarkModule(ImmutableMap.<String, String>builder()
+                .putAll(BenchmarkModule.DEFAULT_CONFIG)
+                .put(BulkModeConfig.BulkModeConfigProperty.BULK_PROCESSING_PARALLELISM.name(), String.valueOf(parallelism))
+                .build()))
+            .build();
+
+        pseudonymizer = container.pseudonymizerImplFactory()
+            .create(Pseudonymizer.ConfigurationOptions.builder().build());
+
+        List<Map<String, Object>> records = records(rows);
+
+        switch (format) {
+            case COLUMNAR_CSV:
+                sanitizer = container.columnarBulkDataSanitizerImplFactory().create(ColumnarRules.builder()
+                    .columnToPseudonymize("employee_id")
+                    .columnToPseudonymize("email")
+                    .columnToPseudonymize("manager_id")
+                    .columnToRedact("salary")
+                    .build());
+                content = csv(records);
+                break;
+            case RECORD_CSV:
+                sanitizer = container.recordBulkDataSanitizerImplFactory().create(recordRules(RecordRules.Format.CSV));
+                content = csv(records);
+                break;
+            case RECORD_NDJSON:
+                sanitizer = container.recordBulkDataSanitizerImplFactory().create(recordRules(RecordRules.Format.NDJSON));
+                content = ndjson(container.objectMapper(), records);
+                break;
+            case RECORD_PARQUET:
+                sanitizer = container.recordBulkDataSanitizerImplFactory().create(recordRules(RecordRules.Format.PARQUET));
+                content = parquet(records);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected case: " + format);
+        }
+
+        request = StorageEventRequest.builder()
+            .sourceBucketName("bucket")
+            .sourceObjectPath("export/data")
+            .destinationBucketName("bucket-sanitized")
+            .destinationObjectPath("export/data")
+            .build();
+    }
+
+    @Benchmark
+    public void sanitize() throws IOException {
+        // output discarded; cost of producing it is what's measured
+        if (format == Case.RECORD_PARQUET) {
+            RangeReadInputFile in = new RangeReadInputFile(content.length,
+                (offset, length) -> new ByteArrayInputStream(content, (int) offset, (int) length));
+            sanitizer.sanitize(request, in, NullOutputStream.INSTANCE, pseudonymizer);
+        } else {
+            sanitizer.sanitize(request, new ByteArrayInputStream(content), NullOutputStream.INSTANCE, pseudonymizer);
+        }
+    }
+
+    static RecordRules recordRules(RecordRules.Format format) {
+        return RecordRules.builder()
+            .format(format)
+            .transform(RecordTransform.Pseudonymize.builder()
+                .pseudonymize("$.employee_id")
+                .pseudonymize("$.email")
+                .pseudonymize("$.manager_id")
+                .build())
+            .transform(RecordTransform.Redact.builder()
+                .redact("$.salary")
+                .build())
+            .build();
+    }
+
+    static List<Map<String, Object>> records(int rows) {
+        List<Map<String, Object>> records = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("employee_id", "E" + i);
+            record.put("email", "employee" + i + "@acme.com");
+            // managers recur, as in real org data
+            record.put("manager_id", "E" + (i / 8));
+            record.put("department", "Department " + (i % 20));
+            record.put("job_title", "Title " + (i % 50));
+            record.put("hire_date", "20" + (10 + i % 15) + "-0" + (1 + i % 9) + "-1" + (i % 10));
+            record.put("salary", 50_000 + (i % 1_000) * 100);
+            record.put("is_manager", i % 8 == 0);
+            records.add(record);
+        }
+        return records;
+    }
+
+    static byte[] csv(List<Map<String, Object>> records) {
+        StringBuilder csv = new StringBuilder(String.join(",", COLUMNS)).append("\n");
+        for (Map<String, Object> record : records) {
+            for (int i = 0; i < COLUMNS.size(); i++) {
+                if (i > 0) {
+                    csv.append(",");
+                }
+                csv.append(record.get(COLUMNS.get(i)));
+            }
+            csv.append("\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] ndjson(ObjectMapper objectMapper, List<Map<String, Object>> records) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Map<String, Object> record : records) {
+            out.write(objectMapper.writeValueAsBytes(record));
+            out.write('\n');
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] parquet(List<Map<String, Object>> records) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParquetRecordWriter writer = new ParquetRecordWriter(out)) {
+            writer.beginRecordSet();
+            for (Map<String, Object> record : records) {
+                writer.writeRecord(record);
+            }
+            writer.endRecordSet();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,85 @@
+package co.worklytics.psoxy.benchmarks;
+
+import co.worklytics.psoxy.rules.PrebuiltSanitizerRules;
+import com.avaulta.gateway.rules.Endpoint;
+import com.avaulta.gateway.rules.JsonSchemaFilter;
+import com.avaulta.gateway.rules.JsonSchemaFilterUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * filtering of responses by schema, with the (GraphQL) response schema of prebuilt GitHub rules
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonSchemaFilterBenchmark {
+
+    static final String RULES_ID = "github-non-enterprise";
+
+    static final String EXAMPLE =
+        "sources/github/github-non-enterprise/example-api-responses/original/graph_api_users_members.json";
+
+    /**
+     * times to repeat items of example response; 1 is example as-is
+     */
+    @Param({"1", "10", "100"})
+    public int copies;
+
+    JsonSchemaFilterUtils jsonSchemaFilterUtils;
+    JsonSchemaFilter schema;
+    String response;
+    JsonNode parsedResponse;
+
+    @SneakyThrows
+    @Setup
+    public void setup() {
+        BenchmarkContainer container = DaggerBenchmarkContainer.builder()
+            .benchmarkModule(new BenchmarkModule())
+            .build();
+
+        jsonSchemaFilterUtils = container.jsonSchemaFilterUtils();
+
+        schema = PrebuiltSanitizerRules.DEFAULTS.get(RULES_ID).getEndpoints().stream()
+            .map(Endpoint::getResponseSchemaOptional)
+            .flatMap(Optional::stream)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("No endpoint with response schema in " + RULES_ID));
+
+        response = BenchmarkPayloads.replicateItems(BenchmarkPayloads.load(EXAMPLE), copies);
+        parsedResponse = container.objectMapper().readTree(response);
+    }
+
+    /**
+     * parse, filter, and serialize, as for a full response
+     */
+    @Benchmark
+    public String filterJson() {
+        return jsonSchemaFilterUtils.filterJsonBySchema(response, schema, schema);
+    }
+
+    /**
+     * filter alone, over already-parsed response
+     */
+    @Benchmark
+    public Object filterNode() {
+        return jsonSchemaFilterUtils.filterNodeBySchema("$", parsedResponse, schema, schema);
+    }
+}
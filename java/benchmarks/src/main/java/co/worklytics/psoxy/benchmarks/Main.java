@@ -0,0 +1,35 @@
+package co.worklytics.psoxy.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * runs benchmarks as JMH's own `Main` would, with same command-line options, but ALWAYS with
+ * allocation profiling (`-prof gc`); as allocation rate is as likely to regress as time, and is
+ * much less noisy (so do NOT also pass `-prof gc`)
+ *
+ * eg, `java -jar target/benchmarks.jar RESTApiSanitizerBenchmark -p source=GCAL -rf json`
+ */
+public class Main {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()
+            || commandLineOptions.shouldListProfilers() || commandLineOptions.shouldListResultFormats()) {
+            // informational only; defer to JMH itself
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        Options options = new OptionsBuilder()
+            .parent(commandLineOptions)
+            .addProfiler(GCProfiler.class)
+            .build();
+
+        new Runner(options).run();
+    }
+}
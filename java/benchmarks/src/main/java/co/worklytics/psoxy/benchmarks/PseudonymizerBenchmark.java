@@ -0,0 +1,80 @@
+package co.worklytics.psoxy.benchmarks;
+
+import co.worklytics.psoxy.PseudonymizedIdentity;
+import co.worklytics.psoxy.Pseudonymizer;
+import com.avaulta.gateway.rules.transforms.Transform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * pseudonymization of single identifiers
+ *
+ * `distinctValues` controls how often identifiers recur; with few, nearly all are served from
+ * pseudonym cache; with many more than fit in it, nearly none are.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PseudonymizerBenchmark {
+
+    public enum Kind {
+        EMAIL,
+        NON_EMAIL,
+    }
+
+    @Param
+    public Kind kind;
+
+    @Param({"false", "true"})
+    public boolean includeReversible;
+
+    @Param({"100", "100000"})
+    public int distinctValues;
+
+    Pseudonymizer pseudonymizer;
+    Transform.Pseudonymize transform;
+    String[] values;
+    int next = 0;
+
+    @Setup
+    public void setup() {
+        BenchmarkContainer container = DaggerBenchmarkContainer.builder()
+            .benchmarkModule(new BenchmarkModule())
+            .build();
+
+        pseudonymizer = container.pseudonymizerImplFactory()
+            .create(Pseudonymizer.ConfigurationOptions.builder().build());
+
+        transform = Transform.Pseudonymize.builder()
+            .includeReversible(includeReversible)
+            .build();
+
+        values = new String[distinctValues];
+        for (int i = 0; i < distinctValues; i++) {
+            values[i] = kind == Kind.EMAIL
+                ? "First.Last" + i + "@acme" + (i % 10) + ".com"
+                : "U0" + Integer.toHexString(0x10000000 + i).toUpperCase();
+        }
+    }
+
+    @Benchmark
+    public PseudonymizedIdentity pseudonymize() {
+        String value = values[next];
+        next = (next + 1) % values.length;
+        return pseudonymizer.pseudonymize(value, transform);
+    }
+}
@@ -0,0 +1,89 @@
+package co.worklytics.psoxy.benchmarks;
+
+import co.worklytics.psoxy.Pseudonymizer;
+import co.worklytics.psoxy.RESTApiSanitizer;
+import co.worklytics.psoxy.rules.PrebuiltSanitizerRules;
+import lombok.AllArgsConstructor;
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * sanitization of API responses, with prebuilt rules of some high-volume sources, over their
+ * example responses scaled up to various sizes
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RESTApiSanitizerBenchmark {
+
+    @AllArgsConstructor
+    public enum Source {
+        GCAL("gcal",
+            "http://calendar.googleapis.com/calendar/v3/calendars/primary/events",
+            "sources/google-workspace/calendar/example-api-responses/original/events.json"),
+        OUTLOOK_CAL("outlook-cal",
+            "https://graph.microsoft.com/v1.0/users/48d31887-5fad-4d73-a9f5-3c356e68a038/events",
+            "sources/microsoft-365/outlook-cal/example-api-responses/original/Events_v1.0.json"),
+        SLACK("slack",
+            "https://slack.com/api/discovery.conversations.history",
+            "sources/slack/slack-discovery-api/example-api-responses/original/discovery-conversations-history.json"),
+        GITHUB("github-non-enterprise",
+            "https://api.github.com/repos/FAKE/REPO/commits",
+            "sources/github/github-non-enterprise/example-api-responses/original/repo_commits.json"),
+        ;
+
+        final String rulesId;
+        final String url;
+        final String example;
+    }
+
+    @Param
+    public Source source;
+
+    /**
+     * times to repeat items of example response; 1 is example as-is
+     */
+    @Param({"1", "10", "100"})
+    public int copies;
+
+    RESTApiSanitizer sanitizer;
+    URL url;
+    String response;
+
+    @SneakyThrows
+    @Setup
+    public void setup() {
+        BenchmarkContainer container = DaggerBenchmarkContainer.builder()
+            .benchmarkModule(new BenchmarkModule())
+            .build();
+
+        Pseudonymizer pseudonymizer = container.pseudonymizerImplFactory()
+            .create(Pseudonymizer.ConfigurationOptions.builder().build());
+        sanitizer = container.restApiSanitizerFactory()
+            .create(PrebuiltSanitizerRules.DEFAULTS.get(source.rulesId), pseudonymizer);
+
+        url = new URL(source.url);
+        response = BenchmarkPayloads.replicateItems(BenchmarkPayloads.load(source.example), copies);
+    }
+
+    @Benchmark
+    public String sanitize() {
+        return sanitizer.sanitize("GET", url, response);
+    }
+}
@@ -1,20 +1,14 @@
 package co.worklytics.psoxy;
 
-import java.security.KeyManagementException;
-import java.security.NoSuchAlgorithmException;
 import java.time.Clock;
-import java.util.Arrays;
 import java.util.UUID;
 import javax.inject.Named;
 import javax.inject.Singleton;
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSocketFactory;
 import com.avaulta.gateway.resources.ResourceService;
 import com.avaulta.gateway.rules.WebhookCollectionRules;
 import com.avaulta.gateway.rules.augments.SentenceMetadataProcessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.api.client.http.HttpRequestFactory;
-import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.auth.http.HttpTransportFactory;
 import co.worklytics.psoxy.gateway.ApiModeConfig;
 import co.worklytics.psoxy.gateway.ConfigService;
@@ -29,6 +23,7 @@ import co.worklytics.psoxy.gateway.impl.CompositeConfigService;
 import co.worklytics.psoxy.gateway.impl.CompositeResourceService;
 import co.worklytics.psoxy.gateway.impl.EnvVarsConfigService;
 import co.worklytics.psoxy.gateway.impl.LocalFileResourceService;
+import co.worklytics.psoxy.gateway.impl.SourceApiHttpTransportFactory;
 import co.worklytics.psoxy.gateway.impl.WebhookSanitizer;
 import co.worklytics.psoxy.gateway.impl.output.NoOutput;
 import co.worklytics.psoxy.gateway.impl.output.OutputUtils;
@@ -94,26 +89,8 @@ public class FunctionRuntimeModule {
 
     // q: should we just replace this with a Provider<HttpTransport>, rather than having more coupling to google-http-client classes?
     @Provides @Singleton
-    HttpTransportFactory providesHttpTransportFactory(ApiModeConfig apiModeConfig) {
-        final String sslContextProtocol = apiModeConfig.getTlsVersion();
-        if (Arrays.stream(ApiModeConfig.TlsVersions.ALL).noneMatch(s -> sslContextProtocol.equals(s))) {
-            throw new IllegalArgumentException("Invalid TLS version: " + sslContextProtocol);
-        }
-
-        return () -> {
-            try {
-                SSLContext sslContext = SSLContext.getInstance(sslContextProtocol);
-                sslContext.init(null, null, new java.security.SecureRandom());
-                SSLSocketFactory sslSocketFactory = sslContext.getSocketFactory();
-
-                // Configure the NetHttpTransport to use the custom SSL context
-                return new NetHttpTransport.Builder()
-                    .setSslSocketFactory(sslSocketFactory)
-                    .build();
-            } catch (NoSuchAlgorithmException | KeyManagementException e) {
-                throw new RuntimeException("Failed to create custom SSL context with " + sslContextProtocol, e);
-            }
-        };
+    HttpTransportFactory providesHttpTransportFactory(SourceApiHttpTransportFactory sourceApiHttpTransportFactory) {
+        return sourceApiHttpTransportFactory;
     }
 
     @Provides @Singleton
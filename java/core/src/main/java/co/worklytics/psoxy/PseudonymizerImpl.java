@@ -1,5 +1,7 @@
 package co.worklytics.psoxy;
 
+import co.worklytics.psoxy.gateway.ConfigService;
+import co.worklytics.psoxy.gateway.ProxyConfigProperty;
 import co.worklytics.psoxy.utils.email.EmailAddress;
 import co.worklytics.psoxy.utils.email.EmailAddressParser;
 import com.avaulta.gateway.pseudonyms.Pseudonym;
@@ -8,11 +10,14 @@ import com.avaulta.gateway.rules.transforms.Transform;
 import com.avaulta.gateway.tokens.DeterministicTokenizationStrategy;
 import com.avaulta.gateway.tokens.ReversibleTokenizationStrategy;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import dagger.Lazy;
 import dagger.assisted.Assisted;
 import dagger.assisted.AssistedInject;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Value;
 import lombok.extern.java.Log;
 import org.apache.commons.lang3.StringUtils;
 
@@ -44,8 +49,45 @@ public class PseudonymizerImpl implements Pseudonymizer {
     @Inject
     EmailAddressParser emailAddressParser;
 
+    @Inject
+    ConfigService config;
+
     Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
 
+    static final long DEFAULT_PSEUDONYM_CACHE_MAX_BYTES = 8L * 1024 * 1024;
+
+    static final int PSEUDONYM_CACHE_ENTRY_OVERHEAD_BYTES = 200;
+
+    /**
+     * keyed by value itself, plus whichever options of transform affect result; so a hit costs
+     * no hashing. Canonical form of value isn't used, as computing it requires parsing value as
+     * an email, and domain is output as in value (eg, in case), so isn't determined by it anyway
+     */
+    record PseudonymCacheKey(String value, boolean includeReversible) { }
+
+    /**
+     * memoized pseudonyms, valid only for the tokenization strategies (salt, keys) that produced
+     * them; so replaced if those change (eg, key rotation)
+     */
+    @Value
+    static class ScopedPseudonymCache {
+
+        DeterministicTokenizationStrategy deterministicTokenizationStrategy;
+
+        ReversibleTokenizationStrategy reversibleTokenizationStrategy;
+
+        // null if disabled
+        Cache<PseudonymCacheKey, PseudonymizedIdentity> cache;
+
+        boolean isScopedTo(DeterministicTokenizationStrategy deterministic,
+                           ReversibleTokenizationStrategy reversible) {
+            return deterministicTokenizationStrategy == deterministic
+                && reversibleTokenizationStrategy == reversible;
+        }
+    }
+
+    volatile ScopedPseudonymCache pseudonymCache;
+
     @Getter
     ConfigurationOptions options;
 
@@ -59,18 +101,9 @@ public class PseudonymizerImpl implements Pseudonymizer {
         return pseudonymize(value, Transform.Pseudonymize.builder().build());
     }
 
-    String emailCanonicalization(String original) {
-        Optional<EmailAddress> parsedEmailAddress =
-            emailAddressParser.parse(original);
-
-
-        String domain = parsedEmailAddress.map(EmailAddress::getDomain).orElse(null);
-
+    String emailCanonicalization(EmailAddress emailAddress) {
         //NOTE: lower-case here is NOT stipulated by RFC
-        String mailboxLowercase =parsedEmailAddress
-            .map(EmailAddress::getLocalPart)
-            .map(String::toLowerCase)
-            .orElse(null);
+        String mailboxLowercase = emailAddress.getLocalPart().toLowerCase();
 
         //trim off any + and anything after it (sub-address)
         if (mailboxLowercase.contains("+")) {
@@ -83,7 +116,7 @@ public class PseudonymizerImpl implements Pseudonymizer {
 
         return mailboxLowercase
             + "@"
-            + domain.toLowerCase();
+            + emailAddress.getDomain().toLowerCase();
 
     }
 
@@ -101,6 +134,76 @@ public class PseudonymizerImpl implements Pseudonymizer {
             return null;
         }
 
+        Optional<Cache<PseudonymCacheKey, PseudonymizedIdentity>> cache = getPseudonymCache();
+        // results that include original aren't cached, as they'd hold it in memory
+        if (cache.isEmpty() || Boolean.TRUE.equals(transformOptions.getIncludeOriginal())) {
+            return computePseudonym(value, transformOptions);
+        }
+
+        // NOTE: result depends only on string form of value (Numbers never duck-type as emails)
+        PseudonymCacheKey key = new PseudonymCacheKey(value.toString(),
+            Boolean.TRUE.equals(transformOptions.getIncludeReversible()));
+
+        PseudonymizedIdentity cached = cache.get().getIfPresent(key);
+        if (cached == null) {
+            cached = computePseudonym(value, transformOptions);
+            cache.get().put(key, cached);
+        }
+        // copy, as PseudonymizedIdentity is mutable
+        return copyOf(cached);
+    }
+
+    Optional<Cache<PseudonymCacheKey, PseudonymizedIdentity>> getPseudonymCache() {
+        ScopedPseudonymCache scoped = pseudonymCache;
+        if (scoped == null || !scoped.isScopedTo(deterministicTokenizationStrategy, reversibleTokenizationStrategy)) {
+            synchronized (this) {
+                scoped = pseudonymCache;
+                if (scoped == null || !scoped.isScopedTo(deterministicTokenizationStrategy, reversibleTokenizationStrategy)) {
+                    scoped = new ScopedPseudonymCache(deterministicTokenizationStrategy,
+                        reversibleTokenizationStrategy, buildPseudonymCache());
+                    pseudonymCache = scoped;
+                }
+            }
+        }
+        return Optional.ofNullable(scoped.getCache());
+    }
+
+    private Cache<PseudonymCacheKey, PseudonymizedIdentity> buildPseudonymCache() {
+        long maxBytes = Optional.ofNullable(config)
+            .flatMap(c -> c.getConfigPropertyAsOptional(ProxyConfigProperty.PSEUDONYM_CACHE_MAX_BYTES))
+            .map(value -> ConfigService.parseLongValue(ProxyConfigProperty.PSEUDONYM_CACHE_MAX_BYTES, value))
+            .orElse(DEFAULT_PSEUDONYM_CACHE_MAX_BYTES);
+        if (maxBytes <= 0) {
+            return null;
+        }
+        return CacheBuilder.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((PseudonymCacheKey key, PseudonymizedIdentity identity) -> estimateBytes(key, identity))
+            .recordStats()
+            .build();
+    }
+
+    static int estimateBytes(PseudonymCacheKey key, PseudonymizedIdentity identity) {
+        // rough; 2 bytes per char, plus fixed overhead for objects/references/entry
+        return PSEUDONYM_CACHE_ENTRY_OVERHEAD_BYTES
+            + 2 * (key.value().length()
+            + StringUtils.length(identity.getDomain())
+            + StringUtils.length(identity.getHash())
+            + StringUtils.length(identity.getH_4())
+            + StringUtils.length(identity.getReversible()));
+    }
+
+    static PseudonymizedIdentity copyOf(PseudonymizedIdentity identity) {
+        return PseudonymizedIdentity.builder()
+            .domain(identity.getDomain())
+            .hash(identity.getHash())
+            .h_4(identity.getH_4())
+            .original(identity.getOriginal())
+            .reversible(identity.getReversible())
+            .build();
+    }
+
+    PseudonymizedIdentity computePseudonym(Object value, Transform.PseudonymizationTransform transformOptions) {
         PseudonymizedIdentity.PseudonymizedIdentityBuilder builder = PseudonymizedIdentity.builder();
 
         //q: this auto-detect a good idea? Or invert control and let caller specify with a header
@@ -111,10 +214,14 @@ public class PseudonymizerImpl implements Pseudonymizer {
 
         Function<String, String> canonicalization;
         String domain = null;
-        if (duckTypesAsEmails(value)) {
-            canonicalization = this::emailCanonicalization;
-
-            domain = handleDomain(getOptions().getEmailDomainHandling(), (String) value);
+        // parsed once, and re-used for canonicalization + domain
+        Optional<EmailAddress> emailAddress = duckTypeAsEmail(value);
+        if (emailAddress.isPresent()) {
+            // NOTE: canonicalization only ever applied to value itself
+            String canonicalEmail = emailCanonicalization(emailAddress.get());
+            canonicalization = original -> canonicalEmail;
+
+            domain = handleDomain(getOptions().getEmailDomainHandling(), emailAddress.get());
             builder.domain(domain);
 
             //q: do something with the personal name??
@@ -150,21 +257,25 @@ public class PseudonymizerImpl implements Pseudonymizer {
         return builder.build();
     }
 
-    boolean duckTypesAsEmails(Object value) {
-        return value instanceof String && emailAddressParser.isValid((String) value);
+    /**
+     * @param value to interpret as an email address
+     * @return value, parsed as an email address, if it is one
+     */
+    Optional<EmailAddress> duckTypeAsEmail(Object value) {
+        return value instanceof String ? emailAddressParser.parse((String) value) : Optional.empty();
     }
 
     /**
      * preserves, redacts, encrypts or hashes the domain of the email address, depending on the policy
      *
      * @param domainHandlingPolicy to apply to the domain
-     * @param value to interpret as an email address
-     * @return domain, parsed from email address, subject to handling; base64-url-safe encoded in later cases.
+     * @param emailAddress whose domain to handle
+     * @return domain of email address, subject to handling; base64-url-safe encoded in later cases.
      */
-    String handleDomain(EmailDomainHandling domainHandlingPolicy, String value) {
+    String handleDomain(EmailDomainHandling domainHandlingPolicy, EmailAddress emailAddress) {
         String domain = null;
         if (domainHandlingPolicy != EmailDomainHandling.REDACT) {
-            domain = emailAddressParser.parse(value).map(EmailAddress::getDomain).orElse(null);
+            domain = emailAddress.getDomain();
             if (domainHandlingPolicy == EmailDomainHandling.ENCRYPT) {
                 domain = UrlSafeTokenPseudonymEncoder.ENCRYPTED_PREFIX + encoder.encodeToString(emailDomainsEncryptionStrategy.get().getReversibleToken(domain));
             } else if (domainHandlingPolicy == EmailDomainHandling.TOKENIZE) {
@@ -63,6 +63,16 @@ public class ApiModeConfig {
         }
         builder.tlsVersion(tlsRaw);
 
+        configService.getConfigPropertyAsOptional(ApiModeConfigProperty.SIDE_OUTPUT_ASYNC)
+                .map(Boolean::parseBoolean)
+                .ifPresent(builder::sideOutputAsync);
+        configService.getConfigPropertyAsOptional(ApiModeConfigProperty.SIDE_OUTPUT_ASYNC_QUEUE_SIZE)
+                .map(value -> ConfigService.parseIntValue(ApiModeConfigProperty.SIDE_OUTPUT_ASYNC_QUEUE_SIZE, value))
+                .ifPresent(n -> builder.sideOutputAsyncQueueSize(Math.max(n, 1)));
+        configService.getConfigPropertyAsOptional(ApiModeConfigProperty.STREAMING_SANITIZATION)
+                .map(Boolean::parseBoolean)
+                .ifPresent(builder::streamingSanitization);
+
         return builder.build();
     }
 
@@ -88,6 +98,34 @@ public class ApiModeConfig {
     @Builder.Default
     private final String tlsVersion = TlsVersions.TLSv1_3;
 
+    /**
+     * whether writes to side outputs are done in background, rather than on request path; if so,
+     * they overlap with sanitization and building the response, and are awaited just before the
+     * handler returns (as function instance may be frozen after). On hosts that send response only
+     * once handler returns (eg, AWS Lambda), benefit is limited to that overlap
+     * <p>
+     * so worthwhile only if side output of original content is slow relative to sanitization (eg,
+     * large responses, or a bucket in another region); write of sanitized content is requested
+     * last, so overlaps little. Failures of writes in background are only reported as warnings,
+     * and only if they fail before response is built.
+     */
+    @Builder.Default
+    private final boolean sideOutputAsync = false;
+
+    /**
+     * max side output writes queued in background, when {@link #sideOutputAsync}; beyond this,
+     * writes are done on request path
+     */
+    @Builder.Default
+    private final int sideOutputAsyncQueueSize = 100;
+
+    /**
+     * whether to sanitize responses in a single streaming pass, for endpoints whose rules allow it;
+     * NOTE: streaming path doesn't enforce a sanitization timeout, so off by default
+     */
+    @Builder.Default
+    private final boolean streamingSanitization = false;
+
     /**
      * if provided, requests to proxy with `Prefer: respond-async` header will be processed
      * asynchronously and responses output to the target
@@ -176,6 +214,18 @@ public class ApiModeConfig {
         REQUEST_PATH_PREFIX_TO_TRIM,
 
         REQUEST_TIMEOUT_SECONDS,
+
+        /**
+         * if 'true', side output writes done in background; default false
+         */
+        SIDE_OUTPUT_ASYNC,
+
+        SIDE_OUTPUT_ASYNC_QUEUE_SIZE,
+
+        /**
+         * if 'true', responses sanitized in a single streaming pass where rules allow; default false
+         */
+        STREAMING_SANITIZATION,
         ;
 
         @Getter(onMethod_ = @Override)
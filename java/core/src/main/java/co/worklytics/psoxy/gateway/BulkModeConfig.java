@@ -1,5 +1,7 @@
 package co.worklytics.psoxy.gateway;
 
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import com.avaulta.gateway.rules.RecordRules;
 import lombok.AllArgsConstructor;
@@ -13,6 +15,12 @@ import lombok.Value;
 @Builder
 public class BulkModeConfig {
 
+    /**
+     * Parquet compression codecs that can be written; others need Hadoop codec classes that aren't
+     * bundled
+     */
+    public static final List<String> SUPPORTED_PARQUET_COMPRESSION_CODECS = List.of("UNCOMPRESSED", "SNAPPY");
+
     /**
      * Factory method to build config from ConfigService
      */
@@ -22,10 +30,31 @@ public class BulkModeConfig {
         configService.getConfigPropertyAsOptional(BulkModeConfigProperty.BULK_OUTPUT_FORMAT)
             .map(RecordRules.Format::valueOf)
             .ifPresent(builder::outputFormat);
-        
+
+        configService.getConfigPropertyAsOptional(BulkModeConfigProperty.BULK_PROCESSING_PARALLELISM)
+            .map(value -> ConfigService.parseIntValue(BulkModeConfigProperty.BULK_PROCESSING_PARALLELISM, value))
+            .ifPresent(parallelism -> builder.parallelism(Math.max(parallelism, 1)));
+
+        configService.getConfigPropertyAsOptional(BulkModeConfigProperty.BULK_PARQUET_COMPRESSION_CODEC)
+            .map(value -> parseParquetCompressionCodec(BulkModeConfigProperty.BULK_PARQUET_COMPRESSION_CODEC, value))
+            .ifPresent(builder::parquetCompressionCodec);
+
+        configService.getConfigPropertyAsOptional(BulkModeConfigProperty.BULK_PARQUET_ROW_GROUP_SIZE_MB)
+            .map(value -> ConfigService.parseIntValue(BulkModeConfigProperty.BULK_PARQUET_ROW_GROUP_SIZE_MB, value))
+            .ifPresent(sizeMb -> builder.parquetRowGroupSizeBytes(Math.max(sizeMb, 1) * 1024L * 1024L));
+
         return builder.build();
     }
 
+    static String parseParquetCompressionCodec(ConfigService.ConfigProperty property, String value) {
+        String codec = value.trim().toUpperCase(Locale.ROOT);
+        if (!SUPPORTED_PARQUET_COMPRESSION_CODECS.contains(codec)) {
+            throw new IllegalArgumentException("Invalid value for " + property.name() + ": '" + value
+                + "'; expected one of " + String.join(", ", SUPPORTED_PARQUET_COMPRESSION_CODECS));
+        }
+        return codec;
+    }
+
     /**
      * Output format to use when writing sanitized data.
      * If not present, the input format should be used.
@@ -36,6 +65,32 @@ public class BulkModeConfig {
         return Optional.ofNullable(outputFormat);
     }
 
+    /**
+     * number of threads over which to sanitize records of a file, where supported (CSV); 1 to
+     * sanitize sequentially.
+     *
+     * default: number of available processors
+     */
+    @Builder.Default
+    int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * compression codec for Parquet output; one of {@link #SUPPORTED_PARQUET_COMPRESSION_CODECS}
+     *
+     * default: SNAPPY
+     */
+    @Builder.Default
+    String parquetCompressionCodec = "SNAPPY";
+
+    /**
+     * target size of row groups in Parquet output; writer buffers a row group in memory before
+     * flushing it, so this bounds memory use as well
+     *
+     * default: 128MB
+     */
+    @Builder.Default
+    long parquetRowGroupSizeBytes = 128L * 1024 * 1024;
+
     @AllArgsConstructor
     @lombok.Getter
     public enum BulkModeConfigProperty implements ConfigService.ConfigProperty {
@@ -44,6 +99,25 @@ public class BulkModeConfig {
          * Output format to use when writing sanitized data.
          * Values: NDJSON, CSV, PARQUET, JSON_ARRAY
          */
-        BULK_OUTPUT_FORMAT;
+        BULK_OUTPUT_FORMAT,
+
+        /**
+         * number of threads over which to sanitize records of a file
+         * @see BulkModeConfig#getParallelism()
+         */
+        BULK_PROCESSING_PARALLELISM,
+
+        /**
+         * compression codec for Parquet output
+         * @see BulkModeConfig#getParquetCompressionCodec()
+         */
+        BULK_PARQUET_COMPRESSION_CODEC,
+
+        /**
+         * target size of row groups in Parquet output, in MB
+         * @see BulkModeConfig#getParquetRowGroupSizeBytes()
+         */
+        BULK_PARQUET_ROW_GROUP_SIZE_MB,
+        ;
     }
 }
@@ -91,6 +91,15 @@ public interface ConfigService {
         }
     }
 
+    static long parseLongValue(ConfigProperty property, String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(
+                    "Invalid value for " + property.name() + ": '" + value + "'", e);
+        }
+    }
+
     default Optional<ConfigValueWithMetadata> getConfigPropertyWithMetadata(ConfigProperty configProperty) {
         return getConfigPropertyAsOptional(configProperty)
             .map(value -> ConfigValueWithMetadata.builder().value(value).build());
@@ -93,6 +93,15 @@ public enum ProxyConfigProperty implements ConfigService.ConfigProperty {
     // controlled via header
     PSEUDONYM_IMPLEMENTATION,
 
+    /**
+     * max memory, in bytes (approx), used to memoize pseudonyms of recurring identifiers within a
+     * proxy instance; 0 disables memoization. NOTE: memoized identifiers are held in memory as-is,
+     * for lifetime of cache entries.
+     *
+     * OPTIONAL; default 8 MB
+     */
+    PSEUDONYM_CACHE_MAX_BYTES,
+
     //if relying on default rules, whether to use version that pseudonymizes per-account source IDs
     // that aren't email addresses (eg, the IDs that sources generate for each account, which aren't
     // usually PII without having access to the source's dataset)
@@ -42,6 +42,12 @@ public class WebhookCollectorModeConfig {
             .ifPresent(builder::webhookOutput);
         configService.getConfigPropertyAsOptional(WebhookCollectorModeConfigProperty.WEBHOOK_BATCH_OUTPUT)
             .ifPresent(builder::webhookBatchOutput);
+        configService.getConfigPropertyAsOptional(WebhookCollectorModeConfigProperty.WEBHOOK_BATCH_OUTPUT_MAX_ROWS)
+            .map(value -> ConfigService.parseIntValue(WebhookCollectorModeConfigProperty.WEBHOOK_BATCH_OUTPUT_MAX_ROWS, value))
+            .ifPresent(rows -> builder.webhookBatchOutputMaxRows(Math.max(rows, 1)));
+        configService.getConfigPropertyAsOptional(WebhookCollectorModeConfigProperty.WEBHOOK_BATCH_OUTPUT_MAX_MB)
+            .map(value -> ConfigService.parseIntValue(WebhookCollectorModeConfigProperty.WEBHOOK_BATCH_OUTPUT_MAX_MB, value))
+            .ifPresent(mb -> builder.webhookBatchOutputMaxBytes(Math.max(mb, 1) * 1024L * 1024L));
 
         configService.getConfigPropertyAsOptional(WebhookCollectorModeConfigProperty.ALLOWED_WEBHOOK_IP_BLOCKS)
             .ifPresent(csv -> {
@@ -123,6 +129,27 @@ public class WebhookCollectorModeConfig {
      */
     String webhookBatchOutput;
 
+    /**
+     * max webhooks merged into a single object written to batch output; batches with more are
+     * split across several objects
+     *
+     * default: 100,000
+     */
+    @NonNull
+    @Builder.Default
+    Integer webhookBatchOutputMaxRows = 100_000;
+
+    /**
+     * max (uncompressed) bytes of webhooks merged into a single object written to batch output;
+     * batches with more are split across several objects. Approximate; object may exceed this by
+     * at most one webhook.
+     *
+     * default: 128 MB
+     */
+    @NonNull
+    @Builder.Default
+    Long webhookBatchOutputMaxBytes = 128L * 1024 * 1024;
+
     /**
      * When absent, no IP filter is applied (any client IP is allowed).
      * When present, only client IPs matching these entries (exact IPv4 or CIDR) are allowed.
@@ -235,6 +262,16 @@ public class WebhookCollectorModeConfig {
          */
         WEBHOOK_BATCH_OUTPUT,
 
+        /**
+         * max webhooks merged into a single object written to batch output
+         */
+        WEBHOOK_BATCH_OUTPUT_MAX_ROWS,
+
+        /**
+         * max (uncompressed) megabytes of webhooks merged into a single object written to batch output
+         */
+        WEBHOOK_BATCH_OUTPUT_MAX_MB,
+
         /**
          * A CSV of IPs or CIDR blocks allowed to send webhooks.
          */
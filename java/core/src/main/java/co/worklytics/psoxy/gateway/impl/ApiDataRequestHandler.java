@@ -5,9 +5,11 @@ import java.net.ConnectException;
 import java.net.SocketTimeoutException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -17,6 +19,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Level;
@@ -77,10 +80,11 @@ import co.worklytics.psoxy.gateway.SecretStore;
 import co.worklytics.psoxy.gateway.SourceAuthStrategy;
 import co.worklytics.psoxy.gateway.TargetOverrideRequestResolver;
 import co.worklytics.psoxy.gateway.impl.output.OutputUtils;
+import co.worklytics.psoxy.gateway.impl.output.SideOutputWriter;
 import co.worklytics.psoxy.gateway.output.ApiDataOutputUtils;
 import co.worklytics.psoxy.gateway.output.ApiDataSideOutput;
 import co.worklytics.psoxy.gateway.output.ApiSanitizedDataOutput;
-import co.worklytics.psoxy.gateway.output.Output;
+import co.worklytics.psoxy.impl.RESTApiSanitizerImpl;
 import co.worklytics.psoxy.rules.RESTRules;
 import co.worklytics.psoxy.rules.RulesUtils;
 import co.worklytics.psoxy.utils.ComposedHttpRequestInitializer;
@@ -145,6 +149,8 @@ public class ApiDataRequestHandler {
     ApiDataOutputUtils apiDataOutputUtils;
     @Inject
     OutputUtils outputUtils;
+    @Inject
+    SideOutputWriter sideOutputWriter;
 
     // lazy-loaded, to avoid circular dependency issues; and bc unused in 99.9% of situations
     @Inject
@@ -197,6 +203,9 @@ public class ApiDataRequestHandler {
      */
     private static final Joiner HEADER_JOINER = Joiner.on(",");
 
+    // max time to wait for background side output writes of a request, once its response is built
+    static final Duration SIDE_OUTPUT_DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
     @VisibleForTesting
     volatile RESTApiSanitizer sanitizer;
 
@@ -208,14 +217,28 @@ public class ApiDataRequestHandler {
                 if (this.sanitizer == null) {
                     Pseudonymizer.ConfigurationOptions options =
                             pseudonymizerImplFactory.buildOptions(config);
-                    this.sanitizer = sanitizerFactory.create(rules.get(),
-                            pseudonymizerImplFactory.create(options));
+                    this.sanitizer = createSanitizer(pseudonymizerImplFactory.create(options));
                 }
             }
         }
         return this.sanitizer;
     }
 
+    private RESTApiSanitizerImpl createSanitizer(Pseudonymizer pseudonymizer) {
+        RESTApiSanitizerImpl sanitizer = sanitizerFactory.create(rules.get(), pseudonymizer);
+        sanitizer.setStreamingEnabled(apiModeConfig.isStreamingSanitization());
+        return sanitizer;
+    }
+
+    /**
+     * waits for side output writes of requests handled on current thread that are still pending in
+     * background (if any); to be called by host platform's entrypoint, on same thread as
+     * {@link #handle}, before it returns, as function instance may be frozen after
+     */
+    public void awaitSideOutputWrites() {
+        sideOutputWriter.drain(SIDE_OUTPUT_DRAIN_TIMEOUT);
+    }
+
     @SneakyThrows
     public HttpEventResponse handle(HttpEventRequest requestToProxy,
             ProcessingContext processingContext) {
@@ -579,6 +602,7 @@ public class ApiDataRequestHandler {
         }
 
         String proxyResponseContent = "";
+        Map<ErrorCauses, CompletableFuture<Void>> sideOutputWrites = new EnumMap<>(ErrorCauses.class);
         try {
             // return response
             builder.statusCode(sourceApiResponse.getStatusCode());
@@ -587,18 +611,12 @@ public class ApiDataRequestHandler {
             // stream directly, instead of reading to a string?
             ProcessedContent original = apiDataOutputUtils
                     .responseAsRawProcessedContent(requestToSourceApi, sourceApiResponse);
-            try {
-                apiDataSideOutput.writeRaw(
-                    original.toBuilder()
-                        .metadata(apiDataOutputUtils.buildSourceApiRequestMetadata(requestToSourceApi))
-                        .build(),
-                    processingContext);
-            } catch (Output.WriteFailure e) {
-                log.log(Level.WARNING, "Error writing to side output for original content", e);
-                builder.multivaluedHeader(
-                        Pair.of(ProcessedDataMetadataFields.WARNING.getHttpHeader(),
-                                ErrorCauses.SIDE_OUTPUT_FAILURE_SANITIZED.name()));
-            }
+            ProcessedContent originalForSideOutput = original.toBuilder()
+                .metadata(apiDataOutputUtils.buildSourceApiRequestMetadata(requestToSourceApi))
+                .build();
+            sideOutputWrites.put(ErrorCauses.SIDE_OUTPUT_FAILURE_ORIGINAL,
+                sideOutputWriter.write("original content",
+                    () -> apiDataSideOutput.writeRaw(originalForSideOutput, processingContext)));
 
             passThroughHeaders(builder, sourceApiResponse);
             if (isSuccessFamily(sourceApiResponse.getStatusCode())) {
@@ -619,16 +637,9 @@ public class ApiDataRequestHandler {
                     }
 
 
-                    try {
-                        apiDataSideOutputSanitized.writeSanitized(sanitizationResult,
-                                processingContext);
-                    } catch (Output.WriteFailure e) {
-                        log.log(Level.WARNING, "Error writing to side output for sanitized content",
-                                e);
-                        builder.multivaluedHeader(
-                                Pair.of(ProcessedDataMetadataFields.WARNING.getHttpHeader(),
-                                        ErrorCauses.SIDE_OUTPUT_FAILURE_SANITIZED.name()));
-                    }
+                    sideOutputWrites.put(ErrorCauses.SIDE_OUTPUT_FAILURE_SANITIZED,
+                        sideOutputWriter.write("sanitized content",
+                            () -> apiDataSideOutputSanitized.writeSanitized(sanitizationResult, processingContext)));
 
 
                 }
@@ -652,6 +663,14 @@ public class ApiDataRequestHandler {
                 builder.body(proxyResponseContent);
             }
 
+            // side output writes that have failed by now (always the case, if done synchronously)
+            sideOutputWrites.forEach((cause, write) -> {
+                if (write.isCompletedExceptionally()) {
+                    builder.multivaluedHeader(
+                            Pair.of(ProcessedDataMetadataFields.WARNING.getHttpHeader(), cause.name()));
+                }
+            });
+
             return builder.build();
         } finally {
             sourceApiResponse.disconnect();
@@ -716,7 +735,7 @@ public class ApiDataRequestHandler {
             loadSanitizerRules(); // ensure sanitizer is loaded
             if (!Objects.equals(pseudonymImplementation.get(),
                     sanitizer.getPseudonymizer().getOptions().getPseudonymImplementation())) {
-                return sanitizerFactory.create(rules.get(),
+                return createSanitizer(
                         pseudonymizerImplFactory.create(sanitizer.getPseudonymizer().getOptions()
                                 .withPseudonymImplementation(pseudonymImplementation.get())));
             }
@@ -1,18 +1,32 @@
 package co.worklytics.psoxy.gateway.impl;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 import javax.inject.Inject;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import co.worklytics.psoxy.gateway.BulkContentTypes;
 import co.worklytics.psoxy.gateway.ProcessedContent;
+import co.worklytics.psoxy.gateway.WebhookCollectorModeConfig;
 import co.worklytics.psoxy.gateway.impl.output.OutputUtils;
 import co.worklytics.psoxy.gateway.output.Output;
+import co.worklytics.psoxy.gateway.output.StreamingOutput;
 import lombok.extern.java.Log;
 
 /**
@@ -24,93 +38,77 @@ import lombok.extern.java.Log;
  * --> genericize that?
  *  --> do we care if people mix-up content types?
  *
- *
- *
- *
+ * large batches are split across several objects, per
+ * {@link WebhookCollectorModeConfig#getWebhookBatchOutputMaxRows()} and
+ * {@link WebhookCollectorModeConfig#getWebhookBatchOutputMaxBytes()}; each object is streamed
+ * to output, if it supports that, so memory use is bounded regardless of batch size.
  */
 @Log
 public class BatchMergeHandler {
 
     public static final String GZIP_CONTENT_ENCODING = "gzip";
 
+    static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
     // output
     OutputUtils outputUtils;
 
+    final int maxRowsPerObject;
+
+    final long maxBytesPerObject;
+
     @Inject
-    public BatchMergeHandler(OutputUtils outputUtils) {
+    public BatchMergeHandler(OutputUtils outputUtils, WebhookCollectorModeConfig webhookCollectorModeConfig) {
         this.outputUtils = Objects.requireNonNull(outputUtils, "outputUtils must not be null");
+        this.maxRowsPerObject = webhookCollectorModeConfig.getWebhookBatchOutputMaxRows();
+        this.maxBytesPerObject = webhookCollectorModeConfig.getWebhookBatchOutputMaxBytes();
+    }
+
+    public BatchMergeHandler(OutputUtils outputUtils) {
+        this(outputUtils, WebhookCollectorModeConfig.builder().build());
     }
 
     /**
      * atomically handle batch of webhooks, writing to output
-     * 
-     * ALL or NONE should be written to output
-     * 
+     *
+     * ALL or NONE of each object should be written to output; if batch is split across several
+     * objects, those written before any failure remain. Keys of objects are derived from their
+     * content, so re-processing same batch overwrites rather than duplicates them.
+     *
      * @param batch stream of webhooks to process
      */
     public void handleBatch(Stream<ProcessedContent> batch) {
-        // Implementation for handling a batch of ProcessedContent
-        // This could involve aggregating, transforming, or writing the content to an output
-        // For example, you might write each item in the batch to a single output location
-        // or perform some aggregation logic before writing.
-
-        // combine into single processes content, call output.
-
-        // create a gzipped stream of the batch content
-        AtomicInteger rowCount = new AtomicInteger(0);
-        try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-             GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream)) {
-
-            batch.forEach(item -> {
-                
-                if (item.getContentType() == null) {
-                    throw new IllegalArgumentException("Batch items must have a content type");
-                }
-                if (!BulkContentTypes.MERGEABLE_JSON_RECORD_TYPES.contains(item.getContentType())) {
-                    throw new IllegalArgumentException(
-                        "Batch items must have one of the supported content types: "
-                            + BulkContentTypes.describeContentTypes(BulkContentTypes.MERGEABLE_JSON_RECORD_TYPES)
-                            + "; was " + item.getContentType());
-                }
-                byte[] uncompressedContent;
-                if (GZIP_CONTENT_ENCODING.equals(item.getContentEncoding())) {
-                    //decompress the content
-                    try (
-                        java.io.ByteArrayInputStream byteArrayInputStream = new java.io.ByteArrayInputStream(item.getContent());
-                        java.util.zip.GZIPInputStream gzipInputStream = new java.util.zip.GZIPInputStream(byteArrayInputStream)
-                    ) {
-                        uncompressedContent = gzipInputStream.readAllBytes();
-                    } catch (IOException e) {
-                        throw new RuntimeException("Failed to decompress content", e);
-                    }
-                } else {
-                    // if not gzip, assume it's already uncompressed
-                    uncompressedContent = item.getContent();
-                }
-                // write each content item to the gzip output stream
-                try {
-                    gzipOutputStream.write(uncompressedContent);
-                    gzipOutputStream.write('\n');
-                    rowCount.incrementAndGet();
-                } catch (IOException e) {
-                    throw new RuntimeException(e);
+        // resolved only if there's something to write
+        Supplier<Output> output = Suppliers.memoize(outputUtils::forBatchedWebhookContent);
+
+        int rowCount = 0;
+        int objectCount = 0;
+        try {
+            List<ProcessedContent> rows = new ArrayList<>();
+            long rowBytes = 0;
+            Iterator<ProcessedContent> iterator = batch.iterator();
+            while (iterator.hasNext()) {
+                ProcessedContent item = iterator.next();
+
+                // full object written before validating next item, so it's not lost if that's bad
+                long itemBytes = uncompressedSize(item);
+                if (!rows.isEmpty() && (rows.size() >= maxRowsPerObject || rowBytes + itemBytes > maxBytesPerObject)) {
+                    writeMerged(output, rows);
+                    rowCount += rows.size();
+                    objectCount++;
+                    rows = new ArrayList<>();
+                    rowBytes = 0;
                 }
-            });
-
-            gzipOutputStream.finish();
-
-            int finalRowCount = rowCount.get();
-            if (rowCount.get() > 0) {
-                ProcessedContent combined = ProcessedContent.builder()
-                    .contentEncoding(GZIP_CONTENT_ENCODING)
-                    .content(byteArrayOutputStream.toByteArray())
-                    .contentType(BulkContentTypes.NDJSON.getMimeType()) // suggested, but not yet an official standard IANA type
-                    .build();
-                outputUtils.forBatchedWebhookContent().write(combined);
-                
-                log.log(Level.INFO, "Successfully processed batch with " + finalRowCount + " rows");
-            } else {
-                log.log(Level.INFO, "No rows successfully processed in batch");
+
+                validate(item);
+                rows.add(item);
+                rowBytes += itemBytes;
+            }
+
+            if (!rows.isEmpty()) {
+                writeMerged(output, rows);
+                rowCount += rows.size();
+                objectCount++;
             }
         } catch (Output.WriteFailure e) {
             log.log(Level.SEVERE, "Failed to write batched webhooks to output", e);
@@ -119,5 +117,96 @@ public class BatchMergeHandler {
             throw new RuntimeException(e);
         }
 
+        if (rowCount > 0) {
+            log.log(Level.INFO, "Successfully processed batch with " + rowCount + " rows, into " + objectCount + " objects");
+        } else {
+            log.log(Level.INFO, "No rows successfully processed in batch");
+        }
+    }
+
+    /**
+     * write rows as single gzipped NDJSON object; streamed, if output supports it
+     */
+    void writeMerged(Supplier<Output> outputSupplier, List<ProcessedContent> rows) throws IOException {
+        Output output = outputSupplier.get();
+        ProcessedContent.ProcessedContentBuilder merged = ProcessedContent.builder()
+            .contentEncoding(GZIP_CONTENT_ENCODING)
+            .contentType(BulkContentTypes.NDJSON.getMimeType()); // suggested, but not yet an official standard IANA type
+
+        if (output instanceof StreamingOutput streamingOutput) {
+            try (StreamingOutput.ContentStream contentStream = streamingOutput.open(keyFor(rows), merged.build());
+                 GZIPOutputStream gzipOutputStream = new GZIPOutputStream(contentStream, GZIP_BUFFER_SIZE)) {
+                writeRows(rows, gzipOutputStream);
+                gzipOutputStream.finish();
+                contentStream.commit();
+            }
+        } else {
+            ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(byteArrayOutputStream, GZIP_BUFFER_SIZE)) {
+                writeRows(rows, gzipOutputStream);
+            }
+            output.write(merged.content(byteArrayOutputStream.toByteArray()).build());
+        }
+    }
+
+    private void writeRows(List<ProcessedContent> rows, OutputStream out) throws IOException {
+        for (ProcessedContent row : rows) {
+            if (GZIP_CONTENT_ENCODING.equals(row.getContentEncoding())) {
+                try (GZIPInputStream gzipInputStream = new GZIPInputStream(new ByteArrayInputStream(row.getContent()))) {
+                    gzipInputStream.transferTo(out);
+                } catch (IOException e) {
+                    throw new RuntimeException("Failed to decompress content", e);
+                }
+            } else {
+                // if not gzip, assume it's already uncompressed
+                out.write(row.getContent());
+            }
+            out.write('\n');
+        }
+    }
+
+    private void validate(ProcessedContent item) {
+        if (item.getContentType() == null) {
+            throw new IllegalArgumentException("Batch items must have a content type");
+        }
+        if (!BulkContentTypes.MERGEABLE_JSON_RECORD_TYPES.contains(item.getContentType())) {
+            throw new IllegalArgumentException(
+                "Batch items must have one of the supported content types: "
+                    + BulkContentTypes.describeContentTypes(BulkContentTypes.MERGEABLE_JSON_RECORD_TYPES)
+                    + "; was " + item.getContentType());
+        }
+    }
+
+    /**
+     * @return uncompressed size of item; for gzipped items, per gzip trailer (ISIZE), so without
+     *         decompressing it
+     */
+    @VisibleForTesting
+    static long uncompressedSize(ProcessedContent item) {
+        byte[] content = item.getContent();
+        if (GZIP_CONTENT_ENCODING.equals(item.getContentEncoding()) && content.length >= 4) {
+            // little-endian, modulo 2^32; see RFC 1952
+            int n = content.length;
+            return ((content[n - 4] & 0xFFL))
+                | ((content[n - 3] & 0xFFL) << 8)
+                | ((content[n - 2] & 0xFFL) << 16)
+                | ((content[n - 1] & 0xFFL) << 24);
+        }
+        return content.length;
+    }
+
+    /**
+     * @return key for merged object, derived from its rows
+     */
+    @VisibleForTesting
+    static String keyFor(List<ProcessedContent> rows) {
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        for (ProcessedContent row : rows) {
+            digest.update(String.valueOf(row.getContentEncoding()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(row.getContent());
+            digest.update((byte) '\n');
+        }
+        return Hex.encodeHexString(digest.digest());
     }
 }
@@ -6,16 +6,25 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 import javax.inject.Named;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.http.HttpStatus;
 import org.apache.http.ParseException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSVerifier;
 import com.nimbusds.jose.crypto.RSASSAVerifier;
@@ -34,7 +43,10 @@ import co.worklytics.psoxy.gateway.auth.PublicKeyStoreClient;
 import co.worklytics.psoxy.gateway.auth.PublicKeyStoreClient.PublicKeyVersionId;
 import co.worklytics.psoxy.gateway.output.Output;
 import dagger.Lazy;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.SneakyThrows;
+import lombok.Value;
 import lombok.extern.java.Log;
 
 /**
@@ -54,6 +66,22 @@ public class InboundWebhookHandler implements JwtAuthorizedResource {
     // check and allow *some* clock skew in iat and exp
     static final Duration ALLOWED_CLOCK_SKEW = Duration.ofMinutes(2);
 
+    // verifiers for acceptable keys re-built after this, to pick up key rotation
+    static final Duration VERIFIERS_TTL = Duration.ofMinutes(5);
+
+    // min time between re-builds of verifiers due to JWT with unknown kid
+    static final Duration MIN_VERIFIERS_REFRESH_INTERVAL = Duration.ofSeconds(30);
+
+    // how long a token, once its signature verified, is trusted without re-verifying it; claims
+    // (eg, exp) are still checked each time
+    static final Duration VERIFIED_TOKEN_TTL = Duration.ofMinutes(1);
+
+    // max verifications, per second, of JWTs without a kid of an acceptable key; as each is tried
+    // against every acceptable key, so costs most, and may be done for any request, authorized or not
+    static final int MAX_ALL_KEYS_VERIFICATIONS_PER_SECOND = 100;
+
+    static final String INVALID_SIGNATURE_ERROR = "JWT verification failed due to invalid signature";
+
     private final Output output;
     private final WebhookSanitizer webhookSanitizer;
     private final ConfigService configService;
@@ -62,6 +90,21 @@ public class InboundWebhookHandler implements JwtAuthorizedResource {
     private final Set<PublicKeyStoreClient> publicKeyStoreClients;
     private final Clock clock;
 
+    private volatile KeyVerifiers keyVerifiers;
+
+    // keyed by SHA-256 of token, so tokens themselves (credentials) aren't held in memory
+    final Cache<String, Boolean> verifiedTokens = CacheBuilder.newBuilder()
+        .expireAfterWrite(VERIFIED_TOKEN_TTL)
+        .maximumSize(10_000)
+        .build();
+
+    private final Object $allKeysRateLimitLock = new Object[0];
+    private Instant allKeysVerificationsSince = Instant.EPOCH;
+    private int allKeysVerifications;
+
+    @Getter(AccessLevel.PACKAGE)
+    private final SignatureVerificationMetrics signatureVerificationMetrics = new SignatureVerificationMetrics();
+
     @Inject
     public InboundWebhookHandler(Lazy<WebhookSanitizer> webhookSanitizerProvider,
                                  @Named("forWebhooks") Output output,
@@ -160,7 +203,7 @@ public class InboundWebhookHandler implements JwtAuthorizedResource {
             }
 
             // verify authorization header is signed with one of the acceptable public keys
-            Optional<String> validationError = this.validate(authToken.get(), acceptableAuthKeys().values());
+            Optional<String> validationError = this.validate(authToken.get());
 
             if (validationError.isPresent()) {
                 return HttpEventResponse.builder()
@@ -236,7 +279,15 @@ public class InboundWebhookHandler implements JwtAuthorizedResource {
      */
     @Override
     public Optional<String> validate(SignedJWT jwt) {
-        return validate(jwt, acceptableAuthKeys().values());
+        Optional<String> claimsError = validateClaims(jwt);
+        if (claimsError.isPresent()) {
+            return claimsError;
+        }
+
+        if (!verifySignature(jwt)) {
+            return Optional.of(INVALID_SIGNATURE_ERROR);
+        }
+        return Optional.empty();
     }
 
     @Override
@@ -250,8 +301,24 @@ public class InboundWebhookHandler implements JwtAuthorizedResource {
      * @param publicKeys to verify the signature against; if ANY of these keys can verify the signature, the JWT is considered valid
      * @return optional with the failure, if any
      */
-    @SneakyThrows
     public Optional<String> validate(SignedJWT signedJWT, Collection<RSAPublicKey> publicKeys) {
+        Optional<String> claimsError = validateClaims(signedJWT);
+        if (claimsError.isPresent()) {
+            return claimsError;
+        }
+
+        boolean signatureValid = verifyWithAny(signedJWT, publicKeys.stream()
+            .map(RSASSAVerifier::new)
+            .collect(Collectors.toList()));
+
+        if (!signatureValid) {
+            return Optional.of(INVALID_SIGNATURE_ERROR);
+        }
+        return Optional.empty();
+    }
+
+    @SneakyThrows
+    Optional<String> validateClaims(SignedJWT signedJWT) {
         Instant now = clock.instant();
 
         if (signedJWT.getJWTClaimsSet() == null) {
@@ -278,25 +345,180 @@ public class InboundWebhookHandler implements JwtAuthorizedResource {
             return Optional.of("Auth token invalid because its expires too far in future: " + signedJWT.getJWTClaimsSet().getExpirationTime());
         }
 
-        boolean signatureValid = publicKeys.stream()
-            .filter(k -> {
-                JWSVerifier verifier = new RSASSAVerifier(k);
-                try {
-                    return signedJWT.verify(verifier);
-                } catch (JOSEException e) {
-                    log.log(Level.WARNING, "Failed to verify signature, will try other keys; " + e.getMessage(), e);
-                    return false;
+        // TODO: validate issuer?? do we care? doesn't exactly help a lot, unless they give multiple tools access to use the same signing keys
+
+        return Optional.empty();
+    }
+
+    /**
+     * verifies signature of JWT against acceptable keys; if JWT's `kid` matches id of one of them
+     * (as served by {@link JwksDecorator}), against only that one.
+     *
+     * @return whether signature is valid
+     */
+    boolean verifySignature(SignedJWT signedJWT) {
+        long start = System.nanoTime();
+        String tokenHash = Optional.ofNullable(signedJWT.getParsedString())
+            .map(DigestUtils::sha256Hex)
+            .orElse(null);
+
+        SignatureVerification verification;
+        boolean valid;
+        if (tokenHash != null && verifiedTokens.getIfPresent(tokenHash) != null) {
+            verification = SignatureVerification.CACHED;
+            valid = true;
+        } else {
+            String keyId = signedJWT.getHeader().getKeyID();
+            Optional<JWSVerifier> verifier = Optional.ofNullable(keyId).flatMap(this::getVerifier);
+            if (verifier.isPresent()) {
+                verification = SignatureVerification.BY_KEY_ID;
+                valid = verify(signedJWT, verifier.get());
+            } else if (tryAcquireAllKeysVerification()) {
+                // no kid, or not one of ours; so can't tell which key, if any, signed it
+                verification = SignatureVerification.ALL_KEYS;
+                valid = verifyWithAny(signedJWT, getVerifiers(false).values());
+            } else {
+                verification = SignatureVerification.ALL_KEYS_RATE_LIMITED;
+                valid = false;
+            }
+            if (valid && tokenHash != null) {
+                verifiedTokens.put(tokenHash, Boolean.TRUE);
+            }
+        }
+
+        signatureVerificationMetrics.record(verification, valid, System.nanoTime() - start);
+        return valid;
+    }
+
+    /**
+     * @return whether JWT may be verified against all acceptable keys, within
+     *          {@link #MAX_ALL_KEYS_VERIFICATIONS_PER_SECOND}
+     */
+    private boolean tryAcquireAllKeysVerification() {
+        Instant now = clock.instant();
+        synchronized ($allKeysRateLimitLock) {
+            if (!now.isBefore(allKeysVerificationsSince.plusSeconds(1))) {
+                allKeysVerificationsSince = now;
+                allKeysVerifications = 0;
+            }
+            if (allKeysVerifications >= MAX_ALL_KEYS_VERIFICATIONS_PER_SECOND) {
+                return false;
+            }
+            if (++allKeysVerifications == MAX_ALL_KEYS_VERIFICATIONS_PER_SECOND) {
+                log.warning("Verified " + MAX_ALL_KEYS_VERIFICATIONS_PER_SECOND + " JWTs without kid of an acceptable key within 1s; rejecting any more until 1s elapsed");
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return verifier for key with id, if it's one of acceptable keys
+     */
+    private Optional<JWSVerifier> getVerifier(String keyId) {
+        JWSVerifier verifier = getVerifiers(false).get(keyId);
+        if (verifier == null) {
+            // maybe a key added since verifiers were built (rotation)
+            verifier = getVerifiers(true).get(keyId);
+        }
+        return Optional.ofNullable(verifier);
+    }
+
+    /**
+     * @param refresh whether to rebuild verifiers, if not done so within {@link #MIN_VERIFIERS_REFRESH_INTERVAL}
+     * @return verifiers for acceptable keys, by key id
+     */
+    private Map<String, JWSVerifier> getVerifiers(boolean refresh) {
+        Instant now = clock.instant();
+        KeyVerifiers current = keyVerifiers;
+        if (current == null
+            || current.getBuiltAt().plus(VERIFIERS_TTL).isBefore(now)
+            || (refresh && current.getBuiltAt().plus(MIN_VERIFIERS_REFRESH_INTERVAL).isBefore(now))) {
+            synchronized (this) {
+                if (keyVerifiers == current) {
+                    Map<String, JWSVerifier> verifiers = new LinkedHashMap<>();
+                    acceptableAuthKeys().forEach((id, key) -> verifiers.put(id.toString(), new RSASSAVerifier(key)));
+                    keyVerifiers = new KeyVerifiers(now, Collections.unmodifiableMap(verifiers));
                 }
-            })
-            .findFirst().isPresent();
+                current = keyVerifiers;
+            }
+        }
+        return current.getByKeyId();
+    }
 
-        if (!signatureValid ) {
-            return Optional.of("JWT verification failed due to invalid signature");
+    private boolean verifyWithAny(SignedJWT signedJWT, Collection<JWSVerifier> verifiers) {
+        return verifiers.stream().anyMatch(verifier -> verify(signedJWT, verifier));
+    }
+
+    private boolean verify(SignedJWT signedJWT, JWSVerifier verifier) {
+        try {
+            return signedJWT.verify(verifier);
+        } catch (JOSEException e) {
+            log.log(Level.FINE, "Failed to verify signature; " + e.getMessage(), e);
+            return false;
         }
+    }
 
-        // TODO: validate issuer?? do we care? doesn't exactly help a lot, unless they give multiple tools access to use the same signing keys
+    @Value
+    static class KeyVerifiers {
+        Instant builtAt;
+        Map<String, JWSVerifier> byKeyId;
+    }
 
-        return Optional.empty();
+    enum SignatureVerification {
+        // signature of same token verified recently
+        CACHED,
+        // verified against key identified by token's kid
+        BY_KEY_ID,
+        // verified against each acceptable key in turn
+        ALL_KEYS,
+        // would have been verified against each acceptable key in turn, but too many such recently; so rejected
+        ALL_KEYS_RATE_LIMITED,
+    }
+
+    /**
+     * counts and latency of signature verifications, by how verified; logged periodically
+     */
+    static class SignatureVerificationMetrics {
+
+        static final int LOG_EVERY = 1000;
+
+        final Map<SignatureVerification, LongAdder> counts = new EnumMap<>(SignatureVerification.class);
+        final Map<SignatureVerification, LongAdder> nanos = new EnumMap<>(SignatureVerification.class);
+        final LongAdder failures = new LongAdder();
+        final AtomicLong total = new AtomicLong();
+
+        SignatureVerificationMetrics() {
+            for (SignatureVerification verification : SignatureVerification.values()) {
+                counts.put(verification, new LongAdder());
+                nanos.put(verification, new LongAdder());
+            }
+        }
+
+        void record(SignatureVerification verification, boolean valid, long elapsedNanos) {
+            counts.get(verification).increment();
+            nanos.get(verification).add(elapsedNanos);
+            if (!valid) {
+                failures.increment();
+            }
+            if (log.isLoggable(Level.FINE)) {
+                log.fine(String.format("JWT signature %s (%s) in %d us", valid ? "verified" : "invalid", verification, TimeUnit.NANOSECONDS.toMicros(elapsedNanos)));
+            }
+            if (total.incrementAndGet() % LOG_EVERY == 0) {
+                log.info("JWT signature verifications: " + this);
+            }
+        }
+
+        long getCount(SignatureVerification verification) {
+            return counts.get(verification).sum();
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.stream(SignatureVerification.values())
+                .map(v -> String.format("%s: %d (avg %d us)", v, getCount(v),
+                    getCount(v) == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(nanos.get(v).sum() / getCount(v))))
+                .collect(Collectors.joining(", ")) + ", invalid: " + failures.sum();
+        }
     }
 
     public Map<PublicKeyVersionId, RSAPublicKey> acceptableAuthKeys() {
@@ -0,0 +1,63 @@
+package co.worklytics.psoxy.gateway.impl;
+
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.net.ssl.SSLContext;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.auth.http.HttpTransportFactory;
+import co.worklytics.psoxy.gateway.ApiModeConfig;
+
+/**
+ * provides a single, long-lived transport for calls to source API, so connections (and TLS
+ * sessions) are reused across requests handled by same instance, rather than established anew
+ * for each
+ */
+@Singleton
+public class SourceApiHttpTransportFactory implements HttpTransportFactory {
+
+    private final ApiModeConfig apiModeConfig;
+
+    private volatile HttpTransport transport;
+
+    @Inject
+    public SourceApiHttpTransportFactory(ApiModeConfig apiModeConfig) {
+        this.apiModeConfig = apiModeConfig;
+    }
+
+    @Override
+    public HttpTransport create() {
+        if (transport == null) {
+            synchronized (this) {
+                if (transport == null) {
+                    transport = buildTransport();
+                }
+            }
+        }
+        return transport;
+    }
+
+    private HttpTransport buildTransport() {
+        SSLContext sslContext = buildSslContext(apiModeConfig.getTlsVersion());
+
+        // HttpURLConnection keeps connections alive itself (per `http.keepAlive`,
+        // `http.maxConnections` system properties), but only re-uses them for requests through
+        // the same socket factory; hence one transport, rather than one per request
+        return new NetHttpTransport.Builder()
+            .setSslSocketFactory(sslContext.getSocketFactory())
+            .build();
+    }
+
+    static SSLContext buildSslContext(String sslContextProtocol) {
+        try {
+            SSLContext sslContext = SSLContext.getInstance(sslContextProtocol);
+            sslContext.init(null, null, new SecureRandom());
+            return sslContext;
+        } catch (NoSuchAlgorithmException | KeyManagementException e) {
+            throw new RuntimeException("Failed to create custom SSL context with " + sslContextProtocol, e);
+        }
+    }
+}
@@ -30,12 +30,13 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import lombok.Setter;
+import lombok.Value;
 import lombok.extern.java.Log;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hc.core5.net.URIBuilder;
 
+import javax.annotation.Nullable;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.IOException;
@@ -50,6 +51,12 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -102,6 +109,16 @@ public class OAuthRefreshTokenSourceAuthStrategy implements SourceAuthStrategy {
     protected final Duration MAX_PROACTIVE_TOKEN_REFRESH =
             MIN_PROACTIVE_TOKEN_REFRESH.plusMinutes(9L);
 
+    @VisibleForTesting
+    static final double DEFAULT_REFRESH_AHEAD_FRACTION = 0.8;
+
+    /**
+     * tokens closer than this to expiry aren't used for requests; rather, requests wait for a
+     * new one
+     */
+    @VisibleForTesting
+    static final Duration MIN_REMAINING_VALIDITY_TO_USE = Duration.ofSeconds(30);
+
     // q: should we put these as config properties? creates potential for inconsistent configs
     // eg, orphaned config properties for SourceAuthStrategy not in use; missing config properties
     // expected by this
@@ -135,7 +152,16 @@ public class OAuthRefreshTokenSourceAuthStrategy implements SourceAuthStrategy {
         ACCESS_TOKEN_CACHEABLE(false, SupportedSource.ENV_VAR),
 
 
-        TOKEN_RESPONSE_TYPE(false, SupportedSource.ENV_VAR);
+        TOKEN_RESPONSE_TYPE(false, SupportedSource.ENV_VAR),
+
+        /**
+         * fraction of access token's lifetime after which it's renewed in background, while
+         * requests continue to use it; eg, 0.8 renews a 1h token after 48 min
+         *
+         * default: 0.8
+         */
+        ACCESS_TOKEN_REFRESH_AHEAD_FRACTION(false, SupportedSource.ENV_VAR),
+        ;
 
         private final Boolean noCache;
 
@@ -161,15 +187,69 @@ public class OAuthRefreshTokenSourceAuthStrategy implements SourceAuthStrategy {
     @Inject // injected, so can be mocked for tests
     RandomNumberGenerator randomNumberGenerator;
 
+    /**
+     * access token, with when to renew it, as published together
+     */
+    @Value
+    static class TokenState {
+
+        AccessToken token;
+
+        /**
+         * when to renew token in background; if null, renewed only once within proactive refresh
+         * window of its expiry (see {@link OAuthRefreshTokenSourceAuthStrategy#shouldRefresh})
+         */
+        @Nullable
+        Instant refreshAheadAt;
+    }
+
     /**
      * In-memory access token shared across concurrent requests on this instance.
      *
-     * <p>Volatile for visibility on unsynchronized reads in {@link #getCredentials}; writes
-     * occur from {@code getCredentials} and from the synchronized refresh handler.
+     * <p>Volatile for visibility on unsynchronized reads in {@link #getCredentials}; token and
+     * its refresh time are replaced together, so readers never see one without the other.
      */
-    @Setter
-    @Getter
-    private volatile AccessToken cachedToken = null;
+    private volatile TokenState tokenState = null;
+
+    /**
+     * whether a background refresh is queued or running; so at most one at a time
+     */
+    private final AtomicBoolean refreshAheadInFlight = new AtomicBoolean(false);
+
+    private ScheduledExecutorService refresher;
+
+    private ScheduledFuture<?> scheduledRefresh;
+
+    public AccessToken getCachedToken() {
+        TokenState state = this.tokenState;
+        return state == null ? null : state.getToken();
+    }
+
+    public void setCachedToken(AccessToken accessToken) {
+        publishToken(accessToken, null);
+    }
+
+    /**
+     * make token available to requests on this instance; and, if refreshAheadAt given, schedule
+     * its renewal in background at that time
+     *
+     * NOTE: if instance is frozen between invocations (eg, AWS Lambda), scheduled renewal will run
+     * when it thaws, if by then due; requests also trigger it, if due
+     */
+    void publishToken(AccessToken accessToken, @Nullable Instant refreshAheadAt) {
+        this.tokenState = new TokenState(accessToken, refreshAheadAt);
+
+        synchronized (refreshAheadInFlight) {
+            if (scheduledRefresh != null) {
+                scheduledRefresh.cancel(false);
+                scheduledRefresh = null;
+            }
+            if (accessToken != null && refreshAheadAt != null) {
+                long delayMillis = Math.max(0, Duration.between(clock.instant(), refreshAheadAt).toMillis());
+                scheduledRefresh = getRefresher().schedule(this::refreshAheadInBackground, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
 
 
     @Override
@@ -212,17 +292,25 @@ public class OAuthRefreshTokenSourceAuthStrategy implements SourceAuthStrategy {
         AccessToken accessToken = this.getCachedToken();
         if (accessToken == null) {
             accessToken = getSharedAccessTokenIfSupported().orElse(null);
-            this.setCachedToken(accessToken);
+            if (accessToken != null) {
+                this.publishToken(accessToken, computeRefreshAheadAt(accessToken, clock.instant()));
+            }
         }
 
-
-        if (shouldRefresh(accessToken, clock.instant())) {
+        Instant now = clock.instant();
+        if (!isUsable(accessToken, now)) {
+            // no token that's still valid, so nothing for this request to use meanwhile; must wait
             try {
                 accessToken = getRefreshHandler().refreshAccessToken();
-                this.setCachedToken(accessToken);
+                if (this.getCachedToken() != accessToken) {
+                    this.setCachedToken(accessToken);
+                }
             } catch (IOException e) {
-                log.log(Level.WARNING, "Failed to proactively refresh token", e);
+                log.log(Level.WARNING, "Failed to refresh token", e);
             }
+        } else if (shouldRefresh(accessToken, now) || isDueForRefreshAhead(now)) {
+            // still valid, so use it; but renew in background
+            refreshAheadInBackground();
         }
 
        return OAuth2CredentialsWithRefresh.newBuilder()
@@ -306,6 +394,108 @@ public class OAuthRefreshTokenSourceAuthStrategy implements SourceAuthStrategy {
         return now.isAfter(thresholdToProactiveRefresh);
     }
 
+    /**
+     * @return whether token may be used for a request at time now
+     */
+    @VisibleForTesting
+    boolean isUsable(AccessToken accessToken, Instant now) {
+        if (accessToken == null) {
+            return false;
+        }
+        if (accessToken.getExpirationTime() == null) {
+            return true;
+        }
+        return now.plus(MIN_REMAINING_VALIDITY_TO_USE).isBefore(accessToken.getExpirationTime().toInstant());
+    }
+
+    /**
+     * @return whether cached token is due to be renewed ahead of its expiry, at time now
+     */
+    boolean isDueForRefreshAhead(Instant now) {
+        TokenState state = this.tokenState;
+        return state != null && state.getRefreshAheadAt() != null && !now.isBefore(state.getRefreshAheadAt());
+    }
+
+    /**
+     * @param accessToken newly obtained
+     * @param now when obtained
+     * @return when to renew token, as fraction of its remaining lifetime; null if it doesn't expire
+     */
+    @VisibleForTesting
+    Instant computeRefreshAheadAt(@NonNull AccessToken accessToken, Instant now) {
+        if (accessToken.getExpirationTime() == null) {
+            return null;
+        }
+        Duration remaining = Duration.between(now, accessToken.getExpirationTime().toInstant());
+        if (remaining.isNegative()) {
+            return now;
+        }
+        return now.plusMillis((long) (remaining.toMillis() * getRefreshAheadFraction()));
+    }
+
+    @VisibleForTesting
+    double getRefreshAheadFraction() {
+        Optional<Double> configured = config.getConfigPropertyAsOptional(ConfigProperty.ACCESS_TOKEN_REFRESH_AHEAD_FRACTION)
+            .map(value -> {
+                try {
+                    return Double.parseDouble(value.trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            });
+        if (configured.isPresent() && configured.get() > 0 && configured.get() <= 1) {
+            return configured.get();
+        } else {
+            configured.ifPresent(value -> log.warning("Invalid " + ConfigProperty.ACCESS_TOKEN_REFRESH_AHEAD_FRACTION.name()
+                + "; expected value in (0, 1]; using default " + DEFAULT_REFRESH_AHEAD_FRACTION));
+            return DEFAULT_REFRESH_AHEAD_FRACTION;
+        }
+    }
+
+    /**
+     * renew token in background, unless already doing so; requests meanwhile continue to use
+     * current token
+     */
+    void refreshAheadInBackground() {
+        if (!refreshAheadInFlight.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            getRefresher().execute(this::refreshAhead);
+        } catch (RejectedExecutionException e) {
+            refreshAheadInFlight.set(false);
+            log.log(Level.WARNING, "Failed to schedule token refresh", e);
+        }
+    }
+
+    private void refreshAhead() {
+        try {
+            OAuth2CredentialsWithRefresh.OAuth2RefreshHandler refreshHandler = getRefreshHandler();
+            AccessToken accessToken = refreshHandler instanceof TokenRefreshHandlerImpl
+                ? ((TokenRefreshHandlerImpl) refreshHandler).refreshAccessTokenAhead()
+                : refreshHandler.refreshAccessToken();
+            if (this.getCachedToken() != accessToken) {
+                this.publishToken(accessToken, computeRefreshAheadAt(accessToken, clock.instant()));
+            }
+        } catch (Throwable e) {
+            // requests keep using current token until it expires, re-triggering this meanwhile
+            log.log(Level.WARNING, "Failed to refresh token ahead of expiry", e);
+        } finally {
+            refreshAheadInFlight.set(false);
+        }
+    }
+
+    private synchronized ScheduledExecutorService getRefresher() {
+        if (refresher == null) {
+            refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "oauth-token-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return refresher;
+    }
+
     @VisibleForTesting
     protected int getProactiveGracePeriodSeconds() {
         int maxSeconds = (int) MAX_PROACTIVE_TOKEN_REFRESH.toSeconds();
@@ -430,7 +620,19 @@ public class OAuthRefreshTokenSourceAuthStrategy implements SourceAuthStrategy {
             } else {
                 DevLogUtils.info(envVarsConfigService, log, "Refreshing token, no cached value yet");
             }
-            return refreshAccessToken(0);
+            return refreshAccessToken(0, false);
+        }
+
+        /**
+         * as {@link #refreshAccessToken()}, but renews cached token if it's due for refresh ahead of
+         * its expiry, even if still valid
+         *
+         * @return the resulting AccessToken
+         * @throws IOException if anything went wrong;
+         */
+        public synchronized AccessToken refreshAccessTokenAhead() throws IOException {
+            DevLogUtils.info(envVarsConfigService, log, "Refreshing token ahead of expiry");
+            return refreshAccessToken(0, true);
         }
 
         /**
@@ -441,25 +643,45 @@ public class OAuthRefreshTokenSourceAuthStrategy implements SourceAuthStrategy {
          * store when {@link OAuthRefreshTokenSourceAuthStrategy#useSharedToken()} is true
          * (cross-instance refreshes).
          *
+         * @param ahead whether refreshing ahead of expiry; if so, cached token isn't reusable if due
+         *              for that, and shared one only if it's been renewed since
          * @return a non-expired token to reuse, or empty if a refresh exchange is required
          */
-        private Optional<AccessToken> findReusableAccessToken() {
+        private Optional<AccessToken> findReusableAccessToken(boolean ahead) {
+            Instant now = clock.instant();
             AccessToken cachedToken = sourceAuthStrategy.getCachedToken();
-            if (!sourceAuthStrategy.shouldRefresh(cachedToken, clock.instant())) {
+            if (!sourceAuthStrategy.shouldRefresh(cachedToken, now)
+                && !(ahead && sourceAuthStrategy.isDueForRefreshAhead(now))) {
                 return Optional.of(cachedToken);
             }
 
             AccessToken sharedToken =
                 sourceAuthStrategy.getSharedAccessTokenIfSupported().orElse(null);
-            if (sourceAuthStrategy.shouldRefresh(sharedToken, clock.instant())) {
+            if (sourceAuthStrategy.shouldRefresh(sharedToken, now)) {
                 return Optional.empty();
             } else if (sharedToken != null) {
+                if (ahead && cachedToken != null && !isRenewalOf(sharedToken, cachedToken)) {
+                    // same token we're renewing; no other instance has renewed it yet
+                    return Optional.empty();
+                }
                 return Optional.of(sharedToken);
             }
             return Optional.empty();
         }
 
-        private AccessToken refreshAccessToken(int attempt) throws IOException {
+        /**
+         * @return whether sharedToken is a renewal of cachedToken; by expiration, if both have one,
+         * otherwise by whether token value differs
+         */
+        @VisibleForTesting
+        static boolean isRenewalOf(AccessToken sharedToken, AccessToken cachedToken) {
+            if (sharedToken.getExpirationTime() == null || cachedToken.getExpirationTime() == null) {
+                return !Objects.equals(sharedToken.getTokenValue(), cachedToken.getTokenValue());
+            }
+            return sharedToken.getExpirationTime().after(cachedToken.getExpirationTime());
+        }
+
+        private AccessToken refreshAccessToken(int attempt, boolean ahead) throws IOException {
             if (attempt == MAX_TOKEN_REFRESH_ATTEMPTS) {
                 throw new RuntimeException("Failed to refresh token after " + attempt + " attempts");
             }
@@ -473,7 +695,7 @@ public class OAuthRefreshTokenSourceAuthStrategy implements SourceAuthStrategy {
             AccessToken token;
             if (acquired) {
                 DevLogUtils.info(envVarsConfigService, log, "Acquired lock to refresh token");
-                Optional<AccessToken> reusableToken = findReusableAccessToken();
+                Optional<AccessToken> reusableToken = findReusableAccessToken(ahead);
                 if (reusableToken.isEmpty()) {
                     // token still expired, refresh with lock acquired
                     DevLogUtils.info(envVarsConfigService, log, "Token refresh in progress");
@@ -495,7 +717,9 @@ public class OAuthRefreshTokenSourceAuthStrategy implements SourceAuthStrategy {
                     token = reusableToken.get();
                 }
 
-                sourceAuthStrategy.setCachedToken(token);
+                if (token != sourceAuthStrategy.getCachedToken()) {
+                    sourceAuthStrategy.publishToken(token, sourceAuthStrategy.computeRefreshAheadAt(token, clock.instant()));
+                }
 
 
                 if (lockNeeded) {
@@ -514,7 +738,7 @@ public class OAuthRefreshTokenSourceAuthStrategy implements SourceAuthStrategy {
                         .plusMillis(randomNumberGenerator.nextInt(250)).multipliedBy(attempt + 1));
 
                 DevLogUtils.info(envVarsConfigService, log, "Failed to acquire lock to refresh token, re-trying. Attempt %d", attempt);
-                token = refreshAccessToken(attempt + 1);
+                token = refreshAccessToken(attempt + 1, ahead);
             }
 
             return token;
@@ -0,0 +1,199 @@
+package co.worklytics.psoxy.gateway.impl.output;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import com.google.common.annotations.VisibleForTesting;
+import co.worklytics.psoxy.gateway.ApiModeConfig;
+import lombok.extern.java.Log;
+
+/**
+ * does writes to side outputs, either on the calling thread or, if
+ * {@link ApiModeConfig#isSideOutputAsync()}, in background
+ *
+ * in background case, writes are queued to a bounded queue; if it's full, write is done on calling
+ * thread instead (backpressure). failed writes are retried a few times. callers get a future for
+ * each write, so they can report failures that happen to occur before their response is sent.
+ *
+ * see {@link ApiModeConfig#isSideOutputAsync()} for when writing in background actually helps.
+ *
+ * writes still pending when a request completes should be awaited with {@link #drain(Duration)},
+ * before handler returns, as function instances (Lambda, Cloud Run) may be frozen / have CPU
+ * throttled after. Pending writes are tracked per thread that requested them, so a request awaits
+ * only its own writes, not those of requests handled concurrently.
+ */
+@Log
+@Singleton
+public class SideOutputWriter {
+
+    /**
+     * a write to a side output
+     */
+    @FunctionalInterface
+    public interface Write {
+        void write() throws IOException;
+    }
+
+    static final int THREADS = 2;
+
+    static final int MAX_ATTEMPTS = 3;
+
+    static final Duration RETRY_BACKOFF = Duration.ofMillis(100);
+
+    final ApiModeConfig apiModeConfig;
+
+    // all writes pending in background; awaited on shutdown
+    private final Set<CompletableFuture<Void>> pending = ConcurrentHashMap.newKeySet();
+
+    // writes pending in background, requested by current thread
+    private final ThreadLocal<Set<CompletableFuture<Void>>> pendingOfThread =
+        ThreadLocal.withInitial(ConcurrentHashMap::newKeySet);
+
+    private volatile ThreadPoolExecutor executor;
+
+    @Inject
+    public SideOutputWriter(ApiModeConfig apiModeConfig) {
+        this.apiModeConfig = apiModeConfig;
+    }
+
+    /**
+     * @param description of what's written, for logging
+     * @param write       to do
+     * @return future, completed once write done; exceptionally if it failed (after any retries)
+     * @throws RuntimeException if write done on calling thread, as not async, and fails with one;
+     *                          only I/O failures are returned as failed futures in that case
+     */
+    public CompletableFuture<Void> write(String description, Write write) {
+        if (!apiModeConfig.isSideOutputAsync()) {
+            try {
+                writeOrThrow(description, write, 1);
+                return CompletableFuture.completedFuture(null);
+            } catch (SideOutputWriteFailure e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Set<CompletableFuture<Void>> ofThread = pendingOfThread.get();
+        pending.add(future);
+        ofThread.add(future);
+        future.whenComplete((result, e) -> {
+            pending.remove(future);
+            ofThread.remove(future);
+        });
+
+        // if queue full, CallerRunsPolicy runs this on calling thread
+        getExecutor().execute(() -> {
+            try {
+                writeOrThrow(description, write, MAX_ATTEMPTS);
+                future.complete(null);
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * waits for writes pending in background, that were requested by current thread, to complete
+     *
+     * @param timeout max time to wait
+     * @return whether all such writes completed within timeout
+     */
+    public boolean drain(Duration timeout) {
+        return await(pendingOfThread.get(), timeout);
+    }
+
+    /**
+     * waits for all writes pending in background to complete, whichever thread requested them
+     *
+     * @param timeout max time to wait
+     * @return whether all pending writes completed within timeout
+     */
+    public boolean drainAll(Duration timeout) {
+        return await(pending, timeout);
+    }
+
+    private boolean await(Set<CompletableFuture<Void>> writes, Duration timeout) {
+        if (writes.isEmpty()) {
+            return true;
+        }
+        try {
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture[0]))
+                .get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // failures already logged by write
+        } catch (TimeoutException e) {
+            log.log(Level.WARNING, writes.size() + " side output writes still pending after " + timeout);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
+    }
+
+    private void writeOrThrow(String description, Write write, int maxAttempts) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                write.write();
+                return;
+            } catch (IOException | RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.log(Level.WARNING, "Error writing to side output for " + description, e);
+                    throw e instanceof IOException ? new SideOutputWriteFailure(e) : (RuntimeException) e;
+                }
+                log.log(Level.INFO, "Error writing to side output for " + description + "; will retry", e);
+                try {
+                    Thread.sleep(RETRY_BACKOFF.toMillis() * attempt);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new SideOutputWriteFailure(e);
+                }
+            }
+        }
+    }
+
+    @VisibleForTesting
+    ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    AtomicInteger threadCount = new AtomicInteger();
+                    executor = new ThreadPoolExecutor(THREADS, THREADS, 0L, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(apiModeConfig.getSideOutputAsyncQueueSize()),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "side-output-writer-" + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        },
+                        new ThreadPoolExecutor.CallerRunsPolicy());
+                    Runtime.getRuntime().addShutdownHook(new Thread(() -> drainAll(Duration.ofSeconds(10)),
+                        "side-output-writer-shutdown-hook"));
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * failure of write to side output, after any retries
+     */
+    public static class SideOutputWriteFailure extends RuntimeException {
+
+        public SideOutputWriteFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package co.worklytics.psoxy.gateway.output;
+
+import co.worklytics.psoxy.gateway.ProcessedContent;
+
+import java.io.OutputStream;
+
+/**
+ * an {@link Output} to which content may be streamed, rather than passed as a whole; so writers
+ * needn't hold all content in memory before writing it
+ *
+ * eg, S3 (via multipart upload), GCS (via resumable upload)
+ */
+public interface StreamingOutput extends Output {
+
+    /**
+     * opens stream to write content to this output, with a specific key
+     *
+     * content is written to output only once {@link ContentStream#commit()} is called; if stream
+     * is closed without that (eg, as writing it failed part-way), content is discarded
+     *
+     * @param key     the key to associate with the content; see {@link #write(String, ProcessedContent)}
+     * @param content content type, encoding, metadata of content to write; its content itself is ignored
+     * @return stream to write content to
+     * @throws WriteFailure if stream could not be opened
+     */
+    ContentStream open(String key, ProcessedContent content) throws WriteFailure;
+
+    /**
+     * stream of content to an output, which must be explicitly committed
+     */
+    abstract class ContentStream extends OutputStream {
+
+        /**
+         * writes content streamed so far to output, as a whole
+         *
+         * @throws WriteFailure if content could not be written; nothing is written in that case
+         */
+        public abstract void commit() throws WriteFailure;
+    }
+}
@@ -2,8 +2,13 @@ package co.worklytics.psoxy.impl;
 
 import com.avaulta.gateway.rules.augments.Augment;
 import com.avaulta.gateway.rules.augments.SentenceMetadataProcessor;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
 import com.jayway.jsonpath.PathNotFoundException;
@@ -13,7 +18,11 @@ import javax.inject.Inject;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Applies augments to a JSON document, adding synthetic sibling properties
@@ -25,8 +34,15 @@ import java.util.logging.Level;
  * <p>Processing is intentionally non-fatal: any augment failure (exception, timeout,
  * schema validation) results in the augment property being omitted with a warning logged.
  *
+ * <p>Where an augment's path ends with a plain property name (eg, {@code $.value[*].body.content}),
+ * its parent path is read directly to get the matched parent nodes, and the augment applied to
+ * that property of each; cost is linear in matches, with no per-match paths compiled. Other paths
+ * (eg, {@code $..content}) are resolved to concrete paths via {@code AS_PATH_LIST}, and the
+ * parent of each of those looked up.
+ *
  * <p>NOTE: this class must be thread-safe. A single instance may be shared across
- * concurrent requests. Compiled JsonPaths are cached in a ConcurrentHashMap.
+ * concurrent requests. Compiled JsonPaths are cached in a ConcurrentHashMap (per augment) and a
+ * bounded cache (concrete/inner paths resolved at runtime).
  *
  * @see <a href="file:///docs/development/augments.md">Augments Design Doc</a>
  */
@@ -51,6 +67,12 @@ public class AugmentProcessor {
      */
     final Configuration pathListConfiguration;
 
+    /**
+     * Same as {@link #jsonConfiguration}, plus {@link Option#ALWAYS_RETURN_LIST}: reads return list of
+     * matched nodes, whether path definite or not. Used to read parent nodes directly.
+     */
+    final Configuration parentListConfiguration;
+
     final SentenceMetadataProcessor sentenceMetadataProcessor;
 
     @Inject
@@ -58,6 +80,7 @@ public class AugmentProcessor {
                             SentenceMetadataProcessor sentenceMetadataProcessor) {
         this.jsonConfiguration = jsonConfiguration;
         this.pathListConfiguration = jsonConfiguration.setOptions(Option.AS_PATH_LIST);
+        this.parentListConfiguration = jsonConfiguration.addOptions(Option.ALWAYS_RETURN_LIST);
         this.sentenceMetadataProcessor = sentenceMetadataProcessor;
     }
 
@@ -66,12 +89,47 @@ public class AugmentProcessor {
      * Avoids recompiling paths on every request (same pattern as
      * {@code RESTApiSanitizerImpl.compiledTransforms}).
      */
-    private final Map<Augment, List<JsonPath>> compiledAugmentPaths = new ConcurrentHashMap<>();
+    private final Map<Augment, List<AugmentPath>> compiledAugmentPaths = new ConcurrentHashMap<>();
+
+    static final int COMPILED_PATH_CACHE_MAX_SIZE = 1_000;
+
+    /**
+     * Cache of pre-compiled concrete/parent/inner JsonPaths resolved at runtime. Bounded, as
+     * concrete paths (eg, {@code $['value'][17]['body']['content']}) vary with payloads.
+     */
+    private final Cache<String, JsonPath> compiledPathCache = CacheBuilder.newBuilder()
+        .maximumSize(COMPILED_PATH_CACHE_MAX_SIZE)
+        .build();
+
+    // path ending w plain property name, in dot or bracket notation; group 1 is parent path
+    // (excluding deep scan), group 2|3 the property name
+    private static final Pattern PARENT_AND_PROPERTY =
+        Pattern.compile("^(.*[^.])(?:\\.([^.\\[\\]'\"()?*@,\\s]+)|\\['([^',]+)'])$");
 
     /**
-     * Cache of pre-compiled concrete/parent JsonPaths resolved at runtime.
+     * An augment's compiled path, and, if it ends with a plain property name, its compiled parent
+     * path and that name (so matches can be resolved directly from parent nodes).
      */
-    private final Map<String, JsonPath> compiledPathCache = new ConcurrentHashMap<>();
+    record AugmentPath(JsonPath path, JsonPath parentPath, String propertyName) {
+
+        boolean isDirectlyResolvable() {
+            return parentPath != null;
+        }
+    }
+
+    static AugmentPath compileAugmentPath(String jsonPath) {
+        JsonPath path = JsonPath.compile(jsonPath);
+        Matcher matcher = PARENT_AND_PROPERTY.matcher(jsonPath.trim());
+        if (matcher.matches()) {
+            try {
+                return new AugmentPath(path, JsonPath.compile(matcher.group(1)),
+                    matcher.group(2) != null ? matcher.group(2) : matcher.group(3));
+            } catch (InvalidPathException e) {
+                // not a valid path on its own; resolve via concrete paths instead
+            }
+        }
+        return new AugmentPath(path, null, null);
+    }
 
     /**
      * Apply a list of augments to a parsed JSON document.
@@ -105,20 +163,60 @@ public class AugmentProcessor {
      * Apply a single augment to the document using its pre-compiled paths.
      */
     private void applyAugment(Augment augment, Object document) {
-        List<JsonPath> paths = compiledAugmentPaths.computeIfAbsent(augment,
+        List<AugmentPath> paths = compiledAugmentPaths.computeIfAbsent(augment,
             a -> a.getJsonPaths().stream()
-                .map(JsonPath::compile)
+                .map(AugmentProcessor::compileAugmentPath)
                 .toList());
 
-        for (JsonPath compiledPath : paths) {
+        for (AugmentPath augmentPath : paths) {
             try {
-                applyAugmentAtPath(augment, document, compiledPath);
+                if (augmentPath.isDirectlyResolvable()) {
+                    applyAugmentAtParents(augment, document, augmentPath);
+                } else {
+                    applyAugmentAtPath(augment, document, augmentPath.path());
+                }
             } catch (PathNotFoundException e) {
                 // expected if path doesn't match this particular document — no-op
             } catch (Exception e) {
                 log.log(Level.WARNING,
                     "Augment '" + augment.getFunctionName() + "' failed at path '"
-                        + compiledPath.getPath() + "'; skipping.", e);
+                        + augmentPath.path().getPath() + "'; skipping.", e);
+            }
+        }
+    }
+
+    /**
+     * Apply an augment to the property of each node matching the augment path's parent path.
+     *
+     * <p>Equivalent to resolving the augment path to concrete paths, and inserting the sibling
+     * augment property in the parent of each, but w/o building/compiling those paths.
+     */
+    @SuppressWarnings("unchecked")
+    private void applyAugmentAtParents(Augment augment, Object document, AugmentPath augmentPath) {
+        List<Object> parents;
+        try {
+            parents = augmentPath.parentPath().read(document, parentListConfiguration);
+        } catch (PathNotFoundException e) {
+            return;
+        }
+        if (parents == null || parents.isEmpty()) {
+            return;
+        }
+
+        String augmentPropertyName = buildAugmentPropertyName(augmentPath.propertyName(), augment.getFunctionName());
+        for (Object parent : parents) {
+            if (!(parent instanceof Map<?, ?> parentMap) || !parentMap.containsKey(augmentPath.propertyName())) {
+                // no match at this parent; same as AS_PATH_LIST resolution
+                continue;
+            }
+            Object sourceValue = parentMap.get(augmentPath.propertyName());
+            try {
+                applyAugmentToValue(augment, (Map<String, Object>) parent, augmentPath.propertyName(),
+                    augmentPropertyName, sourceValue);
+            } catch (Exception e) {
+                log.log(Level.WARNING,
+                    "Augment '" + augment.getFunctionName() + "' compute failed for property '"
+                        + augmentPropertyName + "'; omitting.", e);
             }
         }
     }
@@ -196,20 +294,7 @@ public class AugmentProcessor {
         String augmentPropertyName = buildAugmentPropertyName(leafFieldName, augment.getFunctionName());
 
         try {
-            if (hasInnerJsonPath(augment) && sourceValue instanceof String jsonStr && !jsonStr.isEmpty()) {
-                applyInnerJsonPathAugments(augment, (Map<String, Object>) parent, leafFieldName, jsonStr);
-                return;
-            }
-
-            Object augmentValue = computeAugmentValue(augment, sourceValue);
-            if (augmentValue == null) {
-                return;
-            }
-
-            // TODO: validate against outputSchema if present (predicate check)
-            // For PoC, outputSchema validation is deferred
-
-            ((Map<String, Object>) parent).put(augmentPropertyName, augmentValue);
+            applyAugmentToValue(augment, (Map<String, Object>) parent, leafFieldName, augmentPropertyName, sourceValue);
         } catch (Exception e) {
             log.log(Level.WARNING,
                 "Augment '" + augment.getFunctionName() + "' compute failed for property '"
@@ -217,13 +302,34 @@ public class AugmentProcessor {
         }
     }
 
+    /**
+     * Compute augment for a source value, and insert result as sibling property in its parent.
+     */
+    private void applyAugmentToValue(Augment augment, Map<String, Object> parent, String leafFieldName,
+                                     String augmentPropertyName, Object sourceValue) {
+        if (hasInnerJsonPath(augment) && sourceValue instanceof String jsonStr && !jsonStr.isEmpty()) {
+            applyInnerJsonPathAugments(augment, parent, leafFieldName, jsonStr);
+            return;
+        }
+
+        Object augmentValue = computeAugmentValue(augment, sourceValue);
+        if (augmentValue == null) {
+            return;
+        }
+
+        // TODO: validate against outputSchema if present (predicate check)
+        // For PoC, outputSchema validation is deferred
+
+        parent.put(augmentPropertyName, augmentValue);
+    }
+
     private boolean hasInnerJsonPath(Augment augment) {
         return augment.getInnerJsonPath() != null && !augment.getInnerJsonPath().isEmpty();
     }
 
     /**
-     * When {@link Augment#getInnerJsonPath()} is set, resolve each concrete inner path, replace
- * matched inner field values with serialized augment output, then store the modified embedded
+     * When {@link Augment#getInnerJsonPath()} is set, replace each matched inner field value with
+ * serialized augment output (in place, walking matches directly), then store the modified embedded
  * JSON re-serialized as a string under {@code +{outerLeaf}:{fn}} (mirroring
  * {@code Transform.TextDigest} with {@code isJsonEscaped}).
      */
@@ -232,39 +338,30 @@ public class AugmentProcessor {
         DocumentContext innerContext = JsonPath.parse(jsonStr);
         Object innerDocument = innerContext.json();
 
-        List<String> innerConcretePaths;
+        AtomicBoolean anyApplied = new AtomicBoolean(false);
         try {
-            innerConcretePaths = getCompiledPath(augment.getInnerJsonPath())
-                .read(innerDocument, pathListConfiguration);
+            getCompiledPath(augment.getInnerJsonPath()).map(innerDocument, (innerValue, configuration) -> {
+                try {
+                    Object augmentValue = computeAugmentValue(augment, innerValue);
+                    if (augmentValue == null) {
+                        return innerValue;
+                    }
+
+                    // TODO: validate against outputSchema if present (predicate check)
+                    anyApplied.set(true);
+                    return jsonConfiguration.jsonProvider().toJson(augmentValue);
+                } catch (Exception e) {
+                    log.log(Level.WARNING,
+                        "Augment '" + augment.getFunctionName() + "' failed at inner path '"
+                            + augment.getInnerJsonPath() + "'; skipping.", e);
+                    return innerValue;
+                }
+            }, innerContext.configuration());
         } catch (PathNotFoundException e) {
             return;
         }
-        if (innerConcretePaths == null || innerConcretePaths.isEmpty()) {
-            return;
-        }
-
-        boolean anyApplied = false;
-
-        for (String innerConcretePath : innerConcretePaths) {
-            try {
-                Object innerValue = innerContext.read(innerConcretePath);
-                Object augmentValue = computeAugmentValue(augment, innerValue);
-                if (augmentValue == null) {
-                    continue;
-                }
-
-                // TODO: validate against outputSchema if present (predicate check)
-                String serializedAugment = jsonConfiguration.jsonProvider().toJson(augmentValue);
-                innerContext.set(innerConcretePath, serializedAugment);
-                anyApplied = true;
-            } catch (Exception e) {
-                log.log(Level.WARNING,
-                    "Augment '" + augment.getFunctionName() + "' failed at inner path '"
-                        + innerConcretePath + "'; skipping.", e);
-            }
-        }
 
-        if (anyApplied) {
+        if (anyApplied.get()) {
             parent.put(buildAugmentPropertyName(leafFieldName, augment.getFunctionName()),
                 innerContext.jsonString());
         }
@@ -303,7 +400,13 @@ public class AugmentProcessor {
     }
 
     private JsonPath getCompiledPath(String path) {
-        return compiledPathCache.computeIfAbsent(path, JsonPath::compile);
+        try {
+            return compiledPathCache.get(path, () -> JsonPath.compile(path));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            // compile throws only unchecked exceptions (eg, InvalidPathException); rethrow as is
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new IllegalStateException(e.getCause());
+        }
     }
 
     /**
@@ -0,0 +1,48 @@
+package co.worklytics.psoxy.impl;
+
+import com.avaulta.gateway.rules.transforms.Transform;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.MapFunction;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * a {@link Transform}, with everything needed to apply it to documents prepared up front: its
+ * JsonPaths and `applyOnlyWhen` filter compiled, and its {@link MapFunction} (with any regexes,
+ * etc) built
+ *
+ * build via {@link SanitizerUtils#compile}; bound to the pseudonymizer it was built with, so
+ * should be cached only by something that always uses that same pseudonymizer (eg, a sanitizer)
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class CompiledTransform {
+
+    Transform transform;
+
+    List<JsonPath> paths;
+
+    /**
+     * compiled `applyOnlyWhen` filter, if any
+     */
+    Optional<JsonPath> applyOnlyWhen;
+
+    /**
+     * function to map values matched by paths; null if transform is a redaction (matches deleted)
+     */
+    MapFunction mapFunction;
+
+    /**
+     * @return whether transform applies to document, per its `applyOnlyWhen` filter
+     */
+    boolean appliesTo(Object document) {
+        return applyOnlyWhen.map(filter -> {
+            List<?> results = filter.read(document);
+            return results != null && !results.isEmpty();
+        }).orElse(true);
+    }
+}
@@ -0,0 +1,107 @@
+package co.worklytics.psoxy.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import com.avaulta.gateway.rules.Endpoint;
+
+/**
+ * routes request paths to candidate endpoints, via a trie of path segments built once from the
+ * endpoints' path templates; so candidates for a path are found in O(path depth), rather than by
+ * running every endpoint's regex against it
+ *
+ * candidates are a superset of the matches; caller must still verify each against its compiled
+ * regex, parameter schemas, http methods, etc. Endpoints that can't be routed by segment (those
+ * defined by `pathRegex`, or with templates containing regex syntax) are candidates for every
+ * path.
+ */
+class EndpointRouter {
+
+    // template path parameter, either required `{foo}` or optional `{foo?}`
+    static final Pattern PATH_PARAMETER = Pattern.compile("\\{[A-Za-z][A-Za-z0-9]*\\??\\}");
+
+    // chars that PathTemplateUtils does NOT escape, so would be interpreted as regex syntax
+    static final Pattern UNESCAPED_REGEX_SYNTAX = Pattern.compile("[{}|\\\\]");
+
+    static class Node {
+        // keyed by lower-cased literal segment, as endpoint regexes are case-insensitive
+        final Map<String, Node> literals = new HashMap<>();
+
+        // any single segment, incl empty (optional params)
+        Node parameter;
+
+        // indexes of endpoints whose template ends at this node
+        final List<Integer> endpoints = new ArrayList<>();
+    }
+
+    // in rules order
+    final List<Map.Entry<Endpoint, Pattern>> entries;
+
+    final Node root = new Node();
+
+    // indexes of endpoints that are candidates for any path
+    final List<Integer> unrouted = new ArrayList<>();
+
+    EndpointRouter(List<Map.Entry<Endpoint, Pattern>> entries) {
+        this.entries = List.copyOf(entries);
+        for (int i = 0; i < this.entries.size(); i++) {
+            Endpoint endpoint = this.entries.get(i).getKey();
+            if (isRoutable(endpoint)) {
+                Node node = root;
+                for (String segment : endpoint.getPathTemplate().split("/", -1)) {
+                    if (PATH_PARAMETER.matcher(segment).find()) {
+                        if (node.parameter == null) {
+                            node.parameter = new Node();
+                        }
+                        node = node.parameter;
+                    } else {
+                        node = node.literals.computeIfAbsent(segment.toLowerCase(Locale.ROOT),
+                                s -> new Node());
+                    }
+                }
+                node.endpoints.add(i);
+            } else {
+                unrouted.add(i);
+            }
+        }
+    }
+
+    static boolean isRoutable(Endpoint endpoint) {
+        return endpoint.getPathRegex() == null
+                && endpoint.getPathTemplate() != null
+                && !UNESCAPED_REGEX_SYNTAX.matcher(
+                        PATH_PARAMETER.matcher(endpoint.getPathTemplate()).replaceAll(""))
+                        .find();
+    }
+
+    /**
+     * @param path as it will be matched against endpoint regexes (eg, after
+     *             {@link RESTApiSanitizerImpl#pathForRuleMatching(String)})
+     * @return endpoints that may match path, in rules order
+     */
+    List<Map.Entry<Endpoint, Pattern>> candidates(String path) {
+        TreeSet<Integer> matched = new TreeSet<>(unrouted);
+        collect(root, path.split("/", -1), 0, matched);
+        List<Map.Entry<Endpoint, Pattern>> candidates = new ArrayList<>(matched.size());
+        matched.forEach(i -> candidates.add(entries.get(i)));
+        return candidates;
+    }
+
+    private void collect(Node node, String[] segments, int depth, TreeSet<Integer> matched) {
+        if (depth == segments.length) {
+            matched.addAll(node.endpoints);
+            return;
+        }
+        Node literal = node.literals.get(segments[depth].toLowerCase(Locale.ROOT));
+        if (literal != null) {
+            collect(literal, segments, depth + 1, matched);
+        }
+        if (node.parameter != null) {
+            collect(node.parameter, segments, depth + 1, matched);
+        }
+    }
+}
@@ -49,8 +49,8 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.api.client.util.Lists;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.MapMaker;
 import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.JsonPath;
 import co.worklytics.psoxy.Pseudonymizer;
 import co.worklytics.psoxy.RESTApiSanitizer;
 import co.worklytics.psoxy.gateway.ApiModeConfig;
@@ -83,6 +83,16 @@ public class RESTApiSanitizerImpl implements RESTApiSanitizer {
     @Getter @Setter
     Duration sanitizationTimeout = Duration.ofSeconds(55);
 
+    /**
+     * whether to sanitize responses in a single streaming pass, for endpoints whose rules allow
+     * it (see {@link StreamingResponseSanitizer}); if false, or rules don't allow it, each JSON
+     * value in response is parsed to a tree, then filtered and transformed
+     *
+     * off by default; see {@link ApiModeConfig#isStreamingSanitization()}
+     */
+    @Getter @Setter
+    boolean streamingEnabled = false;
+
     // NOTE: JsonPath seems to be threadsafe
     // - https://github.com/json-path/JsonPath/issues/384
     // - https://github.com/json-path/JsonPath/issues/187 (earlier issue fixing stuff that wasn't
@@ -90,8 +100,32 @@ public class RESTApiSanitizerImpl implements RESTApiSanitizer {
 
     volatile Map<Endpoint, Pattern> compiledAllowedEndpoints;
 
+    volatile EndpointRouter endpointRouter;
+
+    // last endpoint match on each thread; each request resolves its endpoint several times
+    // (isAllowed, getAllowedRequestHeaders, sanitize), typically on same thread. Only one kept per
+    // thread, rather than a shared cache, as URLs may contain PII and rarely repeat across requests;
+    // and cleared once response sanitized, so not left on pooled threads
+    final ThreadLocal<EndpointMatch> lastEndpointMatch = new ThreadLocal<>();
+
+    record EndpointMatch(String httpMethod, String url, Optional<Pair<Pattern, Endpoint>> endpoint) {
+
+        boolean isFor(String httpMethod, String url) {
+            return this.httpMethod.equalsIgnoreCase(httpMethod) && this.url.equals(url);
+        }
+    }
+
     private final Object $writeLock = new Object[0];
-    Map<Transform, List<JsonPath>> compiledTransforms = new ConcurrentHashMap<>();
+    // keyed by instance (weakKeys() implies identity equality), not Transform's equals/hashCode;
+    // subclasses such as Tokenize don't override those, so distinct transforms on same paths (eg,
+    // Tokenize with different regexes) would otherwise share one compiled transform
+    Map<Transform, CompiledTransform> compiledTransforms = new MapMaker().weakKeys().makeMap();
+
+    // keyed by Endpoint's equals/hashCode; which it doesn't override, so in effect by instance, of
+    // which there's one per endpoint of rules; empty if endpoint's rules can't be applied while
+    // streaming
+    Map<Endpoint, Optional<StreamingResponseSanitizer>> streamingSanitizers =
+            new ConcurrentHashMap<>();
 
     volatile JsonSchemaFilter rootDefinitions;
 
@@ -257,17 +291,33 @@ public class RESTApiSanitizerImpl implements RESTApiSanitizer {
                          @NonNull URL url,
                          InputStream originalStream,
                          OutputStream outputStream) throws IOException {
-        if (!isAllowed(httpMethod, url)) {
+        try {
+            sanitizeWithEndpoint(httpMethod, url, originalStream, outputStream);
+        } finally {
+            lastEndpointMatch.remove();
+        }
+    }
+
+    private void sanitizeWithEndpoint(String httpMethod,
+                                      URL url,
+                                      InputStream originalStream,
+                                      OutputStream outputStream) throws IOException {
+        Optional<Pair<Pattern, Endpoint>> matchingEndpoint = getEndpoint(httpMethod, url);
+        if (matchingEndpoint.isEmpty() && !rules.getAllowAllEndpoints()) {
             throw new IllegalStateException(String.format(
                 "Sanitizer called to sanitize response that should not have been retrieved: %s",
                 url));
         }
-        Optional<Pair<Pattern, Endpoint>> matchingEndpoint = getEndpoint(httpMethod, url);
 
         if (matchingEndpoint.isEmpty()) {
             originalStream.transferTo(outputStream);
         } else {
             final Endpoint endpoint = matchingEndpoint.get().getValue();
+            Optional<StreamingResponseSanitizer> streamingSanitizer = getStreamingSanitizer(endpoint);
+            if (streamingSanitizer.isPresent()) {
+                streamingSanitizer.get().sanitize(originalStream, outputStream);
+                return;
+            }
             final JsonFactory factory = objectMapper.getFactory();
             try (JsonParser parser = factory.createParser(originalStream);
                  OutputStreamWriter writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
@@ -333,6 +383,17 @@ public class RESTApiSanitizerImpl implements RESTApiSanitizer {
     }
 
 
+    @VisibleForTesting
+    Optional<StreamingResponseSanitizer> getStreamingSanitizer(Endpoint endpoint) {
+        if (!streamingEnabled) {
+            return Optional.empty();
+        }
+        return streamingSanitizers.computeIfAbsent(endpoint,
+                e -> StreamingResponseSanitizer.forEndpoint(e, getRootDefinitions(),
+                        getPseudonymizer(), sanitizerUtils, jsonSchemaFilterUtils, objectMapper,
+                        jsonConfiguration));
+    }
+
     Map<Endpoint, Pattern> getCompiledAllowedEndpoints() {
         if (compiledAllowedEndpoints == null) {
             synchronized ($writeLock) {
@@ -347,6 +408,21 @@ public class RESTApiSanitizerImpl implements RESTApiSanitizer {
         return compiledAllowedEndpoints;
     }
 
+    EndpointRouter getEndpointRouter() {
+        if (endpointRouter == null) {
+            Map<Endpoint, Pattern> compiled = getCompiledAllowedEndpoints();
+            synchronized ($writeLock) {
+                if (endpointRouter == null) {
+                    // rules order, so first match is deterministic
+                    endpointRouter = new EndpointRouter(rules.getEndpoints().stream()
+                            .map(endpoint -> Map.entry(endpoint, compiled.get(endpoint)))
+                            .collect(Collectors.toList()));
+                }
+            }
+        }
+        return endpointRouter;
+    }
+
     @VisibleForTesting
     String effectiveRegex(Endpoint endpoint) {
         return Optional.ofNullable(endpoint.getPathRegex())
@@ -424,9 +500,19 @@ public class RESTApiSanitizerImpl implements RESTApiSanitizer {
 
     @VisibleForTesting
     Predicate<Map.Entry<Endpoint, Pattern>> getHasPathTemplateMatchingUrl(URL url) {
+        return getHasPathTemplateMatchingPath(pathForRuleMatching(url.getPath()),
+                URLUtils.parseQueryParams(url));
+    }
+
+    /**
+     * @param path        path of request, as returned by {@link #pathForRuleMatching(String)}
+     * @param queryParams query params of request
+     */
+    Predicate<Map.Entry<Endpoint, Pattern>> getHasPathTemplateMatchingPath(String path,
+            List<Pair<String, String>> queryParams) {
         return (entry) -> {
             if (entry.getKey().getPathTemplate() != null) {
-                Matcher matcher = entry.getValue().matcher(pathForRuleMatching(url.getPath()));
+                Matcher matcher = entry.getValue().matcher(path);
                 if (matcher.matches()) {
                     // this should NOT match on empty path segments; eg "/foo//bar" should not match
                     // "/foo/{param}/bar"
@@ -450,7 +536,7 @@ public class RESTApiSanitizerImpl implements RESTApiSanitizer {
                                     .orElse(true);
 
                     return allParamsValid
-                            && allowedQueryParams(entry.getKey(), URLUtils.parseQueryParams(url));
+                            && allowedQueryParams(entry.getKey(), queryParams);
                 }
             }
             return false;
@@ -475,22 +561,40 @@ public class RESTApiSanitizerImpl implements RESTApiSanitizer {
 
     @VisibleForTesting
     Optional<Pair<Pattern, Endpoint>> getEndpoint(String httpMethod, URL url) {
+        String externalForm = url.toExternalForm();
+        EndpointMatch last = lastEndpointMatch.get();
+        if (last != null && last.isFor(httpMethod, externalForm)) {
+            return last.endpoint();
+        }
+        Optional<Pair<Pattern, Endpoint>> endpoint = matchEndpoint(httpMethod, url);
+        lastEndpointMatch.set(new EndpointMatch(httpMethod, externalForm, endpoint));
+        return endpoint;
+    }
+
+    /**
+     * resolves endpoint for request, checking only candidates routed by path
+     *
+     * @return first endpoint, in rules order, that matches the request, if any
+     */
+    Optional<Pair<Pattern, Endpoint>> matchEndpoint(String httpMethod, URL url) {
+        String path = pathForRuleMatching(url.getPath());
         String relativeUrl = pathForRuleMatching(URLUtils.relativeURL(url));
+        List<Pair<String, String>> queryParams = URLUtils.parseQueryParams(url);
 
         Predicate<Map.Entry<Endpoint, Pattern>> hasPathRegexMatchingUrl =
                 getHasPathRegexMatchingUrl(relativeUrl);
 
         Predicate<Map.Entry<Endpoint, Pattern>> hasPathTemplateMatchingUrl =
-                getHasPathTemplateMatchingUrl(url);
+                getHasPathTemplateMatchingPath(path, queryParams);
 
         Predicate<Endpoint> allowsHttpMethod = allowsHttpMethod(httpMethod);
 
-        return getCompiledAllowedEndpoints().entrySet().stream()
+        return getEndpointRouter().candidates(path).stream()
                 .filter(entry -> hasPathRegexMatchingUrl.test(entry)
                         || hasPathTemplateMatchingUrl.test(entry))
-                .filter(entry -> allowedQueryParams(entry.getKey(), URLUtils.parseQueryParams(url))) // redundant in the path template case
+                .filter(entry -> allowedQueryParams(entry.getKey(), queryParams)) // redundant in the path template case
                 .filter(entry -> allowsHttpMethod.test(entry.getKey()))
-                .findAny()
+                .findFirst()
                 .map(entry -> Pair.of(entry.getValue(), entry.getKey()));
     }
 
@@ -8,6 +8,7 @@ import com.avaulta.gateway.pseudonyms.Pseudonym;
 import com.avaulta.gateway.pseudonyms.PseudonymEncoder;
 import com.avaulta.gateway.pseudonyms.PseudonymImplementation;
 import com.avaulta.gateway.pseudonyms.impl.UrlSafeTokenPseudonymEncoder;
+import com.avaulta.gateway.rules.PhraseMatcher;
 import com.avaulta.gateway.rules.transforms.EncryptIp;
 import com.avaulta.gateway.rules.transforms.HashIp;
 import com.avaulta.gateway.rules.transforms.Transform;
@@ -33,6 +34,7 @@ import java.util.*;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -71,10 +73,34 @@ public class SanitizerUtils {
     }
 
 
+    // numbered or named backreference, in a regex
+    private static final Pattern BACKREFERENCE = Pattern.compile("\\\\([1-9]|k<)");
+
+    /**
+     * @return single alternation of regexes, which finds something in a string iff any of them
+     *  would; empty if can't be combined that way (backreferences would be renumbered in it,
+     *  named groups may clash)
+     */
+    static Optional<Pattern> anyOf(List<String> regexes) {
+        if (regexes.stream().anyMatch(p -> BACKREFERENCE.matcher(p).find())) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Pattern.compile(regexes.stream()
+                .map(p -> "(?:" + p + ")")
+                .collect(Collectors.joining("|"))));
+        } catch (PatternSyntaxException e) {
+            return Optional.empty();
+        }
+    }
+
     MapFunction getRedactExceptSubstringsMatchingRegexes(Transform.RedactExceptSubstringsMatchingRegexes transform) {
         List<Pattern> patterns = transform.getExceptions().stream()
             .map(p -> ".*?(" + p + ").*?") //wrap in .*? to match anywhere in the string, but reluctantly
             .map(Pattern::compile).collect(Collectors.toList());
+
+        Optional<Pattern> anyException = anyOf(transform.getExceptions());
+
         return (s, jsonConfiguration) -> {
             if (!(s instanceof String)) {
                 if (s != null) {
@@ -83,6 +109,8 @@ public class SanitizerUtils {
                 return null;
             } else if (StringUtils.isBlank((String) s)) {
                 return s;
+            } else if (anyException.isPresent() && !anyException.get().matcher((String) s).find()) {
+                return "";
             } else {
                 return patterns.stream()
                     .map(p -> p.matcher((String) s))
@@ -156,6 +184,9 @@ public class SanitizerUtils {
     }
 
     MapFunction getTextDigest(Transform.TextDigest transform) {
+        Optional<JsonPath> pathToProcessWhenEscaped = transform.getIsJsonEscaped()
+            ? Optional.ofNullable(StringUtils.trimToNull(transform.getJsonPathToProcessWhenEscaped())).map(JsonPath::compile)
+            : Optional.empty();
         return (s, jsonConfiguration) -> {
             if (!(s instanceof String toTokenize)) {
                 if (s != null) {
@@ -164,9 +195,9 @@ public class SanitizerUtils {
                 }
                 return null;
             } else {
-                if (transform.getIsJsonEscaped() && StringUtils.isNotBlank(transform.getJsonPathToProcessWhenEscaped())) {
+                if (pathToProcessWhenEscaped.isPresent()) {
                     DocumentContext jsonContext = JsonPath.parse(toTokenize);
-                    jsonContext.map(transform.getJsonPathToProcessWhenEscaped(), (text, configuration) -> {
+                    jsonContext.map(pathToProcessWhenEscaped.get(), (text, configuration) -> {
                         if (!(text instanceof String textToDigest)) {
                             if (text != null) {
                                 log.warning("value matched by " + transform.getClass().getSimpleName() + " not of type String");
@@ -248,12 +279,23 @@ public class SanitizerUtils {
         //TODO: alternatively, all different patterns, and preserve ALL matches?
         // --> means we might enlarge, if the same phrase matches multiple times
 
-        List<Pattern> patterns = transform.getAllowedPhrases().stream()
+        List<String> phrases = transform.getAllowedPhrases();
+        List<Pattern> patterns = phrases.stream()
             .map(p -> "\\Q" + p + "\\E") // quote it
             .map(p -> "\\b(" + p + ")[\\s:]*\\b") //boundary match, with optional whitespace or colon at end
             .map(p -> Pattern.compile(p, CASE_INSENSITIVE))
             .collect(Collectors.toList());
 
+        // single scan to find which phrases occur at all, so only their patterns need be run
+        // (phrases that can't be matched literally, bc contain quote terminator, always run)
+        PhraseMatcher phraseMatcher = PhraseMatcher.of(phrases, true);
+        BitSet alwaysCandidates = new BitSet(phrases.size());
+        for (int i = 0; i < phrases.size(); i++) {
+            if (phrases.get(i).isEmpty() || phrases.get(i).contains("\\E")) {
+                alwaysCandidates.set(i);
+            }
+        }
+
         return (s, jsonConfiguration) -> {
             if (!(s instanceof String)) {
                 if (s != null) {
@@ -263,7 +305,10 @@ public class SanitizerUtils {
             } else if (StringUtils.isBlank((String) s)) {
                 return s;
             } else {
-                return patterns.stream()
+                BitSet candidates = phraseMatcher.matchingPhrases((String) s);
+                candidates.or(alwaysCandidates);
+                return candidates.stream()
+                    .mapToObj(patterns::get)
                     .map(p -> p.matcher((String) s))
                     .filter(Matcher::find)
                     .map(m -> m.group(1)) //group 1, bc we created caputuring group in regex above
@@ -512,23 +557,39 @@ public class SanitizerUtils {
         return f;
     }
 
+    /**
+     * compiles transform, so can be applied to many documents without re-compiling its paths,
+     * regexes, etc each time
+     *
+     * @param pseudonymizer to use, if transform requires one
+     * @param transform to compile
+     * @return compiled transform
+     */
+    public CompiledTransform compile(Pseudonymizer pseudonymizer, Transform transform) {
+        return new CompiledTransform(transform,
+            transform.getJsonPaths().stream()
+                .map(JsonPath::compile)
+                .collect(Collectors.toList()),
+            Optional.ofNullable(StringUtils.trimToNull(transform.getApplyOnlyWhen()))
+                .map(JsonPath::compile),
+            transform instanceof Transform.Redact ? null : getTransformImpl(pseudonymizer, transform));
+    }
+
     /**
      * Applies a transform to a document, using the provided pseudonymizer.
      *
      * @param pseudonymizer to use
      * @param transform to apply
      * @param document will be MUTATED in place, if the transform applies
-     * @param compiledTransforms pre-compiled JsonPaths for the transforms, to avoid re-compiling them if transform is already in that list
+     * @param compiledTransforms compiled transforms, to avoid re-compiling them if transform is already in that map;
+     *                           all compiled with same pseudonymizer
      */
-    void applyTransform(Pseudonymizer pseudonymizer, Transform transform, Object document, Map<Transform, List<JsonPath>> compiledTransforms) {
-        List<JsonPath> paths = compiledTransforms.computeIfAbsent(transform,
-            t -> t.getJsonPaths().stream()
-                .map(JsonPath::compile)
-                .collect(Collectors.toList()));
+    void applyTransform(Pseudonymizer pseudonymizer, Transform transform, Object document, Map<Transform, CompiledTransform> compiledTransforms) {
+        CompiledTransform compiled = compiledTransforms.computeIfAbsent(transform, t -> compile(pseudonymizer, t));
 
-        if (transformApplies(transform, document)) {
-            if (transform instanceof Transform.Redact) {
-                for (JsonPath path : paths) {
+        if (compiled.appliesTo(document)) {
+            if (compiled.getMapFunction() == null) {
+                for (JsonPath path : compiled.getPaths()) {
                     try {
                         path.delete(document, jsonConfiguration);
                     } catch (com.jayway.jsonpath.PathNotFoundException e) {
@@ -536,10 +597,9 @@ public class SanitizerUtils {
                     }
                 }
             } else {
-                MapFunction f = getTransformImpl(pseudonymizer, transform);
-                for (JsonPath path : paths) {
+                for (JsonPath path : compiled.getPaths()) {
                     try {
-                        path.map(document, f, jsonConfiguration);
+                        path.map(document, compiled.getMapFunction(), jsonConfiguration);
                     } catch (com.jayway.jsonpath.PathNotFoundException e) {
                         //expected if rule doesn't apply
                     }
@@ -547,15 +607,4 @@ public class SanitizerUtils {
             }
         }
     }
-
-    private static boolean transformApplies(Transform transform, Object document) {
-        if (StringUtils.isNotBlank(transform.getApplyOnlyWhen())) {
-            Object filterResult = JsonPath.compile(transform.getApplyOnlyWhen()).read(document);
-
-            ArrayList<?> results = (ArrayList<?>) filterResult;
-
-            return results != null && !results.isEmpty();
-        }
-        return true;
-    }
 }
@@ -0,0 +1,605 @@
+package co.worklytics.psoxy.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import com.avaulta.gateway.rules.Endpoint;
+import com.avaulta.gateway.rules.JsonSchemaFilter;
+import com.avaulta.gateway.rules.JsonSchemaFilterUtils;
+import com.avaulta.gateway.rules.transforms.Transform;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.MapFunction;
+import com.jayway.jsonpath.Option;
+import com.jayway.jsonpath.PathNotFoundException;
+import co.worklytics.psoxy.Pseudonymizer;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.extern.java.Log;
+
+/**
+ * sanitizes JSON responses in a single pass over a Jackson token stream, applying an endpoint's
+ * response schema filter and transforms without materializing the whole document.
+ *
+ * <p>
+ * Only a subset of rules can be evaluated this way; {@link #forEndpoint} returns empty if the
+ * endpoint uses anything that needs the full document (augments, {@code applyOnlyWhen}, JsonPath
+ * filters/indexes/slices, conditional or {@code anyOf} schemas), in which case callers should fall
+ * back to the tree-based path.
+ *
+ * <p>
+ * Output is intended to be identical to that of the tree-based path: schema filtering is applied
+ * first, then transforms in the order they're declared. If a transform matches a node, only that
+ * node is read into memory so that all transforms can be applied to it in order.
+ *
+ * <p>
+ * NOTE: this class must be thread-safe; instances are cached per endpoint and shared across
+ * concurrent requests.
+ */
+@Log
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+class StreamingResponseSanitizer {
+
+    /**
+     * match state for each path is tracked as a bit mask of positions, so paths are limited to
+     * this many segments
+     */
+    static final int MAX_PATH_SEGMENTS = 62;
+
+    /**
+     * sentinel returned by transform evaluation if node was redacted
+     */
+    private static final Object REDACTED = new Object();
+
+    final ObjectMapper objectMapper;
+    final Configuration jsonConfiguration;
+    final Configuration pathListConfiguration;
+    final JsonSchemaFilterUtils jsonSchemaFilterUtils;
+
+    /**
+     * response schema, if any; if null, no filtering is done
+     */
+    final JsonSchemaFilter schema;
+
+    final JsonSchemaFilter rootDefinitions;
+
+    final List<StreamedTransform> transforms;
+
+    /**
+     * all paths of all transforms, flattened; order is that of transforms
+     */
+    final List<PathRule> pathRules;
+
+    /**
+     * relative paths are only compiled when a transform matches a container node and still has
+     * paths that may match within it; bounded by number of distinct path suffixes in rules
+     */
+    final Map<String, JsonPath> compiledRelativePaths = new ConcurrentHashMap<>();
+
+
+    /**
+     * @return a streaming sanitizer for endpoint, if all its rules can be evaluated in a single
+     *         streaming pass; otherwise empty
+     */
+    static Optional<StreamingResponseSanitizer> forEndpoint(Endpoint endpoint,
+                                                            JsonSchemaFilter rootDefinitions,
+                                                            Pseudonymizer pseudonymizer,
+                                                            SanitizerUtils sanitizerUtils,
+                                                            JsonSchemaFilterUtils jsonSchemaFilterUtils,
+                                                            ObjectMapper objectMapper,
+                                                            Configuration jsonConfiguration) {
+        if (ObjectUtils.isNotEmpty(endpoint.getAugments())) {
+            return Optional.empty();
+        }
+
+        JsonSchemaFilter schema = endpoint.getResponseSchemaOptional().orElse(null);
+        if (schema != null && !isStreamable(schema, rootDefinitions,
+                Collections.newSetFromMap(new IdentityHashMap<>()))) {
+            return Optional.empty();
+        }
+
+        List<StreamedTransform> transforms = new ArrayList<>();
+        List<PathRule> pathRules = new ArrayList<>();
+        if (endpoint.getTransforms() != null) {
+            for (Transform transform : endpoint.getTransforms()) {
+                if (StringUtils.isNotBlank(transform.getApplyOnlyWhen())) {
+                    return Optional.empty();
+                }
+                List<PathRule> rulesForTransform = new ArrayList<>();
+                for (String jsonPath : transform.getJsonPaths()) {
+                    Optional<List<Segment>> segments = parsePath(jsonPath);
+                    if (segments.isEmpty()) {
+                        return Optional.empty();
+                    }
+                    PathRule rule = new PathRule(pathRules.size(), transforms.size(),
+                            segments.get().toArray(new Segment[0]));
+                    rulesForTransform.add(rule);
+                    pathRules.add(rule);
+                }
+                boolean isRedact = transform instanceof Transform.Redact;
+                transforms.add(new StreamedTransform(isRedact,
+                        isRedact ? null : sanitizerUtils.getTransformImpl(pseudonymizer, transform),
+                        rulesForTransform));
+            }
+        }
+
+        return Optional.of(new StreamingResponseSanitizer(objectMapper, jsonConfiguration,
+                jsonConfiguration.setOptions(Option.AS_PATH_LIST), jsonSchemaFilterUtils, schema,
+                rootDefinitions, transforms, pathRules));
+    }
+
+    /**
+     * sanitize all JSON values in stream (eg, single JSON document, or NDJSON), writing them
+     * newline-delimited to output
+     */
+    void sanitize(InputStream input, OutputStream output) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(input);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            List<String> redactions = new ArrayList<>();
+            while (parser.nextToken() != null) {
+                writeValue(parser, generator, null, schema, initialStates(), false, "$", redactions);
+            }
+            generator.flush();
+            // as tree-based path does, when filtering by schema
+            if (schema != null && jsonSchemaFilterUtils.getOptions().getLogRedactions()) {
+                log.info("Redactions made: " + String.join(", ", redactions));
+            }
+        }
+    }
+
+    /**
+     * writes value at parser's current token to generator, after filtering and transforming it
+     *
+     * @param fieldName name of property, if value is property of an object; written only if value
+     *                  is written
+     * @param schema    to filter value by; null if value isn't filtered
+     * @param states    match state of each path rule at this node; null if no rules can match at or
+     *                  below it
+     * @param inArray   whether value is an element of an array (which drops values filtered to null)
+     * @param redactions to which paths of any redactions by schema are added
+     */
+    private void writeValue(JsonParser parser,
+                            JsonGenerator generator,
+                            String fieldName,
+                            JsonSchemaFilter schema,
+                            long[] states,
+                            boolean inArray,
+                            String path,
+                            List<String> redactions) throws IOException {
+        JsonToken token = parser.currentToken();
+
+        int matchedTransform = firstMatchedTransform(states);
+        if (matchedTransform >= 0) {
+            if (transforms.get(matchedTransform).isRedact) {
+                parser.skipChildren();
+                return;
+            }
+            Object value = schema == null
+                    ? objectMapper.readValue(parser, Object.class)
+                    : jsonSchemaFilterUtils.filterNodeBySchema(path, objectMapper.readTree(parser),
+                            schema, rootDefinitions, redactions);
+            if (value == null && inArray && schema != null) {
+                return;
+            }
+            value = applyTransforms(value, states);
+            if (value != REDACTED) {
+                writeFieldName(generator, fieldName);
+                generator.writeObject(value);
+            }
+            return;
+        }
+
+        JsonSchemaFilter resolved = null;
+        if (schema != null) {
+            resolved = resolve(schema);
+            if (token.isStructStart()) {
+                boolean matchesType = resolved.hasType()
+                        && (token == JsonToken.START_OBJECT ? resolved.isObject() : resolved.isArray());
+                if (!matchesType) {
+                    logRedaction(redactions, path, "it did not match type in schema");
+                    parser.skipChildren();
+                    if (!inArray) {
+                        writeFieldName(generator, fieldName);
+                        generator.writeNull();
+                    }
+                    return;
+                }
+            } else {
+                Object value = (resolved.isString() && token == JsonToken.VALUE_STRING)
+                        ? parser.getText()
+                        : jsonSchemaFilterUtils.filterNodeBySchema(path,
+                                objectMapper.readTree(parser), resolved, rootDefinitions, redactions);
+                if (value == null && inArray) {
+                    return;
+                }
+                writeFieldName(generator, fieldName);
+                generator.writeObject(value);
+                return;
+            }
+        } else if (states == null || !token.isStructStart()) {
+            writeFieldName(generator, fieldName);
+            generator.copyCurrentStructure(parser);
+            return;
+        }
+
+        writeFieldName(generator, fieldName);
+        if (token == JsonToken.START_OBJECT) {
+            Map<String, JsonSchemaFilter> properties = resolved == null ? null : resolved.getProperties();
+            generator.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.currentName();
+                parser.nextToken();
+                JsonSchemaFilter propertySchema = null;
+                if (resolved != null && !jsonSchemaFilterUtils.isExemptProperty(key)) {
+                    propertySchema = properties == null ? null : properties.get(key);
+                    if (propertySchema == null) {
+                        logRedaction(redactions, path + "." + key, "it was not in schema");
+                        parser.skipChildren();
+                        continue;
+                    }
+                }
+                writeValue(parser, generator, key, propertySchema, childStates(states, key), false,
+                        path + "." + key, redactions);
+            }
+            generator.writeEndObject();
+        } else {
+            JsonSchemaFilter itemSchema = resolved == null ? null : resolved.getItems();
+            long[] elementStates = childStates(states, null);
+            generator.writeStartArray();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                writeValue(parser, generator, null, itemSchema, elementStates, true, path + "[]",
+                        redactions);
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * apply transforms, in order, to a node matched by at least one of them
+     *
+     * @return transformed value, or {@link #REDACTED}
+     */
+    private Object applyTransforms(Object value, long[] states) {
+        Object current = value;
+        for (StreamedTransform transform : transforms) {
+            boolean matched = false;
+            Set<String> pathsWithin = new LinkedHashSet<>();
+            for (PathRule rule : transform.pathRules) {
+                long state = states[rule.index];
+                if (rule.isMatched(state)) {
+                    matched = true;
+                } else {
+                    rule.addRemainingPaths(state, pathsWithin);
+                }
+            }
+
+            if (matched) {
+                if (transform.isRedact) {
+                    return REDACTED;
+                }
+                current = transform.mapFunction.map(current, jsonConfiguration);
+            } else if (!pathsWithin.isEmpty() && (current instanceof Map || current instanceof List)) {
+                applyWithin(transform, current, pathsWithin);
+            }
+        }
+        return current;
+    }
+
+    /**
+     * apply transform to nodes within a (materialized) node matched by some other transform, via
+     * the remaining portions of its paths
+     */
+    private void applyWithin(StreamedTransform transform, Object node, Set<String> relativePaths) {
+        List<JsonPath> paths = new ArrayList<>();
+        if (relativePaths.size() == 1) {
+            paths.add(compiledRelativePaths.computeIfAbsent(relativePaths.iterator().next(),
+                    JsonPath::compile));
+        } else {
+            // if a path has multiple deep-scans, remaining portions may overlap; resolve to
+            // concrete paths so that no node is transformed twice
+            Set<String> concretePaths = new LinkedHashSet<>();
+            for (String relativePath : relativePaths) {
+                try {
+                    List<String> resolved = compiledRelativePaths
+                            .computeIfAbsent(relativePath, JsonPath::compile)
+                            .read(node, pathListConfiguration);
+                    concretePaths.addAll(resolved);
+                } catch (PathNotFoundException e) {
+                    //expected if rule doesn't apply
+                }
+            }
+            concretePaths.stream().map(JsonPath::compile).forEach(paths::add);
+        }
+
+        for (JsonPath path : paths) {
+            try {
+                if (transform.isRedact) {
+                    path.delete(node, jsonConfiguration);
+                } else {
+                    path.map(node, transform.mapFunction, jsonConfiguration);
+                }
+            } catch (PathNotFoundException e) {
+                //expected if rule doesn't apply
+            }
+        }
+    }
+
+    private int firstMatchedTransform(long[] states) {
+        if (states != null) {
+            for (PathRule rule : pathRules) {
+                if (rule.isMatched(states[rule.index])) {
+                    return rule.transformIndex;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private long[] initialStates() {
+        if (pathRules.isEmpty()) {
+            return null;
+        }
+        long[] states = new long[pathRules.size()];
+        for (PathRule rule : pathRules) {
+            states[rule.index] = 1L;
+        }
+        return states;
+    }
+
+    /**
+     * @param key property name, if child is a property of an object; null if an array element
+     * @return states for child node; null if no rules can match at or below it
+     */
+    private long[] childStates(long[] states, String key) {
+        if (states == null) {
+            return null;
+        }
+        long[] next = null;
+        for (PathRule rule : pathRules) {
+            long state = rule.advance(states[rule.index], key);
+            if (state != 0L) {
+                if (next == null) {
+                    next = new long[pathRules.size()];
+                }
+                next[rule.index] = state;
+            }
+        }
+        return next;
+    }
+
+    private JsonSchemaFilter resolve(JsonSchemaFilter schema) {
+        while (schema.isRef()) {
+            schema = resolveRef(schema, rootDefinitions)
+                    .orElseThrow(() -> new IllegalStateException("unsupported ref"));
+        }
+        return schema;
+    }
+
+    private void writeFieldName(JsonGenerator generator, String fieldName) throws IOException {
+        if (fieldName != null) {
+            generator.writeFieldName(fieldName);
+        }
+    }
+
+    private void logRedaction(List<String> redactions, String path, String reason) {
+        redactions.add(path);
+        if (jsonSchemaFilterUtils.getOptions().getLogRedactions()) {
+            log.info("Redacted " + path + " because " + reason);
+        }
+    }
+
+    /**
+     * mirrors ref resolution of {@link JsonSchemaFilterUtils}
+     */
+    static Optional<JsonSchemaFilter> resolveRef(JsonSchemaFilter schema, JsonSchemaFilter root) {
+        if (schema.getRef().equals("#")) {
+            return Optional.of(root);
+        } else if (schema.getRef().startsWith("#/definitions/") && root.getDefinitions() != null) {
+            return Optional.ofNullable(root.getDefinitions()
+                    .get(schema.getRef().substring("#/definitions/".length())));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * whether schema can be applied while streaming; conditional schemas, `anyOf` and `const`
+     * depend on sibling values, so require the full node
+     */
+    static boolean isStreamable(JsonSchemaFilter schema, JsonSchemaFilter root,
+                                Set<JsonSchemaFilter> visited) {
+        if (!visited.add(schema)) {
+            return true;
+        }
+        if (schema.isRef()) {
+            return resolveRef(schema, root)
+                    .map(resolved -> isStreamable(resolved, root, visited))
+                    .orElse(false);
+        }
+        if (schema.hasAnyOf() || schema.hasIf() || schema.hasConstant()
+                || schema instanceof JsonSchemaFilterUtils.ConditionJsonSchema
+                || schema instanceof JsonSchemaFilterUtils.ThenJsonSchema) {
+            return false;
+        }
+        if (schema.hasType()) {
+            if (schema.isArray()) {
+                return schema.getItems() != null && isStreamable(schema.getItems(), root, visited);
+            } else if (schema.isObject() && schema.getProperties() != null) {
+                return schema.getProperties().values().stream()
+                        .allMatch(propertySchema -> isStreamable(propertySchema, root, visited));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * parses a JsonPath into segments that can be matched while streaming; supports properties
+     * (dot or bracket notation, including unions), wildcards and deep-scans.
+     *
+     * @return segments, or empty if path uses anything else (filters, indexes, slices, functions)
+     */
+    static Optional<List<Segment>> parsePath(String jsonPath) {
+        String path = StringUtils.trimToEmpty(jsonPath);
+        if (!path.startsWith("$")) {
+            return Optional.empty();
+        }
+        List<Segment> segments = new ArrayList<>();
+        int i = 1;
+        while (i < path.length()) {
+            int start = i;
+            boolean deepScan = false;
+            if (path.startsWith("..", i)) {
+                deepScan = true;
+                i += 2;
+            } else if (path.charAt(i) == '.') {
+                i += 1;
+            } else if (path.charAt(i) != '[') {
+                return Optional.empty();
+            }
+
+            Set<String> names;
+            if (i < path.length() && path.charAt(i) == '[') {
+                int end = path.indexOf(']', i);
+                if (end < 0) {
+                    return Optional.empty();
+                }
+                String bracket = path.substring(i + 1, end).trim();
+                if (bracket.equals("*")) {
+                    names = null;
+                } else {
+                    Optional<Set<String>> bracketNames = parseBracketNames(bracket);
+                    if (bracketNames.isEmpty()) {
+                        return Optional.empty();
+                    }
+                    names = bracketNames.get();
+                }
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                String name = path.substring(i, end);
+                if (name.isEmpty() || StringUtils.containsAny(name, "()'\"?@ ")) {
+                    return Optional.empty();
+                }
+                names = name.equals("*") ? null : Set.of(name);
+                i = end;
+            }
+            segments.add(new Segment(deepScan, names, path.substring(start, i)));
+        }
+        if (segments.isEmpty() || segments.size() > MAX_PATH_SEGMENTS) {
+            return Optional.empty();
+        }
+        return Optional.of(segments);
+    }
+
+    /**
+     * @param content of bracket, eg `'foo','bar'`
+     * @return property names, if content is quoted names; otherwise empty
+     */
+    private static Optional<Set<String>> parseBracketNames(String content) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String part : content.split(",")) {
+            String quoted = part.trim();
+            if (quoted.length() < 2
+                    || !(quoted.startsWith("'") && quoted.endsWith("'")
+                        || quoted.startsWith("\"") && quoted.endsWith("\""))) {
+                return Optional.empty();
+            }
+            String name = quoted.substring(1, quoted.length() - 1);
+            if (StringUtils.containsAny(name, "\\'\"")) {
+                return Optional.empty();
+            }
+            names.add(name);
+        }
+        return Optional.of(Collections.unmodifiableSet(names));
+    }
+
+    /**
+     * step of a JsonPath
+     *
+     * @param deepScan whether matches at any depth below current node, rather than just children
+     * @param names    of properties matched; null if wildcard (any property or array element)
+     * @param text     of segment in original path
+     */
+    record Segment(boolean deepScan, Set<String> names, String text) {
+
+        boolean matches(String key) {
+            return names == null || (key != null && names.contains(key));
+        }
+    }
+
+    @AllArgsConstructor
+    static class StreamedTransform {
+        final boolean isRedact;
+
+        /**
+         * null if redact
+         */
+        final MapFunction mapFunction;
+
+        final List<PathRule> pathRules;
+    }
+
+    /**
+     * a single path of a transform; match state at a node is bit mask of the positions in
+     * segments reached by the node (bit `segments.length` being a full match)
+     */
+    @AllArgsConstructor
+    static class PathRule {
+        final int index;
+        final int transformIndex;
+        final Segment[] segments;
+
+        boolean isMatched(long state) {
+            return (state & (1L << segments.length)) != 0L;
+        }
+
+        long advance(long state, String key) {
+            long next = 0L;
+            for (int p = 0; p < segments.length; p++) {
+                if ((state & (1L << p)) != 0L) {
+                    Segment segment = segments[p];
+                    if (segment.deepScan()) {
+                        next |= 1L << p;
+                    }
+                    if (segment.matches(key)) {
+                        next |= 1L << (p + 1);
+                    }
+                }
+            }
+            return next;
+        }
+
+        void addRemainingPaths(long state, Set<String> paths) {
+            for (int p = 0; p < segments.length; p++) {
+                if ((state & (1L << p)) != 0L) {
+                    StringBuilder remaining = new StringBuilder("$");
+                    for (int s = p; s < segments.length; s++) {
+                        remaining.append(segments[s].text());
+                    }
+                    paths.add(remaining.toString());
+                }
+            }
+        }
+    }
+}
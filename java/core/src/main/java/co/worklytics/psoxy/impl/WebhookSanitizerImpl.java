@@ -8,6 +8,7 @@ import co.worklytics.psoxy.utils.email.EmailAddressParser;
 import com.avaulta.gateway.rules.WebhookCollectionRules;
 import com.avaulta.gateway.rules.transforms.Transform;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.MapMaker;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
@@ -18,10 +19,8 @@ import org.apache.commons.lang3.ObjectUtils;
 
 import javax.inject.Inject;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Log
 public class WebhookSanitizerImpl implements WebhookSanitizer {
@@ -38,7 +37,10 @@ public class WebhookSanitizerImpl implements WebhookSanitizer {
 
     final WebhookCollectionRules webhookRules;
 
-    Map<Transform, List<JsonPath>> compiledTransforms = new ConcurrentHashMap<>();
+    // keyed by instance (weakKeys() implies identity equality), not Transform's equals/hashCode;
+    // subclasses such as Tokenize don't override those, so distinct transforms on same paths (eg,
+    // Tokenize with different regexes) would otherwise share one compiled transform
+    Map<Transform, CompiledTransform> compiledTransforms = new MapMaker().weakKeys().makeMap();
 
     @AssistedInject
     public WebhookSanitizerImpl(@Assisted WebhookCollectionRules webhookCollectionRules) {
@@ -3,6 +3,8 @@ package co.worklytics.psoxy.storage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
 import co.worklytics.psoxy.Pseudonymizer;
 import co.worklytics.psoxy.gateway.StorageEventRequest;
 
@@ -26,4 +28,26 @@ public interface BulkDataSanitizer {
                   InputStream in,
                   OutputStream out,
                   Pseudonymizer pseudonymizer) throws IOException;
+
+    /**
+     * as {@link #sanitize(StorageEventRequest, InputStream, OutputStream, Pseudonymizer)}, but
+     * with random access to the source content; formats that require random access (Parquet)
+     * can then read content in place, rather than copying it somewhere seekable first.
+     *
+     * default implementation just reads it sequentially.
+     *
+     * @param request       The storage event request
+     * @param in            The source content, uncompressed
+     * @param out           The output stream to which sanitized content should be written
+     * @param pseudonymizer The pseudonymizer to use
+     * @throws IOException  IO problem reading or writing
+     */
+    default void sanitize(StorageEventRequest request,
+                          InputFile in,
+                          OutputStream out,
+                          Pseudonymizer pseudonymizer) throws IOException {
+        try (SeekableInputStream stream = in.newStream()) {
+            sanitize(request, stream, out, pseudonymizer);
+        }
+    }
 }
@@ -0,0 +1,136 @@
+package co.worklytics.psoxy.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * stream of chunks of content, as fed by another thread through a bounded queue; so one producer
+ * can tee the same content to several consumers, each reading at its own pace (up to queue
+ * capacity; beyond that, the producer waits on the slowest)
+ *
+ * chunks are never modified once offered, so the same chunk may be offered to several streams.
+ */
+class ChunkQueueInputStream extends InputStream {
+
+    private static final byte[] END = new byte[0];
+
+    // how long producer waits for space before re-checking whether reader has gone away
+    private static final long OFFER_POLL_MILLIS = 100;
+
+    private final BlockingQueue<byte[]> chunks;
+
+    private volatile boolean closed = false;
+
+    private volatile IOException producerError;
+
+    private byte[] current;
+    private int position;
+    private boolean ended = false;
+
+    /**
+     * @param capacity max chunks buffered ahead of reader
+     */
+    ChunkQueueInputStream(int capacity) {
+        this.chunks = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * blocks until there's space for chunk, or reader has closed stream
+     *
+     * @return whether reader may still read chunk; false if it closed stream (eg, it failed)
+     */
+    boolean offer(byte[] chunk) throws InterruptedException {
+        while (!closed) {
+            if (chunks.offer(chunk, OFFER_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * signal end of content; reader sees EOF after consuming all chunks offered before this
+     */
+    void end() throws InterruptedException {
+        offer(END);
+    }
+
+    /**
+     * signal that content couldn't be read in full; reader gets error, rather than EOF, after
+     * consuming chunks offered before this
+     */
+    void fail(IOException e) throws InterruptedException {
+        producerError = e;
+        offer(END);
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return current[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return current == null ? 0 : current.length - position;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        // unblock producer, if waiting on this
+        chunks.clear();
+    }
+
+    /**
+     * @return whether there's content to read in current chunk
+     */
+    private boolean fill() throws IOException {
+        while (current == null || position >= current.length) {
+            if (ended || closed) {
+                return false;
+            }
+            byte[] next;
+            try {
+                next = chunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for content");
+            }
+            if (next == END) {
+                ended = true;
+                if (producerError != null) {
+                    throw new IOException("Failed to read source content", producerError);
+                }
+                return false;
+            }
+            current = next;
+            position = 0;
+        }
+        return true;
+    }
+}
@@ -10,16 +10,28 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Serial;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
@@ -29,6 +41,7 @@ import javax.inject.Singleton;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.parquet.io.InputFile;
 import com.avaulta.gateway.rules.BulkDataRules;
 import com.avaulta.gateway.rules.MultiTypeBulkDataRules;
 import com.avaulta.gateway.rules.PathTemplateUtils;
@@ -47,6 +60,7 @@ import co.worklytics.psoxy.gateway.StorageEventResponse;
 import co.worklytics.psoxy.gateway.SecretStore;
 import co.worklytics.psoxy.HashUtils;
 import co.worklytics.psoxy.rules.RulesUtils;
+import co.worklytics.psoxy.storage.impl.RangeReadInputFile;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -54,6 +68,7 @@ import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
+import lombok.Value;
 import lombok.extern.java.Log;
 
 /**
@@ -81,6 +96,17 @@ public class StorageHandler {
      */
     private static final int LINES_TO_VALIDATE = 5;
 
+    // content teed to each transform in chunks of this size; up to FAN_OUT_CHUNKS_BUFFERED ahead of
+    // each, so at most 4 MB buffered per transform
+    private static final int FAN_OUT_CHUNK_SIZE = 65_536;
+    private static final int FAN_OUT_CHUNKS_BUFFERED = 64;
+
+    /**
+     * max bytes of input buffered for each transform of {@link #handleFanOut}, on top of whatever
+     * its output buffers
+     */
+    public static final int FAN_OUT_BUFFERED_BYTES_PER_TARGET = FAN_OUT_CHUNK_SIZE * FAN_OUT_CHUNKS_BUFFERED;
+
     @Inject
     ConfigService config;
 
@@ -216,16 +242,33 @@ public class StorageHandler {
     }
 
 
-    @SneakyThrows
     public StorageEventResponse handle(StorageEventRequest request,
                                        StorageHandler.ObjectTransform transform,
                                        Supplier<InputStream> inputStreamSupplier,
                                        Supplier<OutputStream> outputStreamSupplier) {
+        return handle(request, transform, inputStreamSupplier, outputStreamSupplier, null);
+    }
+
+    /**
+     * @param seekableInput random access to source object, if host can provide it; used in place of
+     *                      inputStreamSupplier for binary formats that need it (Parquet), unless
+     *                      input must be decompressed
+     */
+    @SneakyThrows
+    public StorageEventResponse handle(StorageEventRequest request,
+                                       StorageHandler.ObjectTransform transform,
+                                       Supplier<InputStream> inputStreamSupplier,
+                                       Supplier<OutputStream> outputStreamSupplier,
+                                       @Nullable InputFile seekableInput) {
 
 
         this.validate(request, transform, inputStreamSupplier);
 
-        this.process(request, transform, inputStreamSupplier, outputStreamSupplier);
+        if (seekableInput != null && !request.getDecompressInput() && isSupportedBinaryType(request)) {
+            this.process(request, transform, seekableInput, outputStreamSupplier);
+        } else {
+            this.process(request, transform, inputStreamSupplier, outputStreamSupplier);
+        }
 
         StorageEventResponse response = StorageEventResponse.builder()
             .destinationBucketName(request.getDestinationBucketName())
@@ -240,6 +283,307 @@ public class StorageHandler {
         return response;
     }
 
+    /**
+     * a transform of a source object, with where to write its output
+     */
+    @Builder
+    @Value
+    public static class FanOutTarget {
+
+        @NonNull
+        StorageEventRequest request;
+
+        @NonNull
+        ObjectTransform transform;
+
+        @NonNull
+        Supplier<OutputStream> outputStreamSupplier;
+    }
+
+    /**
+     * outcome of processing one {@link FanOutTarget}; either response or error is filled
+     */
+    @Builder
+    @Value
+    public static class FanOutResult {
+
+        FanOutTarget target;
+
+        @Nullable
+        StorageEventResponse response;
+
+        @Nullable
+        Throwable error;
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
+    /**
+     * handle all transforms of a single source object, reading (and decompressing) the source
+     * only ONCE; content is teed to all transforms, which run concurrently, each writing to its own
+     * output.
+     *
+     * cf calling {@link #handle} for each transform, which reads source twice per transform
+     * (once to validate, once to process).
+     *
+     * failure of one target doesn't affect the others; caller should check each result, and
+     * discard output of failed ones. If the source itself can't be read, all fail.
+     *
+     * @param targets             transforms of the source; requests must all be for the same
+     *                            source object
+     * @param inputStreamSupplier to get a stream of the source
+     * @param seekableInput       random access to source object, if host can provide it; as for
+     *                            {@link #handle}
+     * @return result for each target, in same order
+     */
+    @SneakyThrows
+    public List<FanOutResult> handleFanOut(@NonNull List<FanOutTarget> targets,
+                                           @NonNull Supplier<InputStream> inputStreamSupplier,
+                                           @Nullable InputFile seekableInput) {
+        if (targets.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        StorageEventRequest sourceRequest = targets.get(0).getRequest();
+
+        List<FanOutResult> results;
+        if (isSupportedBinaryType(sourceRequest)) {
+            results = fanOutBinary(sourceRequest, targets, inputStreamSupplier, seekableInput);
+        } else {
+            results = fanOutText(sourceRequest, targets, inputStreamSupplier);
+        }
+
+        for (FanOutResult result : results) {
+            if (result.isSuccess()) {
+                log.info("Successfully pseudonymized " + sourceRequest.getSourceBucketName() + "/"
+                    + sourceRequest.getSourceObjectPath() + " and uploaded to " + result.getResponse().getDestinationBucketName() + "/" + result.getResponse().getDestinationObjectPath());
+            } else {
+                log.log(Level.WARNING, "Failed to process " + sourceRequest.getSourceBucketName() + "/"
+                    + sourceRequest.getSourceObjectPath() + " to " + result.getTarget().getRequest().getDestinationBucketName() + "/" + result.getTarget().getRequest().getDestinationObjectPath(), result.getError());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * binary formats (Parquet) need random access, so rather than tee a stream, give every
+     * transform random access to the same content: the source itself, if seekable and not
+     * compressed; otherwise, a single local copy of its decompressed content
+     */
+    private List<FanOutResult> fanOutBinary(StorageEventRequest sourceRequest,
+                                            List<FanOutTarget> targets,
+                                            Supplier<InputStream> inputStreamSupplier,
+                                            @Nullable InputFile seekableInput) throws IOException, InterruptedException {
+        Path localCopy = null;
+        try {
+            InputFile input;
+            if (seekableInput != null && !sourceRequest.getDecompressInput()) {
+                input = seekableInput;
+            } else {
+                localCopy = Files.createTempFile("fan-out-", ".parquet");
+                try (InputStream in = readInputStream(sourceRequest, getBufferSize(), inputStreamSupplier)) {
+                    Files.copy(in, localCopy, StandardCopyOption.REPLACE_EXISTING);
+                }
+                input = RangeReadInputFile.of(localCopy);
+            }
+
+            final InputFile sharedInput = input;
+            return runConcurrently(targets, target ->
+                this.process(target.getRequest(), target.getTransform(), sharedInput, target.getOutputStreamSupplier()));
+        } finally {
+            if (localCopy != null) {
+                Files.deleteIfExists(localCopy);
+            }
+        }
+    }
+
+    /**
+     * text formats are read sequentially, so decoded content is teed to every transform as read;
+     * first lines are buffered to validate every transform before any output is opened, as
+     * {@link #handle} does
+     */
+    private List<FanOutResult> fanOutText(StorageEventRequest sourceRequest,
+                                          List<FanOutTarget> targets,
+                                          Supplier<InputStream> inputStreamSupplier) throws IOException, InterruptedException {
+        int bufferSize = getBufferSize();
+
+        try (InputStream source = new BufferedInputStream(
+            readInputStream(sourceRequest, bufferSize, inputStreamSupplier), bufferSize)) {
+
+            byte[] firstLines = readFirstLines(source, LINES_TO_VALIDATE);
+
+            Map<FanOutTarget, Throwable> invalid = new LinkedHashMap<>();
+            List<FanOutTarget> valid = new ArrayList<>();
+            for (FanOutTarget target : targets) {
+                try {
+                    // content is already decompressed, so don't try to decompress again
+                    this.validate(target.getRequest().withDecompressInput(false), target.getTransform(),
+                        () -> new ByteArrayInputStream(firstLines));
+                    valid.add(target);
+                } catch (Throwable e) {
+                    invalid.put(target, e);
+                }
+            }
+
+            Map<FanOutTarget, ChunkQueueInputStream> pipes = new LinkedHashMap<>();
+            valid.forEach(target -> pipes.put(target, new ChunkQueueInputStream(FAN_OUT_CHUNKS_BUFFERED)));
+
+            List<FanOutResult> processed = runConcurrently(valid, target -> {
+                    try (ChunkQueueInputStream pipe = pipes.get(target)) {
+                        this.process(target.getRequest().withDecompressInput(false), target.getTransform(),
+                            () -> pipe, target.getOutputStreamSupplier());
+                    }
+                },
+                () -> tee(firstLines, source, pipes.values()));
+
+            Map<FanOutTarget, FanOutResult> byTarget = new LinkedHashMap<>();
+            processed.forEach(result -> byTarget.put(result.getTarget(), result));
+            invalid.forEach((target, e) -> byTarget.put(target, failure(target, e)));
+
+            return targets.stream().map(byTarget::get).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * feed content to all pipes, in chunks; skipping any whose reader has gone away
+     */
+    private void tee(byte[] firstLines,
+                     InputStream rest,
+                     Collection<ChunkQueueInputStream> pipes) throws InterruptedException {
+        List<ChunkQueueInputStream> open = new ArrayList<>(pipes);
+        try {
+            offerToAll(open, firstLines);
+            byte[] buffer = new byte[FAN_OUT_CHUNK_SIZE];
+            int read;
+            while (!open.isEmpty() && (read = rest.readNBytes(buffer, 0, buffer.length)) > 0) {
+                offerToAll(open, Arrays.copyOf(buffer, read));
+            }
+            for (ChunkQueueInputStream pipe : open) {
+                pipe.end();
+            }
+        } catch (IOException e) {
+            for (ChunkQueueInputStream pipe : open) {
+                pipe.fail(e);
+            }
+        }
+    }
+
+    private void offerToAll(List<ChunkQueueInputStream> open, byte[] chunk) throws InterruptedException {
+        if (chunk.length == 0) {
+            return;
+        }
+        Iterator<ChunkQueueInputStream> iterator = open.iterator();
+        while (iterator.hasNext()) {
+            if (!iterator.next().offer(chunk)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * reads from stream up to end of the nth non-blank line
+     *
+     * @return bytes read; stream is positioned just after them
+     */
+    @VisibleForTesting
+    static byte[] readFirstLines(InputStream in, int lines) throws IOException {
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        boolean lineIsBlank = true;
+        int nonBlankLines = 0;
+        int b;
+        while (nonBlankLines < lines && (b = in.read()) != -1) {
+            read.write(b);
+            if (b == '\n') {
+                if (!lineIsBlank) {
+                    nonBlankLines++;
+                }
+                lineIsBlank = true;
+            } else if (!Character.isWhitespace(b)) {
+                lineIsBlank = false;
+            }
+        }
+        return read.toByteArray();
+    }
+
+    private interface TargetProcessor {
+        void process(FanOutTarget target) throws Exception;
+    }
+
+    private interface Producer {
+        void produce() throws Exception;
+    }
+
+    private List<FanOutResult> runConcurrently(List<FanOutTarget> targets,
+                                               TargetProcessor processor) throws InterruptedException {
+        return runConcurrently(targets, processor, () -> { });
+    }
+
+    /**
+     * process each target on its own thread, while running producer (if any) on this one
+     */
+    private List<FanOutResult> runConcurrently(List<FanOutTarget> targets,
+                                               TargetProcessor processor,
+                                               Producer producer) throws InterruptedException {
+        if (targets.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(targets.size(), runnable -> {
+            Thread thread = new Thread(runnable, "bulk-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<StorageEventResponse>> futures = new ArrayList<>(targets.size());
+            for (FanOutTarget target : targets) {
+                futures.add(executor.submit(() -> {
+                    processor.process(target);
+                    return StorageEventResponse.builder()
+                        .destinationBucketName(target.getRequest().getDestinationBucketName())
+                        .destinationObjectPath(target.getRequest().getDestinationObjectPath())
+                        .build();
+                }));
+            }
+
+            try {
+                producer.produce();
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                // should be unreachable, as tee reports read errors through pipes; but if not, don't
+                // leave consumers waiting on content that'll never come
+                futures.forEach(future -> future.cancel(true));
+                log.log(Level.WARNING, "Failed to tee content to transforms", e);
+            }
+
+            List<FanOutResult> results = new ArrayList<>(targets.size());
+            for (int i = 0; i < targets.size(); i++) {
+                try {
+                    results.add(FanOutResult.builder()
+                        .target(targets.get(i))
+                        .response(futures.get(i).get())
+                        .build());
+                } catch (ExecutionException e) {
+                    results.add(failure(targets.get(i), e.getCause()));
+                } catch (CancellationException e) {
+                    results.add(failure(targets.get(i), e));
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private FanOutResult failure(FanOutTarget target, Throwable e) {
+        return FanOutResult.builder()
+            .target(target)
+            .error(e)
+            .build();
+    }
+
     /**
      * determines compression behavior based on config and transform.
      * if source
@@ -535,18 +879,41 @@ public class StorageHandler {
             InputStream inputStream = readInputStream(request, bufferSize, inputStreamSupplier);
             OutputStream outputStream = writeOutputStream(request, bufferSize, outputStreamSupplier)
         ) {
+            getBulkDataSanitizer(request, transform)
+                .sanitize(request, inputStream, outputStream, pseudonymizer);
+        }
+    }
 
-            Optional<BulkDataRules> applicableRules =
-                getApplicableRules(transform.getRules(), request.getSourceObjectPath());
-
-            if (applicableRules.isEmpty()) {
-                throw new IllegalArgumentException("No applicable rules found for " + request.getSourceObjectPath());
-            }
+    /**
+     * as {@link #process(StorageEventRequest, ObjectTransform, Supplier, Supplier)}, but reading
+     * input in place via random access
+     *
+     * @param request
+     * @param transform
+     * @param seekableInput uncompressed source content
+     * @param outputStreamSupplier
+     */
+    @SneakyThrows
+    void process(StorageEventRequest request,
+                 StorageHandler.ObjectTransform transform,
+                 InputFile seekableInput,
+                 Supplier<OutputStream> outputStreamSupplier) {
+        try (OutputStream outputStream = writeOutputStream(request, getBufferSize(), outputStreamSupplier)) {
+            getBulkDataSanitizer(request, transform)
+                .sanitize(request, seekableInput, outputStream, pseudonymizer);
+        }
+    }
 
-            BulkDataSanitizer fileHandler = bulkDataSanitizerFactory.get(applicableRules.get());
+    private BulkDataSanitizer getBulkDataSanitizer(StorageEventRequest request,
+                                                   StorageHandler.ObjectTransform transform) {
+        Optional<BulkDataRules> applicableRules =
+            getApplicableRules(transform.getRules(), request.getSourceObjectPath());
 
-            fileHandler.sanitize(request, inputStream, outputStream, pseudonymizer);
+        if (applicableRules.isEmpty()) {
+            throw new IllegalArgumentException("No applicable rules found for " + request.getSourceObjectPath());
         }
+
+        return bulkDataSanitizerFactory.get(applicableRules.get());
     }
 
 
@@ -8,12 +8,12 @@ import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
-import java.util.LinkedHashMap;
+import java.util.Deque;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +21,11 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -53,6 +58,7 @@ import com.google.common.collect.Sets;
 import co.worklytics.psoxy.PseudonymizedIdentity;
 import co.worklytics.psoxy.Pseudonymizer;
 import co.worklytics.psoxy.PseudonymizerImplFactory;
+import co.worklytics.psoxy.gateway.BulkModeConfig;
 import co.worklytics.psoxy.gateway.StorageEventRequest;
 import co.worklytics.psoxy.storage.BulkDataSanitizer;
 import co.worklytics.psoxy.utils.ProcessingBuffer;
@@ -85,6 +91,9 @@ public class ColumnarBulkDataSanitizerImpl implements BulkDataSanitizer {
     @Inject
     PseudonymizerImplFactory pseudonymizerImplFactory;
 
+    @Inject
+    BulkModeConfig bulkModeConfig;
+
     @Getter(AccessLevel.PRIVATE)
     @Setter(onMethod_ = @VisibleForTesting)
     private int recordShuffleChunkSize = 500;
@@ -348,57 +357,126 @@ public class ColumnarBulkDataSanitizerImpl implements BulkDataSanitizer {
             .setNullString("")
             .get();
 
-        // create an empty record to fill with the transformed values, ensuring all rows have
-        // the same columns
-        // linked hash map: need predictable iteration order and null values
-
-        LinkedHashMap<String, String> newRecord = new LinkedHashMap<>();
-        columnNamesForOutputFile.forEach(h -> newRecord.put(h, null));
+        Set<String> transformsWithoutMappings = ConcurrentHashMap.newKeySet();
+
+        // NOTE: must be thread-safe, as applied concurrently in parallel mode
+        Function<CSVRecord, ProcessedRecord> sanitizeRecord = record -> {
+            // fill values for every column, ensuring all rows have the same columns
+            List<String> values = new ArrayList<>(columnNamesForOutputFile.size());
+            columnNamesForOutputFile.forEach(h -> {
+                String newValue = null;
+                Pair<String, List<Function<String, Optional<String>>>> transforms = columnTransforms.getOrDefault(h, null);
+                if (transforms != null) {
+                    // apply all transformations in insertion order
+                    // key holds the original column
+                    if (record.isMapped(transforms.getKey())) {
+                        String v = record.get(transforms.getKey());
+                        if (StringUtils.isNotBlank(v)) {
+                            for (Function<String, Optional<String>> transform : transforms.getValue()) {
+                                v = transform.apply(v).orElse(null);
+                            }
+                            newValue = v;
+                        }
+                    } else {
+                        if (transformsWithoutMappings.add(transforms.getKey())) {
+                            log.warning("Column with defined transform '" + transforms.getKey() + "' not found in record number " + record.getRecordNumber() + "; no further warnings about this column will be logged");
+                        }
+                    }
+                }
+                values.add(newValue);
+            });
+            return ProcessedRecord.of(values);
+        };
 
         try (CSVPrinter printer = new CSVPrinter(writer, csvFormat)) {
+            int parallelism = getParallelism();
+            if (parallelism > 1) {
+                sanitizeInParallel(records, sanitizeRecord, getRecordsPrinter(printer), parallelism);
+            } else {
+                ProcessingBuffer<ProcessedRecord> buffer =
+                    new ProcessingBuffer<>(this.getRecordShuffleChunkSize(), getRecordsPrinter(printer));
 
-            ProcessingBuffer<ProcessedRecord> buffer = getRecordsProcessingBuffer(printer);
+                for (CSVRecord record : records) {
+                    if (buffer.addAndAttemptFlush(sanitizeRecord.apply(record))) {
+                        log.info(String.format("Processed records: %d", buffer.getProcessed()));
+                    };
+                }
+                if (buffer.flush()) {
+                    log.info(String.format("Processed records: %d", buffer.getProcessed()));
+                }
+            }
+        }
+    }
 
-            Set<String> transformsWithoutMappings = new HashSet<>();
+    int getParallelism() {
+        // null if constructed directly, rather than injected
+        return Optional.ofNullable(bulkModeConfig)
+            .map(BulkModeConfig::getParallelism)
+            .orElse(1);
+    }
 
+    /**
+     * sanitizes records in chunks of {@link #recordShuffleChunkSize} on a pool of worker threads,
+     * printing chunks from this thread in the order they were read; so output is the same as
+     * sequential processing, incl shuffling only within each chunk
+     *
+     * @param parallelism number of worker threads; at most 2x this many chunks held in memory
+     */
+    private void sanitizeInParallel(Iterable<CSVRecord> records,
+                                    Function<CSVRecord, ProcessedRecord> sanitizeRecord,
+                                    Consumer<Collection<ProcessedRecord>> printRecords,
+                                    int parallelism) throws IOException {
+        final int maxChunksInFlight = parallelism * 2;
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Deque<Future<List<ProcessedRecord>>> pending = new ArrayDeque<>();
+        long processed = 0;
+        try {
+            List<CSVRecord> chunk = new ArrayList<>(getRecordShuffleChunkSize());
             for (CSVRecord record : records) {
-                // clean up the record prior to use
-                newRecord.replaceAll((k, v) -> null);
-                newRecord.keySet().forEach(h -> {
-
-                    Pair<String, List<Function<String, Optional<String>>>> transforms = columnTransforms.getOrDefault(h, null);
-                    if (transforms == null) {
-                        newRecord.put(h, null);
-                    } else {
-                        // apply all transformations in insertion order
-                        // key holds the original column
-                        if (record.isMapped(transforms.getKey())) {
-                            String v = record.get(transforms.getKey());
-                            if (StringUtils.isNotBlank(v)) {
-                                for (Function<String, Optional<String>> transform : transforms.getValue()) {
-                                    v = transform.apply(v).orElse(null);
-                                }
-                                newRecord.put(h, v);
-                            } else {
-                                newRecord.put(h, null);
-                            }
-                        } else {
-                            if (!transformsWithoutMappings.contains(transforms.getKey())) {
-                                log.warning("Column with defined transform '" + transforms.getKey() + "' not found in record number " + record.getRecordNumber() + "; no further warnings about this column will be logged");
-                                transformsWithoutMappings.add(transforms.getKey());
-                            }
-                        }
+                chunk.add(record);
+                if (chunk.size() >= getRecordShuffleChunkSize()) {
+                    pending.add(submitChunk(executor, chunk, sanitizeRecord));
+                    chunk = new ArrayList<>(getRecordShuffleChunkSize());
+                    if (pending.size() >= maxChunksInFlight) {
+                        processed += printNextChunk(pending, printRecords);
+                        log.info(String.format("Processed records: %d", processed));
                     }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending.add(submitChunk(executor, chunk, sanitizeRecord));
+            }
+            while (!pending.isEmpty()) {
+                processed += printNextChunk(pending, printRecords);
+                log.info(String.format("Processed records: %d", processed));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-                });
+    private Future<List<ProcessedRecord>> submitChunk(ExecutorService executor,
+                                                      List<CSVRecord> chunk,
+                                                      Function<CSVRecord, ProcessedRecord> sanitizeRecord) {
+        return executor.submit(() -> chunk.stream()
+            .map(sanitizeRecord)
+            .collect(Collectors.toCollection(ArrayList::new)));
+    }
 
-                if (buffer.addAndAttemptFlush(ProcessedRecord.of(Lists.newArrayList(newRecord.values())))) {
-                    log.info(String.format("Processed records: %d", buffer.getProcessed()));
-                };
-            }
-            if (buffer.flush()) {
-                log.info(String.format("Processed records: %d", buffer.getProcessed()));
+    private int printNextChunk(Deque<Future<List<ProcessedRecord>>> pending,
+                               Consumer<Collection<ProcessedRecord>> printRecords) throws IOException {
+        try {
+            List<ProcessedRecord> sanitized = pending.removeFirst().get();
+            printRecords.accept(sanitized);
+            return sanitized.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sanitizing records", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
+            throw new IOException("Failed to sanitize records", e.getCause());
         }
     }
 
@@ -422,8 +500,8 @@ public class ColumnarBulkDataSanitizerImpl implements BulkDataSanitizer {
         return missingColumnsToPseudonymize;
     }
 
-    private ProcessingBuffer<ProcessedRecord> getRecordsProcessingBuffer(final CSVPrinter printer) {
-        Consumer<Collection<ProcessedRecord>> printRecords = (Collection<ProcessedRecord> recordsToPrint) -> {
+    private Consumer<Collection<ProcessedRecord>> getRecordsPrinter(final CSVPrinter printer) {
+        return (Collection<ProcessedRecord> recordsToPrint) -> {
             try {
                 // we control instantiation, so we can safely cast w/o checking instance of
                 // every chunk. We shuffle the records before printing them
@@ -436,8 +514,6 @@ public class ColumnarBulkDataSanitizerImpl implements BulkDataSanitizer {
                 throw new RuntimeException("Failed to write row", e);
             }
         };
-
-        return new ProcessingBuffer<>(this.getRecordShuffleChunkSize(), printRecords);
     }
 
     @Value
@@ -0,0 +1,75 @@
+package co.worklytics.psoxy.storage.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.PositionOutputStream;
+import lombok.NonNull;
+
+/**
+ * Parquet {@link OutputFile} that writes straight through to an {@link OutputStream}
+ *
+ * Parquet writers only ever append (footer is written last), so they need nothing more than the
+ * count of bytes written so far; no need to stage output in a local file.
+ *
+ * NOTE: closing the stream the writer creates flushes, but does NOT close, the underlying stream;
+ * that remains the responsibility of whoever opened it.
+ */
+public class OutputStreamOutputFile implements OutputFile {
+
+    final OutputStream out;
+
+    public OutputStreamOutputFile(@NonNull OutputStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public PositionOutputStream create(long blockSizeHint) {
+        return new PositionOutputStream() {
+
+            long pos = 0;
+
+            @Override
+            public long getPos() {
+                return pos;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                pos++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                pos += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.flush();
+            }
+        };
+    }
+
+    @Override
+    public PositionOutputStream createOrOverwrite(long blockSizeHint) {
+        return create(blockSizeHint);
+    }
+
+    @Override
+    public boolean supportsBlockSize() {
+        return false;
+    }
+
+    @Override
+    public long defaultBlockSize() {
+        return 0;
+    }
+}
@@ -2,8 +2,12 @@ package co.worklytics.psoxy.storage.impl;
 
 import blue.strategic.parquet.Hydrator;
 import blue.strategic.parquet.ParquetReader;
+import lombok.Getter;
 import lombok.extern.java.Log;
 import org.apache.commons.io.FileUtils;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
 
 import java.io.File;
 import java.io.IOException;
@@ -11,51 +15,40 @@ import java.io.InputStream;
 import java.nio.file.Files;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 @Log
 public class ParquetRecordReader implements RecordReader {
 
-    private final File tempFile;
+    // only if content wasn't seekable, so had to be spooled to local file
+    private File tempFile;
     private final Stream<Map<String, Object>> stream;
     private final Iterator<Map<String, Object>> iterator;
 
+    /**
+     * schema of source content, as read from its footer
+     */
+    @Getter
+    private MessageType schema;
+
+    /**
+     * reads Parquet content from a stream; as Parquet can only be read with random access, this
+     * must copy stream to a temp file first. Prefer {@link #ParquetRecordReader(InputFile)}
+     * wherever content is seekable.
+     */
     public ParquetRecordReader(InputStream in) throws IOException {
-        // Create temp file
         this.tempFile = Files.createTempFile("input-", ".parquet").toFile();
 
         try {
-            // Copy input stream to temp file
             FileUtils.copyInputStreamToFile(in, tempFile);
-
-            // Open stream of content as Maps using custom Hydrator
-            Hydrator<Map<String, Object>, Map<String, Object>, String[]> hydrator = new Hydrator<Map<String, Object>, Map<String, Object>, String[]>() {
-                @Override
-                public Map<String, Object> start() {
-                    return new LinkedHashMap<>();
-                }
-
-                @Override
-                public Map<String, Object> add(Map<String, Object> map, String[] heading, Object o) {
-                    map.put(heading[0], o);
-                    return map;
-                }
-
-                @Override
-                public Map<String, Object> finish(Map<String, Object> map) {
-                    return map;
-                }
-            };
-
-            this.stream = ParquetReader.streamContent(tempFile, hydrator);
+            this.stream = streamContent(RangeReadInputFile.of(tempFile.toPath()), column -> true);
             this.iterator = stream.iterator();
         } catch (Exception e) {
-            if (this.tempFile.exists()) {
-                if (!this.tempFile.delete()) {
-                    log.warning("Failed to delete temporary parquet file during initialization failure: " + this.tempFile.getAbsolutePath());
-                }
-            }
+            deleteTempFile("during initialization failure");
             if (e instanceof IOException) {
                 throw (IOException) e;
             }
@@ -63,6 +56,79 @@ public class ParquetRecordReader implements RecordReader {
         }
     }
 
+    /**
+     * reads Parquet content in place, all columns
+     */
+    public ParquetRecordReader(InputFile in) throws IOException {
+        this(in, column -> true);
+    }
+
+    /**
+     * reads Parquet content in place, decoding only (top-level) columns matching filter
+     *
+     * columns that aren't decoded are still present in each record, with `null` values; so
+     * records retain shape of source schema.
+     *
+     * @param in           to read
+     * @param decodeColumn whether to decode column with given name
+     */
+    public ParquetRecordReader(InputFile in, Predicate<String> decodeColumn) throws IOException {
+        this.stream = streamContent(in, decodeColumn);
+        this.iterator = stream.iterator();
+    }
+
+    private Stream<Map<String, Object>> streamContent(InputFile in, Predicate<String> decodeColumn) throws IOException {
+        this.schema = ParquetReader.readMetadata(in).getFileMetaData().getSchema();
+
+        List<String> columns = schema.getFields().stream()
+            .map(Type::getName)
+            .collect(Collectors.toList());
+
+        List<String> decodedColumns = columns.stream()
+            .filter(decodeColumn)
+            .collect(Collectors.toList());
+
+        List<String> skippedColumns = columns.stream()
+            .filter(column -> !decodedColumns.contains(column))
+            .collect(Collectors.toList());
+
+        if (!skippedColumns.isEmpty()) {
+            log.info("Skipping decode of Parquet columns: " + String.join(", ", skippedColumns));
+        }
+
+        // Open stream of content as Maps using custom Hydrator
+        Hydrator<Map<String, Object>, Map<String, Object>, String[]> hydrator = new Hydrator<Map<String, Object>, Map<String, Object>, String[]>() {
+            @Override
+            public Map<String, Object> start() {
+                Map<String, Object> map = new LinkedHashMap<>();
+                if (!skippedColumns.isEmpty()) {
+                    // pre-fill in schema order, so skipped columns keep their place
+                    columns.forEach(column -> map.put(column, null));
+                }
+                return map;
+            }
+
+            @Override
+            public Map<String, Object> add(Map<String, Object> map, String[] heading, Object o) {
+                map.put(heading[0], o);
+                return map;
+            }
+
+            @Override
+            public Map<String, Object> finish(Map<String, Object> map) {
+                if (!skippedColumns.isEmpty()) {
+                    // as when all columns decoded, null values of decoded columns are absent
+                    decodedColumns.forEach(column -> map.remove(column, null));
+                }
+                return map;
+            }
+        };
+
+        // field mapper returning null for a column means no reader for it, so its pages aren't decoded
+        return ParquetReader.streamContent(in, hydrator,
+            path -> decodedColumns.contains(path[0]) ? path : null);
+    }
+
     @Override
     public Map<String, Object> readRecord() throws IOException {
         if (iterator.hasNext()) {
@@ -78,11 +144,16 @@ public class ParquetRecordReader implements RecordReader {
                 stream.close();
             }
         } finally {
-            if (tempFile != null && tempFile.exists()) {
-                if (!tempFile.delete()) {
-                    log.warning("Failed to delete temporary parquet file on close: " + tempFile.getAbsolutePath());
-                }
+            deleteTempFile("on close");
+        }
+    }
+
+    private void deleteTempFile(String when) {
+        if (tempFile != null && tempFile.exists()) {
+            if (!tempFile.delete()) {
+                log.warning("Failed to delete temporary parquet file " + when + ": " + tempFile.getAbsolutePath());
             }
+            tempFile = null;
         }
     }
 }
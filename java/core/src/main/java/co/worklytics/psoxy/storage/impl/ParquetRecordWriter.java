@@ -1,65 +1,103 @@
 package co.worklytics.psoxy.storage.impl;
 
-import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.file.Files;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import org.apache.commons.io.FileUtils;
-import org.apache.parquet.schema.MessageType;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.api.WriteSupport;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.io.OutputFile;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.io.api.RecordConsumer;
 import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
 import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type;
 import org.apache.parquet.schema.Types;
-import blue.strategic.parquet.ParquetWriter;
+import com.avaulta.gateway.rules.JsonSchemaFilter;
+import co.worklytics.psoxy.gateway.BulkModeConfig;
+import lombok.NonNull;
 import lombok.extern.java.Log;
 
+/**
+ * writes records as Parquet, with typed, dictionary-encoded columns
+ *
+ * schema should be given up front where known (eg, derived from source Parquet schema or output
+ * schema filter); otherwise it's inferred from the first {@link #SCHEMA_INFERENCE_SAMPLE_SIZE}
+ * records, which are buffered until then.
+ */
 @Log
 public class ParquetRecordWriter implements RecordWriter {
 
+    // records to buffer and infer schema from, if none given
+    static final int SCHEMA_INFERENCE_SAMPLE_SIZE = 1_000;
+
+    static final String RECORD_NAME = "Record";
+
     private final OutputStream outputStream;
-    private File tempFile;
+    private final BulkModeConfig config;
+    private MessageType schema;
+    private List<Map<String, Object>> sample;
     private ParquetWriter<Map<String, Object>> writer;
-    private boolean initialized = false;
 
     public ParquetRecordWriter(OutputStream out) {
+        this(out, null, BulkModeConfig.builder().build());
+    }
+
+    /**
+     * @param out    to write to
+     * @param schema of output, if known up front; otherwise inferred from records
+     * @param config for codec, row group size
+     */
+    public ParquetRecordWriter(@NonNull OutputStream out,
+                               @Nullable MessageType schema,
+                               @NonNull BulkModeConfig config) {
         this.outputStream = out;
+        this.schema = schema;
+        this.config = config;
     }
 
     @Override
     public void beginRecordSet() throws IOException {
-        // Create temp file
-        this.tempFile = Files.createTempFile("psoxy-parquet-out-", ".parquet").toFile();
+        if (schema != null) {
+            openWriter();
+        } else {
+            sample = new ArrayList<>();
+        }
     }
 
     @Override
     public void writeRecord(Map<String, Object> record) throws IOException {
-        if (!initialized) {
-            initializeWriter(record);
-        }
-
         if (writer != null) {
             writer.write(record);
+        } else {
+            sample.add(record);
+            if (sample.size() >= SCHEMA_INFERENCE_SAMPLE_SIZE) {
+                writeSample();
+            }
         }
     }
 
     @Override
     public void endRecordSet() throws IOException {
-        if (!initialized) {
-            throw new IOException("Cannot write Parquet file without records; at least one record is required to infer the schema.");
+        if (writer == null) {
+            if (sample == null || sample.isEmpty()) {
+                throw new IOException("Cannot write Parquet file without records or a schema; at least one record is required to infer the schema.");
+            }
+            writeSample();
         }
 
-        if (writer != null) {
-            writer.close();
-            writer = null; // Prevent double close
-        }
-        
-        // Copy temp file to output stream
-        if (tempFile != null && tempFile.exists()) {
-            FileUtils.copyFile(tempFile, outputStream);
-        }
+        // if no records, this still writes a valid file: just a footer with the schema
+        writer.close();
+        writer = null; // Prevent double close
     }
 
     @Override
@@ -71,76 +109,274 @@ public class ParquetRecordWriter implements RecordWriter {
                 // ignore, we are closing anyway
             }
         }
-        if (tempFile != null && tempFile.exists()) {
-            if (!tempFile.delete()) {
-                log.warning("Failed to delete temporary parquet file on close: " + tempFile.getAbsolutePath());
-            }
+    }
+
+    private void writeSample() throws IOException {
+        schema = inferSchema(sample);
+        openWriter();
+        for (Map<String, Object> record : sample) {
+            writer.write(record);
         }
+        sample = null;
+    }
+
+    private void openWriter() throws IOException {
+        // row groups are written straight to output stream as they fill; no local copy
+        this.writer = new Builder(new OutputStreamOutputFile(outputStream), schema)
+            .withCompressionCodec(CompressionCodecName.fromConf(config.getParquetCompressionCodec()))
+            .withRowGroupSize(config.getParquetRowGroupSizeBytes())
+            .withDictionaryEncoding(true)
+            .build();
     }
 
-    private void initializeWriter(Map<String, Object> firstRecord) throws IOException {
-        // Infer schema from firstRecord keys
+    /**
+     * infers schema from values across all sample records; a column's type is that of its
+     * non-null values, widened as needed (eg, INT32 and INT64 --> INT64; numbers of mixed types
+     * --> DOUBLE; otherwise --> string)
+     */
+    static MessageType inferSchema(List<Map<String, Object>> records) {
+        // field --> type; null if no non-null values seen yet
+        Map<String, PrimitiveType.PrimitiveTypeName> fieldTypes = new LinkedHashMap<>();
+        for (Map<String, Object> record : records) {
+            record.forEach((key, value) ->
+                fieldTypes.put(key, widen(fieldTypes.get(key), value == null ? null : typeOf(value))));
+        }
+
+        Types.MessageTypeBuilder builder = Types.buildMessage();
+        fieldTypes.forEach((key, type) -> builder.addField(optionalField(
+            type == null ? PrimitiveType.PrimitiveTypeName.BINARY : type, key)));
+        return builder.named(RECORD_NAME);
+    }
+
+    /**
+     * @param schemaFilter output schema filter of rules
+     * @return schema of output, if filter is a flat object with explicitly listed properties
+     */
+    static Optional<MessageType> schemaFromFilter(JsonSchemaFilter schemaFilter) {
+        if (schemaFilter.getRef() != null
+            || schemaFilter.getProperties() == null
+            || schemaFilter.getProperties().isEmpty()) {
+            return Optional.empty();
+        }
+
         Types.MessageTypeBuilder builder = Types.buildMessage();
-        List<String> fieldNames = new ArrayList<>(firstRecord.keySet());
-        Map<String, PrimitiveType.PrimitiveTypeName> fieldTypes = new HashMap<>();
-
-        for (String key : fieldNames) {
-            Object val = firstRecord.get(key);
-            PrimitiveType.PrimitiveTypeName type = PrimitiveType.PrimitiveTypeName.BINARY;
-            LogicalTypeAnnotation logicalType = LogicalTypeAnnotation.stringType();
-
-            if (val instanceof Integer) {
-                type = PrimitiveType.PrimitiveTypeName.INT32;
-                logicalType = null;
-            } else if (val instanceof Long) {
+        schemaFilter.getProperties().forEach((key, property) -> {
+            PrimitiveType.PrimitiveTypeName type;
+            if (property.isInteger()) {
                 type = PrimitiveType.PrimitiveTypeName.INT64;
-                logicalType = null;
-            } else if (val instanceof Double) {
+            } else if (property.isNumber()) {
                 type = PrimitiveType.PrimitiveTypeName.DOUBLE;
-                logicalType = null;
-            } else if (val instanceof Boolean) {
+            } else if (property.isBoolean()) {
                 type = PrimitiveType.PrimitiveTypeName.BOOLEAN;
-                logicalType = null;
+            } else {
+                // strings, but also anything complex, which is written as its string representation
+                type = PrimitiveType.PrimitiveTypeName.BINARY;
             }
+            builder.addField(optionalField(type, key));
+        });
+        return Optional.of(builder.named(RECORD_NAME));
+    }
 
-            fieldTypes.put(key, type);
+    /**
+     * @param sourceSchema    of Parquet input
+     * @param stringColumns   columns whose values are replaced with strings by transforms (eg,
+     *                        pseudonyms), whatever their source type
+     * @param redactedColumns columns that are redacted, so omitted from output
+     * @return schema of output, if source is flat (all columns primitive)
+     */
+    static Optional<MessageType> schemaFromSource(MessageType sourceSchema,
+                                                  Set<String> stringColumns,
+                                                  Set<String> redactedColumns) {
+        if (sourceSchema.getFields().isEmpty()
+            || !sourceSchema.getFields().stream().allMatch(Type::isPrimitive)
+            || sourceSchema.getFields().stream().allMatch(field -> redactedColumns.contains(field.getName()))) {
+            return Optional.empty();
+        }
 
-            Types.PrimitiveBuilder<PrimitiveType> fieldBuilder = Types.optional(type);
-            if (logicalType != null) {
-                fieldBuilder = fieldBuilder.as(logicalType);
+        Types.MessageTypeBuilder builder = Types.buildMessage();
+        for (Type field : sourceSchema.getFields()) {
+            if (redactedColumns.contains(field.getName())) {
+                continue;
+            } else if (stringColumns.contains(field.getName())) {
+                builder.addField(optionalField(PrimitiveType.PrimitiveTypeName.BINARY, field.getName()));
+            } else {
+                // optional, as transforms may null any value
+                PrimitiveType primitive = field.asPrimitiveType();
+                builder.addField(new PrimitiveType(Type.Repetition.OPTIONAL,
+                    primitive.getPrimitiveTypeName(), primitive.getTypeLength(), field.getName())
+                    .withLogicalTypeAnnotation(primitive.getLogicalTypeAnnotation()));
             }
-            builder.addField(fieldBuilder.named(key));
-        }
-        
-        MessageType schema = builder.named("Record");
-
-        // Initialize wrapper writer
-        this.writer = ParquetWriter.writeFile(schema, tempFile, (map, valueWriter) -> {
-            for (String key : fieldNames) {
-                Object val = map.get(key);
-                if (val != null) {
-                    PrimitiveType.PrimitiveTypeName type = fieldTypes.get(key);
-                    switch (type) {
-                        case INT32:
-                            valueWriter.write(key, (Integer) val);
-                            break;
-                        case INT64:
-                            valueWriter.write(key, (Long) val);
-                            break;
-                        case DOUBLE:
-                            valueWriter.write(key, (Double) val);
-                            break;
-                        case BOOLEAN:
-                            valueWriter.write(key, (Boolean) val);
-                            break;
-                        default:
-                            valueWriter.write(key, String.valueOf(val));
-                            break;
-                    }
+        }
+        return Optional.of(builder.named(RECORD_NAME));
+    }
+
+    private static PrimitiveType optionalField(PrimitiveType.PrimitiveTypeName type, String name) {
+        Types.PrimitiveBuilder<PrimitiveType> fieldBuilder = Types.optional(type);
+        if (type == PrimitiveType.PrimitiveTypeName.BINARY) {
+            fieldBuilder = fieldBuilder.as(LogicalTypeAnnotation.stringType());
+        }
+        return fieldBuilder.named(name);
+    }
+
+    private static PrimitiveType.PrimitiveTypeName typeOf(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return PrimitiveType.PrimitiveTypeName.INT32;
+        } else if (value instanceof Long) {
+            return PrimitiveType.PrimitiveTypeName.INT64;
+        } else if (value instanceof Double || value instanceof Float) {
+            return PrimitiveType.PrimitiveTypeName.DOUBLE;
+        } else if (value instanceof Boolean) {
+            return PrimitiveType.PrimitiveTypeName.BOOLEAN;
+        } else {
+            return PrimitiveType.PrimitiveTypeName.BINARY;
+        }
+    }
+
+    private static PrimitiveType.PrimitiveTypeName widen(PrimitiveType.PrimitiveTypeName a,
+                                                         PrimitiveType.PrimitiveTypeName b) {
+        if (a == null || a == b) {
+            return b;
+        } else if (b == null) {
+            return a;
+        } else if (isNumeric(a) && isNumeric(b)) {
+            return (a == PrimitiveType.PrimitiveTypeName.DOUBLE || b == PrimitiveType.PrimitiveTypeName.DOUBLE)
+                ? PrimitiveType.PrimitiveTypeName.DOUBLE : PrimitiveType.PrimitiveTypeName.INT64;
+        } else {
+            return PrimitiveType.PrimitiveTypeName.BINARY;
+        }
+    }
+
+    private static boolean isNumeric(PrimitiveType.PrimitiveTypeName type) {
+        return type == PrimitiveType.PrimitiveTypeName.INT32
+            || type == PrimitiveType.PrimitiveTypeName.INT64
+            || type == PrimitiveType.PrimitiveTypeName.DOUBLE;
+    }
+
+    static class Builder extends ParquetWriter.Builder<Map<String, Object>, Builder> {
+
+        final MessageType schema;
+
+        Builder(OutputFile file, MessageType schema) {
+            super(file);
+            this.schema = schema;
+        }
+
+        @Override
+        protected Builder self() {
+            return this;
+        }
+
+        @Override
+        protected WriteSupport<Map<String, Object>> getWriteSupport(Configuration conf) {
+            return new MapWriteSupport(schema);
+        }
+    }
+
+    /**
+     * writes flat records (field --> primitive value) per schema; values are coerced to the
+     * column's type
+     *
+     * records with non-null values for fields not in schema are rejected, rather than losing those
+     * values; null ones (eg, of redacted columns) are fine, as they'd be written as nothing anyway
+     */
+    static class MapWriteSupport extends WriteSupport<Map<String, Object>> {
+
+        final MessageType schema;
+
+        RecordConsumer recordConsumer;
+
+        MapWriteSupport(MessageType schema) {
+            this.schema = schema;
+        }
+
+        @Override
+        public WriteContext init(Configuration configuration) {
+            return new WriteContext(schema, Collections.emptyMap());
+        }
+
+        @Override
+        public void prepareForWrite(RecordConsumer recordConsumer) {
+            this.recordConsumer = recordConsumer;
+        }
+
+        @Override
+        public void write(Map<String, Object> record) {
+            for (Map.Entry<String, Object> entry : record.entrySet()) {
+                if (entry.getValue() != null && !schema.containsField(entry.getKey())) {
+                    throw new IllegalArgumentException("Record has value for field '" + entry.getKey()
+                        + "', which is not in Parquet output schema");
                 }
             }
-        });
+            recordConsumer.startMessage();
+            List<Type> fields = schema.getFields();
+            for (int i = 0; i < fields.size(); i++) {
+                String name = fields.get(i).getName();
+                Object value = coerce(fields.get(i).asPrimitiveType().getPrimitiveTypeName(), name, record.get(name));
+                if (value != null) {
+                    recordConsumer.startField(name, i);
+                    writeValue(fields.get(i).asPrimitiveType().getPrimitiveTypeName(), value);
+                    recordConsumer.endField(name, i);
+                }
+            }
+            recordConsumer.endMessage();
+        }
 
-        initialized = true;
+        /**
+         * @return value as numeric column's type, or null if it can't be parsed as one; so a bad
+         * value nulls that field, rather than failing the whole file
+         */
+        @Nullable
+        private Object coerce(PrimitiveType.PrimitiveTypeName type, String name, @Nullable Object value) {
+            if (value == null || value instanceof Number) {
+                return value;
+            }
+            try {
+                switch (type) {
+                    case INT32:
+                        return Integer.parseInt(value.toString());
+                    case INT64:
+                        return Long.parseLong(value.toString());
+                    case FLOAT:
+                        return Float.parseFloat(value.toString());
+                    case DOUBLE:
+                        return Double.parseDouble(value.toString());
+                    default:
+                        return value;
+                }
+            } catch (NumberFormatException e) {
+                log.warning("Value of field '" + name + "' not a valid " + type + "; written as null");
+                return null;
+            }
+        }
+
+        private void writeValue(PrimitiveType.PrimitiveTypeName type, Object value) {
+            switch (type) {
+                case BOOLEAN:
+                    recordConsumer.addBoolean(value instanceof Boolean ? (Boolean) value : Boolean.parseBoolean(value.toString()));
+                    break;
+                case INT32:
+                    recordConsumer.addInteger(((Number) value).intValue());
+                    break;
+                case INT64:
+                    recordConsumer.addLong(((Number) value).longValue());
+                    break;
+                case FLOAT:
+                    recordConsumer.addFloat(((Number) value).floatValue());
+                    break;
+                case DOUBLE:
+                    recordConsumer.addDouble(((Number) value).doubleValue());
+                    break;
+                default:
+                    // BINARY, FIXED_LEN_BYTE_ARRAY, INT96
+                    if (value instanceof byte[]) {
+                        recordConsumer.addBinary(Binary.fromConstantByteArray((byte[]) value));
+                    } else if (value instanceof Binary) {
+                        recordConsumer.addBinary((Binary) value);
+                    } else {
+                        recordConsumer.addBinary(Binary.fromString(String.valueOf(value)));
+                    }
+                    break;
+            }
+        }
     }
 }
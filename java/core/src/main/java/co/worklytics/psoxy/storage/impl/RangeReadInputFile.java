@@ -0,0 +1,230 @@
+package co.worklytics.psoxy.storage.impl;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.io.SeekableInputStream;
+import lombok.NonNull;
+
+/**
+ * Parquet {@link InputFile} over content that can be read starting from any offset (eg, ranged
+ * `GetObject` of an S3 object, or a GCS `ReadChannel` after seeking)
+ *
+ * Parquet readers jump to the footer and then to the column chunks they need; so this lets them
+ * read objects in place, rather than first copying the whole object somewhere seekable.
+ *
+ * ranges read are bounded (to what's requested, or a read-ahead window if more), so a stream that's
+ * discarded on seek / close has little content left; some HTTP clients (eg, Apache one used by
+ * S3Client) drain the rest of a response body when its stream is closed, which for an open-ended
+ * range could be the rest of a multi-GB object.
+ */
+public class RangeReadInputFile implements InputFile {
+
+    @FunctionalInterface
+    public interface RangeReader {
+
+        /**
+         * @param offset in bytes from start of content
+         * @param length max bytes to read, from offset
+         * @return stream of content in range [offset, offset + length); or to end, if that's sooner
+         */
+        InputStream open(long offset, long length) throws IOException;
+    }
+
+    // forward seeks of up to this many bytes read past the gap in the current stream, rather
+    // than opening another one; as a new ranged read costs more than reading that much
+    static final long MAX_SKIP_BYTES = 1024 * 1024;
+
+    // min bytes to request per range; more reduces number of requests for sequential reads, but
+    // increases what's wasted if range discarded before being fully read
+    static final long DEFAULT_READ_AHEAD_BYTES = 4 * 1024 * 1024;
+
+    final long length;
+
+    final long readAheadBytes;
+
+    final RangeReader rangeReader;
+
+    public RangeReadInputFile(long length, @NonNull RangeReader rangeReader) {
+        this(length, DEFAULT_READ_AHEAD_BYTES, rangeReader);
+    }
+
+    RangeReadInputFile(long length, long readAheadBytes, @NonNull RangeReader rangeReader) {
+        this.length = length;
+        this.readAheadBytes = Math.max(readAheadBytes, 1);
+        this.rangeReader = rangeReader;
+    }
+
+    /**
+     * @param path of local file
+     * @return input file reading path via positioned file channel
+     */
+    public static RangeReadInputFile of(@NonNull Path path) throws IOException {
+        // local file, so no cost to range being open-ended
+        return new RangeReadInputFile(Files.size(path), Long.MAX_VALUE, (offset, rangeLength) -> {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            channel.position(offset);
+            return Channels.newInputStream(channel);
+        });
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public SeekableInputStream newStream() {
+        return new RangeReadSeekableInputStream();
+    }
+
+    class RangeReadSeekableInputStream extends SeekableInputStream {
+
+        // opened lazily, at pos
+        InputStream current;
+
+        // end (exclusive) of range current was opened for
+        long currentEnd;
+
+        long pos = 0;
+
+        @Override
+        public long getPos() {
+            return pos;
+        }
+
+        @Override
+        public void seek(long newPos) throws IOException {
+            if (newPos < 0 || newPos > length) {
+                throw new EOFException("Cannot seek to " + newPos + "; length is " + length);
+            }
+            if (current != null && newPos >= pos && newPos - pos <= MAX_SKIP_BYTES && newPos <= currentEnd) {
+                current.skipNBytes(newPos - pos);
+            } else {
+                closeCurrent();
+            }
+            pos = newPos;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = Math.max(0, Math.min(n, length - pos));
+            seek(pos + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (pos >= length) {
+                return -1;
+            }
+            int b = ensureOpen(1).read();
+            if (b >= 0) {
+                pos++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (pos >= length) {
+                return -1;
+            }
+            InputStream in = ensureOpen(len);
+            int read = in.read(b, off, (int) Math.min(len, currentEnd - pos));
+            if (read > 0) {
+                pos += read;
+            }
+            return read;
+        }
+
+        @Override
+        public void readFully(byte[] bytes) throws IOException {
+            readFully(bytes, 0, bytes.length);
+        }
+
+        @Override
+        public void readFully(byte[] bytes, int start, int len) throws IOException {
+            while (len > 0) {
+                int read = read(bytes, start, len);
+                if (read < 0) {
+                    throw new EOFException("Reached end of content with " + len + " bytes left to read");
+                }
+                start += read;
+                len -= read;
+            }
+        }
+
+        @Override
+        public int read(ByteBuffer buf) throws IOException {
+            if (!buf.hasRemaining()) {
+                return 0;
+            }
+            int read;
+            if (buf.hasArray()) {
+                read = read(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+                if (read > 0) {
+                    buf.position(buf.position() + read);
+                }
+            } else {
+                byte[] chunk = new byte[Math.min(buf.remaining(), 8192)];
+                read = read(chunk, 0, chunk.length);
+                if (read > 0) {
+                    buf.put(chunk, 0, read);
+                }
+            }
+            return read;
+        }
+
+        @Override
+        public void readFully(ByteBuffer buf) throws IOException {
+            while (buf.hasRemaining()) {
+                if (read(buf) < 0) {
+                    throw new EOFException("Reached end of content with " + buf.remaining() + " bytes left to read");
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            closeCurrent();
+        }
+
+        /**
+         * @param requested bytes caller wants to read next; range opened is at least this long, if
+         *                  content is
+         */
+        private InputStream ensureOpen(int requested) throws IOException {
+            if (current != null && pos >= currentEnd) {
+                // fully read, so nothing left to drain on close
+                closeCurrent();
+            }
+            if (current == null) {
+                long rangeLength = Math.min(length - pos, Math.max(requested, readAheadBytes));
+                current = rangeReader.open(pos, rangeLength);
+                currentEnd = pos + rangeLength;
+            }
+            return current;
+        }
+
+        private void closeCurrent() throws IOException {
+            if (current != null) {
+                try {
+                    current.close();
+                } finally {
+                    current = null;
+                }
+            }
+        }
+    }
+}
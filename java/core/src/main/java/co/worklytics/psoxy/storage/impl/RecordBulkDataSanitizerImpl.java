@@ -8,12 +8,24 @@ import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import javax.inject.Inject;
+import org.apache.commons.lang3.ObjectUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.lang3.tuple.Triple;
+import org.apache.parquet.io.InputFile;
+import org.apache.parquet.schema.MessageType;
 import com.avaulta.gateway.pseudonyms.PseudonymEncoder;
 import com.avaulta.gateway.pseudonyms.PseudonymImplementation;
 import com.avaulta.gateway.pseudonyms.impl.UrlSafeTokenPseudonymEncoder;
@@ -65,6 +77,12 @@ public class RecordBulkDataSanitizerImpl implements BulkDataSanitizer {
     @Inject
     SanitizerUtils sanitizerUtils;
 
+    // `field`, `$.field` or `$['field']`
+    static final Pattern TOP_LEVEL_FIELD_PATH = Pattern.compile("^(?:\\$\\.|(?!\\$))([^.\\[\\]*?]+)$|^\\$\\['([^'\\]]+)'\\]$");
+
+    // records per batch in columnar execution mode
+    static final int COLUMNAR_BATCH_SIZE = 1_024;
+
     RecordRules rules;
 
     @AssistedInject
@@ -79,46 +97,267 @@ public class RecordBulkDataSanitizerImpl implements BulkDataSanitizer {
                          @NonNull InputStream in,
                          @NonNull OutputStream out,
                          @NonNull Pseudonymizer pseudonymizer) throws IOException {
+        RecordRules.Format format = resolveFormat(request);
 
-        List<Triple<JsonPath, RecordTransform, MapFunction>> compiledTransforms =
-            rules.getTransforms().stream()
-                .flatMap(transform -> transform.getPaths().stream().map(path -> Triple.of(
-                    JsonPath.compile(path),
-                    transform,
-                    getMapFunction(transform, pseudonymizer, encoder)
-                )))
-                .collect(Collectors.toList());
+        try (InputStreamReader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+             RecordReader recordReader = createReader(format, reader, in)) {
+            sanitize(format, recordReader, out, pseudonymizer);
+        }
+    }
 
-        RecordRules.Format format = rules.getFormat();
+    @Override
+    public void sanitize(@NonNull StorageEventRequest request,
+                         @NonNull InputFile in,
+                         @NonNull OutputStream out,
+                         @NonNull Pseudonymizer pseudonymizer) throws IOException {
+        RecordRules.Format format = resolveFormat(request);
 
-        if (format == RecordRules.Format.AUTO) {
-            format = resolveAutoFormat(request);
+        if (format != RecordRules.Format.PARQUET) {
+            BulkDataSanitizer.super.sanitize(request, in, out, pseudonymizer);
+            return;
         }
 
+        Set<String> redactedColumns = getRedactedColumns();
+        Optional<Set<String>> outputColumns = getOutputColumns();
+        try (RecordReader recordReader = new ParquetRecordReader(in, column ->
+            !redactedColumns.contains(column) && outputColumns.map(c -> c.contains(column)).orElse(true))) {
+            sanitize(format, recordReader, out, pseudonymizer);
+        }
+    }
+
+    void sanitize(RecordRules.Format format,
+                  RecordReader recordReader,
+                  OutputStream out,
+                  Pseudonymizer pseudonymizer) throws IOException {
+
         RecordRules.Format outputFormat = bulkModeConfig.getOutputFormat()
             .orElse(format);
 
-        try (InputStreamReader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
-        RecordReader recordReader = createReader(format, reader, in);
-        OutputStreamWriter writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
-             RecordWriter recordWriter = createWriter(outputFormat, writer, out)) {
-            
+        Optional<List<Pair<String, MapFunction>>> columnTransforms = format == RecordRules.Format.PARQUET
+            ? compileColumnTransforms(pseudonymizer) : Optional.empty();
+
+        try (OutputStreamWriter writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+             RecordWriter recordWriter = createWriter(outputFormat, writer, out,
+                 outputFormat == RecordRules.Format.PARQUET ? getParquetOutputSchema(recordReader).orElse(null) : null)) {
+
             recordWriter.beginRecordSet();
-            
-            Map<String, Object> record;
-            while ((record = recordReader.readRecord()) != null) {
-                try {
-                    Map<String, Object> sanitized = applyTransforms(record, compiledTransforms);
-                    recordWriter.writeRecord(sanitized);
-                } catch (UnmatchedPseudonymization e) {
-                    log.warning("Skipped record due to UnmatchedPseudonymization: " + e.getPath());
+
+            if (columnTransforms.isPresent()) {
+                sanitizeColumnar(recordReader, recordWriter, columnTransforms.get());
+            } else {
+                List<Triple<JsonPath, RecordTransform, MapFunction>> compiledTransforms =
+                    rules.getTransforms().stream()
+                        .flatMap(transform -> {
+                            // once per transform, not per path; building it compiles any regexes, etc
+                            MapFunction mapFunction = getMapFunction(transform, pseudonymizer, encoder);
+                            return transform.getPaths().stream().map(path -> Triple.of(
+                                JsonPath.compile(path),
+                                transform,
+                                mapFunction
+                            ));
+                        })
+                        .collect(Collectors.toList());
+
+                Map<String, Object> record;
+                while ((record = recordReader.readRecord()) != null) {
+                    try {
+                        Map<String, Object> sanitized = applyTransforms(record, compiledTransforms);
+                        recordWriter.writeRecord(sanitized);
+                    } catch (UnmatchedPseudonymization e) {
+                        log.warning("Skipped record due to UnmatchedPseudonymization: " + e.getPath());
+                    }
                 }
             }
-            
+
             recordWriter.endRecordSet();
         }
     }
 
+    /**
+     * compiles transforms to per-column functions, if every transform path is a top-level field;
+     * as for flat formats like Parquet, transforms are then purely column operations.
+     *
+     * @return (column, function) pairs, in rules order; empty if any path isn't a top-level field
+     */
+    Optional<List<Pair<String, MapFunction>>> compileColumnTransforms(Pseudonymizer pseudonymizer) {
+        List<Pair<String, MapFunction>> columnTransforms = new ArrayList<>();
+        for (RecordTransform transform : rules.getTransforms()) {
+            MapFunction mapFunction = null;
+            for (String path : transform.getPaths()) {
+                Optional<String> column = topLevelField(path);
+                if (column.isEmpty()) {
+                    return Optional.empty();
+                }
+                if (mapFunction == null) {
+                    mapFunction = getMapFunction(transform, pseudonymizer, encoder);
+                    if (transform instanceof RecordTransform.Pseudonymize) {
+                        mapFunction = new ColumnBatchMemo(mapFunction);
+                    }
+                }
+                columnTransforms.add(Pair.of(column.get(), mapFunction));
+            }
+        }
+        return Optional.of(columnTransforms);
+    }
+
+    /**
+     * reads records in batches, applying each column's transforms across the whole batch at once,
+     * rather than evaluating each transform's JSON path against each record
+     */
+    void sanitizeColumnar(RecordReader recordReader,
+                          RecordWriter recordWriter,
+                          List<Pair<String, MapFunction>> columnTransforms) throws IOException {
+        List<Map<String, Object>> batch = new ArrayList<>(COLUMNAR_BATCH_SIZE);
+        Map<String, Object> record;
+        while ((record = recordReader.readRecord()) != null) {
+            batch.add(record);
+            if (batch.size() == COLUMNAR_BATCH_SIZE) {
+                writeColumnarBatch(batch, recordWriter, columnTransforms);
+                batch.clear();
+            }
+        }
+        writeColumnarBatch(batch, recordWriter, columnTransforms);
+    }
+
+    private void writeColumnarBatch(List<Map<String, Object>> batch,
+                                    RecordWriter recordWriter,
+                                    List<Pair<String, MapFunction>> columnTransforms) throws IOException {
+        for (Pair<String, MapFunction> columnTransform : columnTransforms) {
+            String column = columnTransform.getLeft();
+            MapFunction mapFunction = columnTransform.getRight();
+            for (Map<String, Object> document : batch) {
+                // as JsonPath.map; fields absent from record stay absent, but explicit nulls are mapped
+                if (document.containsKey(column)) {
+                    document.put(column, mapFunction.map(document.get(column), jsonConfiguration));
+                }
+            }
+            if (mapFunction instanceof ColumnBatchMemo memo) {
+                memo.clear();
+            }
+        }
+        for (Map<String, Object> document : batch) {
+            recordWriter.writeRecord(applyOutputSchemaFilter(document));
+        }
+    }
+
+    /**
+     * memoizes map function over values within a column batch; so a value repeated in the batch
+     * (eg, same actor across many rows) is pseudonymized and encoded just once
+     */
+    static class ColumnBatchMemo implements MapFunction {
+
+        final MapFunction delegate;
+
+        final Map<Object, Object> memo = new HashMap<>();
+
+        ColumnBatchMemo(MapFunction delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Object map(Object currentValue, Configuration configuration) {
+            if (currentValue == null) {
+                return delegate.map(null, configuration);
+            }
+            Object mapped = memo.get(currentValue);
+            if (mapped == null) {
+                mapped = delegate.map(currentValue, configuration);
+                memo.put(currentValue, mapped);
+            }
+            return mapped;
+        }
+
+        void clear() {
+            memo.clear();
+        }
+    }
+
+    /**
+     * schema of Parquet output, derived from output schema filter if any, else from schema of
+     * Parquet input; so output is typed as intended, rather than per values of first records
+     *
+     * @param recordReader of input
+     * @return schema of output, if can be determined before reading any records
+     */
+    Optional<MessageType> getParquetOutputSchema(RecordReader recordReader) {
+        Optional<JsonSchemaFilter> outputSchemaFilter = rules.getOutputSchemaFilterOptional();
+        if (outputSchemaFilter.isPresent()) {
+            return ParquetRecordWriter.schemaFromFilter(outputSchemaFilter.get());
+        }
+
+        if (recordReader instanceof ParquetRecordReader parquetRecordReader
+            && parquetRecordReader.getSchema() != null) {
+            // redacted columns are omitted; others that are transformed hold whatever transforms
+            // produce; as of now, strings (pseudonyms, tokens, digests)
+            Set<String> stringColumns = new HashSet<>();
+            for (RecordTransform transform : rules.getTransforms()) {
+                if (!(transform instanceof RecordTransform.Redact)) {
+                    for (String path : transform.getPaths()) {
+                        Optional<String> column = topLevelField(path);
+                        if (column.isEmpty()) {
+                            // can't tell which column it affects
+                            return Optional.empty();
+                        }
+                        stringColumns.add(column.get());
+                    }
+                }
+            }
+            return ParquetRecordWriter.schemaFromSource(parquetRecordReader.getSchema(), stringColumns,
+                getRedactedColumns());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return top-level fields that are redacted, and not otherwise transformed; so needn't be read
+     */
+    @VisibleForTesting
+    Set<String> getRedactedColumns() {
+        Set<String> redacted = new HashSet<>();
+        Set<String> otherwiseTransformed = new HashSet<>();
+        for (RecordTransform transform : rules.getTransforms()) {
+            for (String path : transform.getPaths()) {
+                Optional<String> column = topLevelField(path);
+                if (column.isEmpty()) {
+                    continue;
+                }
+                if (transform instanceof RecordTransform.Redact) {
+                    redacted.add(column.get());
+                } else {
+                    otherwiseTransformed.add(column.get());
+                }
+            }
+        }
+        redacted.removeAll(otherwiseTransformed);
+        return redacted;
+    }
+
+    /**
+     * @return top-level fields kept by output schema filter, if any, and it is simple enough to tell
+     */
+    Optional<Set<String>> getOutputColumns() {
+        return rules.getOutputSchemaFilterOptional()
+            .filter(schema -> schema.getRef() == null && schema.getProperties() != null)
+            .map(schema -> schema.getProperties().keySet());
+    }
+
+    static Optional<String> topLevelField(String jsonPath) {
+        Matcher matcher = TOP_LEVEL_FIELD_PATH.matcher(jsonPath);
+        if (matcher.matches()) {
+            return Optional.of(ObjectUtils.firstNonNull(matcher.group(1), matcher.group(2)));
+        }
+        return Optional.empty();
+    }
+
+    private RecordRules.Format resolveFormat(StorageEventRequest request) {
+        RecordRules.Format format = rules.getFormat();
+
+        if (format == RecordRules.Format.AUTO) {
+            format = resolveAutoFormat(request);
+        }
+        return format;
+    }
+
     RecordReader createReader(RecordRules.Format format, Reader reader, InputStream in) throws IOException {
         switch (format) {
             case CSV:
@@ -133,14 +372,18 @@ public class RecordBulkDataSanitizerImpl implements BulkDataSanitizer {
         }
     }
 
-    RecordWriter createWriter(RecordRules.Format format, Writer writer, OutputStream out) throws IOException {
+    /**
+     * @param parquetSchema schema of Parquet output, if known up front
+     */
+    RecordWriter createWriter(RecordRules.Format format, Writer writer, OutputStream out,
+                              @Nullable MessageType parquetSchema) throws IOException {
         switch (format) {
             case CSV:
                 return new CsvRecordWriter(writer);
             case JSON_ARRAY:
                 return new JsonArrayRecordWriter(writer, objectMapper, jsonConfiguration);
             case PARQUET:
-                return new ParquetRecordWriter(out);
+                return new ParquetRecordWriter(out, parquetSchema, bulkModeConfig);
             case NDJSON:
             default:
                 return new NdjsonRecordWriter(writer, jsonConfiguration);
@@ -244,6 +487,10 @@ public class RecordBulkDataSanitizerImpl implements BulkDataSanitizer {
             }
         }
 
+        return applyOutputSchemaFilter(document);
+    }
+
+    private Map<String, Object> applyOutputSchemaFilter(Map<String, Object> document) {
         return rules.getOutputSchemaFilterOptional()
             .map(schema -> (Map<String, Object>) jsonSchemaFilterUtils
                 .filterObjectBySchema(document, schema)
@@ -1,5 +1,6 @@
 package co.worklytics.psoxy.utils.email;
 
+import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.inject.Inject;
@@ -54,10 +55,117 @@ public class EmailAddressParser {
      * @return an Optional containing the parsed email address if valid, or an empty Optional if invalid
      */
     public Optional<EmailAddress> parse(String rawEmail) {
-        return Optional.ofNullable(rawEmail)
-            .map(MAILBOX_PATTERN::matcher)
-            .filter(Matcher::matches)
-            .map(m -> EmailAddressParserRoutines.matcherToStructure(m, criteria, true));
+        if (rawEmail == null || rawEmail.indexOf('@') < 0) {
+            // every form of mailbox has an '@', so no need to try regex
+            return Optional.empty();
+        }
+        EmailAddress simple = parseSimpleAddrSpec(rawEmail);
+        if (simple != null) {
+            return Optional.of(simple);
+        }
+        Matcher m = MAILBOX_PATTERN.matcher(rawEmail);
+        return m.matches()
+            ? Optional.of(EmailAddressParserRoutines.matcherToStructure(m, criteria, true))
+            : Optional.empty();
+    }
+
+    /**
+     * parses plain `local@domain.tld` address (by far most common case) w/o resorting to the regexes,
+     * which are costly
+     *
+     * every value accepted here also matches MAILBOX_PATTERN (as addr-spec w/o any CFWS, whatever
+     * the criteria), and regex parse of it would give same local part / domain, w/o personal name
+     *
+     * @param rawEmail to parse
+     * @return parsed email address, if rawEmail is of that simple form; null otherwise (which does
+     *  NOT mean it's invalid, just that it needs full parse)
+     */
+    @VisibleForTesting
+    static EmailAddress parseSimpleAddrSpec(String rawEmail) {
+        int at = rawEmail.indexOf('@');
+        if (at < 0 || !isDotAtomText(rawEmail, 0, at) || !isRfc1035DomainName(rawEmail, at + 1, rawEmail.length())) {
+            return null;
+        }
+        return EmailAddress.builder()
+            .localPart(rawEmail.substring(0, at))
+            .domain(rawEmail.substring(at + 1))
+            .build();
+    }
+
+    // as `dotAtomText` in Dragons: runs of (regular) atext, separated by single dots
+    private static boolean isDotAtomText(String s, int start, int end) {
+        boolean runEmpty = true;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                if (runEmpty) {
+                    return false;
+                }
+                runEmpty = true;
+            } else if (isAtext(c)) {
+                runEmpty = false;
+            } else {
+                return false;
+            }
+        }
+        return !runEmpty;
+    }
+
+    // as `regularAtext` in Dragons
+    private static boolean isAtext(char c) {
+        return isLetDig(c) || ATEXT_SYMBOLS.indexOf(c) >= 0;
+    }
+
+    private static final String ATEXT_SYMBOLS = "!#$%&'*+-/=?^_`{|}~";
+
+    // as `rfc1035DomainName` in Dragons: labels, separated by dots, then TLD of 2-26 letters
+    private static boolean isRfc1035DomainName(String s, int start, int end) {
+        int lastDot = s.lastIndexOf('.', end - 1);
+        if (lastDot < start) {
+            return false;
+        }
+        int tldLength = end - (lastDot + 1);
+        if (tldLength < 2 || tldLength > 26) {
+            return false;
+        }
+        for (int i = lastDot + 1; i < end; i++) {
+            if (!isLetter(s.charAt(i))) {
+                return false;
+            }
+        }
+        int labelStart = start;
+        for (int i = start; i <= lastDot; i++) {
+            if (s.charAt(i) == '.') {
+                if (!isRfc1035Label(s, labelStart, i)) {
+                    return false;
+                }
+                labelStart = i + 1;
+            }
+        }
+        return true;
+    }
+
+    // as `rfcLabel` in Dragons: 1-63 letters/digits/hyphens, not starting or ending w hyphen
+    private static boolean isRfc1035Label(String s, int start, int end) {
+        int length = end - start;
+        if (length < 1 || length > 63 || !isLetDig(s.charAt(start)) || !isLetDig(s.charAt(end - 1))) {
+            return false;
+        }
+        for (int i = start + 1; i < end - 1; i++) {
+            char c = s.charAt(i);
+            if (!isLetDig(c) && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isLetDig(char c) {
+        return isLetter(c) || (c >= '0' && c <= '9');
     }
 
     /**
@@ -97,6 +205,9 @@ public class EmailAddressParser {
      * @see #isValidMailboxList(String, EnumSet)
      */
     public boolean isValidAddressList(String value) {
+        if (parseSimpleAddrSpec(value) != null) {
+            return true;
+        }
         // creating the actual ADDRESS_LIST_PATTERN string proved too large for java, but
         // fortunately we can use this alternative FSM to check. Since the address pattern
         // is ugreedy, it will match all CFWS up to the comma which we can then require easily.
@@ -134,6 +245,10 @@ public class EmailAddressParser {
         if (StringUtils.isBlank(value)) {
             return new ArrayList<>();
         }
+        EmailAddress simple = parseSimpleAddrSpec(value);
+        if (simple != null) {
+            return new ArrayList<>(List.of(simple));
+        }
         // optimize: separate method or boolean to indicate if group should be worried about at all
         final Matcher m =MAILBOX_PATTERN.matcher(value);
         final Matcher gp = GROUP_PREFIX_PATTERN.matcher(value);
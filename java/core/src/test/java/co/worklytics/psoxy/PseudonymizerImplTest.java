@@ -9,6 +9,7 @@ import com.avaulta.gateway.pseudonyms.Pseudonym;
 import com.avaulta.gateway.pseudonyms.PseudonymImplementation;
 import com.avaulta.gateway.pseudonyms.impl.UrlSafeTokenPseudonymEncoder;
 import com.avaulta.gateway.rules.transforms.Transform;
+import com.avaulta.gateway.tokens.impl.Sha256DeterministicTokenizationStrategy;
 import dagger.Component;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -188,4 +189,57 @@ class PseudonymizerImplTest {
         assertEquals(expectedDomain, pseudonymizedIdentity.getDomain());
     }
 
+
+    @Test
+    void pseudonymCache() {
+        PseudonymizerImpl impl = (PseudonymizerImpl) pseudonymizer;
+        Transform.Pseudonymize withReversible = Transform.Pseudonymize.builder().includeReversible(true).build();
+
+        PseudonymizedIdentity first = impl.pseudonymize(ALICE_CANONICAL);
+        PseudonymizedIdentity second = impl.pseudonymize(ALICE_CANONICAL);
+        PseudonymizedIdentity reversible = impl.pseudonymize(ALICE_CANONICAL, withReversible);
+
+        assertEquals(first, second);
+        assertNotSame(first, second); // callers may mutate result
+        assertNull(second.getReversible());
+        assertNotNull(reversible.getReversible());
+        assertEquals(first.getHash(), reversible.getHash());
+
+        assertEquals(1, impl.getPseudonymCache().get().stats().hitCount());
+        assertEquals(2, impl.getPseudonymCache().get().stats().missCount());
+
+        // results that include original aren't cached
+        impl.pseudonymize(ALICE_CANONICAL, Transform.Pseudonymize.builder().includeOriginal(true).build());
+        assertEquals(3, impl.getPseudonymCache().get().stats().requestCount());
+        assertTrue(impl.getPseudonymCache().get().asMap().values().stream()
+            .allMatch(identity -> identity.getOriginal() == null));
+
+        // eg, key rotation
+        impl.deterministicTokenizationStrategy = new Sha256DeterministicTokenizationStrategy("other-salt");
+        assertNotEquals(first.getHash(), impl.pseudonymize(ALICE_CANONICAL).getHash());
+        assertEquals(0, impl.getPseudonymCache().get().stats().hitCount());
+    }
+
+    @Test
+    void pseudonymCache_disabled() {
+        when(config.getConfigPropertyAsOptional(ProxyConfigProperty.PSEUDONYM_CACHE_MAX_BYTES))
+            .thenReturn(Optional.of("0"));
+
+        PseudonymizerImpl impl = pseudonymizerImplFactory.create(Pseudonymizer.ConfigurationOptions.builder().build());
+
+        assertEquals(impl.pseudonymize(ALICE_CANONICAL), impl.pseudonymize(ALICE_CANONICAL));
+        assertTrue(impl.getPseudonymCache().isEmpty());
+    }
+
+    @Test
+    void pseudonymCache_maxBytesBeyondInt() {
+        when(config.getConfigPropertyAsOptional(ProxyConfigProperty.PSEUDONYM_CACHE_MAX_BYTES))
+            .thenReturn(Optional.of("4294967296"));
+
+        PseudonymizerImpl impl = pseudonymizerImplFactory.create(Pseudonymizer.ConfigurationOptions.builder().build());
+
+        assertEquals(impl.pseudonymize(ALICE_CANONICAL), impl.pseudonymize(ALICE_CANONICAL));
+        assertEquals(1, impl.getPseudonymCache().get().stats().hitCount());
+    }
+
 }
@@ -5,7 +5,9 @@ import org.junit.jupiter.api.Test;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ApiModeConfigTest {
 
@@ -47,6 +49,9 @@ class ApiModeConfigTest {
                 if (property == ApiModeConfig.ApiModeConfigProperty.REQUEST_PATH_PREFIX_TO_TRIM) {
                     return Optional.of("/v1/");
                 }
+                if (property == ApiModeConfig.ApiModeConfigProperty.STREAMING_SANITIZATION) {
+                    return Optional.of("true");
+                }
                 return Optional.empty();
             }
         };
@@ -60,6 +65,8 @@ class ApiModeConfigTest {
         assertEquals("/v1/", config.getRequestPathPrefixToTrim().orElseThrow());
         assertEquals(240, config.getRequestTimeoutSeconds());
         assertEquals(210_000, config.getSourceApiReadTimeoutMs());
+        assertTrue(config.isStreamingSanitization());
+        assertFalse(ApiModeConfig.builder().build().isStreamingSanitization());
     }
 
     @Test
@@ -0,0 +1,52 @@
+package co.worklytics.psoxy.gateway;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkModeConfigTest {
+
+    @Test
+    void defaultsWhenBuiltDirectly() {
+        assertEquals("SNAPPY", BulkModeConfig.builder().build().getParquetCompressionCodec());
+    }
+
+    @Test
+    void fromConfigService_parquetCompressionCodec() {
+        BulkModeConfig config = BulkModeConfig.fromConfigService(configService("uncompressed"));
+
+        assertEquals("UNCOMPRESSED", config.getParquetCompressionCodec());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"GZIP", "ZSTD", "LZ4", "not-a-codec"})
+    void fromConfigService_rejectsUnsupportedParquetCompressionCodec(String codec) {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> BulkModeConfig.fromConfigService(configService(codec)));
+
+        assertEquals("Invalid value for BULK_PARQUET_COMPRESSION_CODEC: '" + codec
+                + "'; expected one of UNCOMPRESSED, SNAPPY", ex.getMessage());
+    }
+
+    private ConfigService configService(String parquetCompressionCodec) {
+        return new ConfigService() {
+            @Override
+            public String getConfigPropertyOrError(ConfigProperty property) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Optional<String> getConfigPropertyAsOptional(ConfigProperty property) {
+                if (property == BulkModeConfig.BulkModeConfigProperty.BULK_PARQUET_COMPRESSION_CODEC) {
+                    return Optional.of(parquetCompressionCodec);
+                }
+                return Optional.empty();
+            }
+        };
+    }
+}
@@ -0,0 +1,199 @@
+package co.worklytics.psoxy.gateway.impl;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import co.worklytics.psoxy.gateway.ProcessedContent;
+import co.worklytics.psoxy.gateway.WebhookCollectorModeConfig;
+import co.worklytics.psoxy.gateway.output.Output;
+import co.worklytics.psoxy.gateway.output.StreamingOutput;
+import lombok.SneakyThrows;
+
+class BatchMergeHandlerStreamingTest {
+
+    @Test
+    void handleBatch_rollsOverByRows() throws IOException {
+        InMemoryStreamingOutput output = new InMemoryStreamingOutput();
+        BatchMergeHandler handler = handler(output, WebhookCollectorModeConfig.builder()
+            .webhookBatchOutputMaxRows(2)
+            .build());
+
+        handler.handleBatch(IntStream.range(0, 5).mapToObj(i -> json("{\"i\":" + i + "}", i % 2 == 0)));
+
+        assertEquals(3, output.committed.size());
+        assertEquals(List.of("{\"i\":0}\n{\"i\":1}\n", "{\"i\":2}\n{\"i\":3}\n", "{\"i\":4}\n"),
+            output.committedContent());
+        assertTrue(output.aborted.isEmpty());
+    }
+
+    @Test
+    void handleBatch_rollsOverByBytes() throws IOException {
+        InMemoryStreamingOutput output = new InMemoryStreamingOutput();
+        BatchMergeHandler handler = handler(output, WebhookCollectorModeConfig.builder()
+            .webhookBatchOutputMaxBytes(20L)
+            .build());
+
+        // each 10 bytes uncompressed, so 2 per object
+        handler.handleBatch(Stream.of(
+            json("{\"a\":\"12\"}", true), json("{\"b\":\"12\"}", false), json("{\"c\":\"12\"}", true)));
+
+        assertEquals(List.of("{\"a\":\"12\"}\n{\"b\":\"12\"}\n", "{\"c\":\"12\"}\n"), output.committedContent());
+    }
+
+    @Test
+    void handleBatch_sameContentSameKey() {
+        InMemoryStreamingOutput output = new InMemoryStreamingOutput();
+        BatchMergeHandler handler = handler(output, WebhookCollectorModeConfig.builder().build());
+
+        handler.handleBatch(Stream.of(json("{\"a\":1}", false), json("{\"b\":2}", true)));
+        handler.handleBatch(Stream.of(json("{\"a\":1}", false), json("{\"b\":2}", true)));
+
+        assertEquals(1, output.committed.size());
+    }
+
+    @Test
+    void handleBatch_invalidItem_priorObjectsOnly() {
+        InMemoryStreamingOutput output = new InMemoryStreamingOutput();
+        BatchMergeHandler handler = handler(output, WebhookCollectorModeConfig.builder()
+            .webhookBatchOutputMaxRows(1)
+            .build());
+
+        assertThrows(IllegalArgumentException.class, () -> handler.handleBatch(Stream.of(
+            json("{\"a\":1}", false),
+            ProcessedContent.builder().contentType("text/csv").content("a,b".getBytes(StandardCharsets.UTF_8)).build())));
+
+        assertEquals(1, output.committed.size());
+    }
+
+    @Test
+    void handleBatch_commitFails() {
+        InMemoryStreamingOutput output = new InMemoryStreamingOutput();
+        output.failCommit = true;
+        BatchMergeHandler handler = handler(output, WebhookCollectorModeConfig.builder().build());
+
+        UncheckedIOException e = assertThrows(UncheckedIOException.class,
+            () -> handler.handleBatch(Stream.of(json("{\"a\":1}", false))));
+
+        assertInstanceOf(Output.WriteFailure.class, e.getCause());
+        assertTrue(output.committed.isEmpty());
+        assertEquals(1, output.aborted.size());
+    }
+
+    @Test
+    void handleBatch_empty() {
+        BatchMergeHandler handler = new BatchMergeHandler(new BatchMergeHandlerFailureTest.TestOutputUtils(null) {
+            @Override
+            public <T extends Output> T forBatchedWebhookContent() {
+                throw new IllegalStateException("No side output configured for webhook queue");
+            }
+        });
+
+        assertDoesNotThrow(() -> handler.handleBatch(Stream.empty()));
+    }
+
+    @Test
+    void uncompressedSize() throws IOException {
+        byte[] content = "{\"foo\":\"bar\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(content.length, BatchMergeHandler.uncompressedSize(
+            ProcessedContent.builder().content(content).build()));
+        assertEquals(content.length, BatchMergeHandler.uncompressedSize(
+            ProcessedContent.builder().contentEncoding("gzip").content(gzip(content)).build()));
+    }
+
+    BatchMergeHandler handler(InMemoryStreamingOutput output, WebhookCollectorModeConfig config) {
+        return new BatchMergeHandler(new BatchMergeHandlerFailureTest.TestOutputUtils(output), config);
+    }
+
+    @SneakyThrows
+    static ProcessedContent json(String json, boolean gzipped) {
+        byte[] content = json.getBytes(StandardCharsets.UTF_8);
+        return ProcessedContent.builder()
+            .contentType("application/json")
+            .contentEncoding(gzipped ? "gzip" : null)
+            .content(gzipped ? gzip(content) : content)
+            .build();
+    }
+
+    static byte[] gzip(byte[] input) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(baos)) {
+            gzipOut.write(input);
+        }
+        return baos.toByteArray();
+    }
+
+    static class InMemoryStreamingOutput implements StreamingOutput {
+
+        final Map<String, byte[]> committed = new LinkedHashMap<>();
+
+        final List<String> aborted = new ArrayList<>();
+
+        boolean failCommit = false;
+
+        @Override
+        public ContentStream open(String key, ProcessedContent content) {
+            assertEquals("gzip", content.getContentEncoding());
+            assertEquals("application/x-ndjson", content.getContentType());
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            return new ContentStream() {
+                boolean done = false;
+
+                @Override
+                public void write(int b) {
+                    buffer.write(b);
+                }
+
+                @Override
+                public void commit() throws WriteFailure {
+                    if (failCommit) {
+                        throw new WriteFailure("failed");
+                    }
+                    committed.put(key, buffer.toByteArray());
+                    done = true;
+                }
+
+                @Override
+                public void close() {
+                    if (!done) {
+                        aborted.add(key);
+                        done = true;
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void write(ProcessedContent content) {
+            fail("should stream");
+        }
+
+        @Override
+        public void write(String key, ProcessedContent content) {
+            fail("should stream");
+        }
+
+        List<String> committedContent() throws IOException {
+            List<String> contents = new ArrayList<>();
+            for (byte[] gzipped : committed.values()) {
+                try (GZIPInputStream gis = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+                    contents.add(new String(gis.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+            return contents;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package co.worklytics.psoxy.gateway.impl;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import co.worklytics.psoxy.gateway.ApiModeConfig;
+
+class SourceApiHttpTransportFactoryTest {
+
+    @Test
+    void sharedAcrossRequests() {
+        SourceApiHttpTransportFactory factory =
+            new SourceApiHttpTransportFactory(ApiModeConfig.builder().build());
+
+        assertInstanceOf(NetHttpTransport.class, factory.create());
+        assertSame(factory.create(), factory.create());
+    }
+}
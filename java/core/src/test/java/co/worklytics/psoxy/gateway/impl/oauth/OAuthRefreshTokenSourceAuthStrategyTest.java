@@ -233,6 +233,24 @@ class OAuthRefreshTokenSourceAuthStrategyTest {
         assertSame(cachedToken, tokenRefreshHandler.refreshAccessToken());
     }
 
+    @Test
+    public void isRenewalOf() {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        AccessToken cached = new AccessToken("cached-token", Date.from(now.plus(1, ChronoUnit.HOURS)));
+
+        assertTrue(OAuthRefreshTokenSourceAuthStrategy.TokenRefreshHandlerImpl.isRenewalOf(
+            new AccessToken("renewed-token", Date.from(now.plus(2, ChronoUnit.HOURS))), cached));
+        assertFalse(OAuthRefreshTokenSourceAuthStrategy.TokenRefreshHandlerImpl.isRenewalOf(cached, cached));
+
+        // no expiration on one or other; so by value
+        assertTrue(OAuthRefreshTokenSourceAuthStrategy.TokenRefreshHandlerImpl.isRenewalOf(
+            new AccessToken("renewed-token", null), cached));
+        assertFalse(OAuthRefreshTokenSourceAuthStrategy.TokenRefreshHandlerImpl.isRenewalOf(
+            new AccessToken("cached-token", null), cached));
+        assertFalse(OAuthRefreshTokenSourceAuthStrategy.TokenRefreshHandlerImpl.isRenewalOf(
+            cached, new AccessToken("cached-token", null)));
+    }
+
     @SneakyThrows
     @Test
     public void choosesTokenByLatestExpiryThenVersion() {
@@ -329,6 +347,46 @@ class OAuthRefreshTokenSourceAuthStrategyTest {
         verify(strategy.secretStore, times(shouldRotate ? 1 : 0)).putConfigProperty(eq(RefreshTokenTokenRequestBuilder.ConfigProperty.REFRESH_TOKEN), eq(newToken), eq(OAuthRefreshTokenSourceAuthStrategy.TokenRefreshHandlerImpl.WRITE_RETRIES));
     }
 
+    @ParameterizedTest
+    @MethodSource("refreshAheadCases")
+    public void computeRefreshAheadAt(String configuredFraction, long minutesToExpiry, long expectedMinutesToRefresh) {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        OAuthRefreshTokenSourceAuthStrategy strategy = new OAuthRefreshTokenSourceAuthStrategy();
+        strategy.config = MockModules.provideMock(ConfigService.class);
+        when(strategy.config.getConfigPropertyAsOptional(OAuthRefreshTokenSourceAuthStrategy.ConfigProperty.ACCESS_TOKEN_REFRESH_AHEAD_FRACTION))
+            .thenReturn(Optional.ofNullable(configuredFraction));
+
+        AccessToken token = new AccessToken("token", Date.from(now.plus(minutesToExpiry, ChronoUnit.MINUTES)));
+
+        assertEquals(now.plus(expectedMinutesToRefresh, ChronoUnit.MINUTES),
+            strategy.computeRefreshAheadAt(token, now));
+    }
+
+    static Stream<Arguments> refreshAheadCases() {
+        return Stream.of(
+            Arguments.of(null, 60, 48),  // default
+            Arguments.of("0.5", 60, 30),
+            Arguments.of("1", 60, 60),
+            Arguments.of("not-a-number", 60, 48),
+            Arguments.of("1.5", 60, 48),
+            Arguments.of(null, -5, 0)    // already expired, so due now
+        );
+    }
+
+    @Test
+    public void isUsable() {
+        Instant now = Instant.parse("2025-01-01T00:00:00Z");
+        OAuthRefreshTokenSourceAuthStrategy strategy = new OAuthRefreshTokenSourceAuthStrategy();
+
+        assertFalse(strategy.isUsable(null, now));
+        assertTrue(strategy.isUsable(new AccessToken("token", Date.from(now.plus(5, ChronoUnit.MINUTES))), now));
+        // in proactive refresh window, but still usable while refreshed in background
+        assertTrue(strategy.isUsable(new AccessToken("token", Date.from(now.plus(2, ChronoUnit.MINUTES))), now));
+        assertFalse(strategy.isUsable(new AccessToken("token", Date.from(now.plusSeconds(10))), now));
+        assertFalse(strategy.isUsable(new AccessToken("token", Date.from(now.minusSeconds(10))), now));
+    }
+
     @Test
     public void refreshProactiveThresholdTimeIsBounded() {
         OAuthRefreshTokenSourceAuthStrategy strategy = new OAuthRefreshTokenSourceAuthStrategy();
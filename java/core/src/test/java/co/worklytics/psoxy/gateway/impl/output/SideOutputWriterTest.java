@@ -0,0 +1,152 @@
+package co.worklytics.psoxy.gateway.impl.output;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import co.worklytics.psoxy.gateway.ApiModeConfig;
+import co.worklytics.psoxy.gateway.output.Output;
+
+class SideOutputWriterTest {
+
+    @Test
+    void write_sync() {
+        SideOutputWriter writer = new SideOutputWriter(ApiModeConfig.builder().build());
+        AtomicReference<Thread> writtenBy = new AtomicReference<>();
+
+        CompletableFuture<Void> write = writer.write("test", () -> writtenBy.set(Thread.currentThread()));
+
+        assertTrue(write.isDone());
+        assertFalse(write.isCompletedExceptionally());
+        assertSame(Thread.currentThread(), writtenBy.get());
+    }
+
+    @Test
+    void write_sync_failure() {
+        SideOutputWriter writer = new SideOutputWriter(ApiModeConfig.builder().build());
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<Void> write = writer.write("test", () -> {
+            attempts.incrementAndGet();
+            throw new Output.WriteFailure("failed");
+        });
+
+        // failed by time returned, and not retried
+        assertTrue(write.isCompletedExceptionally());
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void write_sync_runtimeException() {
+        SideOutputWriter writer = new SideOutputWriter(ApiModeConfig.builder().build());
+
+        // as if not written via SideOutputWriter at all
+        assertThrows(IllegalStateException.class,
+            () -> writer.write("test", () -> {
+                throw new IllegalStateException("bug");
+            }));
+    }
+
+    @Test
+    void write_async() throws Exception {
+        SideOutputWriter writer = asyncWriter(10);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Void> write = writer.write("test", () -> awaitQuietly(release));
+
+        assertFalse(write.isDone());
+        release.countDown();
+        assertTrue(writer.drain(Duration.ofSeconds(5)));
+        assertTrue(write.isDone());
+        assertFalse(write.isCompletedExceptionally());
+    }
+
+    @Test
+    void write_async_retries() {
+        SideOutputWriter writer = asyncWriter(10);
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<Void> write = writer.write("test", () -> {
+            if (attempts.incrementAndGet() < SideOutputWriter.MAX_ATTEMPTS) {
+                throw new IOException("transient");
+            }
+        });
+
+        assertTrue(writer.drain(Duration.ofSeconds(5)));
+        assertFalse(write.isCompletedExceptionally());
+        assertEquals(SideOutputWriter.MAX_ATTEMPTS, attempts.get());
+    }
+
+    @Test
+    void write_async_fails() {
+        SideOutputWriter writer = asyncWriter(10);
+
+        CompletableFuture<Void> write = writer.write("test", () -> {
+            throw new Output.WriteFailure("failed");
+        });
+
+        assertTrue(writer.drain(Duration.ofSeconds(5)));
+        assertTrue(write.isCompletedExceptionally());
+    }
+
+    @Test
+    void write_async_backpressure() {
+        SideOutputWriter writer = asyncWriter(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // occupy both threads, and fill queue
+        for (int i = 0; i < SideOutputWriter.THREADS + 1; i++) {
+            writer.write("blocking", () -> awaitQuietly(release));
+        }
+
+        // so next done on calling thread
+        AtomicReference<Thread> writtenBy = new AtomicReference<>();
+        CompletableFuture<Void> write = writer.write("test", () -> writtenBy.set(Thread.currentThread()));
+        assertTrue(write.isDone());
+        assertSame(Thread.currentThread(), writtenBy.get());
+
+        assertFalse(writer.drain(Duration.ofMillis(50)));
+        release.countDown();
+        assertTrue(writer.drain(Duration.ofSeconds(5)));
+    }
+
+    @Test
+    void drain_onlyWritesOfCurrentThread() throws Exception {
+        SideOutputWriter writer = asyncWriter(10);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // write of another request, handled concurrently on another thread
+        Thread other = new Thread(() -> writer.write("other", () -> awaitQuietly(release)));
+        other.start();
+        other.join();
+
+        CompletableFuture<Void> write = writer.write("test", () -> { });
+
+        assertTrue(writer.drain(Duration.ofMillis(500)));
+        assertTrue(write.isDone());
+        assertFalse(writer.drainAll(Duration.ofMillis(50)));
+
+        release.countDown();
+        assertTrue(writer.drainAll(Duration.ofSeconds(5)));
+    }
+
+    SideOutputWriter asyncWriter(int queueSize) {
+        return new SideOutputWriter(ApiModeConfig.builder()
+            .sideOutputAsync(true)
+            .sideOutputAsyncQueueSize(queueSize)
+            .build());
+    }
+
+    static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,12 +4,16 @@ import com.avaulta.gateway.resources.ResourceService;
 import com.avaulta.gateway.rules.augments.Augment;
 import com.avaulta.gateway.rules.augments.SentenceMetadataProcessor;
 import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.Option;
 import com.jayway.jsonpath.spi.json.JacksonJsonProvider;
 import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.Arrays;
 import java.util.LinkedHashMap;
@@ -345,4 +349,74 @@ class AugmentProcessorTest {
             + AugmentProcessor.AUGMENT_SEPARATOR + "textDigest";
         assertEquals("+content:textDigest", expected);
     }
+
+    @ParameterizedTest
+    @CsvSource(quoteCharacter = '"', value = {
+        "$.body.content,$.body,content",
+        "$.value[*].body.content,$.value[*].body,content",
+        "$..attachments[*].content,$..attachments[*],content",
+        "$['body']['content'],$['body'],content",
+        "$.value[?(@.type == 'a.b')].content,$.value[?(@.type == 'a.b')],content",
+        "$.content,$,content",
+    })
+    void compileAugmentPath_directlyResolvable(String path, String expectedParent, String expectedProperty) {
+        AugmentProcessor.AugmentPath augmentPath = AugmentProcessor.compileAugmentPath(path);
+        assertTrue(augmentPath.isDirectlyResolvable());
+        assertEquals(JsonPath.compile(expectedParent).getPath(), augmentPath.parentPath().getPath());
+        assertEquals(expectedProperty, augmentPath.propertyName());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "$..content",
+        "$.value[*]",
+        "$.value[0]",
+        "$.value[?(@.content)]",
+        "$.value.length()",
+        "$['a','b']",
+    })
+    void compileAugmentPath_notDirectlyResolvable(String path) {
+        assertFalse(AugmentProcessor.compileAugmentPath(path).isDirectlyResolvable());
+    }
+
+    @SuppressWarnings("unchecked")
+    @SneakyThrows
+    @Test
+    void applyAugments_wildcardParents_sameAsConcretePaths() {
+        Map<String, Object> document = (Map<String, Object>) jsonConfiguration.jsonProvider().parse("""
+            {
+              "value": [
+                {"body": {"content": "Hello world"}},
+                {"body": {"other": "no content"}},
+                {"subject": "no body"},
+                {"body": {"content": "Another message here"}}
+              ]
+            }
+            """);
+
+        // directly resolvable, and equivalent that's not (deep scan)
+        augmentProcessor.applyAugments(List.of(Augment.TextDigest.builder()
+            .jsonPath("$.value[*].body.content")
+            .build()), document);
+        Map<String, Object> expected = (Map<String, Object>) jsonConfiguration.jsonProvider().parse("""
+            {
+              "value": [
+                {"body": {"content": "Hello world"}},
+                {"body": {"other": "no content"}},
+                {"subject": "no body"},
+                {"body": {"content": "Another message here"}}
+              ]
+            }
+            """);
+        augmentProcessor.applyAugments(List.of(Augment.TextDigest.builder()
+            .jsonPath("$..content")
+            .build()), expected);
+
+        assertEquals(expected, document);
+        List<?> value = (List<?>) document.get("value");
+        assertTrue(((Map<?, ?>) ((Map<?, ?>) value.get(0)).get("body")).containsKey("+content:textDigest"));
+        assertFalse(((Map<?, ?>) ((Map<?, ?>) value.get(1)).get("body")).containsKey("+content:textDigest"));
+        assertEquals(3, ((Map<?, ?>) ((Map<?, ?>) ((Map<?, ?>) value.get(3)).get("body"))
+            .get("+content:textDigest")).get("word_count"));
+    }
 }
@@ -0,0 +1,85 @@
+package co.worklytics.psoxy.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import com.avaulta.gateway.rules.Endpoint;
+import com.avaulta.gateway.rules.PathTemplateUtils;
+
+class EndpointRouterTest {
+
+    PathTemplateUtils pathTemplateUtils = new PathTemplateUtils();
+
+    static final List<Endpoint> ENDPOINTS = List.of(
+            Endpoint.builder().pathTemplate("/v1.0/users").build(),
+            Endpoint.builder().pathTemplate("/v1.0/users/{userId}").build(),
+            Endpoint.builder().pathTemplate("/v1.0/users/{userId}/events").build(),
+            Endpoint.builder().pathTemplate("/v1.0/groups/{groupId}/members/{memberId?}").build(),
+            Endpoint.builder().pathTemplate("/v1.0/users/me").build(),
+            Endpoint.builder().pathRegex("^/v2/.*$").build()
+    );
+
+    EndpointRouter router() {
+        return new EndpointRouter(ENDPOINTS.stream()
+                .map(endpoint -> Map.entry(endpoint, Pattern.compile(
+                        endpoint.getPathRegex() == null
+                                ? pathTemplateUtils.asRegex(endpoint.getPathTemplate())
+                                : endpoint.getPathRegex(),
+                        Pattern.CASE_INSENSITIVE)))
+                .collect(Collectors.toList()));
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "/v1.0/users;0,5",
+            "/V1.0/Users;0,5",
+            "/v1.0/users/abc;1,5",
+            "/v1.0/users/me;1,4,5",
+            "/v1.0/users/abc/events;2,5",
+            "/v1.0/groups/abc/members/;3,5",
+            "/v1.0/groups/abc/members/xyz;3,5",
+            "/v1.0/other;5",
+            "/v2/anything/else;5",
+    }, delimiter = ';')
+    void candidates(String path, String expectedIndexes) {
+        List<Endpoint> expected = Arrays.stream(expectedIndexes.split(","))
+                .map(i -> ENDPOINTS.get(Integer.parseInt(i)))
+                .collect(Collectors.toList());
+
+        assertEquals(expected, router().candidates(path).stream()
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void candidates_supersetOfRegexMatches() {
+        EndpointRouter router = router();
+        for (String path : List.of("/v1.0/users", "/v1.0/users/me", "/v1.0/users/a/events",
+                "/v1.0/groups/g/members/", "/v1.0/groups/g/members/m", "/v1.0/users/a/b",
+                "/v1.0/users/", "/", "")) {
+            List<Map.Entry<Endpoint, Pattern>> candidates = router.candidates(path);
+            router.entries.stream()
+                    .filter(entry -> entry.getValue().matcher(path).matches())
+                    .forEach(entry -> assertTrue(candidates.contains(entry), path));
+        }
+    }
+
+    @Test
+    void isRoutable() {
+        assertTrue(EndpointRouter.isRoutable(
+                Endpoint.builder().pathTemplate("/foo/{bar}/baz{qux?}").build()));
+        assertFalse(EndpointRouter.isRoutable(Endpoint.builder().pathRegex("^/foo$").build()));
+        assertFalse(EndpointRouter.isRoutable(
+                Endpoint.builder().pathTemplate("/foo|/bar").build()));
+        assertFalse(EndpointRouter.isRoutable(
+                Endpoint.builder().pathTemplate("/foo/{bar_baz}").build()));
+    }
+}
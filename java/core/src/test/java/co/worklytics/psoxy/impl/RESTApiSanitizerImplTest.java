@@ -3,6 +3,7 @@ package co.worklytics.psoxy.impl;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
@@ -403,6 +404,142 @@ class RESTApiSanitizerImplTest {
         assertFalse(strict.contains("historyId"));
     }
 
+    static final JsonSchemaFilter STRING_SCHEMA = JsonSchemaFilter.builder().type("string").build();
+
+    static final Endpoint STREAMABLE_ENDPOINT = Endpoint.builder()
+            .pathTemplate("/api/v1/items")
+            .responseSchema(JsonSchemaFilter.builder().type("object")
+                    .properties(Map.of(
+                            "items", JsonSchemaFilter.builder().type("array")
+                                    .items(JsonSchemaFilter.builder().type("object")
+                                            .properties(Map.of(
+                                                    "id", STRING_SCHEMA,
+                                                    "email", STRING_SCHEMA,
+                                                    "count", JsonSchemaFilter.builder().type("integer").build(),
+                                                    "owner", JsonSchemaFilter.builder().type("object")
+                                                            .properties(Map.of(
+                                                                    "email", STRING_SCHEMA,
+                                                                    "name", STRING_SCHEMA))
+                                                            .build()))
+                                            .build())
+                                    .build(),
+                            "nextLink", STRING_SCHEMA))
+                    .build())
+            .transform(Transform.Pseudonymize.ofPaths("$.items[*].email", "$..owner['email']"))
+            .transform(Transform.Redact.ofPaths("$.items[*].owner.name"))
+            .build();
+
+    static final String STREAMABLE_RESPONSE = "{\"items\":["
+            + "{\"id\":\"1\",\"email\":\"alice@acme.com\",\"count\":3,\"extra\":\"x\","
+            + "\"owner\":{\"email\":\"bob@acme.com\",\"name\":\"Bob\",\"title\":\"CEO\"}},"
+            + "{\"id\":2,\"email\":null,\"count\":\"not a number\",\"owner\":[]},"
+            + "\"not an object\""
+            + "],\"nextLink\":\"https://api.example.com/api/v1/items?page=2\",\"other\":{\"a\":1}}";
+
+    @SneakyThrows
+    @Test
+    void sanitize_streamingMatchesTree() {
+        RESTApiSanitizerImpl streamingSanitizer = sanitizerFactory.create(
+                Rules2.builder().endpoint(STREAMABLE_ENDPOINT).build(), sanitizer.pseudonymizer);
+        RESTApiSanitizerImpl treeSanitizer = sanitizerFactory.create(
+                Rules2.builder().endpoint(STREAMABLE_ENDPOINT).build(), sanitizer.pseudonymizer);
+        streamingSanitizer.setStreamingEnabled(true);
+
+        assertTrue(streamingSanitizer.getStreamingSanitizer(STREAMABLE_ENDPOINT).isPresent());
+        assertTrue(treeSanitizer.getStreamingSanitizer(STREAMABLE_ENDPOINT).isEmpty());
+
+        URL url = new URL("https://api.example.com/api/v1/items");
+        String ndjson = STREAMABLE_RESPONSE + "\n" + STREAMABLE_RESPONSE;
+
+        String streamed = streamingSanitizer.sanitize("GET", url, ndjson);
+        assertEquals(treeSanitizer.sanitize("GET", url, ndjson), streamed);
+
+        assertFalse(streamed.contains("alice@acme.com"));
+        assertFalse(streamed.contains("bob@acme.com"));
+        assertFalse(streamed.contains("\"name\""));
+        assertFalse(streamed.contains("other"));
+        assertFalse(streamed.contains("not an object"));
+        assertFalse(streamed.contains("\"title\""));
+        assertEquals(2, streamed.split("\n").length);
+    }
+
+    @SneakyThrows
+    @Test
+    void sanitize_tokenizeSamePathsDifferentRegex() {
+        // Tokenize doesn't override equals, so these two are 'equal'; each must still apply its own regex
+        Endpoint endpoint = Endpoint.builder()
+                .pathTemplate("/api/v1/links")
+                .transform(Transform.Tokenize.builder()
+                        .jsonPath("$.nextLink")
+                        .regex("^https://api.example.com/users/([a-z]+)/.*$")
+                        .build())
+                .transform(Transform.Tokenize.builder()
+                        .jsonPath("$.nextLink")
+                        .regex("^https://api.example.com/groups/([a-z]+)/.*$")
+                        .build())
+                .build();
+        RESTApiSanitizerImpl treeSanitizer = sanitizerFactory.create(
+                Rules2.builder().endpoint(endpoint).build(), sanitizer.pseudonymizer);
+        treeSanitizer.setStreamingEnabled(false);
+
+        String sanitized = treeSanitizer.sanitize("GET",
+                new URL("https://api.example.com/api/v1/links"),
+                "{\"nextLink\":\"https://api.example.com/groups/secret/items\"}");
+
+        assertFalse(sanitized.contains("secret"));
+        assertTrue(sanitized.contains("https://api.example.com/groups/"));
+    }
+
+    @Test
+    void getStreamingSanitizer_fallsBackIfRulesNeedDocument() {
+        Endpoint withFilter = STREAMABLE_ENDPOINT.toBuilder()
+                .transform(Transform.Redact.ofPaths("$.items[?(@.id == '1')]"))
+                .build();
+        Endpoint withApplyOnlyWhen = STREAMABLE_ENDPOINT.toBuilder()
+                .transform(Transform.Redact.builder().jsonPath("$.nextLink")
+                        .applyOnlyWhen("$.items[?(@.id == '1')]").build())
+                .build();
+        Endpoint withAnyOf = STREAMABLE_ENDPOINT.toBuilder()
+                .responseSchema(JsonSchemaFilter.builder()
+                        .anyOf(List.of(STRING_SCHEMA)).build())
+                .build();
+
+        RESTApiSanitizerImpl strictSanitizer = sanitizerFactory.create(Rules2.builder()
+                .endpoint(withFilter).endpoint(withApplyOnlyWhen).endpoint(withAnyOf).build(),
+                sanitizer.pseudonymizer);
+        strictSanitizer.setStreamingEnabled(true);
+
+        assertTrue(strictSanitizer.getStreamingSanitizer(withFilter).isEmpty());
+        assertTrue(strictSanitizer.getStreamingSanitizer(withApplyOnlyWhen).isEmpty());
+        assertTrue(strictSanitizer.getStreamingSanitizer(withAnyOf).isEmpty());
+    }
+
+    @ValueSource(strings = {
+            "$.a",
+            "$.a[*].b",
+            "$..b",
+            "$.issues[*]..name",
+            "$['@odata.nextLink']",
+            "$.a['b','c'].*",
+    })
+    @ParameterizedTest
+    void streamingPath_supported(String jsonPath) {
+        assertTrue(StreamingResponseSanitizer.parsePath(jsonPath).isPresent());
+    }
+
+    @ValueSource(strings = {
+            "$",
+            "$.a[0]",
+            "$.a[-1:]",
+            "$.a[?(@.b)]",
+            "$.a.length()",
+            "a.b",
+    })
+    @ParameterizedTest
+    void streamingPath_unsupported(String jsonPath) {
+        assertTrue(StreamingResponseSanitizer.parsePath(jsonPath).isEmpty());
+    }
+
 
 
 
@@ -750,6 +887,35 @@ class RESTApiSanitizerImplTest {
 
     }
 
+    @SneakyThrows
+    @Test
+    void getEndpoint_firstMatchInRulesOrder() {
+        Endpoint byId = Endpoint.builder().pathTemplate("/api/users/{userId}").build();
+        Endpoint me = Endpoint.builder().pathTemplate("/api/users/me").build();
+        Endpoint byRegex = Endpoint.builder().pathRegex("^/api/users/[^/]+$").build();
+
+        RESTApiSanitizerImpl routingSanitizer = sanitizerFactory.create(Rules2.builder()
+                .endpoint(me)
+                .endpoint(byRegex)
+                .endpoint(byId)
+                .build(), sanitizer.pseudonymizer);
+
+        URL url = new URL("https://gmail.googleapis.com/api/users/me");
+        assertEquals(me, routingSanitizer.getEndpoint("GET", url).get().getRight());
+        assertEquals(byRegex, routingSanitizer.getEndpoint("GET",
+                new URL("https://gmail.googleapis.com/api/users/abc")).get().getRight());
+        assertFalse(routingSanitizer.getEndpoint("GET",
+                new URL("https://gmail.googleapis.com/api/users")).isPresent());
+
+        // memoized per method + url; but only the last one, so URLs don't accumulate
+        assertEquals(routingSanitizer.getEndpoint("GET", url), routingSanitizer.getEndpoint("get", url));
+        assertEquals(url.toExternalForm(), routingSanitizer.lastEndpointMatch.get().url());
+
+        // cleared once response sanitized
+        routingSanitizer.sanitize("GET", url, "{}");
+        assertNull(routingSanitizer.lastEndpointMatch.get());
+    }
+
     @SneakyThrows
     @Test
     public void terminatesIfException() {
@@ -13,7 +13,6 @@ import com.avaulta.gateway.rules.transforms.Transform;
 import com.avaulta.gateway.tokens.ReversibleTokenizationStrategy;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.MapFunction;
 import dagger.Component;
 import lombok.SneakyThrows;
@@ -313,7 +312,7 @@ class SanitizerUtilsTest {
     @NullSource
     void applyTransform_applyOnlyWhen_blankOrNull_applies(String applyOnlyWhen) {
         Map<String, Object> doc = new HashMap<>(Map.of("foo", "bar"));
-        Map<Transform, List<JsonPath>> compiledTransforms = new ConcurrentHashMap<>();
+        Map<Transform, CompiledTransform> compiledTransforms = new ConcurrentHashMap<>();
         Transform.RedactRegexMatches transformBlank = Transform.RedactRegexMatches.builder()
             .applyOnlyWhen(applyOnlyWhen)
             .redaction("bar")
@@ -334,7 +333,7 @@ class SanitizerUtilsTest {
         outerMap.put("data", dataMap);
         doc.add(outerMap);
 
-        Map<Transform, List<JsonPath>> compiledTransforms = new ConcurrentHashMap<>();
+        Map<Transform, CompiledTransform> compiledTransforms = new ConcurrentHashMap<>();
         Transform.Redact transform = Transform.Redact.builder()
             .applyOnlyWhen("$[?(@.data.type == 'User')]")
             .jsonPath("$..id")
@@ -355,5 +354,28 @@ class SanitizerUtilsTest {
         assertTrue(doc.get(0).get("data").toString().contains("1234"));
     }
 
+    @Test
+    void applyTransform_compiledOnce() {
+        Map<Transform, CompiledTransform> compiledTransforms = new ConcurrentHashMap<>();
+        Transform.RedactRegexMatches transform = Transform.RedactRegexMatches.builder()
+            .applyOnlyWhen("$[?(@.type == 'User')]")
+            .redaction("bar")
+            .jsonPath("$.foo")
+            .build();
+
+        Map<String, Object> doc = new HashMap<>(Map.of("type", "User", "foo", "foobar"));
+        sanitizerUtils.applyTransform(pseudonymizer, transform, doc, compiledTransforms);
+        assertEquals("foo", doc.get("foo"));
+
+        CompiledTransform compiled = compiledTransforms.get(transform);
+        assertNotNull(compiled.getMapFunction());
+        assertTrue(compiled.getApplyOnlyWhen().isPresent());
+
+        Map<String, Object> doc2 = new HashMap<>(Map.of("type", "App", "foo", "foobar"));
+        sanitizerUtils.applyTransform(pseudonymizer, transform, doc2, compiledTransforms);
+        assertEquals("foobar", doc2.get("foo"));
+        assertSame(compiled, compiledTransforms.get(transform));
+    }
+
 
 }
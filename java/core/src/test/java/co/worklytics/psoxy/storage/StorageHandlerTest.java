@@ -14,9 +14,12 @@ import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.GZIPOutputStream;
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -285,6 +288,89 @@ class StorageHandlerTest {
         assertEquals(expected, output);
     }
 
+    @SneakyThrows
+    @Test
+    public void handleFanOut() {
+        String data = "foo,bar\r\n1,2\r\n1,2\n1,2\n";
+        String expected = "foo,bar\r\n" +
+            "\"{\"\"hash\"\":\"\"0zPKqEd-CtbCLB1ZSwX6Zo7uAWUvkpfHGzv9-cuYwZc\"\"}\",2\r\n" +
+            "\"{\"\"hash\"\":\"\"0zPKqEd-CtbCLB1ZSwX6Zo7uAWUvkpfHGzv9-cuYwZc\"\"}\",2\r\n" +
+            "\"{\"\"hash\"\":\"\"0zPKqEd-CtbCLB1ZSwX6Zo7uAWUvkpfHGzv9-cuYwZc\"\"}\",2\r\n";
+
+        byte[] compressed = compress(data.getBytes(StandardCharsets.UTF_8));
+        AtomicInteger sourceReads = new AtomicInteger();
+
+        // no rules for .csv files, so should fail validation
+        MultiTypeBulkDataRules ndjsonOnly = yamlMapper.readValue("fileRules:\n" +
+            "  /directory/{fileName}.ndjson:\n" +
+            "    columnsToPseudonymize:\n" +
+            "      - foo\n", MultiTypeBulkDataRules.class);
+
+        List<StorageHandler.ObjectTransform> transforms = List.of(
+            handler.buildDefaultTransform(),
+            StorageHandler.ObjectTransform.builder()
+                .destinationBucketName("other-bucket")
+                .rules(rules)
+                .build(),
+            StorageHandler.ObjectTransform.builder()
+                .destinationBucketName("bucket")
+                .rules(ndjsonOnly)
+                .build());
+
+        List<ByteArrayOutputStream> outputs = new ArrayList<>();
+        AtomicInteger outputsOpened = new AtomicInteger();
+        List<StorageHandler.FanOutTarget> targets = new ArrayList<>();
+        for (StorageHandler.ObjectTransform transform : transforms) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            outputs.add(out);
+            targets.add(StorageHandler.FanOutTarget.builder()
+                .request(StorageEventRequest.builder()
+                    .sourceBucketName("bucket")
+                    .sourceObjectPath("directory/file.csv")
+                    .destinationBucketName(transform.getDestinationBucketName())
+                    .destinationObjectPath("directory/file.csv")
+                    .decompressInput(true)
+                    .build())
+                .transform(transform)
+                .outputStreamSupplier(() -> {
+                    outputsOpened.incrementAndGet();
+                    return out;
+                })
+                .build());
+        }
+
+        List<StorageHandler.FanOutResult> results = handler.handleFanOut(targets, () -> {
+            sourceReads.incrementAndGet();
+            return new ByteArrayInputStream(compressed);
+        }, null);
+
+        assertEquals(1, sourceReads.get());
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals(expected, outputs.get(0).toString(StandardCharsets.UTF_8));
+        assertTrue(results.get(1).isSuccess());
+        assertEquals("other-bucket", results.get(1).getResponse().getDestinationBucketName());
+        assertEquals(expected, outputs.get(1).toString(StandardCharsets.UTF_8));
+
+        assertFalse(results.get(2).isSuccess());
+        assertEquals(2, outputsOpened.get());
+    }
+
+    @SneakyThrows
+    @Test
+    public void readFirstLines() {
+        InputStream in = new ByteArrayInputStream("a\n\n  \nb\nc\n".getBytes(StandardCharsets.UTF_8));
+
+        // blank lines don't count
+        assertEquals("a\n\n  \nb\n", new String(StorageHandler.readFirstLines(in, 2), StandardCharsets.UTF_8));
+        // rest of content left to be read
+        assertEquals("c\n", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+
+        // fewer lines than requested
+        assertEquals("a\nb", new String(StorageHandler.readFirstLines(
+            new ByteArrayInputStream("a\nb".getBytes(StandardCharsets.UTF_8)), 5), StandardCharsets.UTF_8));
+    }
+
     @SneakyThrows
     @Test
     public void applicableRules_multipleMatches() {
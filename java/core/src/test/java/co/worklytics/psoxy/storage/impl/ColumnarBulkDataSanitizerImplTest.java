@@ -1,5 +1,7 @@
 package co.worklytics.psoxy.storage.impl;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -8,10 +10,13 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
 import com.avaulta.gateway.rules.ColumnarRules;
 import co.worklytics.psoxy.Pseudonymizer;
+import co.worklytics.psoxy.gateway.BulkModeConfig;
 import co.worklytics.psoxy.gateway.StorageEventRequest;
 
 class ColumnarBulkDataSanitizerImplTest {
@@ -36,6 +41,44 @@ class ColumnarBulkDataSanitizerImplTest {
             reader, writer, pseudonymizer);
         // Should not throw IllegalArgumentException from CSVFormat.Builder
     }
+    @Test
+    void parallel_matchesSequential() throws IOException {
+        ColumnarRules rules = ColumnarRules.builder()
+            .columnsToRedact(List.of("secret"))
+            .columnsToRename(Map.of("name", "display_name"))
+            .build();
+
+        StringBuilder csv = new StringBuilder("id,name,secret\n");
+        for (int i = 0; i < 1_037; i++) {
+            csv.append(i).append(",name").append(i).append(",secret").append(i).append("\n");
+        }
+
+        StorageEventRequest request = StorageEventRequest.builder()
+            .sourceBucketName("src")
+            .sourceObjectPath("src")
+            .destinationBucketName("dest")
+            .destinationObjectPath("dest")
+            .build();
+
+        ColumnarBulkDataSanitizerImpl sequential = new ColumnarBulkDataSanitizerImpl(rules);
+        sequential.setRecordShuffleChunkSize(100);
+        sequential.makeShuffleDeterministic();
+        StringWriter expected = new StringWriter();
+        sequential.sanitize(request, new StringReader(csv.toString()), expected, mock(Pseudonymizer.class));
+
+        ColumnarBulkDataSanitizerImpl parallel = new ColumnarBulkDataSanitizerImpl(rules);
+        parallel.bulkModeConfig = BulkModeConfig.builder().parallelism(4).build();
+        parallel.setRecordShuffleChunkSize(100);
+        parallel.makeShuffleDeterministic();
+        StringWriter actual = new StringWriter();
+        parallel.sanitize(request, new StringReader(csv.toString()), actual, mock(Pseudonymizer.class));
+
+        assertEquals(1, sequential.getParallelism());
+        assertEquals(expected.toString(), actual.toString());
+        assertTrue(actual.toString().startsWith("id,display_name\n"));
+        assertFalse(actual.toString().contains("secret"));
+    }
+
     @Test
     void determineMissingColumnsToPseudonymize() {
 
@@ -0,0 +1,193 @@
+package co.worklytics.psoxy.storage.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Types;
+import org.junit.jupiter.api.Test;
+import com.avaulta.gateway.rules.JsonSchemaFilter;
+import co.worklytics.psoxy.gateway.BulkModeConfig;
+
+class ParquetRecordWriterTest {
+
+    @Test
+    void inferSchema_acrossRecords() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("id", 1);
+        first.put("name", null);
+        first.put("score", 2);
+
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("id", 2L);
+        second.put("name", "bob");
+        second.put("score", 2.5);
+        second.put("active", true);
+
+        MessageType expected = Types.buildMessage()
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.INT64).named("id"))
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("name"))
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.DOUBLE).named("score"))
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.BOOLEAN).named("active"))
+            .named(ParquetRecordWriter.RECORD_NAME);
+
+        assertEquals(expected, ParquetRecordWriter.inferSchema(List.of(first, second)));
+    }
+
+    @Test
+    void schemaFromFilter() {
+        Map<String, JsonSchemaFilter> properties = new HashMap<>();
+        properties.put("email", JsonSchemaFilter.builder().type("string").build());
+        properties.put("count", JsonSchemaFilter.builder().type("integer").build());
+
+        MessageType expected = Types.buildMessage()
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.INT64).named("count"))
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("email"))
+            .named(ParquetRecordWriter.RECORD_NAME);
+
+        assertEquals(expected, ParquetRecordWriter.schemaFromFilter(
+            JsonSchemaFilter.builder().type("object").properties(properties).build()).orElseThrow());
+
+        assertTrue(ParquetRecordWriter.schemaFromFilter(
+            JsonSchemaFilter.builder().ref("#/definitions/Foo").build()).isEmpty());
+    }
+
+    @Test
+    void schemaFromSource_omitsRedactedColumns() {
+        MessageType source = Types.buildMessage()
+            .addField(Types.required(PrimitiveType.PrimitiveTypeName.INT64).named("id"))
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("email"))
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.INT32).named("salary"))
+            .named("source");
+
+        MessageType expected = Types.buildMessage()
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.INT64).named("id"))
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("email"))
+            .named(ParquetRecordWriter.RECORD_NAME);
+
+        assertEquals(expected,
+            ParquetRecordWriter.schemaFromSource(source, Set.of("email"), Set.of("salary")).orElseThrow());
+
+        // nothing left to derive schema from
+        assertTrue(ParquetRecordWriter.schemaFromSource(source, Set.of(), Set.of("id", "email", "salary")).isEmpty());
+    }
+
+    @Test
+    void write_valueForFieldNotInSchema_throws() throws IOException {
+        MessageType schema = Types.buildMessage()
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.INT64).named("count"))
+            .named(ParquetRecordWriter.RECORD_NAME);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParquetRecordWriter writer = new ParquetRecordWriter(out, schema, BulkModeConfig.builder().build())) {
+            writer.beginRecordSet();
+
+            // null value, such as left by redaction, is fine
+            Map<String, Object> redacted = new HashMap<>();
+            redacted.put("count", 1);
+            redacted.put("salary", null);
+            writer.writeRecord(redacted);
+
+            Map<String, Object> extra = new HashMap<>();
+            extra.put("count", 2);
+            extra.put("salary", 100);
+            assertThrows(IllegalArgumentException.class, () -> writer.writeRecord(extra));
+        }
+    }
+
+    @Test
+    void typedColumns_roundTrip() throws IOException {
+        MessageType schema = Types.buildMessage()
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.INT64).named("count"))
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("name"))
+            .named(ParquetRecordWriter.RECORD_NAME);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BulkModeConfig config = BulkModeConfig.builder().parquetCompressionCodec("UNCOMPRESSED").build();
+        try (ParquetRecordWriter writer = new ParquetRecordWriter(out, schema, config)) {
+            writer.beginRecordSet();
+            for (int i = 0; i < 100; i++) {
+                Map<String, Object> record = new HashMap<>();
+                // coerced to column's type
+                record.put("count", i);
+                record.put("name", "name" + (i % 2));
+                writer.writeRecord(record);
+            }
+            writer.endRecordSet();
+        }
+
+        try (ParquetRecordReader reader = new ParquetRecordReader(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(schema, reader.getSchema());
+            for (int i = 0; i < 100; i++) {
+                Map<String, Object> record = reader.readRecord();
+                assertEquals((long) i, record.get("count"));
+                assertEquals("name" + (i % 2), record.get("name"));
+            }
+            assertNull(reader.readRecord());
+        }
+    }
+
+    @Test
+    void typedColumns_unparseableValue_writtenAsNull() throws IOException {
+        MessageType schema = Types.buildMessage()
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.INT64).named("count"))
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("name"))
+            .named(ParquetRecordWriter.RECORD_NAME);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParquetRecordWriter writer = new ParquetRecordWriter(out, schema, BulkModeConfig.builder().build())) {
+            writer.beginRecordSet();
+            Map<String, Object> record = new HashMap<>();
+            record.put("count", "not-a-number");
+            record.put("name", "alice");
+            writer.writeRecord(record);
+            record = new HashMap<>();
+            record.put("count", "2");
+            record.put("name", "bob");
+            writer.writeRecord(record);
+            writer.endRecordSet();
+        }
+
+        try (ParquetRecordReader reader = new ParquetRecordReader(new ByteArrayInputStream(out.toByteArray()))) {
+            Map<String, Object> first = reader.readRecord();
+            assertNull(first.get("count"));
+            assertEquals("alice", first.get("name"));
+            assertEquals(2L, reader.readRecord().get("count"));
+        }
+    }
+
+    @Test
+    void noRecords_writesEmptyFile() throws IOException {
+        MessageType schema = Types.buildMessage()
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.BOOLEAN).named("flag"))
+            .named(ParquetRecordWriter.RECORD_NAME);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ParquetRecordWriter writer = new ParquetRecordWriter(out, schema, BulkModeConfig.builder().build())) {
+            writer.beginRecordSet();
+            writer.endRecordSet();
+        }
+
+        // magic bytes at start and end
+        byte[] bytes = out.toByteArray();
+        assertEquals("PAR1", new String(Arrays.copyOfRange(bytes, 0, 4)));
+        assertEquals("PAR1", new String(Arrays.copyOfRange(bytes, bytes.length - 4, bytes.length)));
+
+        try (ParquetRecordReader reader = new ParquetRecordReader(new ByteArrayInputStream(bytes))) {
+            assertEquals(schema, reader.getSchema());
+            assertNull(reader.readRecord());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package co.worklytics.psoxy.storage.impl;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.parquet.io.SeekableInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RangeReadInputFileTest {
+
+    static final byte[] CONTENT = new byte[3 * 1024 * 1024];
+
+    static {
+        for (int i = 0; i < CONTENT.length; i++) {
+            CONTENT[i] = (byte) i;
+        }
+    }
+
+    // offsets at which ranged reads were opened
+    List<Long> opened;
+
+    RangeReadInputFile inputFile;
+
+    @BeforeEach
+    void setup() {
+        opened = new ArrayList<>();
+        inputFile = new RangeReadInputFile(CONTENT.length, (offset, length) -> {
+            opened.add(offset);
+            return new ByteArrayInputStream(CONTENT, (int) offset, (int) length);
+        });
+    }
+
+    @Test
+    void seekAndRead() throws IOException {
+        try (SeekableInputStream in = inputFile.newStream()) {
+            // footer-style read from end
+            in.seek(CONTENT.length - 8);
+            byte[] tail = new byte[8];
+            in.readFully(tail);
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, CONTENT.length - 8, CONTENT.length), tail);
+            assertEquals(CONTENT.length, in.getPos());
+
+            // backwards seek, so opens another range
+            in.seek(100);
+            ByteBuffer buffer = ByteBuffer.allocate(50);
+            in.readFully(buffer);
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, 100, 150), buffer.array());
+
+            // short forward seek, so skips within current range
+            in.seek(1_000);
+            assertEquals(CONTENT[1_000] & 0xFF, in.read());
+        }
+
+        assertEquals(List.of((long) CONTENT.length - 8, 100L), opened);
+    }
+
+    @Test
+    void longForwardSeek_opensNewRange() throws IOException {
+        try (SeekableInputStream in = inputFile.newStream()) {
+            in.read();
+            in.seek(RangeReadInputFile.MAX_SKIP_BYTES + 10);
+            in.read();
+        }
+        assertEquals(List.of(0L, RangeReadInputFile.MAX_SKIP_BYTES + 10), opened);
+    }
+
+    @Test
+    void readFully_pastEnd() throws IOException {
+        try (SeekableInputStream in = inputFile.newStream()) {
+            in.seek(CONTENT.length - 4);
+            assertThrows(EOFException.class, () -> in.readFully(new byte[8]));
+        }
+    }
+
+    @Test
+    void seekAndClose_doNotDrainRestOfContent() throws IOException {
+        // as Apache HTTP client does on close of partially-read response body
+        AtomicLong drained = new AtomicLong();
+        List<Long> rangeLengths = new ArrayList<>();
+        RangeReadInputFile draining = new RangeReadInputFile(CONTENT.length, 64 * 1024, (offset, length) -> {
+            rangeLengths.add(length);
+            return new FilterInputStream(new ByteArrayInputStream(CONTENT, (int) offset, (int) length)) {
+                @Override
+                public void close() throws IOException {
+                    drained.addAndGet(in.skip(Long.MAX_VALUE));
+                    super.close();
+                }
+            };
+        });
+
+        try (SeekableInputStream in = draining.newStream()) {
+            in.seek(CONTENT.length - 8);
+            in.readFully(new byte[8]);
+            in.seek(100);
+            in.readFully(new byte[50]);
+            // long forward seek, discarding current range
+            in.seek(2 * 1024 * 1024);
+            byte[] chunk = new byte[128 * 1024];
+            in.readFully(chunk);
+            assertArrayEquals(Arrays.copyOfRange(CONTENT, 2 * 1024 * 1024, 2 * 1024 * 1024 + chunk.length), chunk);
+        }
+
+        // ranges bounded by what's read / read-ahead window, so at most a window left in each
+        assertEquals(List.of(8L, 64L * 1024, 128L * 1024), rangeLengths);
+        assertEquals(64 * 1024 - 50, drained.get());
+    }
+}
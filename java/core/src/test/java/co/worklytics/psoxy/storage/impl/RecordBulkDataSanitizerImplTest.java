@@ -1,6 +1,7 @@
 package co.worklytics.psoxy.storage.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -12,17 +13,26 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Types;
 import org.junit.jupiter.api.Test;
 import com.avaulta.gateway.pseudonyms.Pseudonym;
 import com.avaulta.gateway.pseudonyms.impl.UrlSafeTokenPseudonymEncoder;
+import com.avaulta.gateway.rules.RecordRules;
 import com.avaulta.gateway.rules.RuleSet;
+import com.avaulta.gateway.rules.transforms.RecordTransform;
 import co.worklytics.psoxy.ConfigRulesModule;
 import co.worklytics.psoxy.PsoxyModule;
 import co.worklytics.psoxy.gateway.BulkModeConfig;
@@ -473,6 +483,160 @@ class RecordBulkDataSanitizerImplTest {
              assertEquals(expected5, r2.get("bar"));
         }
     }
+    @Test
+    void parquet_seekableInput() throws IOException {
+        this.setUpWithRules("---\n" +
+            "format: \"PARQUET\"\n" +
+            "transforms:\n" +
+            "- redact: \"foo\"\n" +
+            "- pseudonymize: \"$.bar\"\n");
+
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("foo", "1");
+        record.put("bar", "2");
+        record.put("other", "three");
+
+        ByteArrayOutputStream sourceOut = new ByteArrayOutputStream();
+        try (ParquetRecordWriter writer = new ParquetRecordWriter(sourceOut)) {
+            writer.beginRecordSet();
+            writer.writeRecord(record);
+            writer.endRecordSet();
+        }
+        byte[] inputBytes = sourceOut.toByteArray();
+
+        RangeReadInputFile seekableInput = new RangeReadInputFile(inputBytes.length, (offset, length) ->
+            new ByteArrayInputStream(inputBytes, (int) offset, (int) length));
+
+        try (ParquetRecordReader reader = new ParquetRecordReader(seekableInput, column -> !"foo".equals(column))) {
+            Map<String, Object> read = reader.readRecord();
+            // redacted column not decoded, but still present
+            assertTrue(read.containsKey("foo"));
+            assertNull(read.get("foo"));
+            assertEquals("2", read.get("bar"));
+            assertEquals("three", read.get("other"));
+        }
+
+        storageHandler.handle(BulkDataTestUtils.request("export-20231128/file.parquet"),
+            BulkDataTestUtils.transform(rules),
+            () -> {
+                throw new IllegalStateException("should read seekable input instead");
+            },
+            outputStreamSupplier,
+            seekableInput);
+
+        try (ParquetRecordReader reader = new ParquetRecordReader(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            Map<String, Object> sanitized = reader.readRecord();
+            assertNotNull(sanitized);
+            // redacted column omitted from output schema
+            assertFalse(sanitized.containsKey("foo"));
+            assertEquals("three", sanitized.get("other"));
+
+            String expected2 = encoder.encode(Pseudonym.builder().hash(DigestUtils.sha256("2" + "salt")).build());
+            assertEquals(expected2, sanitized.get("bar"));
+            assertNull(reader.readRecord());
+        }
+    }
+
+    @Test
+    void parquet_columnar_batches() throws IOException {
+        this.setUpWithRules("---\n" +
+            "format: \"PARQUET\"\n" +
+            "transforms:\n" +
+            "- redact: \"foo\"\n" +
+            "- pseudonymize: \"bar\"\n");
+
+        // spans more than one batch, with repeated values
+        int recordCount = RecordBulkDataSanitizerImpl.COLUMNAR_BATCH_SIZE + 10;
+        ByteArrayOutputStream sourceOut = new ByteArrayOutputStream();
+        try (ParquetRecordWriter writer = new ParquetRecordWriter(sourceOut)) {
+            writer.beginRecordSet();
+            for (int i = 0; i < recordCount; i++) {
+                Map<String, Object> record = new LinkedHashMap<>();
+                record.put("foo", "secret" + i);
+                record.put("bar", "actor" + (i % 3));
+                record.put("other", "row" + i);
+                writer.writeRecord(record);
+            }
+            writer.endRecordSet();
+        }
+
+        storageHandler.handle(BulkDataTestUtils.request("export-20231128/file.parquet"),
+            BulkDataTestUtils.transform(rules),
+            () -> new ByteArrayInputStream(sourceOut.toByteArray()),
+            outputStreamSupplier);
+
+        try (ParquetRecordReader reader = new ParquetRecordReader(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            for (int i = 0; i < recordCount; i++) {
+                Map<String, Object> sanitized = reader.readRecord();
+                assertNotNull(sanitized);
+                assertNull(sanitized.get("foo"));
+                assertEquals("row" + i, sanitized.get("other"));
+                String expected = encoder.encode(Pseudonym.builder().hash(DigestUtils.sha256("actor" + (i % 3) + "salt")).build());
+                assertEquals(expected, sanitized.get("bar"));
+            }
+            assertNull(reader.readRecord());
+        }
+    }
+
+    @Test
+    void compileColumnTransforms_onlyIfAllTopLevel() {
+        RecordBulkDataSanitizerImpl topLevel = new RecordBulkDataSanitizerImpl(RecordRules.builder()
+            .transform(RecordTransform.Redact.builder().redact("foo").redact("$.bar").build())
+            .build());
+        assertEquals(List.of("foo", "bar"), topLevel.compileColumnTransforms(null).orElseThrow().stream()
+            .map(Pair::getLeft)
+            .collect(Collectors.toList()));
+
+        RecordBulkDataSanitizerImpl nested = new RecordBulkDataSanitizerImpl(RecordRules.builder()
+            .transform(RecordTransform.Redact.builder().redact("foo").redact("$.bar.baz").build())
+            .build());
+        assertTrue(nested.compileColumnTransforms(null).isEmpty());
+    }
+
+    @Test
+    void parquet_emptyInput_keepsSchema() throws IOException {
+        this.setUpWithRules("---\n" +
+            "format: \"PARQUET\"\n" +
+            "transforms:\n" +
+            "- pseudonymize: \"bar\"\n");
+
+        MessageType sourceSchema = Types.buildMessage()
+            .addField(Types.optional(PrimitiveType.PrimitiveTypeName.INT64).named("bar"))
+            .addField(Types.required(PrimitiveType.PrimitiveTypeName.INT32).named("count"))
+            .named("Record");
+
+        ByteArrayOutputStream sourceOut = new ByteArrayOutputStream();
+        try (ParquetRecordWriter writer = new ParquetRecordWriter(sourceOut, sourceSchema, BulkModeConfig.builder().build())) {
+            writer.beginRecordSet();
+            writer.endRecordSet();
+        }
+
+        storageHandler.handle(BulkDataTestUtils.request("export-20231128/file.parquet"),
+            BulkDataTestUtils.transform(rules),
+            () -> new ByteArrayInputStream(sourceOut.toByteArray()),
+            outputStreamSupplier);
+
+        try (ParquetRecordReader reader = new ParquetRecordReader(new ByteArrayInputStream(outputStream.toByteArray()))) {
+            assertNull(reader.readRecord());
+
+            // pseudonymized column now string; others keep source type, but nullable
+            assertEquals(Types.buildMessage()
+                .addField(Types.optional(PrimitiveType.PrimitiveTypeName.BINARY).as(LogicalTypeAnnotation.stringType()).named("bar"))
+                .addField(Types.optional(PrimitiveType.PrimitiveTypeName.INT32).named("count"))
+                .named("Record"), reader.getSchema());
+        }
+    }
+
+    @Test
+    void topLevelField() {
+        assertEquals(Optional.of("foo"), RecordBulkDataSanitizerImpl.topLevelField("foo"));
+        assertEquals(Optional.of("foo"), RecordBulkDataSanitizerImpl.topLevelField("$.foo"));
+        assertEquals(Optional.of("foo bar"), RecordBulkDataSanitizerImpl.topLevelField("$['foo bar']"));
+        assertEquals(Optional.empty(), RecordBulkDataSanitizerImpl.topLevelField("$.foo.bar"));
+        assertEquals(Optional.empty(), RecordBulkDataSanitizerImpl.topLevelField("$..foo"));
+        assertEquals(Optional.empty(), RecordBulkDataSanitizerImpl.topLevelField("$.foo[*]"));
+    }
+
     @Test
     void parquet_with_multiple_types_in_schema() throws IOException {
         this.setUpWithRules("---\n" +
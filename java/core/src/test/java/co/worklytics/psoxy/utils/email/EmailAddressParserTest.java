@@ -5,6 +5,7 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 import java.util.List;
+import java.util.regex.Matcher;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -82,6 +83,45 @@ class EmailAddressParserTest {
         assertEquals(expected, emailAddressParser.parse(original).map(EmailAddress::getLocalPart).orElse(null));
     }
 
+    @ValueSource(strings = {
+        "alice@worklytics.co",
+        "bob.brown+sales@example.co.uk",
+        "jack.o'neill@example.com",
+        "mary_jane@sub-domain.worklytics.co",
+        "ALICE@WORKLYTICS.CO",
+        "{a}|~@x.io",
+        "a@1.example.museum",
+    })
+    @ParameterizedTest
+    void parseSimpleAddrSpec_sameAsRegex(String original) {
+        Matcher m = emailAddressParser.MAILBOX_PATTERN.matcher(original);
+        assertTrue(m.matches());
+        EmailAddress expected = EmailAddressParserRoutines.matcherToStructure(m, emailAddressParser.criteria, true);
+
+        assertEquals(expected, EmailAddressParser.parseSimpleAddrSpec(original));
+        assertEquals(expected, emailAddressParser.parse(original).orElseThrow());
+    }
+
+    @ValueSource(strings = {
+        "\"Alice Smith\" <alice@worklytics.co>",
+        " alice@worklytics.co",
+        "alice@worklytics.co (Alice)",
+        "alice..smith@worklytics.co",
+        ".alice@worklytics.co",
+        "alice@worklytics",
+        "alice@-worklytics.co",
+        "alice@worklytics.c",
+        "alice@worklytics.c0",
+        "alice@worklytics..co",
+        "alice@bob@worklytics.co",
+        "@worklytics.co",
+        "bob@example.com, charlie@example.com",
+    })
+    @ParameterizedTest
+    void parseSimpleAddrSpec_fallsBack(String original) {
+        assertNull(EmailAddressParser.parseSimpleAddrSpec(original));
+    }
+
 
     @ValueSource(strings = {
         "alice@example.com",
@@ -14,6 +14,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.SneakyThrows;
@@ -29,6 +30,7 @@ public class JsonSchemaFilterUtils {
     ObjectMapper objectMapper;
 
 
+    @Getter
     Options options = Options.builder().build();
 
     @Builder
@@ -108,6 +110,46 @@ public class JsonSchemaFilterUtils {
     }
 
 
+    /**
+     * filter a single node by schema, returning plain Java values (Map, List, String, Number,
+     * Boolean) rather than JSON.
+     * <p>
+     * intended for callers that walk the document themselves (eg, streaming sanitization) and so
+     * only need to filter leaves or sub-trees of it.
+     *
+     * @param path of node within its document, for logging
+     * @param node to filter
+     * @param schema to filter node by
+     * @param root schema, against which any refs are resolved
+     * @return filtered value; null if node redacted entirely by schema
+     */
+    public Object filterNodeBySchema(String path, JsonNode node, JsonSchemaFilter schema,
+            JsonSchemaFilter root) {
+        return filterNodeBySchema(path, node, schema, root, new LinkedList<>());
+    }
+
+    /**
+     * as {@link #filterNodeBySchema(String, JsonNode, JsonSchemaFilter, JsonSchemaFilter)}, but
+     * also collects paths of any redactions made
+     *
+     * @param redactionsMade to which paths of redactions are added
+     */
+    public Object filterNodeBySchema(String path, JsonNode node, JsonSchemaFilter schema,
+            JsonSchemaFilter root, List<String> redactionsMade) {
+        Object r = filterBySchema(path, node, schema, root, redactionsMade);
+        return r instanceof NotMatchedConstant ? null : r;
+    }
+
+    /**
+     * @param propertyName to check
+     * @return whether property passes through filter regardless of schema (see
+     *         {@link Options#exemptPropertyPrefix})
+     */
+    public boolean isExemptProperty(String propertyName) {
+        return options.getExemptPropertyPrefix() != null
+                && propertyName.startsWith(options.getExemptPropertyPrefix());
+    }
+
     private Object filterBySchema(String path, JsonNode provisionalOutput, JsonSchemaFilter schema,
             JsonSchemaFilter root, List<String> redactionsMade) {
         if (schema.isRef()) {
@@ -0,0 +1,70 @@
+package com.avaulta.gateway.rules;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * counts occurrences of keywords, as whole words, in text (case-insensitive), in a single scan of
+ * it
+ *
+ * a 'word' is a maximal run of word chars ([a-zA-Z0-9_]) in lower-cased text, as if it were split
+ * on `\W+`; so keywords containing anything else never match.
+ *
+ * immutable, so thread-safe.
+ */
+public class KeywordCounter {
+
+    final PhraseMatcher matcher;
+
+    public static KeywordCounter of(Collection<String> keywords) {
+        return new KeywordCounter(keywords);
+    }
+
+    private KeywordCounter(Collection<String> keywords) {
+        List<String> searchKeys = keywords == null ? List.of() : keywords.stream()
+            .filter(StringUtils::isNotBlank)
+            .map(String::toLowerCase)
+            .filter(KeywordCounter::isWord)
+            .distinct()
+            .collect(Collectors.toList());
+        this.matcher = PhraseMatcher.of(searchKeys, false);
+    }
+
+    public boolean isEmpty() {
+        return matcher.getPhrases().isEmpty();
+    }
+
+    /**
+     * @param text to search
+     * @return count of occurrences, by (lower-cased) keyword; only those that occur
+     */
+    public Map<String, Integer> count(String text) {
+        Map<String, Integer> counts = new TreeMap<>();
+        if (isEmpty() || text == null) {
+            return counts;
+        }
+        String lowerCased = text.toLowerCase();
+        matcher.forEachMatch(lowerCased, (keywordIndex, start, end) -> {
+            boolean wholeWord = (start == 0 || !isWordChar(lowerCased.charAt(start - 1)))
+                && (end == lowerCased.length() || !isWordChar(lowerCased.charAt(end)));
+            if (wholeWord) {
+                counts.merge(matcher.getPhrases().get(keywordIndex), 1, Integer::sum);
+            }
+        });
+        return counts;
+    }
+
+    private static boolean isWord(String s) {
+        return s.chars().allMatch(c -> isWordChar((char) c));
+    }
+
+    // as regex `\w`, w/o UNICODE_CHARACTER_CLASS
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
@@ -0,0 +1,182 @@
+package com.avaulta.gateway.rules;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * finds occurrences of any of a set of literal phrases in text, in a single scan of it (an
+ * Aho-Corasick automaton); so cost is ~O(text), rather than O(phrases x text) as if searching
+ * for each phrase in turn.
+ *
+ * immutable once built, so thread-safe.
+ */
+public class PhraseMatcher {
+
+    /**
+     * receives matches, as found
+     */
+    @FunctionalInterface
+    public interface MatchConsumer {
+
+        /**
+         * @param phraseIndex index of phrase matched, in list matcher built from
+         * @param start       index in text of first char of match
+         * @param end         index in text after last char of match
+         */
+        void accept(int phraseIndex, int start, int end);
+    }
+
+    private final List<String> phrases;
+
+    private final boolean asciiCaseInsensitive;
+
+    // per state, sorted chars with transitions from it, and states those go to
+    private final char[][] transitionChars;
+    private final int[][] transitionStates;
+
+    // per state, state for longest proper suffix of it that's also in trie
+    private final int[] failures;
+
+    // per state, indices of phrases that end there (including via failure links)
+    private final int[][] outputs;
+
+    /**
+     * @param phrases              to match; empty ones are ignored
+     * @param asciiCaseInsensitive whether to match ASCII letters case-insensitively (as
+     *                             {@link java.util.regex.Pattern#CASE_INSENSITIVE} does, w/o
+     *                             UNICODE_CASE)
+     */
+    public static PhraseMatcher of(List<String> phrases, boolean asciiCaseInsensitive) {
+        return new PhraseMatcher(phrases, asciiCaseInsensitive);
+    }
+
+    private PhraseMatcher(List<String> phrases, boolean asciiCaseInsensitive) {
+        this.phrases = List.copyOf(phrases);
+        this.asciiCaseInsensitive = asciiCaseInsensitive;
+
+        // build trie
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> ends = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        ends.add(new ArrayList<>());
+        for (int i = 0; i < this.phrases.size(); i++) {
+            String phrase = this.phrases.get(i);
+            if (phrase.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int j = 0; j < phrase.length(); j++) {
+                char c = fold(phrase.charAt(j));
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    ends.add(new ArrayList<>());
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            ends.get(state).add(i);
+        }
+
+        int states = trie.size();
+        transitionChars = new char[states][];
+        transitionStates = new int[states][];
+        for (int s = 0; s < states; s++) {
+            TreeMap<Character, Integer> transitions = trie.get(s);
+            transitionChars[s] = new char[transitions.size()];
+            transitionStates[s] = new int[transitions.size()];
+            int k = 0;
+            for (Map.Entry<Character, Integer> transition : transitions.entrySet()) {
+                transitionChars[s][k] = transition.getKey();
+                transitionStates[s][k] = transition.getValue();
+                k++;
+            }
+        }
+
+        // failure links and outputs, breadth-first so those of shorter suffixes are done first
+        failures = new int[states];
+        outputs = new int[states][];
+        outputs[0] = toArray(ends.get(0));
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : transitionStates[0]) {
+            failures[child] = 0;
+            outputs[child] = toArray(ends.get(child));
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int k = 0; k < transitionChars[state].length; k++) {
+                char c = transitionChars[state][k];
+                int child = transitionStates[state][k];
+
+                int failure = failures[state];
+                while (failure != 0 && transition(failure, c) < 0) {
+                    failure = failures[failure];
+                }
+                int next = transition(failure, c);
+                failures[child] = next < 0 ? 0 : next;
+
+                List<Integer> output = new ArrayList<>(ends.get(child));
+                for (int phraseIndex : outputs[failures[child]]) {
+                    output.add(phraseIndex);
+                }
+                outputs[child] = toArray(output);
+                queue.add(child);
+            }
+        }
+    }
+
+    public List<String> getPhrases() {
+        return phrases;
+    }
+
+    /**
+     * @param text     to scan
+     * @param consumer to receive every occurrence of every phrase in text (including overlapping
+     *                 ones), in order of where they end
+     */
+    public void forEachMatch(CharSequence text, MatchConsumer consumer) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            int next;
+            while ((next = transition(state, c)) < 0 && state != 0) {
+                state = failures[state];
+            }
+            state = next < 0 ? 0 : next;
+            for (int phraseIndex : outputs[state]) {
+                consumer.accept(phraseIndex, i + 1 - phrases.get(phraseIndex).length(), i + 1);
+            }
+        }
+    }
+
+    /**
+     * @param text to scan
+     * @return indices of phrases that occur in text at least once
+     */
+    public BitSet matchingPhrases(CharSequence text) {
+        BitSet matched = new BitSet(phrases.size());
+        forEachMatch(text, (phraseIndex, start, end) -> matched.set(phraseIndex));
+        return matched;
+    }
+
+    private int transition(int state, char c) {
+        int k = Arrays.binarySearch(transitionChars[state], c);
+        return k < 0 ? -1 : transitionStates[state][k];
+    }
+
+    private char fold(char c) {
+        return asciiCaseInsensitive && c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
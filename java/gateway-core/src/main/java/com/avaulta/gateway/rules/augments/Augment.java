@@ -1,6 +1,7 @@
 package com.avaulta.gateway.rules.augments;
 
 import com.avaulta.gateway.rules.JsonSchemaFilter;
+import com.avaulta.gateway.rules.KeywordCounter;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
@@ -140,44 +141,27 @@ public abstract class Augment {
             result.put("length", text.length());
             result.put("word_count", text.trim().split("\\s+").length);
 
-            Set<String> keys = getSearchKeys();
-            if (!keys.isEmpty()) {
-                String[] wordTokens = text.toLowerCase().split("\\W+");
-                Map<String, Integer> matchedKeywords = new TreeMap<>();
-                for (String t : wordTokens) {
-                    if (keys.contains(t)) {
-                        matchedKeywords.put(t, matchedKeywords.getOrDefault(t, 0) + 1);
-                    }
-                }
-                if (!matchedKeywords.isEmpty()) {
-                    result.put("keywords", matchedKeywords);
-                }
+            Map<String, Integer> matchedKeywords = getKeywordCounter().count(text);
+            if (!matchedKeywords.isEmpty()) {
+                result.put("keywords", matchedKeywords);
             }
             return result;
         }
 
         /**
-         * Lazily computed, thread-safe cache of lowercased keyword set.
-         * Volatile ensures visibility across threads; the set itself is
-         * effectively immutable once computed.
+         * Lazily built counter for keywords; immutable once built, so safe to share across
+         * threads.
          */
-        private volatile Set<String> searchKeys;
-
-        private Set<String> getSearchKeys() {
-            Set<String> keys = searchKeys;
-            if (keys == null) {
-                keys = new HashSet<>();
-                if (keywords != null) {
-                    for (String k : keywords) {
-                        if (StringUtils.isNotBlank(k)) {
-                           keys.add(k.toLowerCase());
-                        }
-                    }
-                }
-                keys = Set.copyOf(keys); // immutable snapshot
-                searchKeys = keys;
+        @JsonIgnore
+        private transient volatile KeywordCounter keywordCounter;
+
+        private KeywordCounter getKeywordCounter() {
+            KeywordCounter counter = keywordCounter;
+            if (counter == null) {
+                counter = KeywordCounter.of(keywords);
+                keywordCounter = counter;
             }
-            return keys;
+            return counter;
         }
     }
 
@@ -8,6 +8,10 @@ import com.avaulta.gateway.rules.augments.SentenceMetadataResult.Signals;
 import com.avaulta.gateway.rules.augments.SentenceMetadataResult.Structure;
 import com.avaulta.gateway.rules.augments.SentenceMetadataResult.SuppressedCounts;
 import com.avaulta.gateway.rules.augments.SentenceMetadataResult.Verb;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import opennlp.tools.chunker.ChunkerME;
 import opennlp.tools.chunker.ChunkerModel;
 import opennlp.tools.postag.POSModel;
@@ -18,6 +22,7 @@ import opennlp.tools.sentdetect.SentenceModel;
 import opennlp.tools.tokenize.SimpleTokenizer;
 
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -27,12 +32,15 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 /**
  * ALPHA: Proof of concept NLP processor for the {@code sentenceMetadata} augment.
  * Lazily loads OpenNLP models from a {@link ResourceService} and performs sentence structure extraction.
  *
- * <p>Thread-safe for concurrent requests: model fields are published only after full initialization.
+ * <p>Thread-safe for concurrent requests: models are loaded once and shared, but OpenNLP's
+ * detector/tagger/chunker instances are not thread-safe, so each thread gets its own set of those.
+ * Sentences of long documents are analyzed in parallel; results are cached by content hash.
  */
 public class SentenceMetadataProcessor {
 
@@ -40,14 +48,55 @@ public class SentenceMetadataProcessor {
 
     static final String MODEL_PATH_PREFIX = "opennlp/";
 
+    /**
+     * min count of sentences in a document for them to be analyzed in parallel; below this,
+     * overhead of splitting work across threads not worth it
+     */
+    static final int PARALLEL_SENTENCE_THRESHOLD = 16;
+
+    static final int RESULT_CACHE_MAX_SIZE = 1_000;
+
     private final ResourceService resourceService;
 
-    private volatile SentenceDetectorME sentenceDetector;
-    private volatile POSTaggerME posTagger;
-    private volatile ChunkerME chunker;
+    private volatile Models models;
+
+    private final ThreadLocal<Pipeline> pipelines = ThreadLocal.withInitial(() -> new Pipeline(models));
+
+    private final Cache<ResultCacheKey, SentenceMetadataResult> results = CacheBuilder.newBuilder()
+        .maximumSize(RESULT_CACHE_MAX_SIZE)
+        .build();
 
     private final Object lock = new Object();
 
+    /**
+     * OpenNLP models; thread-safe, so shared
+     */
+    private record Models(SentenceModel sentenceModel, POSModel posModel, ChunkerModel chunkerModel) { }
+
+    /**
+     * OpenNLP tools, built from shared models; NOT thread-safe, so one per thread
+     */
+    private static class Pipeline {
+
+        final SentenceDetectorME sentenceDetector;
+        final POSTaggerME posTagger;
+        final ChunkerME chunker;
+
+        Pipeline(Models models) {
+            this.sentenceDetector = new SentenceDetectorME(models.sentenceModel());
+            this.posTagger = new POSTaggerME(models.posModel(), POSTagFormat.PENN);
+            this.chunker = new ChunkerME(models.chunkerModel());
+        }
+    }
+
+    /**
+     * text by its hash, rather than itself, so cache doesn't hold onto (potentially large) texts
+     */
+    private record ResultCacheKey(HashCode textHash,
+                                  Map<String, List<String>> taxonomy,
+                                  Set<String> hedgeWords,
+                                  Set<String> constraintWords) { }
+
     public SentenceMetadataProcessor(ResourceService resourceService) {
         this.resourceService = resourceService;
     }
@@ -71,10 +120,37 @@ public class SentenceMetadataProcessor {
                                           Set<String> hedgeWords,
                                           Set<String> constraintWords) {
         initializeModels();
-        if (sentenceDetector == null) {
+        if (models == null) {
             return null;
         }
 
+        ResultCacheKey cacheKey = new ResultCacheKey(
+            Hashing.sha256().hashString(text, StandardCharsets.UTF_8), taxonomy, hedgeWords, constraintWords);
+        SentenceMetadataResult result = results.getIfPresent(cacheKey);
+        if (result == null) {
+            result = analyze(text, taxonomy, hedgeWords, constraintWords);
+            results.put(cacheKey, result);
+        }
+        return result;
+    }
+
+    private SentenceMetadataResult analyze(String text,
+                                           Map<String, List<String>> taxonomy,
+                                           Set<String> hedgeWords,
+                                           Set<String> constraintWords) {
+        Map<String, String> wordToCategory = invertTaxonomy(taxonomy);
+
+        String[] sentences = pipelines.get().sentenceDetector.sentDetect(text);
+
+        IntStream indices = IntStream.range(0, sentences.length);
+        if (sentences.length >= PARALLEL_SENTENCE_THRESHOLD) {
+            indices = indices.parallel();
+        }
+        // NOTE: toList() preserves order of sentences, even if analyzed in parallel
+        List<SentenceAnalysis> analyses = indices
+            .mapToObj(i -> analyzeSentence(i, sentences[i], wordToCategory, hedgeWords, constraintWords))
+            .toList();
+
         List<Sentence> sentencesOutput = new ArrayList<>();
         Map<String, Integer> sentenceTypes = new TreeMap<>();
         Set<String> allNounCategories = new HashSet<>();
@@ -86,18 +162,7 @@ public class SentenceMetadataProcessor {
         boolean anyQuestion = false;
         boolean anyNegated = false;
 
-        Map<String, String> wordToCategory = invertTaxonomy(taxonomy);
-
-        String[] sentences = sentenceDetector.sentDetect(text);
-        for (int i = 0; i < sentences.length; i++) {
-            String sentence = sentences[i];
-            String[] tokens = SimpleTokenizer.INSTANCE.tokenize(sentence);
-            String[] tags = posTagger.tag(tokens);
-            String[] chunks = chunker.chunk(tokens, tags);
-
-            SentenceAnalysis analysis = analyzeSentence(
-                i, tokens, tags, chunks, wordToCategory, hedgeWords, constraintWords);
-
+        for (SentenceAnalysis analysis : analyses) {
             totalTokens += analysis.tokenCount();
             totalSuppressedCommon += analysis.suppressedCommon();
             totalSuppressedProper += analysis.suppressedProper();
@@ -144,6 +209,21 @@ public class SentenceMetadataProcessor {
         return wordToCategory;
     }
 
+    /**
+     * Tokenize, tag and chunk a sentence, with this thread's pipeline, then derive its metadata.
+     */
+    private SentenceAnalysis analyzeSentence(int index,
+                                             String sentence,
+                                             Map<String, String> wordToCategory,
+                                             Set<String> hedgeWords,
+                                             Set<String> constraintWords) {
+        Pipeline pipeline = pipelines.get();
+        String[] tokens = SimpleTokenizer.INSTANCE.tokenize(sentence);
+        String[] tags = pipeline.posTagger.tag(tokens);
+        String[] chunks = pipeline.chunker.chunk(tokens, tags);
+        return analyzeSentence(index, tokens, tags, chunks, wordToCategory, hedgeWords, constraintWords);
+    }
+
     /**
      * Derive sentence metadata from pre-tokenized NLP output. Package-visible for deterministic
      * unit tests without loading OpenNLP model binaries.
@@ -279,22 +359,23 @@ public class SentenceMetadataProcessor {
     }
 
     private void initializeModels() {
-        if (sentenceDetector != null) {
+        if (models != null) {
             return;
         }
         synchronized (lock) {
-            if (sentenceDetector != null) {
+            if (models != null) {
                 return;
             }
             try (InputStream sentenceModelStream = loadModel("en-sent.bin");
                  InputStream posModelStream = loadModel("en-pos-maxent.bin");
                  InputStream chunkerModelStream = loadModel("en-chunker.bin")) {
-                SentenceDetectorME detector = new SentenceDetectorME(new SentenceModel(sentenceModelStream));
-                POSTaggerME tagger = new POSTaggerME(new POSModel(posModelStream), POSTagFormat.PENN);
-                ChunkerME chunkerModel = new ChunkerME(new ChunkerModel(chunkerModelStream));
-                sentenceDetector = detector;
-                posTagger = tagger;
-                chunker = chunkerModel;
+                Models loaded = new Models(
+                    new SentenceModel(sentenceModelStream),
+                    new POSModel(posModelStream),
+                    new ChunkerModel(chunkerModelStream));
+                // build this thread's pipeline now, so any problem w models surfaces here
+                pipelines.set(new Pipeline(loaded));
+                models = loaded;
             } catch (Exception e) {
                 log.log(Level.INFO, "OpenNLP models not available; sentenceMetadata augment unavailable", e);
             }
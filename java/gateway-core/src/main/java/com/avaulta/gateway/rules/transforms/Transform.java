@@ -1,6 +1,7 @@
 package com.avaulta.gateway.rules.transforms;
 
 import com.avaulta.gateway.pseudonyms.PseudonymEncoder;
+import com.avaulta.gateway.rules.KeywordCounter;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
@@ -11,10 +12,8 @@ import lombok.experimental.SuperBuilder;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.TreeMap;
 
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "method")
@@ -443,18 +442,15 @@ public abstract class Transform {
         }
 
         @JsonIgnore
-        private transient Set<String> searchKeys;
-
-        private Set<String> getSearchKeys() {
-            if (searchKeys == null) {
-                searchKeys = new HashSet<>();
-                if (keywords != null) {
-                    for (String k : keywords) {
-                        searchKeys.add(k.toLowerCase());
-                    }
-                }
+        private transient volatile KeywordCounter keywordCounter;
+
+        private KeywordCounter getKeywordCounter() {
+            KeywordCounter counter = keywordCounter;
+            if (counter == null) {
+                counter = KeywordCounter.of(keywords);
+                keywordCounter = counter;
             }
-            return searchKeys;
+            return counter;
         }
 
         public TreeMap<String, Object> generate(String text) {
@@ -465,18 +461,9 @@ public abstract class Transform {
                 result.put("length", text.length());
                 result.put("word_count", text.trim().split("\\s+").length);
 
-                Set<String> keys = getSearchKeys();
-                if (!keys.isEmpty()) {
-                    String[] wordTokens = text.toLowerCase().split("\\W+");
-                    Map<String, Integer> matchedKeywords = new TreeMap<>();
-                    for (String t : wordTokens) {
-                        if (keys.contains(t)) {
-                            matchedKeywords.put(t, matchedKeywords.getOrDefault(t, 0) + 1);
-                        }
-                    }
-                    if (!matchedKeywords.isEmpty()) {
-                        result.put("keywords", matchedKeywords);
-                    }
+                Map<String, Integer> matchedKeywords = getKeywordCounter().count(text);
+                if (!matchedKeywords.isEmpty()) {
+                    result.put("keywords", matchedKeywords);
                 }
                 return result;
             }
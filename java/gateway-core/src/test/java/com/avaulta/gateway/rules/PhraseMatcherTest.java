@@ -0,0 +1,49 @@
+package com.avaulta.gateway.rules;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhraseMatcherTest {
+
+    @Test
+    void forEachMatch_overlapping() {
+        PhraseMatcher matcher = PhraseMatcher.of(List.of("he", "she", "his", "hers"), false);
+
+        List<String> matches = new ArrayList<>();
+        matcher.forEachMatch("ushers", (phraseIndex, start, end) ->
+            matches.add(matcher.getPhrases().get(phraseIndex) + "@" + start + "-" + end));
+
+        assertEquals(List.of("she@1-4", "he@2-4", "hers@2-6"), matches);
+    }
+
+    @Test
+    void matchingPhrases_caseInsensitive() {
+        PhraseMatcher matcher = PhraseMatcher.of(List.of("Zoom Meeting", "call", "", "sync"), true);
+
+        assertEquals("{0, 1}", matcher.matchingPhrases("CALL about zoom MEETING").toString());
+        assertTrue(matcher.matchingPhrases("nothing here").isEmpty());
+    }
+
+    @Test
+    void matchingPhrases_caseSensitive() {
+        PhraseMatcher matcher = PhraseMatcher.of(List.of("Call"), false);
+
+        assertTrue(matcher.matchingPhrases("call").isEmpty());
+        assertEquals("{0}", matcher.matchingPhrases("a Call").toString());
+    }
+
+    @Test
+    void keywordCounter_wholeWords() {
+        KeywordCounter counter = KeywordCounter.of(List.of("Urgent", "deadline", "", "not a word"));
+
+        assertEquals(Map.of("urgent", 2, "deadline", 1),
+            counter.count("URGENT: deadline is urgent; deadlines, non-urgentish"));
+        assertTrue(counter.count("nothing here").isEmpty());
+        assertTrue(KeywordCounter.of(List.of(" ")).isEmpty());
+    }
+}
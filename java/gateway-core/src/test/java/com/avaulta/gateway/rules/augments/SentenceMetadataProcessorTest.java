@@ -10,6 +10,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -85,6 +91,56 @@ class SentenceMetadataProcessorTest {
         assertTrue(docSummary.getNounCategories().contains("MEDIUM"));
     }
 
+    @Test
+    void testProcessLongTextConcurrently() throws Exception {
+        assertModelsAvailable();
+
+        Map<String, List<String>> taxonomy = Map.of("MEDIUM", List.of("email", "message"));
+        String text = IntStream.range(0, SentenceMetadataProcessor.PARALLEL_SENTENCE_THRESHOLD * 2)
+            .mapToObj(i -> i % 2 == 0
+                ? "Could you avoid sending email number " + i + "?"
+                : "Please write message number " + i + " now.")
+            .collect(Collectors.joining(" "));
+
+        SentenceMetadataResult expected = processorWithClasspathModels().process(
+            text, taxonomy, DEFAULT_HEDGE, DEFAULT_CONSTRAINT);
+        assertEquals(SentenceMetadataProcessor.PARALLEL_SENTENCE_THRESHOLD * 2, expected.getSentences().size());
+        for (int i = 0; i < expected.getSentences().size(); i++) {
+            assertEquals(i, expected.getSentences().get(i).getIndex());
+            assertEquals(i % 2 == 0, expected.getSentences().get(i).getSignals().isQuestion());
+        }
+
+        // distinct texts, so concurrent calls actually run models rather than hitting cache
+        SentenceMetadataProcessor processor = processorWithClasspathModels();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<SentenceMetadataResult>> futures = IntStream.range(0, 8)
+                .mapToObj(i -> executor.submit(() -> processor.process(
+                    text + " ".repeat(i), taxonomy, DEFAULT_HEDGE, DEFAULT_CONSTRAINT)))
+                .toList();
+            for (Future<SentenceMetadataResult> future : futures) {
+                assertEquals(expected, future.get(1, TimeUnit.MINUTES));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void testProcessCachesByContent() {
+        assertModelsAvailable();
+        SentenceMetadataProcessor processor = processorWithClasspathModels();
+
+        SentenceMetadataResult first = processor.process(
+            "Could you avoid sending an email?", Map.of(), DEFAULT_HEDGE, DEFAULT_CONSTRAINT);
+        assertSame(first, processor.process(
+            new String("Could you avoid sending an email?"), Map.of(), DEFAULT_HEDGE, DEFAULT_CONSTRAINT));
+
+        // different signal words, so not same result
+        assertNotSame(first, processor.process(
+            "Could you avoid sending an email?", Map.of(), Set.of("could"), DEFAULT_CONSTRAINT));
+    }
+
     @Test
     void testProcessWithInvalidModelBytes() {
         byte[] stubModel = "stub-model".getBytes(StandardCharsets.UTF_8);
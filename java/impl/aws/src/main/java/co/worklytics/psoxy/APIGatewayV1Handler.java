@@ -99,6 +99,10 @@ public class APIGatewayV1Handler implements
                     .build();
         }
 
+        // as Lambda may freeze instance once handler returns; NOTE: Lambda only sends response
+        // then, so this delays it by however long writes take beyond building it
+        requestHandler.awaitSideOutputWrites();
+
         try {
             // NOTE: AWS seems to give 502 Bad Gateway errors without explanation or any info
             // in the lambda logs if this is malformed somehow (Eg, missing statusCode)
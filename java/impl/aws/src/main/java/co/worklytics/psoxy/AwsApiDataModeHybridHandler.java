@@ -13,6 +13,7 @@ import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent;
 import com.amazonaws.services.lambda.runtime.events.SQSEvent.SQSMessage;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -22,6 +23,7 @@ import com.newrelic.opentracing.aws.LambdaTracing;
 import io.opentracing.util.GlobalTracer;
 import co.worklytics.psoxy.aws.AwsContainer;
 import co.worklytics.psoxy.aws.DaggerAwsContainer;
+import co.worklytics.psoxy.aws.SQSBatchProcessor;
 import co.worklytics.psoxy.aws.request.APIGatewayV1ProxyEventRequestAdapter;
 import co.worklytics.psoxy.aws.request.APIGatewayV2HTTPEventRequestAdapter;
 import co.worklytics.psoxy.aws.request.LambdaEventUtils;
@@ -51,6 +53,7 @@ public class AwsApiDataModeHybridHandler implements RequestStreamHandler {
     static ApiDataRequestHandler requestHandler;
     static ResponseCompressionHandler responseCompressionHandler;
     static LambdaEventUtils lambdaEventUtils;
+    static SQSBatchProcessor sqsBatchProcessor;
 
     static {
         staticInit();
@@ -62,6 +65,7 @@ public class AwsApiDataModeHybridHandler implements RequestStreamHandler {
         requestHandler = awsContainer.apiDataRequestHandler();
         responseCompressionHandler = new ResponseCompressionHandler();
         lambdaEventUtils = awsContainer.lambdaEventUtils();
+        sqsBatchProcessor = new SQSBatchProcessor(awsContainer.awsApiModeConfig());
 
         if (awsContainer.loggingConfiguration().isNewRelicEnabled()) {
             awsContainer.loggingConfiguration().validateNewRelicHandler(AwsApiDataModeHybridHandler.class);
@@ -80,14 +84,15 @@ public class AwsApiDataModeHybridHandler implements RequestStreamHandler {
         if (lambdaEventUtils.isSQSEvent(rootNode)) {
             // async invocation case via SQS
             SQSEvent sqsEvent = lambdaEventUtils.toSQSEvent(rootNode);
+            SQSBatchResponse batchResponse;
             if (awsContainer.loggingConfiguration().isNewRelicEnabled()) {
-                LambdaTracing.instrument(sqsEvent, context, (inEvent, ctx) -> {
-                    handleSqsEvent(inEvent, ctx);
-                    return null;
-                });
+                batchResponse = LambdaTracing.instrument(sqsEvent, context, this::handleSqsEvent);
             } else {
-                handleSqsEvent(sqsEvent, context);
+                batchResponse = handleSqsEvent(sqsEvent, context);
             }
+            // so only failed messages are re-delivered, if event source mapping has
+            // `ReportBatchItemFailures` enabled; otherwise, any failure was thrown above
+            payloadMapper.writeValue(output, batchResponse);
         } else {
             // synchronous invocation case - API Gateway or cloud function URL invocation
             ApiDataRequestHandler.ProcessingContext processingContext = ApiDataRequestHandler.ProcessingContext.builder()
@@ -121,42 +126,49 @@ public class AwsApiDataModeHybridHandler implements RequestStreamHandler {
                         "Unsupported event type: " + rootNode.getNodeType());
             }
         }
+
+        // as Lambda may freeze instance once handler returns; NOTE: Lambda only sends response
+        // then, so this delays it by however long writes take beyond building it
+        requestHandler.awaitSideOutputWrites();
     }
 
-    private void handleSqsEvent(SQSEvent sqsEvent, Context context) {
-        int messageCount = sqsEvent.getRecords().size();
-        int failedMessageCount = 0;
-        for (SQSMessage message : sqsEvent.getRecords()) {
-            try {
-                if (!message.getMessageAttributes().containsKey("processingContext")) {
-                    throw new IllegalArgumentException(
-                            "SQS event record has no processingContext message attribute");
-                }
+    /**
+     * @return failed messages, to be re-delivered
+     */
+    private SQSBatchResponse handleSqsEvent(SQSEvent sqsEvent, Context context) {
+        return sqsBatchProcessor.process(sqsEvent.getRecords(), message -> handleSqsMessage(message, context));
+    }
 
-                String processingContextJson = message.getMessageAttributes()
-                        .get("processingContext").getStringValue();
+    /**
+     * @return whether message was processed successfully
+     */
+    private boolean handleSqsMessage(SQSMessage message, Context context) {
+        try {
+            if (!message.getMessageAttributes().containsKey("processingContext")) {
+                throw new IllegalArgumentException(
+                        "SQS event record has no processingContext message attribute");
+            }
 
-                ApiDataRequestHandler.ProcessingContext processingContext = payloadMapper.readValue(processingContextJson,
-                        ApiDataRequestHandler.ProcessingContext.class);
-                JsonNode rootNode = payloadMapper.readTree(message.getBody());
+            String processingContextJson = message.getMessageAttributes()
+                    .get("processingContext").getStringValue();
 
-                handleSingleRequest(rootNode, processingContext, context);
+            ApiDataRequestHandler.ProcessingContext processingContext = payloadMapper.readValue(processingContextJson,
+                    ApiDataRequestHandler.ProcessingContext.class);
+            JsonNode rootNode = payloadMapper.readTree(message.getBody());
 
-                // async case - SQS; no response is needed
-                log.info("Processed async API data request: "
-                        + payloadMapper.writeValueAsString(processingContext));
-            } catch (Throwable e) {
-                log.log(Level.WARNING,
-                        "Error processing async API data request: " + e.getMessage(), e);
-                // TODO: send JUST this message to the dead letter queue ??
-                failedMessageCount++;
-            }
-        }
-        log.info("Processed " + messageCount + " async API data requests; " + failedMessageCount
-                + " failed");
-        if (failedMessageCount > 0) {
-            throw new RuntimeException(
-                    "Failed to process " + failedMessageCount + " async API data requests");
+            handleSingleRequest(rootNode, processingContext, context);
+
+            // on this thread, as writes are tracked per thread that requested them
+            requestHandler.awaitSideOutputWrites();
+
+            // async case - SQS; no response is needed
+            log.info("Processed async API data request: "
+                    + payloadMapper.writeValueAsString(processingContext));
+            return true;
+        } catch (Throwable e) {
+            log.log(Level.WARNING,
+                    "Error processing async API data request " + message.getMessageId() + ": " + e.getMessage(), e);
+            return false;
         }
     }
 
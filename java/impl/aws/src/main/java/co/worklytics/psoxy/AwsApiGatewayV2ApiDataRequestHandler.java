@@ -113,6 +113,10 @@ public class AwsApiGatewayV2ApiDataRequestHandler implements
                     .build();
         }
 
+        // as Lambda may freeze instance once handler returns; NOTE: Lambda only sends response
+        // then, so this delays it by however long writes take beyond building it
+        requestHandler.awaitSideOutputWrites();
+
         try {
             // NOTE: AWS seems to give 502 Bad Gateway errors without explanation or any info
             // in the lambda logs if this is malformed somehow (Eg, missing statusCode)
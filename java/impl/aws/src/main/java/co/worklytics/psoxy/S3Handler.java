@@ -1,27 +1,30 @@
 package co.worklytics.psoxy;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
 import javax.inject.Inject;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.events.S3Event;
 import com.amazonaws.services.lambda.runtime.events.models.s3.S3EventNotification;
+import co.worklytics.psoxy.aws.AwsContainer;
+import co.worklytics.psoxy.aws.AwsEnvironment;
 import co.worklytics.psoxy.aws.DaggerAwsContainer;
+import co.worklytics.psoxy.aws.S3MultipartUploadOutputStream;
 import co.worklytics.psoxy.gateway.StorageEventRequest;
 import co.worklytics.psoxy.gateway.StorageEventResponse;
 import co.worklytics.psoxy.storage.StorageHandler;
+import co.worklytics.psoxy.storage.impl.RangeReadInputFile;
 import lombok.SneakyThrows;
 import lombok.extern.java.Log;
-import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
 import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
@@ -31,39 +34,97 @@ import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 @Log
 public class S3Handler implements com.amazonaws.services.lambda.runtime.RequestHandler<S3Event, String> {
 
+    /**
+     * Static initialization allows reuse in containers
+     * {@link "https://aws.amazon.com/premiumsupport/knowledge-center/lambda-improve-java-function-performance/"}
+     */
+    static AwsContainer awsContainer;
+
+    static {
+        awsContainer = DaggerAwsContainer.create();
+    }
+
     @Inject
     StorageHandler storageHandler;
 
     @Inject
     S3Client s3Client;
 
+    @Inject
+    AwsEnvironment.AwsBulkModeConfig bulkModeConfig;
+
+    public S3Handler() {
+        // runtime constructs handler once, so dependencies are also resolved once per container
+        awsContainer.injectS3Handler(this);
+    }
 
     @SneakyThrows
     @Override
     public String handleRequest(S3Event s3Event, Context context) {
 
-        DaggerAwsContainer.create().injectS3Handler(this);
+        List<S3EventNotification.S3EventNotificationRecord> records = s3Event.getRecords();
+
+        List<StorageHandler.ObjectTransform> transforms = storageHandler.buildTransforms();
+
+        List<Throwable> failures = new ArrayList<>();
+        if (records.size() == 1) {
+            processRecord(records.get(0), transforms).ifPresent(failures::add);
+        } else {
+            // objects are independent, so process concurrently; but bounded, as each buffers output
+            ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(records.size(), bulkModeConfig.objectsInParallel(transforms.size(), Runtime.getRuntime().maxMemory())));
+            try {
+                List<Future<Optional<Throwable>>> futures = new ArrayList<>(records.size());
+                for (S3EventNotification.S3EventNotificationRecord record : records) {
+                    futures.add(executor.submit(() -> processRecord(record, transforms)));
+                }
+                for (Future<Optional<Throwable>> future : futures) {
+                    future.get().ifPresent(failures::add);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
 
-        S3EventNotification.S3EventNotificationRecord record = s3Event.getRecords().get(0);
+        if (!failures.isEmpty()) {
+            // fail invocation, so event is retried; objects that succeeded are just re-written
+            IllegalStateException e = new IllegalStateException(
+                String.format("Failed to process %d of %d objects in event", failures.size(), records.size()));
+            failures.forEach(e::addSuppressed);
+            throw e;
+        }
+
+        return records.size() == 1 ? "Processed!" : String.format("Processed %d objects!", records.size());
+    }
 
+    /**
+     * @return failure processing object of record, if any
+     */
+    Optional<Throwable> processRecord(S3EventNotification.S3EventNotificationRecord record,
+                                      List<StorageHandler.ObjectTransform> transforms) {
         String importBucket = record.getS3().getBucket().getName();
         String sourceKey = record.getS3().getObject().getUrlDecodedKey();
 
         log.info(String.format("Received a request for processing %s from bucket %s.", sourceKey, importBucket));
 
-        List<StorageHandler.ObjectTransform> transforms = storageHandler.buildTransforms();
-
-        for (StorageHandler.ObjectTransform transform : transforms) {
-            process(importBucket, sourceKey, transform);
+        try {
+            process(importBucket, sourceKey, transforms);
+            return Optional.empty();
+        } catch (Throwable e) {
+            log.log(Level.SEVERE, String.format("Failed to process %s from bucket %s", sourceKey, importBucket), e);
+            return Optional.of(e);
         }
-
-        return "Processed!";
     }
 
+    /**
+     * process source object with all transforms, reading it only once
+     *
+     * @return responses of transforms that succeeded; empty if object skipped
+     * @throws Exception first failure of any transform (others suppressed), after successful ones
+     *                   have been committed
+     */
     @SneakyThrows
-    StorageEventResponse process(String importBucket, String sourceKey, StorageHandler.ObjectTransform transform) {
-        StorageEventResponse storageEventResponse;
-
+    List<StorageEventResponse> process(String importBucket, String sourceKey, List<StorageHandler.ObjectTransform> transforms) {
         HeadObjectResponse sourceMetadata = s3Client.headObject(HeadObjectRequest.builder()
             .bucket(importBucket)
             .key(sourceKey)
@@ -78,63 +139,111 @@ public class S3Handler implements com.amazonaws.services.lambda.runtime.RequestH
             //possible if proxy directly (or indirectly via some other pipeline) is writing back
             //to the same bucket it originally read from. to avoid perpetuating the loop, skip
             log.warning("Skipping " + importBucket + "/" + sourceKey + " because it has already been sanitized; does your configuration result in a loop?");
-            return null;
+            return Collections.emptyList();
         }
 
-        StorageEventRequest request =
-            storageHandler.buildRequest(importBucket, sourceKey, transform, sourceMetadata.contentEncoding(), sourceMetadata.contentType());
-
-        // AWS lambdas have a shared ephemeral storage (shared across invocations) of 512MB
-        // This can be upped to 10GB, but this should be enough as long as we're not processing
-        // lots of large files in parallel.
-        // https://aws.amazon.com/blogs/aws/aws-lambda-now-supports-up-to-10-gb-ephemeral-storage/
-        File tmpFile = new File("/tmp/" + UUID.randomUUID());
-        try (FileOutputStream fos = new FileOutputStream(tmpFile);
-             BufferedOutputStream outputStream = new BufferedOutputStream(fos, storageHandler.getBufferSize())) {
+        // fewer parts in flight if many transforms, so their buffers fit in memory together
+        int uploadPartsInFlight = bulkModeConfig.uploadPartsInFlight(transforms.size(), Runtime.getRuntime().maxMemory());
 
+        List<StorageHandler.FanOutTarget> targets = new ArrayList<>(transforms.size());
+        Map<StorageHandler.FanOutTarget, AtomicReference<S3MultipartUploadOutputStream>> outputStreams = new HashMap<>();
+        for (StorageHandler.ObjectTransform transform : transforms) {
+            StorageEventRequest request =
+                storageHandler.buildRequest(importBucket, sourceKey, transform, sourceMetadata.contentEncoding(), sourceMetadata.contentType());
+
+            PutObjectRequest putObjectRequest = buildPutObjectRequest(importBucket, sourceKey, transform, request, sourceMetadata);
+
+            // stream output to S3 as it's produced, rather than staging it in ephemeral storage; so
+            // upload overlaps processing, and object size isn't limited by /tmp. Created lazily, so
+            // no part buffer is allocated for transforms that fail validation
+            AtomicReference<S3MultipartUploadOutputStream> outputStream = new AtomicReference<>();
+            StorageHandler.FanOutTarget target = StorageHandler.FanOutTarget.builder()
+                .request(request)
+                .transform(transform)
+                .outputStreamSupplier(() -> outputStream.updateAndGet(existing -> existing != null ? existing :
+                    new S3MultipartUploadOutputStream(s3Client, putObjectRequest,
+                        bulkModeConfig.getUploadPartSizeBytes(), uploadPartsInFlight)))
+                .build();
+            targets.add(target);
+            outputStreams.put(target, outputStream);
+        }
 
-            storageEventResponse = storageHandler.handle(request, transform, () -> {
+        List<StorageHandler.FanOutResult> results = storageHandler.handleFanOut(targets, () -> {
                 return s3Client.getObject(GetObjectRequest.builder()
                     .bucket(importBucket)
                     .key(sourceKey)
                     .build());
-            }, () -> outputStream);
-
-            log.info(String.format("Successfully pseudonymized %s/%s to buffer", importBucket, sourceKey));
-        }
-
-        try (InputStream fileInputStream = new FileInputStream(tmpFile);
-            BufferedInputStream processedStream = new BufferedInputStream(fileInputStream, storageHandler.getBufferSize())) {
-
-            Map<String, String> destinationUserMetadata = storageHandler.buildObjectMetadata(importBucket, sourceKey, transform);
-
-            PutObjectRequest.Builder putBuilder = PutObjectRequest.builder()
-                .bucket(storageEventResponse.getDestinationBucketName())
-                .key(storageEventResponse.getDestinationObjectPath())
-                .contentLength(tmpFile.length())
-                .metadata(destinationUserMetadata);
-
-            Optional.ofNullable(request.getContentType())
-                .ifPresent(putBuilder::contentType);
-
-            if (request.getCompressOutput()) {
-                putBuilder.contentEncoding(StorageHandler.CONTENT_ENCODING_GZIP);
-            } else {
-                Optional.ofNullable(sourceMetadata.contentEncoding())
-                    .ifPresent(putBuilder::contentEncoding);
+            },
+            // ranged GETs, so formats needing random access (Parquet) are read in place
+            // bounded, as closing a partially-read response drains the rest of its body
+            new RangeReadInputFile(sourceMetadata.contentLength(), (offset, length) ->
+                s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(importBucket)
+                    .key(sourceKey)
+                    .range("bytes=" + offset + "-" + (offset + length - 1))
+                    .build())));
+
+        List<StorageEventResponse> responses = new ArrayList<>(results.size());
+        Throwable failure = null;
+        for (StorageHandler.FanOutResult result : results) {
+            S3MultipartUploadOutputStream outputStream = outputStreams.get(result.getTarget()).get();
+            try {
+                if (result.isSuccess()) {
+                    if (outputStream != null) {
+                        outputStream.complete();
+                    }
+                    responses.add(result.getResponse());
+                    log.info(String.format("Successfully uploaded to %s/%s",
+                        result.getResponse().getDestinationBucketName(),
+                        result.getResponse().getDestinationObjectPath()));
+                } else {
+                    // don't leave partial output
+                    if (outputStream != null) {
+                        outputStream.abort();
+                    }
+                    failure = addFailure(failure, result.getError());
+                }
+            } catch (Throwable e) {
+                failure = addFailure(failure, e);
             }
+        }
 
-            s3Client.putObject(putBuilder.build(), RequestBody.fromInputStream(processedStream, tmpFile.length()));
+        if (failure != null) {
+            throw failure;
+        }
+        return responses;
+    }
 
-            log.info(String.format("Successfully uploaded to %s/%s",
-                storageEventResponse.getDestinationBucketName(),
-                storageEventResponse.getDestinationObjectPath()));
-        } finally {
-            //noinspection ResultOfMethodCallIgnored
-            tmpFile.delete();
+    private Throwable addFailure(Throwable first, Throwable e) {
+        if (first == null) {
+            return e;
         }
+        first.addSuppressed(e);
+        return first;
+    }
 
-        return storageEventResponse;
+    private PutObjectRequest buildPutObjectRequest(String importBucket,
+                                                   String sourceKey,
+                                                   StorageHandler.ObjectTransform transform,
+                                                   StorageEventRequest request,
+                                                   HeadObjectResponse sourceMetadata) {
+        Map<String, String> destinationUserMetadata = storageHandler.buildObjectMetadata(importBucket, sourceKey, transform);
+
+        PutObjectRequest.Builder putBuilder = PutObjectRequest.builder()
+            .bucket(request.getDestinationBucketName())
+            .key(request.getDestinationObjectPath())
+            .metadata(destinationUserMetadata);
+
+        Optional.ofNullable(request.getContentType())
+            .ifPresent(putBuilder::contentType);
+
+        if (request.getCompressOutput()) {
+            putBuilder.contentEncoding(StorageHandler.CONTENT_ENCODING_GZIP);
+        } else {
+            Optional.ofNullable(sourceMetadata.contentEncoding())
+                .ifPresent(putBuilder::contentEncoding);
+        }
+        return putBuilder.build();
     }
 
 }
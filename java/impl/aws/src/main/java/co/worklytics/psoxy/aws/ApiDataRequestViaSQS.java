@@ -5,22 +5,57 @@ import co.worklytics.psoxy.gateway.HttpEventRequest;
 import co.worklytics.psoxy.gateway.impl.ApiDataRequestHandler;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
 import dagger.assisted.Assisted;
 import dagger.assisted.AssistedInject;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
 import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
 import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
 import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 
 /**
  * An implementation of {@link AsyncApiDataRequestHandler} that handles API data requests via SQS.
+ *
+ * by default, each request is sent with its own `SendMessage` call, on caller's thread. If
+ * {@link AwsEnvironment.AwsApiModeConfig#getAsyncApiRequestBatchWindow()} is non-zero, requests are
+ * instead sent by a single dispatcher thread, which coalesces those pending into `SendMessageBatch`
+ * calls (up to that window apart); each caller still blocks until its own message is acknowledged
+ * by SQS, and gets its own error if it was not.
  */
+@Log
 public class ApiDataRequestViaSQS implements AsyncApiDataRequestHandler {
 
+    /**
+     * max messages per `SendMessageBatch`, per SQS
+     */
+    static final int MAX_BATCH_SIZE = 10;
+
+    /**
+     * max total size of messages per `SendMessageBatch`; SQS's limit is higher for newer queues,
+     * but this is the lowest it's been
+     */
+    static final int MAX_BATCH_BYTES = 256 * 1024;
+
     final String queueUrl;
 
     @Inject
@@ -29,6 +64,16 @@ public class ApiDataRequestViaSQS implements AsyncApiDataRequestHandler {
     @Inject
     ObjectMapper objectMapper;
 
+    @Inject
+    AwsEnvironment.AwsApiModeConfig awsApiModeConfig;
+
+    private final BlockingQueue<PendingMessage> pending = new LinkedBlockingQueue<>();
+
+    @VisibleForTesting
+    SqsClient client;
+
+    private Thread dispatcher;
+
     @AssistedInject
     public ApiDataRequestViaSQS(@Assisted @NonNull String queueUrl) {
         this.queueUrl = queueUrl;
@@ -36,24 +81,164 @@ public class ApiDataRequestViaSQS implements AsyncApiDataRequestHandler {
 
     public static final String PROCESSING_CONTEXT_ATTRIBUTE = "processingContext";
 
+    @RequiredArgsConstructor
+    static class PendingMessage {
+
+        final SendMessageBatchRequestEntry.Builder entry;
+
+        final int sizeBytes;
+
+        final CompletableFuture<String> messageId = new CompletableFuture<>();
+    }
+
     @Override
     public void handle(HttpEventRequest request, ApiDataRequestHandler.ProcessingContext processingContext) {
-        try (SqsClient client = sqsClient.get()) {
-            String payload = objectMapper.writeValueAsString(request.getUnderlyingRepresentation());
+        String payload;
+        String processingContextJson;
+        try {
+            payload = objectMapper.writeValueAsString(request.getUnderlyingRepresentation());
+            processingContextJson = objectMapper.writeValueAsString(processingContext);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+        Map<String, MessageAttributeValue> messageAttributes =
+            Map.of(PROCESSING_CONTEXT_ATTRIBUTE, MessageAttributeValue.builder()
+                    .dataType("String")
+                .stringValue(processingContextJson)
+                    .build());
+
+        if (awsApiModeConfig.getAsyncApiRequestBatchWindow().isZero()) {
+            // nothing to coalesce with, so no point in handing off to dispatcher thread
+            try {
+                getClient().sendMessage(SendMessageRequest.builder()
+                    .queueUrl(queueUrl)
+                    .messageAttributes(messageAttributes)
+                    .messageBody(payload)
+                    .build());
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Failed to send message to SQS queue: " + queueUrl, e);
+            }
+            return;
+        }
+
+        PendingMessage message = new PendingMessage(SendMessageBatchRequestEntry.builder()
+            .messageAttributes(messageAttributes)
+            .messageBody(payload),
+            utf8Length(payload) + utf8Length(PROCESSING_CONTEXT_ATTRIBUTE) + utf8Length("String") + utf8Length(processingContextJson));
+
+        ensureDispatcherStarted();
+        pending.add(message);
+
+        try {
+            message.messageId.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted sending message to SQS queue: " + queueUrl, e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to send message to SQS queue: " + queueUrl, e.getCause());
+        }
+    }
+
+    private synchronized SqsClient getClient() {
+        if (client == null) {
+            client = sqsClient.get();
+        }
+        return client;
+    }
 
-            SendMessageRequest.Builder requestBuilder = SendMessageRequest.builder()
+    private synchronized void ensureDispatcherStarted() {
+        if (dispatcher == null) {
+            getClient();
+            dispatcher = new Thread(this::dispatch, "sqs-async-api-request-dispatcher");
+            dispatcher.setDaemon(true);
+            dispatcher.start();
+        }
+    }
+
+    private void dispatch() {
+        long windowNanos = awsApiModeConfig.getAsyncApiRequestBatchWindow().toNanos();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<PendingMessage> batch = new ArrayList<>(MAX_BATCH_SIZE);
+                batch.add(pending.take());
+
+                // whatever else is already pending, or arrives within window, goes in same batch
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < MAX_BATCH_SIZE) {
+                    PendingMessage next = pending.poll(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                splitBySize(batch).forEach(this::send);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // send() completes its messages even on failure; so shouldn't get here
+                log.log(Level.WARNING, "Unexpected error dispatching messages to SQS queue: " + queueUrl, e);
+            }
+        }
+    }
+
+    /**
+     * @return batch, split into sub-batches each within {@link #MAX_BATCH_BYTES}
+     */
+    @VisibleForTesting
+    static List<List<PendingMessage>> splitBySize(List<PendingMessage> batch) {
+        List<List<PendingMessage>> batches = new ArrayList<>();
+        List<PendingMessage> current = new ArrayList<>();
+        int currentBytes = 0;
+        for (PendingMessage message : batch) {
+            if (!current.isEmpty() && currentBytes + message.sizeBytes > MAX_BATCH_BYTES) {
+                batches.add(current);
+                current = new ArrayList<>();
+                currentBytes = 0;
+            }
+            current.add(message);
+            currentBytes += message.sizeBytes;
+        }
+        if (!current.isEmpty()) {
+            batches.add(current);
+        }
+        return batches;
+    }
+
+    /**
+     * sends batch, completing each message's future per SQS's result for it
+     */
+    @VisibleForTesting
+    void send(List<PendingMessage> batch) {
+        try {
+            List<SendMessageBatchRequestEntry> entries = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                entries.add(batch.get(i).entry.id(String.valueOf(i)).build());
+            }
+
+            SendMessageBatchResponse response = client.sendMessageBatch(SendMessageBatchRequest.builder()
                 .queueUrl(queueUrl)
-                .messageAttributes(Map.of(PROCESSING_CONTEXT_ATTRIBUTE, MessageAttributeValue.builder()
-                        .dataType("String")
-                    .stringValue(objectMapper.writeValueAsString(processingContext))
-                        .build()))
-                .messageBody(payload);
+                .entries(entries)
+                .build());
 
-            client.sendMessage(requestBuilder.build());
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException(e);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to send message to SQS queue: " + queueUrl, e);
+            for (SendMessageBatchResultEntry result : response.successful()) {
+                batch.get(Integer.parseInt(result.id())).messageId.complete(result.messageId());
+            }
+            for (BatchResultErrorEntry error : response.failed()) {
+                batch.get(Integer.parseInt(error.id())).messageId.completeExceptionally(
+                    new IllegalStateException(String.format("SQS rejected message: %s %s (sender fault: %s)",
+                        error.code(), error.message(), error.senderFault())));
+            }
+            batch.stream()
+                .filter(message -> !message.messageId.isDone())
+                .forEach(message -> message.messageId.completeExceptionally(
+                    new IllegalStateException("No result for message in SQS batch response")));
+        } catch (RuntimeException e) {
+            batch.forEach(message -> message.messageId.completeExceptionally(e));
         }
     }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
 }
@@ -39,4 +39,6 @@ public interface AwsContainer {
     JwksDecorator.Factory jwksDecoratorFactory();
 
     LambdaEventUtils lambdaEventUtils();
+
+    AwsEnvironment.AwsApiModeConfig awsApiModeConfig();
 }
@@ -2,7 +2,9 @@ package co.worklytics.psoxy.aws;
 
 import co.worklytics.psoxy.gateway.ConfigService;
 import co.worklytics.psoxy.gateway.HostEnvironment;
+import co.worklytics.psoxy.storage.StorageHandler;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
 
@@ -31,21 +33,173 @@ public class AwsEnvironment implements HostEnvironment {
 
     @Builder
     @Value
-    static class AwsApiModeConfig {
+    public static class AwsApiModeConfig {
 
         /**
          * SQS queue URL to which async API data requests should be sent, if any
          */
         Optional<String> asyncApiRequestQueueUrl;
 
+        /**
+         * max async API data requests, of a single SQS batch, processed concurrently; as these
+         * mostly wait on source API, defaults to twice the vCPUs available to function (which for
+         * AWS Lambda scale with its memory)
+         */
+        @Builder.Default
+        int asyncApiRequestParallelism = defaultAsyncApiRequestParallelism();
+
+        /**
+         * max time an async API data request waits for others to be sent to SQS in same batch;
+         * also, requests made while a batch is being sent are coalesced into the next one
+         *
+         * if 0, requests aren't coalesced at all: each is sent directly with `SendMessage`, on
+         * caller's thread, without a dispatcher thread
+         *
+         * default: 0; as AWS Lambda handles one request per instance at a time, so there'd rarely
+         * be another to coalesce with, and waiting would only add latency
+         */
+        @Builder.Default
+        Duration asyncApiRequestBatchWindow = Duration.ZERO;
+
+        /**
+         * whether SQS event source mapping has `ReportBatchItemFailures` enabled; if so, only failed
+         * messages of a batch are reported, for re-delivery; otherwise, any failure fails whole
+         * invocation, so whole batch is re-delivered
+         *
+         * default: false
+         */
+        @Builder.Default
+        boolean asyncApiRequestReportBatchItemFailures = false;
+
         enum AwsApiModeConfigProperty implements ConfigService.ConfigProperty {
             ASYNC_API_REQUEST_QUEUE_URL,
+            ASYNC_API_REQUEST_PARALLELISM,
+            ASYNC_API_REQUEST_BATCH_WINDOW_MS,
+            ASYNC_API_REQUEST_REPORT_BATCH_ITEM_FAILURES,
+        }
+
+        static int defaultAsyncApiRequestParallelism() {
+            return 2 * Runtime.getRuntime().availableProcessors();
         }
 
         static AwsApiModeConfig fromConfigService(ConfigService configService) {
-            return AwsApiModeConfig.builder()
-                .asyncApiRequestQueueUrl(configService.getConfigPropertyAsOptional(AwsApiModeConfigProperty.ASYNC_API_REQUEST_QUEUE_URL))
-                .build();
+            AwsApiModeConfigBuilder builder = AwsApiModeConfig.builder()
+                .asyncApiRequestQueueUrl(configService.getConfigPropertyAsOptional(AwsApiModeConfigProperty.ASYNC_API_REQUEST_QUEUE_URL));
+            configService.getConfigPropertyAsOptional(AwsApiModeConfigProperty.ASYNC_API_REQUEST_PARALLELISM)
+                .map(value -> ConfigService.parseIntValue(AwsApiModeConfigProperty.ASYNC_API_REQUEST_PARALLELISM, value))
+                .ifPresent(n -> builder.asyncApiRequestParallelism(Math.max(n, 1)));
+            configService.getConfigPropertyAsOptional(AwsApiModeConfigProperty.ASYNC_API_REQUEST_BATCH_WINDOW_MS)
+                .map(value -> ConfigService.parseIntValue(AwsApiModeConfigProperty.ASYNC_API_REQUEST_BATCH_WINDOW_MS, value))
+                .ifPresent(ms -> builder.asyncApiRequestBatchWindow(Duration.ofMillis(Math.max(ms, 0))));
+            configService.getConfigPropertyAsOptional(AwsApiModeConfigProperty.ASYNC_API_REQUEST_REPORT_BATCH_ITEM_FAILURES)
+                .map(Boolean::parseBoolean)
+                .ifPresent(builder::asyncApiRequestReportBatchItemFailures);
+            return builder.build();
+        }
+    }
+
+    /**
+     * settings for streaming sanitized bulk data to S3
+     *
+     * each transform of an object buffers up to {@link StorageHandler#FAN_OUT_BUFFERED_BYTES_PER_TARGET}
+     * of input, plus part size * (parts in flight + 1) of output; eg, ~44 MB with defaults. Those
+     * settings are upper bounds: parts in flight and objects processed in parallel are reduced
+     * such that buffers of all concurrent transforms fit in {@link #BUFFER_HEAP_FRACTION} of heap.
+     * So eg, a 512 MB function processes objects one at a time if each has 3+ transforms.
+     */
+    @Builder
+    @Value
+    public static class AwsBulkModeConfig {
+
+        /**
+         * fraction of max heap that buffers of objects being processed may use; rest is left for
+         * sanitization itself
+         */
+        static final double BUFFER_HEAP_FRACTION = 0.5;
+
+        /**
+         * size of each part of multipart upload of sanitized objects, in bytes; objects that fit in
+         * one part are uploaded in a single request
+         *
+         * default: 8 MB (min: 5 MB, per S3; max: 1 GB)
+         */
+        @Builder.Default
+        int uploadPartSizeBytes = 8 * 1024 * 1024;
+
+        /**
+         * max parts uploading concurrently, per object; memory used for buffering output is bounded
+         * by part size * (this + 1)
+         *
+         * default: 4
+         */
+        @Builder.Default
+        int maxUploadPartsInFlight = 4;
+
+        /**
+         * max objects of a single S3 event processed concurrently; as each object's output is
+         * buffered per above, memory used scales with this too
+         *
+         * default: 4
+         */
+        @Builder.Default
+        int maxObjectsInParallel = 4;
+
+        /**
+         * @param transformsPerObject each with its own buffers
+         * @param maxHeapBytes        eg, {@link Runtime#maxMemory()}
+         * @return parts to upload concurrently per transform, such that buffers of even a single
+         * object fit in budget; at least 1, at most {@link #maxUploadPartsInFlight}
+         */
+        public int uploadPartsInFlight(int transformsPerObject, long maxHeapBytes) {
+            long perTransform = bufferBudget(maxHeapBytes) / Math.max(transformsPerObject, 1)
+                - StorageHandler.FAN_OUT_BUFFERED_BYTES_PER_TARGET;
+            long parts = perTransform / uploadPartSizeBytes - 1;
+            return (int) Math.max(1, Math.min(parts, maxUploadPartsInFlight));
+        }
+
+        /**
+         * @param transformsPerObject each with its own buffers
+         * @param maxHeapBytes        eg, {@link Runtime#maxMemory()}
+         * @return objects to process concurrently, such that buffers of all of them fit in budget;
+         * at least 1, at most {@link #maxObjectsInParallel}
+         */
+        public int objectsInParallel(int transformsPerObject, long maxHeapBytes) {
+            long perTransform = StorageHandler.FAN_OUT_BUFFERED_BYTES_PER_TARGET
+                + (long) uploadPartSizeBytes * (uploadPartsInFlight(transformsPerObject, maxHeapBytes) + 1);
+            long objects = bufferBudget(maxHeapBytes) / (perTransform * Math.max(transformsPerObject, 1));
+            return (int) Math.max(1, Math.min(objects, maxObjectsInParallel));
+        }
+
+        private long bufferBudget(long maxHeapBytes) {
+            return (long) (maxHeapBytes * BUFFER_HEAP_FRACTION);
+        }
+
+        enum AwsBulkModeConfigProperty implements ConfigService.ConfigProperty {
+            S3_UPLOAD_PART_SIZE_MB,
+            S3_UPLOAD_MAX_PARTS_IN_FLIGHT,
+            S3_MAX_OBJECTS_IN_PARALLEL,
+            ;
+
+            @Override
+            public SupportedSource getSupportedSource() {
+                return SupportedSource.ENV_VAR;
+            }
+        }
+
+        static AwsBulkModeConfig fromConfigService(ConfigService configService) {
+            AwsBulkModeConfigBuilder builder = AwsBulkModeConfig.builder();
+            configService.getConfigPropertyAsOptional(AwsBulkModeConfigProperty.S3_UPLOAD_PART_SIZE_MB)
+                .map(value -> ConfigService.parseIntValue(AwsBulkModeConfigProperty.S3_UPLOAD_PART_SIZE_MB, value))
+                .map(mb -> Math.min(Math.max((long) mb * 1024 * 1024, S3MultipartUploadOutputStream.MIN_PART_SIZE),
+                    S3MultipartUploadOutputStream.MAX_PART_SIZE))
+                .ifPresent(bytes -> builder.uploadPartSizeBytes(bytes.intValue()));
+            configService.getConfigPropertyAsOptional(AwsBulkModeConfigProperty.S3_UPLOAD_MAX_PARTS_IN_FLIGHT)
+                .map(value -> ConfigService.parseIntValue(AwsBulkModeConfigProperty.S3_UPLOAD_MAX_PARTS_IN_FLIGHT, value))
+                .ifPresent(n -> builder.maxUploadPartsInFlight(Math.max(n, 1)));
+            configService.getConfigPropertyAsOptional(AwsBulkModeConfigProperty.S3_MAX_OBJECTS_IN_PARALLEL)
+                .map(value -> ConfigService.parseIntValue(AwsBulkModeConfigProperty.S3_MAX_OBJECTS_IN_PARALLEL, value))
+                .ifPresent(n -> builder.maxObjectsInParallel(Math.max(n, 1)));
+            return builder.build();
         }
     }
 
@@ -239,6 +239,12 @@ public interface AwsModule {
     }
 
 
+    @Provides
+    @Singleton
+    static AwsEnvironment.AwsBulkModeConfig awsBulkModeConfig(ConfigService configService) {
+        return AwsEnvironment.AwsBulkModeConfig.fromConfigService(configService);
+    }
+
     @Provides
     @Singleton
     static AwsEnvironment.AwsApiModeConfig awsApiModeConfig(ConfigService configService) {
@@ -246,6 +252,7 @@ public interface AwsModule {
     }
 
     @Provides
+    @Singleton // so concurrent requests are coalesced into same SQS batches
     static AsyncApiDataRequestHandler providesAsyncApiDataRequestHandler(
         AwsEnvironment.AwsApiModeConfig awsApiModeConfig,
         ApiDataRequestViaSQSFactory apiDataRequestViaSQSFactory
@@ -0,0 +1,286 @@
+package co.worklytics.psoxy.aws;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import com.google.common.base.Preconditions;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+/**
+ * streams content to an S3 object via multipart upload, uploading parts in the background while
+ * content is still being written
+ *
+ * memory use is bounded by part size * (max parts in flight + 1), regardless of object size;
+ * writes block while that many parts are uploading.
+ *
+ * content is NOT committed on {@link #close()}, as streams are closed even if writing them failed
+ * part-way; caller must call {@link #complete()} once content is fully written, or {@link #abort()}
+ * to discard it. Content that fits in a single part is uploaded with a plain `PutObject` instead.
+ */
+@Log
+public class S3MultipartUploadOutputStream extends OutputStream {
+
+    /**
+     * S3's min size for all but the last part of a multipart upload
+     *
+     * @see "https://docs.aws.amazon.com/AmazonS3/latest/userguide/qfacts.html"
+     */
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    /**
+     * max size of a part, as each is buffered in a byte array; S3 itself allows up to 5 GB
+     */
+    public static final int MAX_PART_SIZE = 1024 * 1024 * 1024;
+
+    final S3Client s3Client;
+
+    /**
+     * bucket, key, metadata, content-type/encoding of object to write
+     */
+    final PutObjectRequest target;
+
+    final int partSize;
+
+    final ExecutorService uploadExecutor;
+
+    final Semaphore partsInFlight;
+
+    final List<Future<CompletedPart>> parts = new ArrayList<>();
+
+    byte[] buffer;
+
+    int count = 0;
+
+    String uploadId;
+
+    boolean closed = false;
+
+    boolean finished = false;
+
+    /**
+     * @param s3Client        to upload with
+     * @param target          object to write; body-related fields (eg, content length) ignored
+     * @param partSize        size of each part, except last; at least {@link #MIN_PART_SIZE}
+     * @param maxPartsInFlight max parts uploading concurrently
+     */
+    public S3MultipartUploadOutputStream(@NonNull S3Client s3Client,
+                                         @NonNull PutObjectRequest target,
+                                         int partSize,
+                                         int maxPartsInFlight) {
+        Preconditions.checkArgument(partSize >= MIN_PART_SIZE, "partSize must be at least %s bytes", MIN_PART_SIZE);
+        Preconditions.checkArgument(maxPartsInFlight > 0, "maxPartsInFlight must be positive");
+        this.s3Client = s3Client;
+        this.target = target;
+        this.partSize = partSize;
+        this.buffer = new byte[partSize];
+        this.partsInFlight = new Semaphore(maxPartsInFlight);
+        this.uploadExecutor = Executors.newFixedThreadPool(maxPartsInFlight, runnable -> {
+            Thread thread = new Thread(runnable, "s3-multipart-upload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            uploadBufferedPart(false);
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (count == buffer.length) {
+                uploadBufferedPart(false);
+            }
+            int toCopy = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, toCopy);
+            count += toCopy;
+            off += toCopy;
+            len -= toCopy;
+        }
+    }
+
+    @Override
+    public void close() {
+        // NOTE: doesn't commit content; see class doc
+        closed = true;
+    }
+
+    /**
+     * uploads any remaining content, and commits the object; blocks until done
+     *
+     * @throws IOException if any part failed to upload; upload is aborted in that case
+     */
+    public void complete() throws IOException {
+        Preconditions.checkState(!finished, "upload already completed or aborted");
+        closed = true;
+        try {
+            if (uploadId == null) {
+                // everything fit in one part, so no need for multipart upload
+                s3Client.putObject(target.toBuilder().contentLength((long) count).build(),
+                    RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, count), count));
+            } else {
+                if (count > 0) {
+                    uploadBufferedPart(true);
+                }
+                List<CompletedPart> completedParts = new ArrayList<>(parts.size());
+                for (Future<CompletedPart> part : parts) {
+                    completedParts.add(awaitPart(part));
+                }
+                completedParts.sort(Comparator.comparing(CompletedPart::partNumber));
+
+                s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(target.bucket())
+                    .key(target.key())
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+                log.info(String.format("Completed multipart upload of %d parts to %s/%s",
+                    completedParts.size(), target.bucket(), target.key()));
+            }
+        } catch (IOException | RuntimeException e) {
+            abort();
+            throw e;
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * discards any content written; aborts multipart upload, if one was started
+     */
+    public void abort() {
+        if (finished) {
+            return;
+        }
+        closed = true;
+        parts.forEach(part -> part.cancel(true));
+        if (uploadId != null) {
+            try {
+                s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(target.bucket())
+                    .key(target.key())
+                    .uploadId(uploadId)
+                    .build());
+            } catch (RuntimeException e) {
+                // S3 lifecycle rule for incomplete multipart uploads should clean up eventually
+                log.log(Level.WARNING, "Failed to abort multipart upload to " + target.bucket() + "/" + target.key(), e);
+            }
+        }
+        release();
+    }
+
+    private void release() {
+        finished = true;
+        buffer = null;
+        uploadExecutor.shutdownNow();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * @param last whether this is the final part, so no buffer is needed for any further content
+     */
+    private void uploadBufferedPart(boolean last) throws IOException {
+        failFastIfAnyPartFailed();
+
+        if (uploadId == null) {
+            CreateMultipartUploadRequest.Builder createBuilder = CreateMultipartUploadRequest.builder()
+                .bucket(target.bucket())
+                .key(target.key())
+                .metadata(target.metadata());
+
+            // s3 client blows up if these are filled with 'null' values, so only set if present
+            Optional.ofNullable(target.contentType()).ifPresent(createBuilder::contentType);
+            Optional.ofNullable(target.contentEncoding()).ifPresent(createBuilder::contentEncoding);
+
+            uploadId = s3Client.createMultipartUpload(createBuilder.build()).uploadId();
+        }
+
+        try {
+            // bounds memory; blocks writer until a part finishes uploading
+            partsInFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted awaiting part upload", e);
+        }
+
+        final int partNumber = parts.size() + 1;
+        final byte[] partContent = buffer;
+        final int partLength = count;
+        try {
+            parts.add(uploadExecutor.submit(() -> {
+                try {
+                    String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                            .bucket(target.bucket())
+                            .key(target.key())
+                            .uploadId(uploadId)
+                            .partNumber(partNumber)
+                            .contentLength((long) partLength)
+                            .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(partContent, 0, partLength), partLength))
+                        .eTag();
+                    return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+                } finally {
+                    partsInFlight.release();
+                }
+            }));
+        } catch (RuntimeException e) {
+            partsInFlight.release();
+            throw e;
+        }
+
+        // part's buffer is owned by upload task now
+        buffer = last ? null : new byte[partSize];
+        count = 0;
+    }
+
+    private void failFastIfAnyPartFailed() throws IOException {
+        for (Future<CompletedPart> part : parts) {
+            if (part.isDone()) {
+                awaitPart(part);
+            }
+        }
+    }
+
+    private CompletedPart awaitPart(Future<CompletedPart> part) throws IOException {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted awaiting part upload", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to upload part to " + target.bucket() + "/" + target.key(),
+                Optional.ofNullable(e.getCause()).orElse(e));
+        }
+    }
+}
@@ -4,6 +4,7 @@ import co.worklytics.psoxy.gateway.BucketOutputLocation;
 import co.worklytics.psoxy.gateway.impl.output.OutputUtils;
 import co.worklytics.psoxy.gateway.output.Output;
 import co.worklytics.psoxy.gateway.output.OutputLocation;
+import co.worklytics.psoxy.gateway.output.StreamingOutput;
 import co.worklytics.psoxy.gateway.ProcessedContent;
 import dagger.assisted.Assisted;
 import dagger.assisted.AssistedInject;
@@ -16,15 +17,18 @@ import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
 /**
  * S3-backed implementation of {@link Output}.
+ *
+ * streamed content is written via multipart upload, per {@link AwsEnvironment.AwsBulkModeConfig}
  */
 @Log
-public class S3Output implements Output {
+public class S3Output implements StreamingOutput {
 
     final String bucket;
 
@@ -33,6 +37,9 @@ public class S3Output implements Output {
     @Inject
     Provider<S3Client> s3ClientProvider;
 
+    @Inject
+    AwsEnvironment.AwsBulkModeConfig bulkModeConfig;
+
     @AssistedInject
     public S3Output(@Assisted OutputLocation location) {
         BucketOutputLocation bucketLocation = BucketOutputLocation.from(location.getUri());
@@ -58,26 +65,67 @@ public class S3Output implements Output {
         try {
             S3Client s3Client = s3ClientProvider.get();
 
-            Map<String, String> userMetadata = new HashMap<>();
+            s3Client.putObject(putObjectRequest(key, content).contentLength((long) body.length).build(),
+                RequestBody.fromBytes(body));
+        } catch (Exception e) {
+            throw new WriteFailure("Failed to write to S3 output", e);
+        }
+    }
 
-            content.getMetadata().entrySet().stream()
-                .filter(entry -> entry.getValue() != null) // avoid null values
-                .forEach(entry -> userMetadata.put(entry.getKey(), entry.getValue()));
+    @Override
+    public ContentStream open(String key, ProcessedContent content) throws WriteFailure {
+        S3MultipartUploadOutputStream upload;
+        try {
+            upload = new S3MultipartUploadOutputStream(s3ClientProvider.get(), putObjectRequest(key, content).build(),
+                bulkModeConfig.getUploadPartSizeBytes(), bulkModeConfig.getMaxUploadPartsInFlight());
+        } catch (RuntimeException e) {
+            throw new WriteFailure("Failed to open stream to S3 output", e);
+        }
 
-            PutObjectRequest.Builder putBuilder = PutObjectRequest.builder()
-                .bucket(bucket)
-                .key(pathPrefix + key)
-                .contentLength((long) body.length)
-                .metadata(userMetadata);
+        return new ContentStream() {
+            @Override
+            public void write(int b) throws IOException {
+                upload.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                upload.write(b, off, len);
+            }
+
+            @Override
+            public void commit() throws WriteFailure {
+                try {
+                    upload.complete();
+                } catch (IOException | RuntimeException e) {
+                    throw new WriteFailure("Failed to write to S3 output", e);
+                }
+            }
+
+            @Override
+            public void close() {
+                // no-op if committed
+                upload.abort();
+            }
+        };
+    }
 
-            // s3 client blows up if these are filled with 'null' values, so only set if present
-            Optional.ofNullable(content.getContentEncoding()).ifPresent(putBuilder::contentEncoding);
-            Optional.ofNullable(content.getContentType()).ifPresent(putBuilder::contentType);
+    private PutObjectRequest.Builder putObjectRequest(String key, ProcessedContent content) {
+        Map<String, String> userMetadata = new HashMap<>();
 
-            s3Client.putObject(putBuilder.build(), RequestBody.fromBytes(body));
-        } catch (Exception e) {
-            throw new WriteFailure("Failed to write to S3 output", e);
-        }
+        content.getMetadata().entrySet().stream()
+            .filter(entry -> entry.getValue() != null) // avoid null values
+            .forEach(entry -> userMetadata.put(entry.getKey(), entry.getValue()));
+
+        PutObjectRequest.Builder putBuilder = PutObjectRequest.builder()
+            .bucket(bucket)
+            .key(pathPrefix + key)
+            .metadata(userMetadata);
+
+        // s3 client blows up if these are filled with 'null' values, so only set if present
+        Optional.ofNullable(content.getContentEncoding()).ifPresent(putBuilder::contentEncoding);
+        Optional.ofNullable(content.getContentType()).ifPresent(putBuilder::contentType);
+        return putBuilder;
     }
 
     @Override
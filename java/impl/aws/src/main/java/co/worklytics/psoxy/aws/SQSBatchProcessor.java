@@ -0,0 +1,83 @@
+package co.worklytics.psoxy.aws;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent.SQSMessage;
+import lombok.extern.java.Log;
+
+/**
+ * processes messages of an SQS batch concurrently, as each mostly waits on source API
+ *
+ * one pool, shared across invocations handled by same instance; rather than one per invocation
+ */
+@Log
+public class SQSBatchProcessor {
+
+    private final ExecutorService executor;
+
+    private final boolean reportBatchItemFailures;
+
+    public SQSBatchProcessor(AwsEnvironment.AwsApiModeConfig awsApiModeConfig) {
+        this.reportBatchItemFailures = awsApiModeConfig.isAsyncApiRequestReportBatchItemFailures();
+        this.executor = Executors.newFixedThreadPool(awsApiModeConfig.getAsyncApiRequestParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "sqs-batch-processor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param messages       of batch
+     * @param processMessage processes a message; returns whether it succeeded
+     * @return failed messages, to be re-delivered; if reporting batch item failures is enabled
+     * @throws IllegalStateException if any message failed, and reporting batch item failures is
+     *                               not enabled; so whole batch is re-delivered
+     */
+    public SQSBatchResponse process(List<SQSMessage> messages, Predicate<SQSMessage> processMessage) {
+        List<SQSBatchResponse.BatchItemFailure> failures = new ArrayList<>();
+
+        if (messages.size() == 1) {
+            if (!processMessage.test(messages.get(0))) {
+                failures.add(new SQSBatchResponse.BatchItemFailure(messages.get(0).getMessageId()));
+            }
+        } else if (!messages.isEmpty()) {
+            List<Future<Boolean>> futures = new ArrayList<>(messages.size());
+            for (SQSMessage message : messages) {
+                futures.add(executor.submit(() -> processMessage.test(message)));
+            }
+            try {
+                for (int i = 0; i < messages.size(); i++) {
+                    boolean succeeded;
+                    try {
+                        succeeded = futures.get(i).get();
+                    } catch (ExecutionException e) {
+                        log.log(Level.WARNING, "Error processing SQS message " + messages.get(i).getMessageId(), e.getCause());
+                        succeeded = false;
+                    }
+                    if (!succeeded) {
+                        failures.add(new SQSBatchResponse.BatchItemFailure(messages.get(i).getMessageId()));
+                    }
+                }
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while processing SQS messages", e);
+            }
+        }
+
+        log.info("Processed " + messages.size() + " SQS messages; " + failures.size() + " failed");
+
+        if (!failures.isEmpty() && !reportBatchItemFailures) {
+            throw new IllegalStateException(failures.size() + " of " + messages.size()
+                + " SQS messages failed; whole batch to be re-delivered");
+        }
+        return new SQSBatchResponse(failures);
+    }
+}
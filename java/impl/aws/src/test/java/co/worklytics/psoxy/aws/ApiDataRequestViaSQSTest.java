@@ -0,0 +1,179 @@
+package co.worklytics.psoxy.aws;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import co.worklytics.psoxy.gateway.HttpEventRequest;
+import co.worklytics.psoxy.gateway.impl.ApiDataRequestHandler;
+import lombok.SneakyThrows;
+import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+
+class ApiDataRequestViaSQSTest {
+
+    static final String QUEUE_URL = "https://sqs.us-east-1.amazonaws.com/123456789012/queue";
+
+    SqsClient client;
+
+    ApiDataRequestViaSQS handler;
+
+    @SneakyThrows
+    @BeforeEach
+    void setUp() {
+        client = mock(SqsClient.class);
+
+        handler = new ApiDataRequestViaSQS(QUEUE_URL);
+        handler.sqsClient = () -> client;
+        handler.objectMapper = mock(ObjectMapper.class);
+        when(handler.objectMapper.writeValueAsString(any())).thenReturn("{}");
+        handler.awsApiModeConfig = AwsEnvironment.AwsApiModeConfig.builder()
+            .asyncApiRequestBatchWindow(Duration.ofMillis(200))
+            .build();
+    }
+
+    @Test
+    void handle_coalescesConcurrentRequests() throws Exception {
+        when(client.sendMessageBatch(any(SendMessageBatchRequest.class)))
+            .thenAnswer(invocation -> succeedAll(invocation.getArgument(0)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> results = IntStream.range(0, 5)
+                .mapToObj(i -> executor.submit(() -> handler.handle(mock(HttpEventRequest.class), processingContext())))
+                .collect(Collectors.toList());
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ArgumentCaptor<SendMessageBatchRequest> captor = ArgumentCaptor.forClass(SendMessageBatchRequest.class);
+        verify(client, atLeastOnce()).sendMessageBatch(captor.capture());
+        assertTrue(captor.getAllValues().size() < 5);
+        assertEquals(5, captor.getAllValues().stream().mapToInt(r -> r.entries().size()).sum());
+        captor.getAllValues().forEach(r -> assertEquals(QUEUE_URL, r.queueUrl()));
+    }
+
+    @Test
+    void handle_noWindow_sendsDirectly() {
+        handler.awsApiModeConfig = AwsEnvironment.AwsApiModeConfig.builder().build();
+
+        handler.handle(mock(HttpEventRequest.class), processingContext());
+
+        ArgumentCaptor<SendMessageRequest> captor = ArgumentCaptor.forClass(SendMessageRequest.class);
+        verify(client).sendMessage(captor.capture());
+        assertEquals(QUEUE_URL, captor.getValue().queueUrl());
+        assertEquals("{}", captor.getValue().messageBody());
+        assertTrue(captor.getValue().messageAttributes().containsKey(ApiDataRequestViaSQS.PROCESSING_CONTEXT_ATTRIBUTE));
+        verify(client, never()).sendMessageBatch(any(SendMessageBatchRequest.class));
+    }
+
+    @Test
+    void handle_noWindow_sendFails() {
+        handler.awsApiModeConfig = AwsEnvironment.AwsApiModeConfig.builder().build();
+        when(client.sendMessage(any(SendMessageRequest.class)))
+            .thenThrow(new IllegalStateException("network"));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+            () -> handler.handle(mock(HttpEventRequest.class), processingContext()));
+        assertEquals("network", e.getCause().getMessage());
+    }
+
+    @Test
+    void handle_failedEntry() {
+        when(client.sendMessageBatch(any(SendMessageBatchRequest.class)))
+            .thenAnswer(invocation -> {
+                SendMessageBatchRequest request = invocation.getArgument(0);
+                return SendMessageBatchResponse.builder()
+                    .failed(request.entries().stream()
+                        .map(e -> BatchResultErrorEntry.builder().id(e.id()).code("InvalidMessageContents").senderFault(true).build())
+                        .collect(Collectors.toList()))
+                    .build();
+            });
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+            () -> handler.handle(mock(HttpEventRequest.class), processingContext()));
+        assertTrue(e.getCause().getMessage().contains("InvalidMessageContents"));
+    }
+
+    @Test
+    void send_perMessageResults() {
+        handler.client = client;
+        List<ApiDataRequestViaSQS.PendingMessage> batch = List.of(pendingMessage(10), pendingMessage(10), pendingMessage(10));
+
+        when(client.sendMessageBatch(any(SendMessageBatchRequest.class)))
+            .thenReturn(SendMessageBatchResponse.builder()
+                .successful(SendMessageBatchResultEntry.builder().id("0").messageId("m0").build(),
+                    SendMessageBatchResultEntry.builder().id("2").messageId("m2").build())
+                .failed(BatchResultErrorEntry.builder().id("1").code("InternalError").senderFault(false).build())
+                .build());
+
+        handler.send(batch);
+
+        assertEquals("m0", batch.get(0).messageId.join());
+        assertEquals("m2", batch.get(2).messageId.join());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> batch.get(1).messageId.get());
+        assertTrue(e.getCause().getMessage().contains("InternalError"));
+    }
+
+    @Test
+    void send_requestFails() {
+        handler.client = client;
+        List<ApiDataRequestViaSQS.PendingMessage> batch = List.of(pendingMessage(10), pendingMessage(10));
+
+        when(client.sendMessageBatch(any(SendMessageBatchRequest.class)))
+            .thenThrow(new IllegalStateException("network"));
+
+        handler.send(batch);
+
+        batch.forEach(m -> assertTrue(m.messageId.isCompletedExceptionally()));
+    }
+
+    @Test
+    void splitBySize() {
+        int third = ApiDataRequestViaSQS.MAX_BATCH_BYTES / 3;
+        List<ApiDataRequestViaSQS.PendingMessage> batch = List.of(
+            pendingMessage(third), pendingMessage(third), pendingMessage(third),
+            pendingMessage(third), pendingMessage(ApiDataRequestViaSQS.MAX_BATCH_BYTES));
+
+        List<List<ApiDataRequestViaSQS.PendingMessage>> split = ApiDataRequestViaSQS.splitBySize(batch);
+
+        assertEquals(List.of(3, 1, 1), split.stream().map(List::size).collect(Collectors.toList()));
+    }
+
+    ApiDataRequestHandler.ProcessingContext processingContext() {
+        return ApiDataRequestHandler.ProcessingContext.synchronous(Instant.now());
+    }
+
+    ApiDataRequestViaSQS.PendingMessage pendingMessage(int sizeBytes) {
+        return new ApiDataRequestViaSQS.PendingMessage(SendMessageBatchRequestEntry.builder().messageBody("{}"), sizeBytes);
+    }
+
+    SendMessageBatchResponse succeedAll(SendMessageBatchRequest request) {
+        return SendMessageBatchResponse.builder()
+            .successful(request.entries().stream()
+                .map(e -> SendMessageBatchResultEntry.builder().id(e.id()).messageId("m" + e.id()).build())
+                .collect(Collectors.toList()))
+            .build();
+    }
+}
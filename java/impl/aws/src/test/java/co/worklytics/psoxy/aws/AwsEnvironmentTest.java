@@ -0,0 +1,52 @@
+package co.worklytics.psoxy.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import co.worklytics.psoxy.gateway.ConfigService;
+
+class AwsEnvironmentTest {
+
+    static final long MB = 1024 * 1024;
+
+    @Test
+    void bulkModeConfig_defaultsBoundedByHeap() {
+        AwsEnvironment.AwsBulkModeConfig config = AwsEnvironment.AwsBulkModeConfig.builder().build();
+
+        // plenty of memory; so configured maxes
+        assertEquals(4, config.uploadPartsInFlight(1, 1024 * MB));
+        assertEquals(4, config.objectsInParallel(1, 1024 * MB));
+
+        // 3 transforms, each buffering ~44 MB, in 512 MB: one object at a time
+        assertEquals(4, config.uploadPartsInFlight(3, 512 * MB));
+        assertEquals(1, config.objectsInParallel(3, 512 * MB));
+
+        // many transforms: fewer parts in flight, but never less than 1
+        assertEquals(1, config.uploadPartsInFlight(8, 256 * MB));
+        assertEquals(1, config.objectsInParallel(8, 256 * MB));
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+        "1,5",
+        "16,16",
+        // would overflow int, if computed as such
+        "4096,1024",
+    })
+    void bulkModeConfig_uploadPartSizeBounded(String configuredMb, long expectedMb) {
+        ConfigService configService = mock(ConfigService.class);
+        when(configService.getConfigPropertyAsOptional(any())).thenReturn(Optional.empty());
+        when(configService.getConfigPropertyAsOptional(
+            AwsEnvironment.AwsBulkModeConfig.AwsBulkModeConfigProperty.S3_UPLOAD_PART_SIZE_MB))
+            .thenReturn(Optional.of(configuredMb));
+
+        assertEquals(expectedMb * MB,
+            AwsEnvironment.AwsBulkModeConfig.fromConfigService(configService).getUploadPartSizeBytes());
+    }
+}
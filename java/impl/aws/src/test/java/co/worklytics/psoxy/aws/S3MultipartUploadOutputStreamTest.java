@@ -0,0 +1,141 @@
+package co.worklytics.psoxy.aws;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockMakers;
+import lombok.SneakyThrows;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+class S3MultipartUploadOutputStreamTest {
+
+    static final int PART_SIZE = S3MultipartUploadOutputStream.MIN_PART_SIZE;
+
+    static final PutObjectRequest TARGET = PutObjectRequest.builder()
+        .bucket("bucket")
+        .key("path/to/object.csv")
+        .contentType("text/csv")
+        .metadata(Map.of("foo", "bar"))
+        .build();
+
+    S3Client client;
+
+    // part number --> content
+    Map<Integer, byte[]> uploadedParts;
+
+    @BeforeEach
+    public void setup() {
+        client = mock(S3Client.class, withSettings().mockMaker(MockMakers.SUBCLASS));
+        uploadedParts = new ConcurrentHashMap<>();
+
+        when(client.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+            .thenReturn(CreateMultipartUploadResponse.builder().uploadId("upload-1").build());
+        when(client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+            .thenAnswer(invocation -> {
+                UploadPartRequest request = invocation.getArgument(0);
+                RequestBody body = invocation.getArgument(1);
+                try (InputStream content = body.contentStreamProvider().newStream()) {
+                    uploadedParts.put(request.partNumber(), content.readAllBytes());
+                }
+                return UploadPartResponse.builder().eTag("etag-" + request.partNumber()).build();
+            });
+        when(client.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+            .thenReturn(CompleteMultipartUploadResponse.builder().build());
+        when(client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+            .thenReturn(PutObjectResponse.builder().build());
+    }
+
+    @Test
+    void smallContent_singlePut() throws IOException {
+        S3MultipartUploadOutputStream out = new S3MultipartUploadOutputStream(client, TARGET, PART_SIZE, 2);
+        out.write("hello world".getBytes());
+        out.close();
+        out.complete();
+
+        ArgumentCaptor<PutObjectRequest> captor = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(client).putObject(captor.capture(), any(RequestBody.class));
+        assertEquals(11L, captor.getValue().contentLength());
+        assertEquals("text/csv", captor.getValue().contentType());
+        verify(client, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @SneakyThrows
+    @Test
+    void largeContent_multipart() {
+        byte[] content = new byte[PART_SIZE * 2 + 100];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+
+        S3MultipartUploadOutputStream out = new S3MultipartUploadOutputStream(client, TARGET, PART_SIZE, 2);
+        // write in chunks that don't align with part boundaries
+        for (int offset = 0; offset < content.length; offset += 7_001) {
+            out.write(content, offset, Math.min(7_001, content.length - offset));
+        }
+        out.close();
+        out.complete();
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> captor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(client).completeMultipartUpload(captor.capture());
+        List<CompletedPart> parts = captor.getValue().multipartUpload().parts();
+        assertEquals(3, parts.size());
+        assertEquals("etag-1", parts.get(0).eTag());
+        assertEquals("etag-3", parts.get(2).eTag());
+
+        ByteArrayOutputStream reassembled = new ByteArrayOutputStream();
+        for (int part = 1; part <= 3; part++) {
+            reassembled.write(uploadedParts.get(part));
+        }
+        assertArrayEquals(content, reassembled.toByteArray());
+        verify(client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+    }
+
+    @SneakyThrows
+    @Test
+    void abort_discardsStartedUpload() {
+        S3MultipartUploadOutputStream out = new S3MultipartUploadOutputStream(client, TARGET, PART_SIZE, 1);
+        out.write(new byte[PART_SIZE + 1]);
+        out.close();
+        out.abort();
+
+        verify(client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+        assertThrows(IllegalStateException.class, out::complete);
+    }
+
+    @SneakyThrows
+    @Test
+    void failedPart_abortsOnComplete() {
+        when(client.uploadPart(any(UploadPartRequest.class), any(RequestBody.class)))
+            .thenThrow(new RuntimeException("boom"));
+
+        S3MultipartUploadOutputStream out = new S3MultipartUploadOutputStream(client, TARGET, PART_SIZE, 1);
+        out.write(new byte[PART_SIZE + 1]);
+        out.close();
+
+        assertThrows(IOException.class, out::complete);
+        verify(client).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(client, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+}
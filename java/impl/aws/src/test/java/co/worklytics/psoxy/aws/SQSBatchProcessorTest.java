@@ -0,0 +1,83 @@
+package co.worklytics.psoxy.aws;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import com.amazonaws.services.lambda.runtime.events.SQSBatchResponse;
+import com.amazonaws.services.lambda.runtime.events.SQSEvent.SQSMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class SQSBatchProcessorTest {
+
+    static List<SQSMessage> messages(int count) {
+        return IntStream.range(0, count)
+            .mapToObj(i -> {
+                SQSMessage message = new SQSMessage();
+                message.setMessageId("message-" + i);
+                return message;
+            })
+            .collect(Collectors.toList());
+    }
+
+    static SQSBatchProcessor processor(boolean reportBatchItemFailures) {
+        return new SQSBatchProcessor(AwsEnvironment.AwsApiModeConfig.builder()
+            .asyncApiRequestParallelism(4)
+            .asyncApiRequestReportBatchItemFailures(reportBatchItemFailures)
+            .build());
+    }
+
+    @Test
+    void process_allSucceed() {
+        Set<String> processed = ConcurrentHashMap.newKeySet();
+
+        SQSBatchResponse response = processor(false).process(messages(10), message -> processed.add(message.getMessageId()));
+
+        assertEquals(10, processed.size());
+        assertTrue(response.getBatchItemFailures().isEmpty());
+    }
+
+    @Test
+    void process_partialFailure_reported() throws Exception {
+        SQSBatchResponse response = processor(true).process(messages(5), message -> {
+            if (message.getMessageId().equals("message-3")) {
+                throw new IllegalStateException("unexpected");
+            }
+            return !message.getMessageId().equals("message-1");
+        });
+
+        assertEquals(List.of("message-1", "message-3"), response.getBatchItemFailures().stream()
+            .map(SQSBatchResponse.BatchItemFailure::getItemIdentifier)
+            .collect(Collectors.toList()));
+
+        // shape expected by Lambda, for `ReportBatchItemFailures`
+        assertEquals("{\"batchItemFailures\":[{\"itemIdentifier\":\"message-1\"},{\"itemIdentifier\":\"message-3\"}]}",
+            new ObjectMapper().writeValueAsString(response));
+    }
+
+    @Test
+    void process_singleMessageFailure_reported() {
+        SQSBatchResponse response = processor(true).process(messages(1), message -> false);
+
+        assertEquals("message-0", response.getBatchItemFailures().get(0).getItemIdentifier());
+    }
+
+    @Test
+    void process_partialFailure_notReported_throws() {
+        Set<String> processed = ConcurrentHashMap.newKeySet();
+
+        assertThrows(IllegalStateException.class, () -> processor(false).process(messages(5), message -> {
+            processed.add(message.getMessageId());
+            return !message.getMessageId().equals("message-2");
+        }));
+
+        // all processed regardless
+        assertEquals(5, processed.size());
+    }
+}
@@ -15,7 +15,6 @@ import dagger.assisted.AssistedInject;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.SneakyThrows;
 import lombok.extern.java.Log;
 
 import javax.inject.Inject;
@@ -35,6 +34,13 @@ public class ApiDataRequestViaPubSub implements AsyncApiDataRequestHandler {
      */
     final String topicName;
 
+    /**
+     * shared with any other publisher to same topic in instance, so concurrent requests are
+     * batched into same publish calls
+     *
+     * @see PubSubPublisherPool
+     * @see GcpEnvironment.GcpPubSubPublisherConfig#getBatchDelay()
+     */
     final Publisher publisher;
 
     @Inject
@@ -42,18 +48,11 @@ public class ApiDataRequestViaPubSub implements AsyncApiDataRequestHandler {
     @Inject
     EnvVarsConfigService envVarsConfigService;
 
-    @SneakyThrows
     @AssistedInject
-    public ApiDataRequestViaPubSub(@Assisted @NonNull String topicName) {
+    public ApiDataRequestViaPubSub(PubSubPublisherPool publisherPool,
+                                   @Assisted @NonNull String topicName) {
         this.topicName = topicName;
-        this.publisher = Publisher.newBuilder(TopicName.parse(topicName)).build();
-        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-            try {
-                publisher.shutdown();
-            } catch (Exception e) {
-                log.log(Level.WARNING, "Failed to shutdown PubSub publisher for topic: " + topicName, e);
-            }
-        }, "pubsub-publisher-shutdown-hook"));
+        this.publisher = publisherPool.get(topicName);
     }
 
     @AllArgsConstructor
@@ -86,6 +85,7 @@ public class ApiDataRequestViaPubSub implements AsyncApiDataRequestHandler {
             PubsubMessage.Builder messageBuilder = PubsubMessage.newBuilder()
                 .putAttributes(MessageAttributes.PROCESSING_CONTEXT.getStringEncoding(), objectMapper.writeValueAsString(processingContext))
                 .setData(data);
+            // blocks until batch including this message is published; so errors are still per-request
             String messageId = publisher.publish(messageBuilder.build()).get();
             log.log(Level.INFO, "Published message with ID: " + messageId + " to topic: " + topicName);
         } catch (InterruptedException | ExecutionException | IOException e) {
@@ -5,7 +5,9 @@ import co.worklytics.psoxy.gateway.ProcessedContent;
 import co.worklytics.psoxy.gateway.impl.output.OutputUtils;
 import co.worklytics.psoxy.gateway.output.Output;
 import co.worklytics.psoxy.gateway.output.OutputLocation;
+import co.worklytics.psoxy.gateway.output.StreamingOutput;
 import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
 import dagger.assisted.Assisted;
@@ -16,12 +18,22 @@ import org.apache.commons.lang3.StringUtils;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
 
+/**
+ * GCS-backed implementation of {@link Output}.
+ *
+ * streamed content is written via resumable upload; object is created only once upload is
+ * finalized. As upload can't be aborted, a stream closed without commit is finalized and its
+ * (partial) object then deleted; so that's visible only briefly
+ */
 @Log
-public class GCSOutput implements Output {
+public class GCSOutput implements StreamingOutput {
 
     final String bucket;
     final String pathPrefix;
@@ -50,16 +62,8 @@ public class GCSOutput implements Output {
 
         try {
             Storage storageClient = storageProvider.get();
-            Map<String, String> metadata = content.getMetadata().entrySet().stream()
-                .filter(entry -> entry.getValue() != null)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-
-            try (WriteChannel writeChannel = storageClient.writer(
-                BlobInfo.newBuilder(bucket, pathPrefix + key)
-                    .setContentType(content.getContentType())
-                    .setContentEncoding(content.getContentEncoding())
-                    .setMetadata(metadata)
-                    .build())) {
+
+            try (WriteChannel writeChannel = storageClient.writer(blobInfo(key, content))) {
                 if (body.length > 0) {
                     writeChannel.write(java.nio.ByteBuffer.wrap(body));
                 }
@@ -70,6 +74,78 @@ public class GCSOutput implements Output {
         }
     }
 
+    @Override
+    public ContentStream open(String key, ProcessedContent content) throws WriteFailure {
+        Storage storageClient = storageProvider.get();
+        BlobInfo blobInfo = blobInfo(key, content);
+        WriteChannel writeChannel;
+        try {
+            writeChannel = storageClient.writer(blobInfo);
+        } catch (RuntimeException e) {
+            throw new WriteFailure("Failed to open stream to GCS output", e);
+        }
+        OutputStream upload = Channels.newOutputStream(writeChannel);
+
+        return new ContentStream() {
+
+            boolean closed = false;
+
+            @Override
+            public void write(int b) throws IOException {
+                upload.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                upload.write(b, off, len);
+            }
+
+            @Override
+            public void commit() throws WriteFailure {
+                closed = true;
+                try {
+                    // finalizes upload, creating object
+                    writeChannel.close();
+                } catch (IOException | RuntimeException e) {
+                    log.log(Level.WARNING, "Failed to write to GCS output", e);
+                    throw new WriteFailure("Failed to write to GCS output", e);
+                }
+            }
+
+            @Override
+            public void close() {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                // WriteChannel can't abort an upload; so finalize it, releasing the channel, then
+                // delete the partial object that creates (that generation only)
+                try {
+                    writeChannel.close();
+                    Blob partial = storageClient.get(blobInfo.getBlobId());
+                    if (partial != null) {
+                        storageClient.delete(partial.getBlobId());
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.log(Level.WARNING, "Failed to abort stream to GCS output; partial object may remain: "
+                        + blobInfo.getName(), e);
+                }
+            }
+        };
+    }
+
+    private BlobInfo blobInfo(String key, ProcessedContent content) {
+        Map<String, String> metadata = content.getMetadata().entrySet().stream()
+            .filter(entry -> entry.getValue() != null)
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        return BlobInfo.newBuilder(bucket, pathPrefix + key)
+            .setContentType(content.getContentType())
+            .setContentEncoding(content.getContentEncoding())
+            .setMetadata(metadata)
+            .build();
+    }
+
     @Override
     public void write(ProcessedContent content) throws WriteFailure {
         // Generate a canonical key for the response
@@ -105,6 +105,10 @@ public class GcpApiDataRequestHandler {
         } else {
             handleSyncCase(request, response);
         }
+
+        // response body already written; but CPU may be throttled once this returns, so
+        // background writes of this request must be done before then
+        requestHandler.awaitSideOutputWrites();
     }
 
     void handleSyncCase(HttpRequest request, HttpResponse response) {
@@ -26,4 +26,7 @@ interface GcpContainer {
 
     @Singleton
     ExecutorService executorService();
+
+    @Singleton
+    PubSubPublisherPool pubSubPublisherPool();
 }
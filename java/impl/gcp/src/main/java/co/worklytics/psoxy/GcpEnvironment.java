@@ -1,5 +1,6 @@
 package co.worklytics.psoxy;
 
+import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
 import javax.inject.Inject;
@@ -91,6 +92,15 @@ public class GcpEnvironment implements HostEnvironment {
          */
         int batchInvocationTimeoutSeconds;
 
+        /**
+         * max batches in flight (pulled, but not yet written and acknowledged) per invocation; if
+         * more than 1, next batch(es) are pulled while current one is merged and written
+         *
+         * default: 1 (no pipelining)
+         */
+        @Builder.Default
+        int batchPipelineDepth = 1;
+
         private enum GcpWebhookCollectorModeConfigProperty implements co.worklytics.psoxy.gateway.ConfigService.ConfigProperty {
 
             BATCH_MERGE_SUBSCRIPTION,
@@ -99,6 +109,8 @@ public class GcpEnvironment implements HostEnvironment {
 
             BATCH_INVOCATION_TIMEOUT_SECONDS,
 
+            BATCH_PIPELINE_DEPTH,
+
             SERVICE_URL,
         }
 
@@ -116,10 +128,113 @@ public class GcpEnvironment implements HostEnvironment {
                                 GcpWebhookCollectorModeConfig.GcpWebhookCollectorModeConfigProperty.BATCH_INVOCATION_TIMEOUT_SECONDS,
                                 value))
                         .orElse(60))
+                .batchPipelineDepth(configService.getConfigPropertyAsOptional(
+                                GcpWebhookCollectorModeConfig.GcpWebhookCollectorModeConfigProperty.BATCH_PIPELINE_DEPTH)
+                        .map(value -> ConfigService.parseIntValue(
+                                GcpWebhookCollectorModeConfig.GcpWebhookCollectorModeConfigProperty.BATCH_PIPELINE_DEPTH,
+                                value))
+                        .map(depth -> Math.max(depth, 1))
+                        .orElse(1))
                 .build();
         }
     }
 
+    /**
+     * settings for the long-lived Pub/Sub publishers shared by all outputs of an instance
+     *
+     * @see PubSubPublisherPool
+     */
+    @Builder
+    @Value
+    static class GcpPubSubPublisherConfig {
+
+        /**
+         * max number of messages to batch into a single publish request
+         *
+         * default: 100 (Pub/Sub client library default)
+         */
+        @Builder.Default
+        long batchElementCount = 100L;
+
+        /**
+         * max bytes of messages to batch into a single publish request
+         *
+         * default: 1000 bytes (Pub/Sub client library default)
+         */
+        @Builder.Default
+        long batchRequestBytes = 1000L;
+
+        /**
+         * max time to wait for a batch to fill, before publishing it; applies to all publishers, as
+         * callers (webhook collection, async API data requests) await publication before
+         * responding, so this adds to latency of each
+         *
+         * default: 1ms (min supported by Pub/Sub client library); so messages published
+         * concurrently are still batched, but each waits at most that long for others
+         */
+        @Builder.Default
+        Duration batchDelay = Duration.ofMillis(1);
+
+        /**
+         * max number of messages outstanding (published, but not yet acknowledged by Pub/Sub) per
+         * topic; publishing beyond this blocks until outstanding messages complete
+         *
+         * default: 1000
+         */
+        @Builder.Default
+        long maxOutstandingElementCount = 1000L;
+
+        /**
+         * max bytes of messages outstanding per topic; publishing beyond this blocks until
+         * outstanding messages complete
+         *
+         * default: 10 MB
+         */
+        @Builder.Default
+        long maxOutstandingRequestBytes = 10L * 1024 * 1024;
+
+        @VisibleForTesting
+        enum GcpPubSubPublisherConfigProperty implements co.worklytics.psoxy.gateway.ConfigService.ConfigProperty {
+
+            PUBSUB_BATCH_ELEMENT_COUNT,
+
+            PUBSUB_BATCH_REQUEST_BYTES,
+
+            PUBSUB_BATCH_DELAY_MS,
+
+            PUBSUB_MAX_OUTSTANDING_ELEMENT_COUNT,
+
+            PUBSUB_MAX_OUTSTANDING_REQUEST_BYTES,
+            ;
+
+            @Override
+            public SupportedSource getSupportedSource() {
+                return SupportedSource.ENV_VAR;
+            }
+        }
+
+        static GcpPubSubPublisherConfig fromConfigService(ConfigService configService) {
+            GcpPubSubPublisherConfigBuilder builder = GcpPubSubPublisherConfig.builder();
+            parseInt(configService, GcpPubSubPublisherConfigProperty.PUBSUB_BATCH_ELEMENT_COUNT)
+                .ifPresent(builder::batchElementCount);
+            parseInt(configService, GcpPubSubPublisherConfigProperty.PUBSUB_BATCH_REQUEST_BYTES)
+                .ifPresent(builder::batchRequestBytes);
+            parseInt(configService, GcpPubSubPublisherConfigProperty.PUBSUB_BATCH_DELAY_MS)
+                .ifPresent(ms -> builder.batchDelay(Duration.ofMillis(Math.max(ms, 1))));
+            parseInt(configService, GcpPubSubPublisherConfigProperty.PUBSUB_MAX_OUTSTANDING_ELEMENT_COUNT)
+                .ifPresent(builder::maxOutstandingElementCount);
+            parseInt(configService, GcpPubSubPublisherConfigProperty.PUBSUB_MAX_OUTSTANDING_REQUEST_BYTES)
+                .ifPresent(builder::maxOutstandingRequestBytes);
+            return builder.build();
+        }
+
+        private static Optional<Integer> parseInt(ConfigService configService,
+                                                  GcpPubSubPublisherConfigProperty property) {
+            return configService.getConfigPropertyAsOptional(property)
+                .map(value -> ConfigService.parseIntValue(property, value));
+        }
+    }
+
     @Override
     public String getInstanceId() {
         return System.getenv(GcpEnvironment.RuntimeEnvironmentVariables.K_SERVICE.name());
@@ -193,6 +193,23 @@ public interface GcpModule {
         return executorService;
     }
 
+    @Provides
+    @Singleton
+    static GcpEnvironment.GcpPubSubPublisherConfig pubSubPublisherConfig(ConfigService configService) {
+        return GcpEnvironment.GcpPubSubPublisherConfig.fromConfigService(configService);
+    }
+
+    @Provides
+    @Singleton
+    static PubSubPublisherPool pubSubPublisherPool(GcpEnvironment.GcpPubSubPublisherConfig config) {
+        PubSubPublisherPool pool = new PubSubPublisherPool(config);
+
+        // flush any messages still batched in publishers when function instance shuts down
+        Runtime.getRuntime().addShutdownHook(new Thread(pool::shutdown, "pubsub-publisher-pool-shutdown-hook"));
+
+        return pool;
+    }
+
     @Provides @Singleton
     static AsyncApiDataRequestHandler apiDataRequestViaPubSub(ApiDataRequestViaPubSubFactory factory,
                                                               GcpEnvironment.GcpApiModeConfig config) {
@@ -1,9 +1,18 @@
 package co.worklytics.psoxy;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.stream.Stream;
 import javax.inject.Inject;
@@ -17,7 +26,9 @@ import com.google.cloud.functions.HttpRequest;
 import com.google.cloud.functions.HttpResponse;
 import com.google.cloud.pubsub.v1.stub.SubscriberStub;
 import com.google.cloud.pubsub.v1.stub.SubscriberStubSettings;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.pubsub.v1.AcknowledgeRequest;
+import com.google.pubsub.v1.ModifyAckDeadlineRequest;
 import com.google.pubsub.v1.ProjectSubscriptionName;
 import com.google.pubsub.v1.PullRequest;
 import com.google.pubsub.v1.PullResponse;
@@ -50,6 +61,14 @@ public class GcpWebhookCollectionHandler {
     // standard Bearer token prefix on Authorization header
     static final String BEARER_PREFIX = "Bearer ";
 
+    // bounds of ack deadline, per Pub/Sub
+    static final int MIN_ACK_DEADLINE_SECONDS = 10;
+    static final int MAX_ACK_DEADLINE_SECONDS = 600;
+
+    // max time to wait for in-flight prefetches, once done processing, so their messages can be
+    // released rather than left until their (extended) ack deadline expires
+    static final long PREFETCH_RELEASE_WAIT_MILLIS = 5_000;
+
     @Inject
     public GcpWebhookCollectionHandler(InboundWebhookHandler inboundWebhookHandler,
                                        GoogleIdTokenVerifierFactory googleIdTokenVerifierFactory,
@@ -216,60 +235,160 @@ public class GcpWebhookCollectionHandler {
      */
     @SneakyThrows
     void processBatch() {
-        ProjectSubscriptionName subscriptionName  =
-            ProjectSubscriptionName.parse(gcpWebhookCollectorModeConfig.get().getBatchMergeSubscription());
-
         SubscriberStubSettings settings = SubscriberStubSettings.newBuilder().build();
 
+        try (SubscriberStub subscriber = settings.createStub()) {
+            processBatches(subscriber);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * pulls, merges and writes, then acknowledges batches of webhooks until there's no full batch
+     * left or invocation timeout reached
+     *
+     * if pipelined (per {@link GcpEnvironment.GcpWebhookCollectorModeConfig#getBatchPipelineDepth()}),
+     * next batch(es) are pulled while current one is written; their ack deadlines are extended, so
+     * they're not redelivered while waiting. Any not yet being processed by timeout are released
+     * for redelivery.
+     */
+    @VisibleForTesting
+    void processBatches(SubscriberStub subscriber) throws InterruptedException, ExecutionException {
+        GcpEnvironment.GcpWebhookCollectorModeConfig config = gcpWebhookCollectorModeConfig.get();
+        String subscriptionName = ProjectSubscriptionName.parse(config.getBatchMergeSubscription()).toString();
+
+        PullRequest pullRequest = PullRequest.newBuilder()
+            .setMaxMessages(config.getBatchSize())
+            .setSubscription(subscriptionName)
+            .build();
+
+        // long enough that prefetched batches are processed (or released) before it expires
+        int prefetchedAckDeadlineSeconds = Math.min(Math.max(config.getBatchInvocationTimeoutSeconds(), MIN_ACK_DEADLINE_SECONDS), MAX_ACK_DEADLINE_SECONDS);
+
+        ExecutorService prefetchExecutor = config.getBatchPipelineDepth() > 1
+            ? Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "pubsub-batch-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            })
+            : null;
+
         // stop watch to track how long we've been processing batch(s)
         boolean possibleAdditionalMessagesWaiting = false;
         StopWatch stopWatch = StopWatch.createStarted();
-        try (SubscriberStub subscriber = settings.createStub()) {
-            do {
-                PullRequest pullRequest = PullRequest.newBuilder()
-                    .setMaxMessages(gcpWebhookCollectorModeConfig.get().getBatchSize())
-                    .setSubscription(subscriptionName.toString())
-                    .build();
-
-                PullResponse response = subscriber.pullCallable().call(pullRequest);
+        Deque<Future<PullResponse>> pulls = new ArrayDeque<>();
+        try {
+            pulls.add(CompletableFuture.completedFuture(subscriber.pullCallable().call(pullRequest)));
+            boolean first = true;
+            while (!pulls.isEmpty()) {
+                PullResponse response = pulls.poll().get();
+                boolean withinTimeout = stopWatch.getTime(TimeUnit.SECONDS) < config.getBatchInvocationTimeoutSeconds();
 
-                if (response.getReceivedMessagesCount() == 0) {
+                if (first && response.getReceivedMessagesCount() == 0) {
                     log.log(Level.INFO, "No messages to process");
                     return;
                 }
+                if (!first && !withinTimeout) {
+                    // prefetched, but no time left to process it
+                    release(subscriber, subscriptionName, response);
+                    continue;
+                }
+                first = false;
+
+                possibleAdditionalMessagesWaiting = response.getReceivedMessagesCount() == config.getBatchSize();
+                if (possibleAdditionalMessagesWaiting && withinTimeout) {
+                    // pull next batch(es) while this one is written
+                    while (pulls.size() < config.getBatchPipelineDepth() - 1) {
+                        pulls.add(prefetchExecutor.submit(() -> prefetch(subscriber, pullRequest, prefetchedAckDeadlineSeconds)));
+                    }
+                }
 
-                Stream<ProcessedContent> processedContentStream = response.getReceivedMessagesList().stream()
-                    .map(this::mapMessageToProcessedContent);
-
-                batchMergeHandler.handleBatch(processedContentStream);
-
-                List<String> ackIds = response.getReceivedMessagesList().stream()
-                    .map(ReceivedMessage::getAckId).toList();
-
-                AcknowledgeRequest ackRequest = AcknowledgeRequest.newBuilder()
-                    .setSubscription(subscriptionName.toString())
-                    .addAllAckIds(ackIds)
-                    .build();
-                subscriber.acknowledgeCallable().call(ackRequest);
-                log.log(Level.INFO, "Processed " + ackIds.size() + " messages");
+                if (response.getReceivedMessagesCount() > 0) {
+                    writeAndAcknowledge(subscriber, subscriptionName, response);
+                }
 
-                if (ackIds.size() == gcpWebhookCollectorModeConfig.get().getBatchSize()) {
-                    possibleAdditionalMessagesWaiting = true;
+                if (possibleAdditionalMessagesWaiting) {
                     log.log(Level.INFO, "Processed a full batch; if timeout NOT reached, will attempt to process another batch");
-                } else {
-                    possibleAdditionalMessagesWaiting = false;
+                    if (pulls.isEmpty() && stopWatch.getTime(TimeUnit.SECONDS) < config.getBatchInvocationTimeoutSeconds()) {
+                        pulls.add(CompletableFuture.completedFuture(subscriber.pullCallable().call(pullRequest)));
+                    }
                 }
-            } while (possibleAdditionalMessagesWaiting
-                && stopWatch.getTime(TimeUnit.SECONDS) < gcpWebhookCollectorModeConfig.get().getBatchInvocationTimeoutSeconds());
+            }
 
             if (possibleAdditionalMessagesWaiting) {
                 log.log(Level.WARNING, "Batch processed stopped due to timeout; consider increasing BATCH_SIZE, cron frequency and concurrency, or batch timeout if this happens repeatedly");
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        } finally {
+            if (prefetchExecutor != null) {
+                // release any batches prefetched, but not processed (eg, due to failure); including
+                // ones still in flight, briefly awaited, as otherwise their messages would be held
+                // until their extended ack deadline expires
+                prefetchExecutor.shutdown();
+                long deadline = System.currentTimeMillis() + PREFETCH_RELEASE_WAIT_MILLIS;
+                for (Future<PullResponse> pull : pulls) {
+                    try {
+                        PullResponse prefetched =
+                            pull.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                        release(subscriber, subscriptionName, prefetched);
+                    } catch (ExecutionException | TimeoutException | CancellationException | RuntimeException e) {
+                        log.log(Level.WARNING, "Failed to release prefetched batch; will be redelivered once its ack deadline expires", e);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                prefetchExecutor.shutdownNow();
+            }
         }
+    }
+
+    private PullResponse prefetch(SubscriberStub subscriber, PullRequest pullRequest, int ackDeadlineSeconds) {
+        PullResponse response = subscriber.pullCallable().call(pullRequest);
+        if (response.getReceivedMessagesCount() > 0) {
+            subscriber.modifyAckDeadlineCallable().call(ModifyAckDeadlineRequest.newBuilder()
+                .setSubscription(pullRequest.getSubscription())
+                .addAllAckIds(ackIds(response))
+                .setAckDeadlineSeconds(ackDeadlineSeconds)
+                .build());
+        }
+        return response;
+    }
 
+    private void writeAndAcknowledge(SubscriberStub subscriber, String subscriptionName, PullResponse response) {
+        Stream<ProcessedContent> processedContentStream = response.getReceivedMessagesList().stream()
+            .map(this::mapMessageToProcessedContent);
+
+        batchMergeHandler.handleBatch(processedContentStream);
+
+        List<String> ackIds = ackIds(response);
+
+        AcknowledgeRequest ackRequest = AcknowledgeRequest.newBuilder()
+            .setSubscription(subscriptionName)
+            .addAllAckIds(ackIds)
+            .build();
+        subscriber.acknowledgeCallable().call(ackRequest);
+        log.log(Level.INFO, "Processed " + ackIds.size() + " messages");
+    }
+
+    /**
+     * makes messages of batch available for redelivery immediately, rather than once their ack
+     * deadline expires
+     */
+    private void release(SubscriberStub subscriber, String subscriptionName, PullResponse response) {
+        if (response.getReceivedMessagesCount() > 0) {
+            subscriber.modifyAckDeadlineCallable().call(ModifyAckDeadlineRequest.newBuilder()
+                .setSubscription(subscriptionName)
+                .addAllAckIds(ackIds(response))
+                .setAckDeadlineSeconds(0)
+                .build());
+            log.log(Level.INFO, "Released " + response.getReceivedMessagesCount() + " prefetched messages for redelivery");
+        }
+    }
 
+    private List<String> ackIds(PullResponse response) {
+        return response.getReceivedMessagesList().stream()
+            .map(ReceivedMessage::getAckId).toList();
     }
 
 
@@ -3,6 +3,7 @@ package co.worklytics.psoxy;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.channels.Channels;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -16,6 +17,7 @@ import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Storage;
 import co.worklytics.psoxy.gateway.StorageEventRequest;
 import co.worklytics.psoxy.storage.StorageHandler;
+import co.worklytics.psoxy.storage.impl.RangeReadInputFile;
 import lombok.SneakyThrows;
 import lombok.extern.java.Log;
 
@@ -42,17 +44,18 @@ public class GcsFileEventHandler {
             List<StorageHandler.ObjectTransform> transforms =
                 storageHandler.buildTransforms();
 
-            for (StorageHandler.ObjectTransform transform : transforms) {
-                process(event.getBucket(), event.getName(), transform);
-            }
+            process(event.getBucket(), event.getName(), transforms);
         } else {
             log.warning("Unsupported event type: " + context.eventType());
         }
     }
 
 
+    /**
+     * process source object with all transforms, reading it only once
+     */
     @SneakyThrows
-    private void process(String importBucket, String sourceName, StorageHandler.ObjectTransform transform) {
+    private void process(String importBucket, String sourceName, List<StorageHandler.ObjectTransform> transforms) {
 
         Storage storage = storageProvider.get();
         BlobId sourceBlobId = BlobId.of(importBucket, sourceName);
@@ -66,38 +69,70 @@ public class GcsFileEventHandler {
             return;
         }
 
-        StorageEventRequest request =
-            storageHandler.buildRequest(importBucket, sourceName, transform, sourceBlobInfo.getContentEncoding(), sourceBlobInfo.getContentType());
-
-        if (storageHandler.getApplicableRules(transform.getRules(), request.getSourceObjectPath()).isPresent()) {
-
-            Supplier<InputStream> inputStreamSupplier = () -> {
-                ReadChannel readChannel = storage.reader(sourceBlobId, Storage.BlobSourceOption.shouldReturnRawInputStream(true));
-                return Channels.newInputStream(readChannel);
-            };
-
-            Supplier<OutputStream> outputStreamSupplier = () -> {
-                BlobInfo.Builder blobInfoBuilder = BlobInfo.newBuilder(BlobId.of(request.getDestinationBucketName(), request.getDestinationObjectPath()))
-                    .setMetadata(storageHandler.buildObjectMetadata(importBucket, sourceName, transform));
+        List<StorageHandler.FanOutTarget> targets = new ArrayList<>(transforms.size());
+        for (StorageHandler.ObjectTransform transform : transforms) {
+            StorageEventRequest request =
+                storageHandler.buildRequest(importBucket, sourceName, transform, sourceBlobInfo.getContentEncoding(), sourceBlobInfo.getContentType());
+
+            if (storageHandler.getApplicableRules(transform.getRules(), request.getSourceObjectPath()).isPresent()) {
+                targets.add(StorageHandler.FanOutTarget.builder()
+                    .request(request)
+                    .transform(transform)
+                    .outputStreamSupplier(() -> {
+                        BlobInfo.Builder blobInfoBuilder = BlobInfo.newBuilder(BlobId.of(request.getDestinationBucketName(), request.getDestinationObjectPath()))
+                            .setMetadata(storageHandler.buildObjectMetadata(importBucket, sourceName, transform));
+
+                        Optional.ofNullable(request.getContentType())
+                            .ifPresent(blobInfoBuilder::setContentType);
+
+                        if (request.getCompressOutput()) {
+                            blobInfoBuilder.setContentEncoding(StorageHandler.CONTENT_ENCODING_GZIP);
+                        } else {
+                            Optional.ofNullable(sourceBlobInfo.getContentEncoding())
+                                .ifPresent(blobInfoBuilder::setContentEncoding);
+                        }
+                        //NOTE: disableGzipContent() is important to avoid double compression
+                        WriteChannel writeChannel = storage.writer(blobInfoBuilder.build(), Storage.BlobWriteOption.disableGzipContent());
+                        //NOTE: when close() called on the stream, close is called on channel, so should be OK
+                        return Channels.newOutputStream(writeChannel);
+                    })
+                    .build());
+            } else {
+                log.info("Skipping " + importBucket + "/" + request.getSourceObjectPath() + " for " + transform.getDestinationBucketName() + " because no rules apply");
+            }
+        }
 
-                Optional.ofNullable(request.getContentType())
-                    .ifPresent(blobInfoBuilder::setContentType);
+        if (targets.isEmpty()) {
+            return;
+        }
 
-                if (request.getCompressOutput()) {
-                    blobInfoBuilder.setContentEncoding(StorageHandler.CONTENT_ENCODING_GZIP);
+        Supplier<InputStream> inputStreamSupplier = () -> {
+            ReadChannel readChannel = storage.reader(sourceBlobId, Storage.BlobSourceOption.shouldReturnRawInputStream(true));
+            return Channels.newInputStream(readChannel);
+        };
+
+        // seek within blob, so formats needing random access (Parquet) are read in place
+        RangeReadInputFile seekableInput = new RangeReadInputFile(sourceBlobInfo.getSize(), (offset, length) -> {
+            ReadChannel readChannel = storage.reader(sourceBlobId, Storage.BlobSourceOption.shouldReturnRawInputStream(true));
+            readChannel.seek(offset);
+            readChannel.limit(offset + length);
+            return Channels.newInputStream(readChannel);
+        });
+
+        List<StorageHandler.FanOutResult> results = storageHandler.handleFanOut(targets, inputStreamSupplier, seekableInput);
+
+        Throwable failure = null;
+        for (StorageHandler.FanOutResult result : results) {
+            if (!result.isSuccess()) {
+                if (failure == null) {
+                    failure = result.getError();
                 } else {
-                    Optional.ofNullable(sourceBlobInfo.getContentEncoding())
-                        .ifPresent(blobInfoBuilder::setContentEncoding);
+                    failure.addSuppressed(result.getError());
                 }
-                //NOTE: disableGzipContent() is important to avoid double compression
-                WriteChannel writeChannel = storage.writer(blobInfoBuilder.build(), Storage.BlobWriteOption.disableGzipContent());
-                //NOTE: when close() called on the stream, close is called on channel, so should be OK
-                return Channels.newOutputStream(writeChannel);
-            };
-
-            storageHandler.handle(request, transform, inputStreamSupplier, outputStreamSupplier);
-        } else {
-            log.info("Skipping " + importBucket + "/" + request.getSourceObjectPath() + " because no rules apply");
+            }
+        }
+        if (failure != null) {
+            throw failure;
         }
     }
 }
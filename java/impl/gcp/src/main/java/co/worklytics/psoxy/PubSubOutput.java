@@ -1,10 +1,9 @@
 package co.worklytics.psoxy;
 
-import java.io.IOException;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
-import com.google.cloud.pubsub.v1.Publisher;
+import javax.inject.Inject;
 import com.google.protobuf.ByteString;
 import com.google.pubsub.v1.PubsubMessage;
 import com.google.pubsub.v1.ReceivedMessage;
@@ -28,6 +27,9 @@ public class PubSubOutput implements Output {
      */
     final String topicName;
 
+    @Inject
+    PubSubPublisherPool publisherPool;
+
     @AssistedInject
     public PubSubOutput(@Assisted OutputLocation location) {
         // expects location.getUri() to be a PubSub topic URL
@@ -61,19 +63,26 @@ public class PubSubOutput implements Output {
 
     @Override
     public void write(String key, ProcessedContent content) throws WriteFailure {
+        ByteString data = ByteString.copyFrom(content.getContent());
+        PubsubMessage.Builder messageBuilder = PubsubMessage.newBuilder().setData(data);
+        if (content.getContentType() != null) {
+            messageBuilder.putAttributes(MessageAttributes.CONTENT_TYPE.getStringEncoding(), content.getContentType());
+        }
+        if (content.getContentEncoding() != null) {
+            messageBuilder.putAttributes(MessageAttributes.CONTENT_ENCODING.getStringEncoding(), content.getContentEncoding());
+        }
+
         try {
-            Publisher publisher = Publisher.newBuilder(TopicName.parse(topicName)).build();
-            ByteString data = ByteString.copyFrom(content.getContent());
-            PubsubMessage.Builder messageBuilder = PubsubMessage.newBuilder().setData(data);
-            if (content.getContentType() != null) {
-                messageBuilder.putAttributes(MessageAttributes.CONTENT_TYPE.getStringEncoding(), content.getContentType());
-            }
-            if (content.getContentEncoding() != null) {
-                messageBuilder.putAttributes(MessageAttributes.CONTENT_ENCODING.getStringEncoding(), content.getContentEncoding());
-            }
-            String messageId = publisher.publish(messageBuilder.build()).get();
+            // publisher is shared with other outputs for same topic, so concurrent writes are
+            // batched; but callers (eg, webhook collection) rely on content being durable once
+            // write returns, so await publication
+            String messageId = publisherPool.get(topicName).publish(messageBuilder.build()).get();
             log.log(Level.INFO, "Published message with ID: {0} to PubSub topic: {1}", new Object[]{messageId, topicName});
-        } catch (InterruptedException | ExecutionException | IOException e) {
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.log(Level.WARNING, "Interrupted publishing to PubSub", e);
+            throw new WriteFailure("Interrupted publishing to PubSub", e);
+        } catch (ExecutionException | RuntimeException e) {
             log.log(Level.WARNING, "Failed to publish to PubSub", e);
             throw new WriteFailure("Failed to publish to PubSub", e);
         }
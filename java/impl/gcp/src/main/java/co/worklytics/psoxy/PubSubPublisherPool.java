@@ -0,0 +1,101 @@
+package co.worklytics.psoxy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import com.google.api.gax.batching.BatchingSettings;
+import com.google.api.gax.batching.FlowControlSettings;
+import com.google.api.gax.batching.FlowController;
+import com.google.cloud.pubsub.v1.Publisher;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.pubsub.v1.TopicName;
+import lombok.NonNull;
+import lombok.extern.java.Log;
+
+/**
+ * long-lived Pub/Sub publishers, one per topic, shared by everything in the instance that
+ * publishes to that topic
+ *
+ * a {@link Publisher} owns a gRPC channel and a thread pool, and batches messages published
+ * concurrently; so building one per message is expensive, and defeats batching.
+ *
+ * publishers are flushed and shut down by {@link #shutdown()}, which should be called when
+ * the function instance shuts down.
+ */
+@Log
+public class PubSubPublisherPool {
+
+    // max time to wait for outstanding messages to be published on shutdown
+    static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+    final GcpEnvironment.GcpPubSubPublisherConfig config;
+
+    final Map<String, Publisher> publishers = new ConcurrentHashMap<>();
+
+    public PubSubPublisherPool(@NonNull GcpEnvironment.GcpPubSubPublisherConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * @param topicName in format `projects/{project}/topics/{topic}`
+     * @return publisher for topic, created on first use
+     */
+    public Publisher get(@NonNull String topicName) {
+        return publishers.computeIfAbsent(topicName, this::create);
+    }
+
+    /**
+     * publishes any batched messages immediately, without waiting for batch thresholds
+     */
+    public void flush() {
+        publishers.values().forEach(Publisher::publishAllOutstanding);
+    }
+
+    /**
+     * flushes outstanding messages, then shuts down all publishers; waits (bounded) for
+     * completion
+     */
+    public void shutdown() {
+        publishers.forEach((topicName, publisher) -> {
+            try {
+                publisher.shutdown();
+                if (!publisher.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    log.warning("Timed out awaiting shutdown of PubSub publisher for topic: " + topicName);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.log(Level.WARNING, "Interrupted shutting down PubSub publisher for topic: " + topicName, e);
+            } catch (Exception e) {
+                log.log(Level.WARNING, "Failed to shutdown PubSub publisher for topic: " + topicName, e);
+            }
+        });
+        publishers.clear();
+    }
+
+    @VisibleForTesting
+    BatchingSettings batchingSettings() {
+        return BatchingSettings.newBuilder()
+            .setElementCountThreshold(config.getBatchElementCount())
+            .setRequestByteThreshold(config.getBatchRequestBytes())
+            .setDelayThresholdDuration(config.getBatchDelay())
+            .setFlowControlSettings(FlowControlSettings.newBuilder()
+                .setMaxOutstandingElementCount(config.getMaxOutstandingElementCount())
+                .setMaxOutstandingRequestBytes(config.getMaxOutstandingRequestBytes())
+                .setLimitExceededBehavior(FlowController.LimitExceededBehavior.Block)
+                .build())
+            .build();
+    }
+
+    private Publisher create(String topicName) {
+        try {
+            return Publisher.newBuilder(TopicName.parse(topicName))
+                .setBatchingSettings(batchingSettings())
+                .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create PubSub publisher for topic: " + topicName, e);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package co.worklytics.psoxy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import com.google.api.gax.rpc.UnaryCallable;
+import com.google.cloud.pubsub.v1.stub.SubscriberStub;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Empty;
+import com.google.pubsub.v1.AcknowledgeRequest;
+import com.google.pubsub.v1.ModifyAckDeadlineRequest;
+import com.google.pubsub.v1.PubsubMessage;
+import com.google.pubsub.v1.PullRequest;
+import com.google.pubsub.v1.PullResponse;
+import com.google.pubsub.v1.ReceivedMessage;
+import co.worklytics.psoxy.gateway.WebhookCollectorModeConfig;
+import co.worklytics.psoxy.gateway.impl.BatchMergeHandler;
+import co.worklytics.psoxy.gateway.impl.InboundWebhookHandler;
+import co.worklytics.psoxy.gateway.impl.JwksDecorator;
+
+class GcpWebhookCollectionHandlerBatchTest {
+
+    static final int BATCH_SIZE = 2;
+
+    SubscriberStub subscriber;
+    UnaryCallable<PullRequest, PullResponse> pullCallable;
+    UnaryCallable<AcknowledgeRequest, Empty> acknowledgeCallable;
+    UnaryCallable<ModifyAckDeadlineRequest, Empty> modifyAckDeadlineCallable;
+    BatchMergeHandler batchMergeHandler;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void setUp() {
+        subscriber = mock(SubscriberStub.class);
+        pullCallable = mock(UnaryCallable.class);
+        acknowledgeCallable = mock(UnaryCallable.class);
+        modifyAckDeadlineCallable = mock(UnaryCallable.class);
+        when(subscriber.pullCallable()).thenReturn(pullCallable);
+        when(subscriber.acknowledgeCallable()).thenReturn(acknowledgeCallable);
+        when(subscriber.modifyAckDeadlineCallable()).thenReturn(modifyAckDeadlineCallable);
+
+        batchMergeHandler = mock(BatchMergeHandler.class);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void processBatches_drainsSubscription(int pipelineDepth) throws Exception {
+        // 2 full batches, then a partial one, then nothing
+        when(pullCallable.call(any(PullRequest.class)))
+            .thenReturn(response(0, BATCH_SIZE), response(2, BATCH_SIZE), response(4, 1), response(5, 0));
+
+        handler(pipelineDepth, 60).processBatches(subscriber);
+
+        verify(batchMergeHandler, times(3)).handleBatch(any());
+
+        ArgumentCaptor<AcknowledgeRequest> acks = ArgumentCaptor.forClass(AcknowledgeRequest.class);
+        verify(acknowledgeCallable, times(3)).call(acks.capture());
+        assertEquals(List.of("ack-0", "ack-1", "ack-2", "ack-3", "ack-4"),
+            acks.getAllValues().stream().flatMap(r -> r.getAckIdsList().stream()).collect(Collectors.toList()));
+
+        if (pipelineDepth == 1) {
+            verify(pullCallable, times(3)).call(any(PullRequest.class));
+            verifyNoInteractions(modifyAckDeadlineCallable);
+        } else {
+            // prefetched batches have ack deadlines extended, not released
+            ArgumentCaptor<ModifyAckDeadlineRequest> modifications = ArgumentCaptor.forClass(ModifyAckDeadlineRequest.class);
+            verify(modifyAckDeadlineCallable, atLeastOnce()).call(modifications.capture());
+            modifications.getAllValues().forEach(r -> assertEquals(60, r.getAckDeadlineSeconds()));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2})
+    void processBatches_noMessages(int pipelineDepth) throws Exception {
+        when(pullCallable.call(any(PullRequest.class))).thenReturn(response(0, 0));
+
+        handler(pipelineDepth, 60).processBatches(subscriber);
+
+        verify(pullCallable, times(1)).call(any(PullRequest.class));
+        verifyNoInteractions(batchMergeHandler, acknowledgeCallable);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2})
+    void processBatches_timeout(int pipelineDepth) throws Exception {
+        when(pullCallable.call(any(PullRequest.class)))
+            .thenReturn(response(0, BATCH_SIZE), response(2, BATCH_SIZE));
+
+        // timeout already reached once first batch pulled, so only that one processed
+        handler(pipelineDepth, 0).processBatches(subscriber);
+
+        verify(batchMergeHandler, times(1)).handleBatch(any());
+        verify(pullCallable, times(1)).call(any(PullRequest.class));
+    }
+
+    @Test
+    void processBatches_failure_releasesInFlightPrefetch() {
+        CountDownLatch failed = new CountDownLatch(1);
+        when(pullCallable.call(any(PullRequest.class)))
+            .thenReturn(response(0, BATCH_SIZE))
+            .thenAnswer(invocation -> {
+                // prefetch still in flight when processing of first batch fails
+                failed.await(5, TimeUnit.SECONDS);
+                Thread.sleep(100);
+                return response(2, BATCH_SIZE);
+            });
+        doAnswer(invocation -> {
+            failed.countDown();
+            throw new IllegalStateException("failed to write batch");
+        }).when(batchMergeHandler).handleBatch(any());
+
+        assertThrows(IllegalStateException.class, () -> handler(2, 60).processBatches(subscriber));
+
+        verifyNoInteractions(acknowledgeCallable);
+        ArgumentCaptor<ModifyAckDeadlineRequest> modifications = ArgumentCaptor.forClass(ModifyAckDeadlineRequest.class);
+        verify(modifyAckDeadlineCallable, times(2)).call(modifications.capture());
+        // extended once prefetched, then released for redelivery
+        assertEquals(60, modifications.getAllValues().get(0).getAckDeadlineSeconds());
+        assertEquals(0, modifications.getAllValues().get(1).getAckDeadlineSeconds());
+        assertEquals(List.of("ack-2", "ack-3"), modifications.getAllValues().get(1).getAckIdsList());
+    }
+
+    GcpWebhookCollectionHandler handler(int pipelineDepth, int timeoutSeconds) {
+        GcpEnvironment.GcpWebhookCollectorModeConfig config = GcpEnvironment.GcpWebhookCollectorModeConfig.builder()
+            .batchMergeSubscription("projects/my-project/subscriptions/my-subscription")
+            .batchSize(BATCH_SIZE)
+            .batchInvocationTimeoutSeconds(timeoutSeconds)
+            .batchPipelineDepth(pipelineDepth)
+            .build();
+
+        return new GcpWebhookCollectionHandler(
+            mock(InboundWebhookHandler.class),
+            null,
+            null,
+            batchMergeHandler,
+            mock(JwksDecorator.Factory.class),
+            null,
+            WebhookCollectorModeConfig.builder().build(),
+            null,
+            () -> config
+        );
+    }
+
+    PullResponse response(int firstId, int count) {
+        return PullResponse.newBuilder()
+            .addAllReceivedMessages(IntStream.range(firstId, firstId + count)
+                .mapToObj(i -> ReceivedMessage.newBuilder()
+                    .setAckId("ack-" + i)
+                    .setMessage(PubsubMessage.newBuilder().setData(ByteString.copyFromUtf8("{\"i\":" + i + "}")))
+                    .build())
+                .collect(Collectors.toList()))
+            .build();
+    }
+}
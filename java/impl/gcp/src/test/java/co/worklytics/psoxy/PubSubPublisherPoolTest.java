@@ -0,0 +1,52 @@
+package co.worklytics.psoxy;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.time.Duration;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import com.google.api.gax.batching.BatchingSettings;
+import com.google.api.gax.batching.FlowController;
+import co.worklytics.psoxy.gateway.ConfigService;
+
+class PubSubPublisherPoolTest {
+
+    @Test
+    void config_defaults() {
+        ConfigService configService = mock(ConfigService.class);
+        when(configService.getConfigPropertyAsOptional(any())).thenReturn(Optional.empty());
+
+        GcpEnvironment.GcpPubSubPublisherConfig config =
+            GcpEnvironment.GcpPubSubPublisherConfig.fromConfigService(configService);
+
+        assertEquals(GcpEnvironment.GcpPubSubPublisherConfig.builder().build(), config);
+        // min supported; as callers await publication
+        assertEquals(Duration.ofMillis(1), config.getBatchDelay());
+    }
+
+    @Test
+    void batchingSettings() {
+        ConfigService configService = mock(ConfigService.class);
+        when(configService.getConfigPropertyAsOptional(any())).thenReturn(Optional.empty());
+        when(configService.getConfigPropertyAsOptional(
+            GcpEnvironment.GcpPubSubPublisherConfig.GcpPubSubPublisherConfigProperty.PUBSUB_BATCH_ELEMENT_COUNT))
+            .thenReturn(Optional.of("50"));
+        when(configService.getConfigPropertyAsOptional(
+            GcpEnvironment.GcpPubSubPublisherConfig.GcpPubSubPublisherConfigProperty.PUBSUB_BATCH_DELAY_MS))
+            .thenReturn(Optional.of("25"));
+
+        PubSubPublisherPool pool = new PubSubPublisherPool(
+            GcpEnvironment.GcpPubSubPublisherConfig.fromConfigService(configService));
+
+        BatchingSettings settings = pool.batchingSettings();
+        assertEquals(50L, settings.getElementCountThreshold().longValue());
+        assertEquals(1000L, settings.getRequestByteThreshold().longValue());
+        assertEquals(Duration.ofMillis(25), settings.getDelayThresholdDuration());
+        assertEquals(1000L, settings.getFlowControlSettings().getMaxOutstandingElementCount().longValue());
+        assertEquals(10L * 1024 * 1024, settings.getFlowControlSettings().getMaxOutstandingRequestBytes().longValue());
+        assertEquals(FlowController.LimitExceededBehavior.Block,
+            settings.getFlowControlSettings().getLimitExceededBehavior());
+    }
+}